@@ -0,0 +1,54 @@
+package com.ds.gateway.application.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.io.IOException;
+
+/**
+ * Conditional GET for the read endpoints the mobile apps poll on every screen visit
+ * (parcels, assignments / task lists, conversations).
+ * <p>
+ * The gateway re-serializes downstream bodies, so validators are computed here from the final body:
+ * the response gets a strong ETag, and a request whose If-None-Match matches is answered with an
+ * empty 304. "Cache-Control: private, no-cache" lets the app's HTTP cache store the body but always
+ * revalidate it (user-specific data, must never be served stale).
+ */
+@Configuration
+public class ConditionalGetConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> conditionalGetFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new RevalidatingEtagFilter());
+        registration.addUrlPatterns(
+                "/api/v1/parcels/*",
+                "/api/v1/assignments/*",
+                "/api/v1/conversations",
+                "/api/v1/conversations/*");
+        registration.setName("conditionalGetFilter");
+        return registration;
+    }
+
+    static class RevalidatingEtagFilter extends ShallowEtagHeaderFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            if (!"GET".equals(request.getMethod())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            if (!isAsyncDispatch(request)) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            }
+            super.doFilterInternal(request, response, filterChain);
+        }
+    }
+}
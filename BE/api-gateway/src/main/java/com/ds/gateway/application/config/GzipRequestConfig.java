@@ -0,0 +1,209 @@
+package com.ds.gateway.application.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Gzip request bodies for the ingestion endpoints the mobile apps batch into
+ * (shipper location batches).
+ * <p>
+ * The app compresses each batch ("Content-Encoding: gzip"); JSON fixes compress well, so a batch
+ * costs a fraction of the radio time. Bodies are inflated here, before the controller binds them,
+ * with a cap on the inflated size so a small compressed body cannot expand without bound.
+ */
+@Configuration
+public class GzipRequestConfig {
+
+    @Bean
+    public FilterRegistrationBean<GzipRequestFilter> gzipRequestFilter(
+            @Value("${gateway.gzip-request.max-inflated-bytes:2097152}") int maxInflatedBytes) {
+        FilterRegistrationBean<GzipRequestFilter> registration = new FilterRegistrationBean<>(new GzipRequestFilter(maxInflatedBytes));
+        registration.addUrlPatterns("/api/v1/tracking/locations");
+        registration.setName("gzipRequestFilter");
+        return registration;
+    }
+
+    static class GzipRequestFilter extends OncePerRequestFilter {
+
+        private final int maxInflatedBytes;
+
+        GzipRequestFilter(int maxInflatedBytes) {
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+            if (encoding == null || !"gzip".equalsIgnoreCase(encoding.trim())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            byte[] body;
+            try {
+                body = inflate(request.getInputStream());
+            } catch (ZipException | EOFException e) {
+                // Not gzip, corrupt, or truncated (EOFException): the client's fault, not ours
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Malformed gzip body");
+                return;
+            } catch (InflatedSizeExceededException e) {
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            filterChain.doFilter(new InflatedRequest(request, body), response);
+        }
+
+        private byte[] inflate(InputStream compressed) throws IOException {
+            try (GZIPInputStream in = new GZIPInputStream(compressed, 8192)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (out.size() + read > maxInflatedBytes) {
+                        throw new InflatedSizeExceededException();
+                    }
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            }
+        }
+    }
+
+    static class InflatedSizeExceededException extends IOException {
+    }
+
+    /**
+     * The request as the controller sees it: plain body, no Content-Encoding, real Content-Length
+     */
+    static class InflatedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        InflatedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * Non-blocking readers: the whole body is already in memory, so it is available
+                 * (and fully read) as soon as the listener is set. The wrapped stream was consumed
+                 * by inflate() and cannot be delegated to.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (listener == null) {
+                        throw new NullPointerException("ReadListener is null");
+                    }
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (Throwable t) {
+                        listener.onError(t);
+                    }
+                }
+            };
+        }
+
+        /**
+         * Same inflated body as getInputStream(); the wrapped reader would decode the compressed bytes
+         */
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return null;
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return String.valueOf(body.length);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.enumeration(Collections.singletonList(String.valueOf(body.length)));
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name))
+                    .toList());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ds.gateway.application.configs;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -41,11 +42,17 @@ public class WebClientConfig {
                 .build();
     }
 
+    /**
+     * Zone pages carry polygons and are read whole by the zone resolver / destination index loaders,
+     * so the in-memory limit is raised from the 256KB default
+     */
     @Bean("zoneServiceWebClient")
     public WebClient zoneServiceWebClient(
-            @Value("${services.zone.base-url}") String baseUrl) {
+            @Value("${services.zone.base-url}") String baseUrl,
+            @Value("${services.zone.max-in-memory-size:16MB}") DataSize maxInMemorySize) {
         return WebClient.builder()
                 .baseUrl(baseUrl)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
                 .build();
     }
 
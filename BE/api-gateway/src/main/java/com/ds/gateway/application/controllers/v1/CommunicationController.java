@@ -4,6 +4,10 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,10 +22,14 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
 
 import com.ds.gateway.annotations.AuthRequired;
+import com.ds.gateway.application.security.UserContext;
 import com.ds.gateway.business.v1.services.ConversationEnrichmentService;
+import com.ds.gateway.business.v1.services.PassthroughProxyService;
 import com.ds.gateway.common.entities.dto.communicate.ConversationRequest;
 import com.ds.gateway.common.entities.dto.communicate.EnrichedConversationResponse;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,6 +45,7 @@ public class CommunicationController {
 
     private final RestTemplate restTemplate;
     private final ConversationEnrichmentService conversationEnrichmentService;
+    private final PassthroughProxyService passthroughProxy;
 
     @Value("${services.communication.base-url}")
     private String communicationServiceUrl;
@@ -210,4 +219,54 @@ public class CommunicationController {
         restTemplate.delete(url);
         return ResponseEntity.noContent().build();
     }
+
+    // ============================================
+    // Location Tracking Endpoints
+    // ============================================
+
+    /**
+     * Upload a batch of GPS fixes of the current shipper
+     */
+    @PostMapping("/tracking/locations")
+    @AuthRequired
+    public ResponseEntity<?> uploadLocations(@RequestBody Object request) {
+        String userId = UserContext.getCurrentUser().map(UserContext::getUserId).orElse(null);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String url = communicationServiceUrl + "/api/v1/tracking/locations";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-User-Id", userId);
+        return restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(request, headers), Object.class);
+    }
+
+    /**
+     * Latest position of the shipper carrying a parcel
+     */
+    @GetMapping("/tracking/parcels/{parcelId}/location")
+    @AuthRequired
+    public void getParcelLocation(@PathVariable String parcelId, HttpServletRequest request, HttpServletResponse response) {
+        // Raw passthrough: carries X-User-Id for the sender/receiver check and returns 403 as-is
+        passthroughProxy.forward(communicationServiceUrl, request, response);
+    }
+
+    /**
+     * Latest position of a shipper
+     */
+    @GetMapping("/tracking/shippers/{shipperId}/location")
+    @AuthRequired
+    public void getShipperLocation(@PathVariable String shipperId, HttpServletRequest request, HttpServletResponse response) {
+        // Raw passthrough: carries X-User-Id and X-User-Roles for the access check and returns 403 as-is
+        passthroughProxy.forward(communicationServiceUrl, request, response);
+    }
+
+    /**
+     * Downsampled trail of a delivery session
+     */
+    @GetMapping("/tracking/sessions/{sessionId}/trail")
+    @AuthRequired
+    public void getSessionTrail(@PathVariable String sessionId, HttpServletRequest request, HttpServletResponse response) {
+        // Raw passthrough: carries X-User-Id and X-User-Roles for the access check and returns 403 as-is
+        passthroughProxy.forward(communicationServiceUrl, request, response);
+    }
 }
@@ -72,8 +72,19 @@ public class DeliveryAssignmentController {
         return assignmentClient.postponeTask(deliveryManId, parcelId, addInfo);
     }
 
+    @PostMapping("/drivers/{deliveryManId}/actions/batch")
+    public ResponseEntity<?> applyActionBatch(@PathVariable UUID deliveryManId,
+                                              @Valid @RequestBody Object taskActionBatchRequest) {
+        return assignmentClient.applyActionBatch(deliveryManId, taskActionBatchRequest);
+    }
+
     @GetMapping("/current-shipper/parcels/{parcelId}")
     public ResponseEntity<?> lastestShipperForParcel(@PathVariable UUID parcelId) {
         return assignmentClient.lastestShipperForParcel(parcelId);
     }
+
+    @GetMapping("/parcels/{parcelId}/eta")
+    public ResponseEntity<?> parcelEta(@PathVariable UUID parcelId) {
+        return assignmentClient.parcelEta(parcelId);
+    }
 }
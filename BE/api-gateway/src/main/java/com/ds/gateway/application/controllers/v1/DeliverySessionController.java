@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -31,6 +32,15 @@ public class DeliverySessionController {
         return deliverySessionService.getSessionWithAssignments(sessionId);
     }
 
+    /**
+     * Get session task counters (total/completed/failed) without the assignment list
+     */
+    @GetMapping("/{sessionId}/counters")
+    public ResponseEntity<?> getSessionCounters(@PathVariable UUID sessionId) {
+        log.info("Getting task counters for session {}", sessionId);
+        return deliverySessionService.getSessionCounters(sessionId);
+    }
+
     /**
      * API 2: Get demo-route by data from API 1
      * This must be done in api gateway, service layer
@@ -42,6 +52,28 @@ public class DeliverySessionController {
         return deliverySessionService.getDemoRouteForSession(sessionId);
     }
 
+    /**
+     * Route for the remaining stops (demo route request body). Re-requests after a deviation reuse the
+     * cached legs and only recompute the leg to the next stop; forceFull=true recomputes everything.
+     */
+    @PostMapping("/{sessionId}/route")
+    public ResponseEntity<?> getSessionRoute(
+            @PathVariable UUID sessionId,
+            @RequestParam(defaultValue = "false") boolean forceFull,
+            @RequestBody Map<String, Object> routeRequest) {
+        log.info("Getting route for session {} (forceFull={})", sessionId, forceFull);
+        return deliverySessionService.getSessionRoute(sessionId, routeRequest, forceFull);
+    }
+
+    /**
+     * Optimized delivery order for the remaining tasks (computed in session-service, no OSRM call)
+     */
+    @PostMapping("/{sessionId}/route/optimize")
+    public ResponseEntity<?> optimizeSessionRoute(@PathVariable UUID sessionId, @RequestBody Object optimizeRouteRequest) {
+        log.info("Optimizing route for session {}", sessionId);
+        return deliverySessionService.optimizeSessionRoute(sessionId, optimizeRouteRequest);
+    }
+
     /**
      * API 3: Set delivery_assignments status and parcel status
      * This is a nesting query that updates both assignment and parcel status
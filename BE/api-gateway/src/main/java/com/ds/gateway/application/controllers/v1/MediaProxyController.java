@@ -0,0 +1,75 @@
+package com.ds.gateway.application.controllers.v1;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ds.gateway.annotations.AuthRequired;
+import com.ds.gateway.application.security.UserContext;
+import com.ds.gateway.business.v1.services.PassthroughProxyService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * API Gateway proxy for media files of Communication Service (chat images, proof-of-delivery photos)
+ * Bodies are streamed in both directions instead of being read into memory: an upload chunk goes
+ * from the client socket straight to the service, a photo download straight back.
+ * Upstream status codes (201, 206, 304, 409, 416...) and the resume/caching headers are passed through as-is.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/media")
+@RequiredArgsConstructor
+public class MediaProxyController {
+
+    private final PassthroughProxyService passthroughProxy;
+
+    @Value("${services.communication.base-url}")
+    private String communicationServiceUrl;
+
+    @PostMapping("/uploads")
+    @AuthRequired
+    public void createUpload(HttpServletRequest request, HttpServletResponse response) {
+        forward(request, response);
+    }
+
+    @GetMapping("/uploads/{id}")
+    @AuthRequired
+    public void getUpload(HttpServletRequest request, HttpServletResponse response) {
+        forward(request, response);
+    }
+
+    @PutMapping("/uploads/{id}")
+    @AuthRequired
+    public void uploadChunk(HttpServletRequest request, HttpServletResponse response) {
+        forward(request, response);
+    }
+
+    @RequestMapping(value = {"/{id}", "/{id}/thumbnail"}, method = {RequestMethod.GET, RequestMethod.HEAD})
+    @AuthRequired
+    public void getContent(HttpServletRequest request, HttpServletResponse response) {
+        forward(request, response);
+    }
+
+    @GetMapping("/proofs/{parcelId}")
+    @AuthRequired
+    public void listProofs(HttpServletRequest request, HttpServletResponse response) {
+        forward(request, response);
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response) {
+        if (UserContext.getCurrentUser().map(UserContext::getUserId).isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        log.debug("{} {} - Streaming to Communication Service", request.getMethod(), request.getRequestURI());
+        passthroughProxy.forward(communicationServiceUrl, request, response);
+    }
+}
@@ -49,4 +49,9 @@ public class SessionController {
     public ResponseEntity<?> createSessionBatch(@Valid @RequestBody Object createSessionRequest) {
         return sessionServiceClient.createSessionBatch(createSessionRequest);
     }
+
+    @PostMapping("/dispatch/plan")
+    public ResponseEntity<?> planDispatch(@RequestBody Object dispatchPlanRequest) {
+        return sessionServiceClient.planDispatch(dispatchPlanRequest);
+    }
 }
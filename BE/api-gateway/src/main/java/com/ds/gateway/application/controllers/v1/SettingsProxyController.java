@@ -1,5 +1,7 @@
 package com.ds.gateway.application.controllers.v1;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,11 +10,13 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 
 import com.ds.gateway.annotations.AuthRequired;
+import com.ds.gateway.business.v1.services.PassthroughProxyService;
 
 /**
  * API Gateway proxy for Settings Service
  * Settings are always identified by group/key pair
  * Group represents the service/module identifier
+ * Reads are raw passthrough: the response bytes are streamed back without being parsed
  */
 @Slf4j
 @RestController
@@ -21,45 +25,44 @@ import com.ds.gateway.annotations.AuthRequired;
 public class SettingsProxyController {
 
     private final RestTemplate restTemplate;
+    private final PassthroughProxyService passthroughProxy;
 
     @Value("${services.settings.base-url}")
     private String settingsServiceUrl;
 
     @PostMapping
-    public ResponseEntity<?> listSettings(@RequestBody Object query) {
+    public void listSettings(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/settings - Proxying to Settings Service (list)");
-        String url = settingsServiceUrl + "/api/v1/settings";
-        return ResponseEntity.ok(restTemplate.postForObject(url, query, Object.class));
+        passthroughProxy.forward(settingsServiceUrl, request, response);
     }
 
     /**
      * Get all settings by group (service identifier)
      */
     @GetMapping("/{group}")
-    public ResponseEntity<?> getSettingsByGroup(@PathVariable String group) {
+    public void getSettingsByGroup(@PathVariable String group, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/settings/{} - Proxying to Settings Service", group);
-        String url = settingsServiceUrl + "/api/v1/settings/" + group;
-        return ResponseEntity.ok(restTemplate.getForObject(url, Object.class));
+        passthroughProxy.forward(settingsServiceUrl, request, response);
     }
 
     /**
      * Get setting by group and key pair
      */
     @GetMapping("/{group}/{key}")
-    public ResponseEntity<?> getSetting(@PathVariable String group, @PathVariable String key) {
+    public void getSetting(@PathVariable String group, @PathVariable String key,
+                           HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/settings/{}/{} - Proxying to Settings Service", group, key);
-        String url = settingsServiceUrl + "/api/v1/settings/" + group + "/" + key;
-        return ResponseEntity.ok(restTemplate.getForObject(url, Object.class));
+        passthroughProxy.forward(settingsServiceUrl, request, response);
     }
 
     /**
      * Get setting value only by group and key pair
      */
     @GetMapping("/{group}/{key}/value")
-    public ResponseEntity<String> getSettingValue(@PathVariable String group, @PathVariable String key) {
+    public void getSettingValue(@PathVariable String group, @PathVariable String key,
+                                HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/settings/{}/{}/value - Proxying to Settings Service", group, key);
-        String url = settingsServiceUrl + "/api/v1/settings/" + group + "/" + key + "/value";
-        return ResponseEntity.ok(restTemplate.getForObject(url, String.class));
+        passthroughProxy.forward(settingsServiceUrl, request, response);
     }
 
     /**
@@ -1,6 +1,9 @@
 package com.ds.gateway.application.controllers.v1;
 
+import com.ds.gateway.business.v1.services.PassthroughProxyService;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,6 +16,7 @@ import org.springframework.web.client.RestTemplate;
 /**
  * Proxy controller for User Address endpoints - V1
  * Forwards requests to User Service
+ * Reads and creates are raw passthrough (upstream status and body bytes returned unchanged)
  */
 @Slf4j
 @RestController
@@ -21,6 +25,7 @@ import org.springframework.web.client.RestTemplate;
 public class UserAddressProxyController {
 
     private final RestTemplate restTemplate;
+    private final PassthroughProxyService passthroughProxy;
 
     @Value("${services.user.base-url}")
     private String userServiceBaseUrl;
@@ -34,47 +39,27 @@ public class UserAddressProxyController {
 
     // Client endpoints (current user)
     @PostMapping("/me/addresses")
-    public ResponseEntity<?> createMyAddress(@RequestHeader(value = "X-User-Id", required = false) String userId, @RequestBody Object requestBody) {
+    public void createMyAddress(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/users/me/addresses - proxy to User Service");
-        try {
-            return restTemplate.postForEntity(userAddressUrl + "/me/addresses", requestBody, Object.class);
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
-            log.error("User address proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsString());
-        }
+        passthroughProxy.forward(userServiceBaseUrl, request, response);
     }
 
     @GetMapping("/me/addresses")
-    public ResponseEntity<?> getMyAddresses(@RequestHeader(value = "X-User-Id", required = false) String userId) {
+    public void getMyAddresses(HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/users/me/addresses - proxy to User Service");
-        try {
-            return restTemplate.getForEntity(userAddressUrl + "/me/addresses", Object.class);
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
-            log.error("User address proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsString());
-        }
+        passthroughProxy.forward(userServiceBaseUrl, request, response);
     }
 
     @GetMapping("/me/addresses/primary")
-    public ResponseEntity<?> getMyPrimaryAddress(@RequestHeader(value = "X-User-Id", required = false) String userId) {
+    public void getMyPrimaryAddress(HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/users/me/addresses/primary - proxy to User Service");
-        try {
-            return restTemplate.getForEntity(userAddressUrl + "/me/addresses/primary", Object.class);
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
-            log.error("User address proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsString());
-        }
+        passthroughProxy.forward(userServiceBaseUrl, request, response);
     }
 
     @GetMapping("/me/addresses/{addressId}")
-    public ResponseEntity<?> getMyAddress(@PathVariable String addressId, @RequestHeader(value = "X-User-Id", required = false) String userId) {
+    public void getMyAddress(@PathVariable String addressId, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/users/me/addresses/{} - proxy to User Service", addressId);
-        try {
-            return restTemplate.getForEntity(userAddressUrl + "/me/addresses/" + addressId, Object.class);
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
-            log.error("User address proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsString());
-        }
+        passthroughProxy.forward(userServiceBaseUrl, request, response);
     }
 
     @PutMapping("/me/addresses/{addressId}")
@@ -115,36 +100,21 @@ public class UserAddressProxyController {
 
     // Admin endpoints (any user)
     @PostMapping("/{userId}/addresses")
-    public ResponseEntity<?> createUserAddress(@PathVariable String userId, @RequestBody Object requestBody) {
+    public void createUserAddress(@PathVariable String userId, HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/users/{}/addresses - proxy to User Service (Admin)", userId);
-        try {
-            return restTemplate.postForEntity(userAddressUrl + "/" + userId + "/addresses", requestBody, Object.class);
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
-            log.error("User address proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsString());
-        }
+        passthroughProxy.forward(userServiceBaseUrl, request, response);
     }
 
     @GetMapping("/{userId}/addresses")
-    public ResponseEntity<?> getUserAddresses(@PathVariable String userId) {
+    public void getUserAddresses(@PathVariable String userId, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/users/{}/addresses - proxy to User Service (Admin)", userId);
-        try {
-            return restTemplate.getForEntity(userAddressUrl + "/" + userId + "/addresses", Object.class);
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
-            log.error("User address proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsString());
-        }
+        passthroughProxy.forward(userServiceBaseUrl, request, response);
     }
 
     @GetMapping("/{userId}/addresses/{addressId}")
-    public ResponseEntity<?> getUserAddress(@PathVariable String userId, @PathVariable String addressId) {
+    public void getUserAddress(@PathVariable String userId, @PathVariable String addressId, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/users/{}/addresses/{} - proxy to User Service (Admin)", userId, addressId);
-        try {
-            return restTemplate.getForEntity(userAddressUrl + "/" + userId + "/addresses/" + addressId, Object.class);
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
-            log.error("User address proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(ex.getStatusCode()).body(ex.getResponseBodyAsString());
-        }
+        passthroughProxy.forward(userServiceBaseUrl, request, response);
     }
 
     @PutMapping("/{userId}/addresses/{addressId}")
@@ -1,17 +1,28 @@
 package com.ds.gateway.application.controllers.v1;
 
+import com.ds.gateway.business.v1.services.DestinationIndexService;
+import com.ds.gateway.business.v1.services.PassthroughProxyService;
+import com.ds.gateway.business.v1.services.ZoneResolverService;
+import com.ds.gateway.common.entities.dto.common.BaseResponse;
+import com.ds.gateway.common.entities.dto.zone.ResolveZonesRequest;
+import com.ds.gateway.common.exceptions.ServiceUnavailableException;
 import com.ds.gateway.common.interfaces.IZoneServiceClient;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * API Gateway controller delegating to business layer for Zone Service calls
+ * Routes that return the service response unchanged use the raw passthrough (no JSON parse/re-serialize);
+ * routes that unwrap, index or cache the body still go through IZoneServiceClient.
  */
 @Slf4j
 @RestController
@@ -20,6 +31,12 @@ import java.util.Map;
 public class ZoneProxyController {
 
     private final IZoneServiceClient zoneServiceClient;
+    private final DestinationIndexService destinationIndexService;
+    private final ZoneResolverService zoneResolverService;
+    private final PassthroughProxyService passthroughProxy;
+
+    @Value("${services.zone.base-url}")
+    private String zoneServiceUrl;
 
     private Map<String, String> extractQueryParams(HttpServletRequest request) {
         Map<String, String> params = new HashMap<>();
@@ -31,10 +48,22 @@ public class ZoneProxyController {
         return params;
     }
 
+    /**
+     * OSRM management endpoints live at /osrm/** on the service (no /api/v1 prefix)
+     */
+    private static String osrmPath(HttpServletRequest request) {
+        return request.getRequestURI().substring("/api/v1".length());
+    }
+
+    private ResponseEntity<?> indexed(Object address) {
+        destinationIndexService.onAddressSaved(address);
+        return ResponseEntity.ok(address);
+    }
+
     @GetMapping("/zone/health")
-    public ResponseEntity<?> zoneHealth() {
+    public void zoneHealth(HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/zone/health");
-        return zoneServiceClient.health().thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, "/health", request, response);
     }
 
     @PostMapping("/zones")
@@ -44,33 +73,36 @@ public class ZoneProxyController {
     }
 
     @GetMapping("/zones/{id}")
-    public ResponseEntity<?> getZoneById(@PathVariable String id) {
+    public void getZoneById(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/zones/{}", id);
-        return zoneServiceClient.getZoneById(id).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/zones/code/{code}")
-    public ResponseEntity<?> getZoneByCode(@PathVariable String code) {
+    public void getZoneByCode(@PathVariable String code, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/zones/code/{}", code);
-        return zoneServiceClient.getZoneByCode(code).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/zones/center/{centerId}")
-    public ResponseEntity<?> getZonesByCenter(@PathVariable String centerId) {
+    public void getZonesByCenter(@PathVariable String centerId, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/zones/center/{}", centerId);
-        return zoneServiceClient.getZonesByCenter(centerId).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @PostMapping("/zones/create")
     public ResponseEntity<?> createZone(@RequestBody Object requestBody) {
         log.info("POST /api/v1/zones/create");
-        return zoneServiceClient.createZone(requestBody).thenApply(ResponseEntity::ok).join();
+        ResponseEntity<?> response = zoneServiceClient.createZone(requestBody).thenApply(ResponseEntity::ok).join();
+        zoneResolverService.invalidate();
+        return response;
     }
 
     @PutMapping("/zones/{id}")
     public ResponseEntity<?> updateZone(@PathVariable String id, @RequestBody Object requestBody) {
         log.info("PUT /api/v1/zones/{}", id);
         zoneServiceClient.updateZone(id, requestBody).join();
+        zoneResolverService.invalidate();
         return ResponseEntity.ok().build();
     }
 
@@ -78,9 +110,28 @@ public class ZoneProxyController {
     public ResponseEntity<?> deleteZone(@PathVariable String id) {
         log.info("DELETE /api/v1/zones/{}", id);
         zoneServiceClient.deleteZone(id).join();
+        zoneResolverService.invalidate();
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/zones/resolve")
+    public ResponseEntity<?> resolveZone(@RequestParam double lat, @RequestParam double lon) {
+        log.debug("GET /api/v1/zones/resolve lat={} lon={}", lat, lon);
+        return ResponseEntity.ok(BaseResponse.success(zoneResolverService.resolve(lat, lon).orElse(null)));
+    }
+
+    @PostMapping("/zones/resolve")
+    public ResponseEntity<?> resolveZones(@RequestBody ResolveZonesRequest request) {
+        List<ResolveZonesRequest.Point> points = request.getPoints() != null ? request.getPoints() : List.of();
+        log.info("POST /api/v1/zones/resolve for {} points", points.size());
+        List<double[]> latLons = points.stream()
+                .map(point -> point != null && point.getLat() != null && point.getLon() != null
+                        ? new double[]{point.getLat(), point.getLon()}
+                        : null)
+                .toList();
+        return ResponseEntity.ok(BaseResponse.success(zoneResolverService.resolveAll(latLons)));
+    }
+
     @GetMapping("/zones/filterable-fields")
     public ResponseEntity<?> getFilterableFields() {
         log.info("GET /api/v1/zones/filterable-fields");
@@ -95,28 +146,27 @@ public class ZoneProxyController {
 
     // Center endpoints
     @GetMapping("/centers")
-    public ResponseEntity<?> listCenters(HttpServletRequest request) {
-        Map<String, String> params = extractQueryParams(request);
-        log.info("GET /api/v1/centers with params: {}", params);
-        return zoneServiceClient.listCenters(params).thenApply(ResponseEntity::ok).join();
+    public void listCenters(HttpServletRequest request, HttpServletResponse response) {
+        log.info("GET /api/v1/centers with query: {}", request.getQueryString());
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/centers/{id}")
-    public ResponseEntity<?> getCenterById(@PathVariable String id) {
+    public void getCenterById(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/centers/{}", id);
-        return zoneServiceClient.getCenterById(id).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/centers/code/{code}")
-    public ResponseEntity<?> getCenterByCode(@PathVariable String code) {
+    public void getCenterByCode(@PathVariable String code, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/centers/code/{}", code);
-        return zoneServiceClient.getCenterByCode(code).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @PostMapping("/centers")
-    public ResponseEntity<?> createCenter(@RequestBody Object requestBody) {
+    public void createCenter(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/centers");
-        return zoneServiceClient.createCenter(requestBody).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @PutMapping("/centers/{id}")
@@ -135,156 +185,170 @@ public class ZoneProxyController {
 
     // Routing endpoints
     @PostMapping("/routing/route")
-    public ResponseEntity<?> calculateRoute(@RequestBody Object requestBody) {
+    public void calculateRoute(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/routing/route");
-        return zoneServiceClient.calculateRoute(requestBody).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @PostMapping("/routing/demo-route")
-    public ResponseEntity<?> calculateDemoRoute(@RequestBody Object requestBody) {
+    public void calculateDemoRoute(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/routing/demo-route");
-        return zoneServiceClient.calculateDemoRoute(requestBody).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/routing/osrm-status")
-    public ResponseEntity<?> getOsrmStatus() {
+    public void getOsrmStatus(HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/routing/osrm-status");
-        return zoneServiceClient.getOsrmStatus().thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     // Address endpoints
     @GetMapping("/addresses")
-    public ResponseEntity<?> listAddresses(HttpServletRequest request) {
-        Map<String, String> params = extractQueryParams(request);
-        log.info("GET /api/v1/addresses with params: {}", params);
-        return zoneServiceClient.listAddresses(params).thenApply(ResponseEntity::ok).join();
+    public void listAddresses(HttpServletRequest request, HttpServletResponse response) {
+        log.info("GET /api/v1/addresses with query: {}", request.getQueryString());
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/addresses/{id}")
-    public ResponseEntity<?> getAddressById(@PathVariable String id) {
+    public void getAddressById(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/addresses/{}", id);
-        return zoneServiceClient.getAddressById(id).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/addresses/nearest")
     public ResponseEntity<?> getNearestAddresses(HttpServletRequest request) {
         Map<String, String> params = extractQueryParams(request);
         log.info("GET /api/v1/addresses/nearest with params: {}", params);
-        return zoneServiceClient.getNearestAddresses(params).thenApply(ResponseEntity::ok).join();
+        return destinationIndexService.nearest(params)
+                .<ResponseEntity<?>>map(addresses -> ResponseEntity.ok(Map.of("result", addresses)))
+                .orElseGet(() -> zoneServiceClient.getNearestAddresses(params).thenApply(ResponseEntity::ok).join());
+    }
+
+    @GetMapping("/addresses/within")
+    public ResponseEntity<?> getAddressesWithin(@RequestParam double lat, @RequestParam double lon,
+                                                @RequestParam(defaultValue = "1000") double radius,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        log.info("GET /api/v1/addresses/within lat={} lon={} radius={}", lat, lon, radius);
+        return destinationIndexService.withinRadius(lat, lon, radius, Math.min(limit, 1000))
+                .<ResponseEntity<?>>map(addresses -> ResponseEntity.ok(Map.of("result", addresses)))
+                .orElseThrow(() -> new ServiceUnavailableException("Destination index is still loading"));
     }
 
     @GetMapping("/addresses/by-point")
-    public ResponseEntity<?> getAddressesByPoint(HttpServletRequest request) {
-        Map<String, String> params = extractQueryParams(request);
-        log.info("GET /api/v1/addresses/by-point with params: {}", params);
-        return zoneServiceClient.getAddressesByPoint(params).thenApply(ResponseEntity::ok).join();
+    public void getAddressesByPoint(HttpServletRequest request, HttpServletResponse response) {
+        log.info("GET /api/v1/addresses/by-point with query: {}", request.getQueryString());
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/addresses/search")
-    public ResponseEntity<?> searchAddresses(HttpServletRequest request) {
-        Map<String, String> params = extractQueryParams(request);
-        log.info("GET /api/v1/addresses/search with params: {}", params);
-        return zoneServiceClient.searchAddresses(params).thenApply(ResponseEntity::ok).join();
+    public void searchAddresses(HttpServletRequest request, HttpServletResponse response) {
+        log.info("GET /api/v1/addresses/search with query: {}", request.getQueryString());
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @PostMapping("/addresses")
     public ResponseEntity<?> createAddress(@RequestBody Object requestBody) {
         log.info("POST /api/v1/addresses");
-        return zoneServiceClient.createAddress(requestBody).thenApply(ResponseEntity::ok).join();
+        return zoneServiceClient.createAddress(requestBody).thenApply(this::indexed).join();
     }
 
     @PostMapping("/addresses/get-or-create")
     public ResponseEntity<?> getOrCreateAddress(@RequestBody Object requestBody, HttpServletRequest request) {
         Map<String, String> params = extractQueryParams(request);
         log.info("POST /api/v1/addresses/get-or-create with params: {}", params);
-        return zoneServiceClient.getOrCreateAddress(requestBody, params).thenApply(ResponseEntity::ok).join();
+        return zoneServiceClient.getOrCreateAddress(requestBody, params).thenApply(this::indexed).join();
     }
 
     @PutMapping("/addresses/{id}")
     public ResponseEntity<?> updateAddress(@PathVariable String id, @RequestBody Object requestBody) {
         log.info("PUT /api/v1/addresses/{}", id);
-        return zoneServiceClient.updateAddress(id, requestBody).thenApply(ResponseEntity::ok).join();
+        return zoneServiceClient.updateAddress(id, requestBody).thenApply(this::indexed).join();
     }
 
     @DeleteMapping("/addresses/{id}")
     public ResponseEntity<?> deleteAddress(@PathVariable String id) {
         log.info("DELETE /api/v1/addresses/{}", id);
         zoneServiceClient.deleteAddress(id).join();
+        destinationIndexService.onAddressDeleted(id);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/addresses/batch")
-    public ResponseEntity<?> batchImportAddresses(@RequestBody Object requestBody) {
+    public void batchImportAddresses(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/addresses/batch");
-        return zoneServiceClient.batchImportAddresses(requestBody).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, request, response);
+    }
+
+    @PostMapping("/addresses/by-ids")
+    public void getAddressesByIds(HttpServletRequest request, HttpServletResponse response) {
+        log.info("POST /api/v1/addresses/by-ids");
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/addresses/segments/{segmentId}")
-    public ResponseEntity<?> getAddressesBySegment(@PathVariable String segmentId, HttpServletRequest request) {
-        Map<String, String> params = extractQueryParams(request);
-        log.info("GET /api/v1/addresses/segments/{} with params: {}", segmentId, params);
-        return zoneServiceClient.getAddressesBySegment(segmentId, params).thenApply(ResponseEntity::ok).join();
+    public void getAddressesBySegment(@PathVariable String segmentId, HttpServletRequest request, HttpServletResponse response) {
+        log.info("GET /api/v1/addresses/segments/{} with query: {}", segmentId, request.getQueryString());
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     @GetMapping("/addresses/zones/{zoneId}")
-    public ResponseEntity<?> getAddressesByZone(@PathVariable String zoneId, HttpServletRequest request) {
-        Map<String, String> params = extractQueryParams(request);
-        log.info("GET /api/v1/addresses/zones/{} with params: {}", zoneId, params);
-        return zoneServiceClient.getAddressesByZone(zoneId, params).thenApply(ResponseEntity::ok).join();
+    public void getAddressesByZone(@PathVariable String zoneId, HttpServletRequest request, HttpServletResponse response) {
+        log.info("GET /api/v1/addresses/zones/{} with query: {}", zoneId, request.getQueryString());
+        passthroughProxy.forward(zoneServiceUrl, request, response);
     }
 
     // OSRM Data Management endpoints
     @PostMapping("/osrm/build/{instanceId}")
-    public ResponseEntity<?> buildOSRMInstance(@PathVariable String instanceId) {
+    public void buildOSRMInstance(@PathVariable String instanceId, HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/osrm/build/{}", instanceId);
-        return zoneServiceClient.buildOSRMInstance(instanceId).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @PostMapping("/osrm/build-all")
-    public ResponseEntity<?> buildAllOSRMInstances() {
+    public void buildAllOSRMInstances(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/osrm/build-all");
-        return zoneServiceClient.buildAllOSRMInstances().thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @PostMapping("/osrm/start/{instanceId}")
-    public ResponseEntity<?> startOSRMInstance(@PathVariable String instanceId) {
+    public void startOSRMInstance(@PathVariable String instanceId, HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/osrm/start/{}", instanceId);
-        return zoneServiceClient.startOSRMInstance(instanceId).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @PostMapping("/osrm/stop/{instanceId}")
-    public ResponseEntity<?> stopOSRMInstance(@PathVariable String instanceId) {
+    public void stopOSRMInstance(@PathVariable String instanceId, HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/osrm/stop/{}", instanceId);
-        return zoneServiceClient.stopOSRMInstance(instanceId).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @PostMapping("/osrm/rolling-restart")
-    public ResponseEntity<?> rollingRestartOSRM() {
+    public void rollingRestartOSRM(HttpServletRequest request, HttpServletResponse response) {
         log.info("POST /api/v1/osrm/rolling-restart");
-        return zoneServiceClient.rollingRestartOSRM().thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @GetMapping("/osrm/status")
-    public ResponseEntity<?> getAllOSRMInstancesStatus() {
+    public void getAllOSRMInstancesStatus(HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/osrm/status");
-        return zoneServiceClient.getAllOSRMInstancesStatus().thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @GetMapping("/osrm/status/{instanceId}")
-    public ResponseEntity<?> getOSRMInstanceStatus(@PathVariable String instanceId) {
+    public void getOSRMInstanceStatus(@PathVariable String instanceId, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/osrm/status/{}", instanceId);
-        return zoneServiceClient.getOSRMInstanceStatus(instanceId).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @GetMapping("/osrm/health")
-    public ResponseEntity<?> getOSRMHealthCheck() {
+    public void getOSRMHealthCheck(HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/osrm/health");
-        return zoneServiceClient.getOSRMHealthCheck().thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 
     @GetMapping("/osrm/validate/{instanceId}")
-    public ResponseEntity<?> validateOSRMData(@PathVariable String instanceId) {
+    public void validateOSRMData(@PathVariable String instanceId, HttpServletRequest request, HttpServletResponse response) {
         log.info("GET /api/v1/osrm/validate/{}", instanceId);
-        return zoneServiceClient.validateOSRMData(instanceId).thenApply(ResponseEntity::ok).join();
+        passthroughProxy.forward(zoneServiceUrl, osrmPath(request), request, response);
     }
 }
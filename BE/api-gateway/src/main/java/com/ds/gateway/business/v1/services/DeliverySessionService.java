@@ -23,6 +23,7 @@ public class DeliverySessionService {
     private final ISessionServiceClient sessionServiceClient;
     private final IZoneServiceClient zoneServiceClient;
     private final IParcelServiceClient parcelServiceClient;
+    private final SessionRouteCache sessionRouteCache;
 
     /**
      * API 1: Get delivery_session and all delivery_assignments in that session
@@ -43,6 +44,22 @@ public class DeliverySessionService {
         }
     }
 
+    /**
+     * Get session task counters (total/completed/failed) without loading assignments
+     */
+    public ResponseEntity<?> getSessionCounters(java.util.UUID sessionId) {
+        log.info("Fetching task counters for session {}", sessionId);
+        return sessionServiceClient.getSessionCounters(sessionId);
+    }
+
+    /**
+     * Optimized delivery order for the remaining tasks of a session
+     */
+    public ResponseEntity<?> optimizeSessionRoute(java.util.UUID sessionId, Object optimizeRouteRequest) {
+        log.info("Optimizing route for session {}", sessionId);
+        return sessionServiceClient.optimizeSessionRoute(sessionId, optimizeRouteRequest);
+    }
+
     /**
      * API 2: Get demo-route by data from API 1
      * This must be done in api gateway, service layer
@@ -69,6 +86,17 @@ public class DeliverySessionService {
                 return ResponseEntity.badRequest().body(Map.of("error", "No assignments found for this session"));
             }
 
+            // Same stop set as the last demo route computed for this session: serve it from cache
+            // (demo routes only: live routes start at the shipper's GPS position and may be spliced)
+            Set<String> parcelIds = new HashSet<>();
+            assignments.forEach(assignment -> parcelIds.add((String) assignment.get("parcelId")));
+            Optional<SessionRouteCache.CachedRoute> cachedRoute = sessionRouteCache.get(sessionId, SessionRouteCache.Kind.DEMO)
+                    .filter(cached -> cached.coversExactly(parcelIds));
+            if (cachedRoute.isPresent()) {
+                log.info("Serving cached route for session {} ({} stops)", sessionId, parcelIds.size());
+                return ResponseEntity.ok(Map.of("result", cachedRoute.get().result()));
+            }
+
             // Step 3: Get parcel details for each assignment to get destination coordinates
             List<CompletableFuture<Map<String, Object>>> parcelFutures = new ArrayList<>();
             List<Map<String, Object>> waypoints = new ArrayList<>();
@@ -123,6 +151,12 @@ public class DeliverySessionService {
 
             CompletableFuture<Object> routeFuture = zoneServiceClient.calculateDemoRoute(routeRequest);
             Object routeResponse = routeFuture.get();
+            if (routeResponse instanceof Map<?, ?> body && body.get("result") instanceof Map<?, ?> result) {
+                List<SessionRouteCache.Stop> order = visitOrderStops((Map<String, Object>) result);
+                if (!order.isEmpty()) {
+                    sessionRouteCache.put(sessionId, SessionRouteCache.Kind.DEMO, order, (Map<String, Object>) result, null);
+                }
+            }
 
             log.info("Successfully calculated demo route for session {} with {} waypoints", sessionId, waypoints.size());
             return ResponseEntity.ok(routeResponse);
@@ -133,6 +167,131 @@ public class DeliverySessionService {
         }
     }
 
+    /**
+     * Route for the remaining stops of a session, with incremental re-routing.
+     * The body is the demo route request (startPoint = current position, priorityGroups = remaining stops).
+     * If the remaining stops are a suffix of the cached visit order (the shipper deviated, or completed
+     * the first stops), only the leg from the current position to the next stop is recomputed and the
+     * cached legs are reused; otherwise (or with forceFull) the whole route is recomputed and cached.
+     */
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> getSessionRoute(java.util.UUID sessionId, Map<String, Object> routeRequest, boolean forceFull) {
+        Map<String, Object> startPoint = (Map<String, Object>) routeRequest.get("startPoint");
+        List<SessionRouteCache.Stop> remaining = extractStops(routeRequest);
+        if (startPoint == null || !(startPoint.get("lat") instanceof Number) || !(startPoint.get("lon") instanceof Number)
+                || remaining.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "startPoint and at least 1 waypoint are required"));
+        }
+        String vehicle = (String) routeRequest.getOrDefault("vehicle", "motorbike");
+
+        try {
+            if (!forceFull) {
+                Optional<Map<String, Object>> rerouted = rerouteFromCache(sessionId, startPoint, remaining, vehicle);
+                if (rerouted.isPresent()) {
+                    return ResponseEntity.ok(Map.of("result", rerouted.get(), "message", "Incremental reroute"));
+                }
+            }
+
+            long started = System.nanoTime();
+            Map<String, Object> response = (Map<String, Object>) zoneServiceClient.calculateDemoRoute(routeRequest).get();
+            Map<String, Object> result = response != null ? (Map<String, Object>) response.get("result") : null;
+            List<SessionRouteCache.Stop> order = result != null ? visitOrderStops(result) : List.of();
+            if (!order.isEmpty()) {
+                sessionRouteCache.put(sessionId, SessionRouteCache.Kind.LIVE, order, result, vehicle);
+            }
+            log.info("Full route for session {}: {} stops in {}ms", sessionId, order.size(), (System.nanoTime() - started) / 1_000_000);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error calculating route for session {}: {}", sessionId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to calculate route: " + e.getMessage()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Map<String, Object>> rerouteFromCache(java.util.UUID sessionId, Map<String, Object> startPoint,
+                                                            List<SessionRouteCache.Stop> remaining, String vehicle) throws Exception {
+        Optional<SessionRouteCache.CachedRoute> cachedRoute = sessionRouteCache.get(sessionId, SessionRouteCache.Kind.LIVE);
+        if (cachedRoute.isEmpty() || !Objects.equals(cachedRoute.get().vehicle(), vehicle)) {
+            return Optional.empty();
+        }
+        SessionRouteCache.CachedRoute cached = cachedRoute.get();
+        int first = cached.suffixStart(remaining);
+        if (first < 0) {
+            return Optional.empty();
+        }
+
+        long started = System.nanoTime();
+        SessionRouteCache.Stop next = cached.stops().get(first);
+        Map<String, Object> legRequest = new HashMap<>();
+        legRequest.put("waypoints", List.of(
+                Map.of("lat", startPoint.get("lat"), "lon", startPoint.get("lon")),
+                Map.of("lat", next.lat(), "lon", next.lon(), "parcelId", next.parcelId())));
+        legRequest.put("steps", true);
+        legRequest.put("annotations", true);
+        legRequest.put("vehicle", vehicle);
+
+        Map<String, Object> legResponse = (Map<String, Object>) zoneServiceClient.calculateRoute(legRequest).get();
+        Map<String, Object> legResult = legResponse != null ? (Map<String, Object>) legResponse.get("result") : null;
+        Map<String, Object> legRoute = legResult != null ? (Map<String, Object>) legResult.get("route") : null;
+        List<Object> newLegs = legRoute != null ? (List<Object>) legRoute.get("legs") : null;
+        if (newLegs == null || newLegs.isEmpty()) {
+            log.warn("Incremental reroute for session {} got no leg, falling back to full route", sessionId);
+            return Optional.empty();
+        }
+        Map<String, Object> result = cached.splice(first, (Map<String, Object>) newLegs.get(0));
+        if (result == null) {
+            return Optional.empty();
+        }
+
+        List<SessionRouteCache.Stop> stops = cached.stops().subList(first, cached.stops().size());
+        sessionRouteCache.put(sessionId, SessionRouteCache.Kind.LIVE, stops, result, vehicle);
+        log.info("Incremental reroute for session {}: recomputed 1 leg, reused {} in {}ms",
+                sessionId, stops.size() - 1, (System.nanoTime() - started) / 1_000_000);
+        return Optional.of(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SessionRouteCache.Stop> extractStops(Map<String, Object> routeRequest) {
+        List<SessionRouteCache.Stop> stops = new ArrayList<>();
+        Object groups = routeRequest.get("priorityGroups");
+        if (!(groups instanceof List)) {
+            return stops;
+        }
+        for (Object group : (List<Object>) groups) {
+            Object waypoints = ((Map<String, Object>) group).get("waypoints");
+            if (waypoints instanceof List) {
+                for (Object waypoint : (List<Object>) waypoints) {
+                    stops.add(toStop((Map<String, Object>) waypoint));
+                }
+            }
+        }
+        return stops;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SessionRouteCache.Stop> visitOrderStops(Map<String, Object> result) {
+        Object visitOrder = result.get("visitOrder");
+        if (!(visitOrder instanceof List)) {
+            return List.of();
+        }
+        List<SessionRouteCache.Stop> stops = new ArrayList<>();
+        for (Object entry : (List<Object>) visitOrder) {
+            Object waypoint = ((Map<String, Object>) entry).get("waypoint");
+            if (waypoint instanceof Map) {
+                stops.add(toStop((Map<String, Object>) waypoint));
+            }
+        }
+        return stops;
+    }
+
+    private SessionRouteCache.Stop toStop(Map<String, Object> waypoint) {
+        return new SessionRouteCache.Stop((String) waypoint.get("parcelId"), number(waypoint.get("lat")), number(waypoint.get("lon")));
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0d;
+    }
+
     /**
      * API 3: Set delivery_assignments status and parcel status
      * This is a nesting query that updates both assignment and parcel status
@@ -144,29 +303,19 @@ public class DeliverySessionService {
         log.info("Updating assignment {} and parcel status for session {}", assignmentId, sessionId);
         
         try {
-            // Step 1: Get assignment details to find parcel ID
-            ResponseEntity<?> sessionResponse = sessionServiceClient.getSessionById(sessionId);
-            
-            if (!sessionResponse.getStatusCode().is2xxSuccessful() || sessionResponse.getBody() == null) {
-                log.error("Failed to retrieve session {} for status update", sessionId);
-                return ResponseEntity.status(sessionResponse.getStatusCode()).body(sessionResponse.getBody());
-            }
+            // Step 1: Get only the target assignment to find parcel ID (no full session fetch)
+            ResponseEntity<?> assignmentResponse = sessionServiceClient.getAssignmentInSession(sessionId, assignmentId);
 
-            Map<String, Object> sessionData = (Map<String, Object>) sessionResponse.getBody();
-            List<Map<String, Object>> assignments = (List<Map<String, Object>>) sessionData.get("assignments");
-            
-            Map<String, Object> targetAssignment = null;
-            for (Map<String, Object> assignment : assignments) {
-                if (assignmentId.toString().equals(assignment.get("id").toString())) {
-                    targetAssignment = assignment;
-                    break;
-                }
-            }
-
-            if (targetAssignment == null) {
+            if (assignmentResponse.getStatusCode().value() == 404) {
                 log.error("Assignment {} not found in session {}", assignmentId, sessionId);
                 return ResponseEntity.badRequest().body(Map.of("error", "Assignment not found in this session"));
             }
+            if (!assignmentResponse.getStatusCode().is2xxSuccessful() || assignmentResponse.getBody() == null) {
+                log.error("Failed to retrieve assignment {} of session {} for status update", assignmentId, sessionId);
+                return ResponseEntity.status(assignmentResponse.getStatusCode()).body(assignmentResponse.getBody());
+            }
+
+            Map<String, Object> targetAssignment = (Map<String, Object>) assignmentResponse.getBody();
 
             String parcelId = (String) targetAssignment.get("parcelId");
             if (parcelId == null) {
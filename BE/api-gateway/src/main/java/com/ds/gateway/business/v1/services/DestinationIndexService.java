@@ -0,0 +1,202 @@
+package com.ds.gateway.business.v1.services;
+
+import com.ds.gateway.business.v1.spatial.DestinationIndex;
+import com.ds.gateway.common.interfaces.IZoneServiceClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local index of zone_service addresses answering nearest / radius queries without a round trip.
+ * - Loaded in the background at startup (keyset export from zone_service) and rebuilt periodically,
+ *   so addresses created directly in zone_service show up after at most one refresh interval.
+ * - Addresses created/updated/deleted through the gateway are applied immediately.
+ * - Until the first load completes (or when a query uses filters the index does not handle),
+ *   callers fall back to zone_service.
+ */
+@Service
+@Slf4j
+public class DestinationIndexService {
+
+    private static final Set<String> UNSUPPORTED_FILTERS = Set.of("addressType", "segmentId", "zoneId");
+
+    private final IZoneServiceClient zoneServiceClient;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private volatile DestinationIndex<Map<String, Object>> index;
+    private volatile DestinationIndex<Map<String, Object>> building;
+
+    @Value("${destination-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${destination-index.cell-degrees:0.01}")
+    private double cellDegrees;
+
+    @Value("${destination-index.page-size:5000}")
+    private int pageSize;
+
+    public DestinationIndexService(IZoneServiceClient zoneServiceClient) {
+        this.zoneServiceClient = zoneServiceClient;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            CompletableFuture.runAsync(this::reload);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${destination-index.refresh-interval-ms:600000}",
+            initialDelayString = "${destination-index.refresh-interval-ms:600000}")
+    public void refresh() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /**
+     * Rebuild the index from zone_service into a fresh instance, then swap it in.
+     */
+    public void reload() {
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            DestinationIndex<Map<String, Object>> fresh = new DestinationIndex<>(cellDegrees);
+            building = fresh;
+            String afterId = null;
+            do {
+                Map<String, Object> page = asMap(asMap(zoneServiceClient.exportAddresses(afterId, pageSize).join()).get("result"));
+                Object data = page.get("data");
+                if (data instanceof List<?> addresses) {
+                    addresses.forEach(address -> upsert(fresh, asMap(address)));
+                }
+                afterId = page.get("nextAfterId") != null ? page.get("nextAfterId").toString() : null;
+            } while (afterId != null);
+            index = fresh;
+            log.info("Destination index loaded: {} addresses in {}ms", fresh.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.warn("Destination index load failed, nearest queries keep using {}: {}",
+                    index != null ? "the previous index" : "zone_service", e.getMessage());
+        } finally {
+            building = null;
+            reloading.set(false);
+        }
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Nearest addresses for the /addresses/nearest query parameters (lat, lon, limit, maxDistance),
+     * in zone_service's response shape. Empty when the query must go to zone_service.
+     */
+    public Optional<List<Map<String, Object>>> nearest(Map<String, String> params) {
+        DestinationIndex<Map<String, Object>> current = index;
+        if (current == null || params.keySet().stream().anyMatch(UNSUPPORTED_FILTERS::contains)) {
+            return Optional.empty();
+        }
+        double lat;
+        double lon;
+        int limit;
+        double maxDistance;
+        try {
+            lat = Double.parseDouble(params.get("lat"));
+            lon = Double.parseDouble(params.get("lon"));
+            limit = params.containsKey("limit") ? Math.min(Integer.parseInt(params.get("limit")), 100) : 10;
+            maxDistance = params.containsKey("maxDistance") ? Integer.parseInt(params.get("maxDistance")) : 5000;
+        } catch (NullPointerException | NumberFormatException e) {
+            // Let zone_service produce its validation error
+            return Optional.empty();
+        }
+        return Optional.of(toResults(lat, lon, current.nearest(lat, lon, limit, maxDistance)));
+    }
+
+    /**
+     * Addresses within radiusMeters, nearest first. Empty when the index is not loaded yet.
+     */
+    public Optional<List<Map<String, Object>>> withinRadius(double lat, double lon, double radiusMeters, int limit) {
+        DestinationIndex<Map<String, Object>> current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(toResults(lat, lon, current.withinRadius(lat, lon, radiusMeters, limit)));
+    }
+
+    /**
+     * Index the address contained in a zone_service response body ({result: address}).
+     */
+    public void onAddressSaved(Object responseBody) {
+        try {
+            Map<String, Object> address = asMap(asMap(responseBody).get("result"));
+            DestinationIndex<Map<String, Object>> current = index;
+            DestinationIndex<Map<String, Object>> pending = building;
+            if (current != null) {
+                upsert(current, address);
+            }
+            if (pending != null && pending != current) {
+                upsert(pending, address);
+            }
+        } catch (Exception e) {
+            log.debug("Could not index saved address: {}", e.getMessage());
+        }
+    }
+
+    public void onAddressDeleted(String id) {
+        DestinationIndex<Map<String, Object>> current = index;
+        DestinationIndex<Map<String, Object>> pending = building;
+        if (current != null) {
+            current.remove(id);
+        }
+        if (pending != null) {
+            pending.remove(id);
+        }
+    }
+
+    private static void upsert(DestinationIndex<Map<String, Object>> target, Map<String, Object> address) {
+        Object id = address.get("id");
+        if (id != null && address.get("lat") instanceof Number lat && address.get("lon") instanceof Number lon) {
+            target.upsert(id.toString(), lat.doubleValue(), lon.doubleValue(), address);
+        }
+    }
+
+    private static List<Map<String, Object>> toResults(double lat, double lon, List<DestinationIndex.Neighbor<Map<String, Object>>> neighbors) {
+        List<Map<String, Object>> results = new ArrayList<>(neighbors.size());
+        for (DestinationIndex.Neighbor<Map<String, Object>> neighbor : neighbors) {
+            Map<String, Object> result = new LinkedHashMap<>(neighbor.payload());
+            result.put("distance", neighbor.distanceMeters());
+            result.put("bearing", bearing(lat, lon, neighbor.lat(), neighbor.lon()));
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Initial bearing in degrees [0, 360), same as zone_service's calculateBearing.
+     */
+    static double bearing(double lat1, double lon1, double lat2, double lon2) {
+        double dLon = Math.toRadians(lon2 - lon1);
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double y = Math.sin(dLon) * Math.cos(lat2Rad);
+        double x = Math.cos(lat1Rad) * Math.sin(lat2Rad) - Math.sin(lat1Rad) * Math.cos(lat2Rad) * Math.cos(dLon);
+        return (Math.toDegrees(Math.atan2(y, x)) + 360) % 360;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        throw new IllegalStateException("Unexpected zone_service payload: " + value);
+    }
+}
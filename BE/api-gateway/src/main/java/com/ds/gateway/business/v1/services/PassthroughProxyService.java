@@ -0,0 +1,153 @@
+package com.ds.gateway.business.v1.services;
+
+import com.ds.gateway.application.security.UserContext;
+import com.ds.gateway.common.exceptions.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Raw passthrough to a downstream service for routes where the gateway does not look at the body
+ * - Request and response bodies are streamed as bytes through a small fixed buffer, never parsed into
+ *   Object/Map graphs and re-serialized; memory per request does not grow with the payload
+ * - Upstream status and end-to-end headers (Content-Type, Content-Length, ETag, Cache-Control...)
+ *   are returned as-is, so 4xx from the service reach the client instead of becoming 503
+ * - The caller identity is sent as X-User-Id and X-User-Roles (comma-separated) from the validated token,
+ *   never from the client headers
+ */
+@Slf4j
+@Service
+public class PassthroughProxyService {
+
+    private static final List<String> REQUEST_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_LANGUAGE,
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_MATCH,
+            HttpHeaders.RANGE, HttpHeaders.IF_RANGE, "Upload-Offset");
+
+    // Hop-by-hop headers are per connection; CORS headers are set by the gateway itself
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization");
+    private static final Set<HttpMethod> METHODS_WITH_BODY = Set.of(
+            HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private final RestTemplate restTemplate;
+
+    public PassthroughProxyService(@Value("${gateway.passthrough.connect-timeout-ms:5000}") int connectTimeoutMs,
+                                   @Value("${gateway.passthrough.read-timeout-ms:60000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(connectTimeoutMs);
+        factory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(factory);
+        // Error statuses are forwarded to the client, not thrown
+        this.restTemplate.setErrorHandler(new ResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Forward the current request to the same path on the service
+     */
+    public void forward(String serviceBaseUrl, HttpServletRequest request, HttpServletResponse response) {
+        forward(serviceBaseUrl, request.getRequestURI(), request, response);
+    }
+
+    /**
+     * Forward the current request (method, query string, body) to upstreamPath on the service
+     *
+     * @param upstreamPath already URL-encoded path on the service
+     */
+    public void forward(String serviceBaseUrl, String upstreamPath, HttpServletRequest request, HttpServletResponse response) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        String query = request.getQueryString();
+        URI uri = URI.create(serviceBaseUrl + upstreamPath + (query != null ? "?" + query : ""));
+        boolean withBody = METHODS_WITH_BODY.contains(method)
+                && (request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null);
+        UserContext user = UserContext.getCurrentUser().orElse(null);
+
+        try {
+            restTemplate.execute(uri, method, upstream -> {
+                HttpHeaders headers = upstream.getHeaders();
+                for (String name : REQUEST_HEADERS) {
+                    String value = request.getHeader(name);
+                    if (value != null) {
+                        headers.set(name, value);
+                    }
+                }
+                if (user != null && user.getUserId() != null) {
+                    headers.set("X-User-Id", user.getUserId());
+                    if (user.getRoles() != null && !user.getRoles().isEmpty()) {
+                        headers.set("X-User-Roles", String.join(",", user.getRoles()));
+                    }
+                }
+                if (withBody) {
+                    writeBody(request, upstream);
+                }
+            }, upstream -> {
+                copyResponse(upstream, response);
+                return null;
+            });
+        } catch (ResourceAccessException ex) {
+            // Connection refused / timeout before anything was sent back
+            if (response.isCommitted()) {
+                log.warn("Passthrough to {} failed after response was committed: {}", uri, ex.getMessage());
+                return;
+            }
+            throw new ServiceUnavailableException("Service unavailable: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Streams the request body to the service. getBody() on the request factory's requests buffers the whole
+     * body in memory (Spring 6.1+), setBody() writes it straight to the connection: fixed-length when the client
+     * sent Content-Length, chunked otherwise.
+     */
+    private static void writeBody(HttpServletRequest request, ClientHttpRequest upstream) throws IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength >= 0) {
+            upstream.getHeaders().setContentLength(contentLength);
+        }
+        if (upstream instanceof StreamingHttpOutputMessage streaming) {
+            streaming.setBody(out -> StreamUtils.copy(request.getInputStream(), out));
+        } else {
+            StreamUtils.copy(request.getInputStream(), upstream.getBody());
+        }
+    }
+
+    private static void copyResponse(ClientHttpResponse upstream, HttpServletResponse response) throws IOException {
+        response.setStatus(upstream.getStatusCode().value());
+        for (Map.Entry<String, List<String>> header : upstream.getHeaders().entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (SKIPPED_RESPONSE_HEADERS.contains(name) || name.startsWith("access-control-")) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+        StreamUtils.copy(upstream.getBody(), response.getOutputStream());
+        response.flushBuffer();
+    }
+}
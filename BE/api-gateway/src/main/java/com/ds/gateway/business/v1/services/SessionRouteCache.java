@@ -0,0 +1,196 @@
+package com.ds.gateway.business.v1.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session cache of the last routes computed by zone-service, one entry per kind:
+ * - DEMO: the demo route over all stops of the session (served again while the stop set is unchanged)
+ * - LIVE: the route from the shipper's GPS position; it keeps the visit order (one leg per stop) so that a later
+ *   request whose remaining stops are a suffix of that order can reuse every cached leg and only recompute the
+ *   leg from the shipper's current position to the next stop
+ * The kinds never serve each other: a LIVE route starts at wherever the shipper was and may be spliced.
+ */
+@Component
+@Slf4j
+public class SessionRouteCache {
+
+    private static final double COORDINATE_TOLERANCE = 1e-7;
+
+    public enum Kind {
+        DEMO, LIVE
+    }
+
+    private record Key(UUID sessionId, Kind kind) {
+    }
+
+    private final ConcurrentHashMap<Key, CachedRoute> routes = new ConcurrentHashMap<>();
+    private final long ttlMinutes;
+    private final int maxSessions;
+
+    public SessionRouteCache(@Value("${session-route-cache.ttl-minutes:30}") long ttlMinutes,
+                             @Value("${session-route-cache.max-sessions:10000}") int maxSessions) {
+        this.ttlMinutes = ttlMinutes;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * A stop of the route, in visit order.
+     */
+    public record Stop(String parcelId, double lat, double lon) {
+    }
+
+    /**
+     * Cached route: `result` is the zone-service demo route payload (code, route, visitOrder, summary),
+     * `stops` lists the destination of each leg in the same order.
+     */
+    public record CachedRoute(List<Stop> stops, Map<String, Object> result, String vehicle, Instant cachedAt) {
+
+        /**
+         * Index of the first stop still to visit if `remaining` is exactly a suffix of the cached order, else -1.
+         */
+        public int suffixStart(Collection<Stop> remaining) {
+            int start = stops.size() - remaining.size();
+            if (start < 0) {
+                return -1;
+            }
+            Map<String, Stop> byParcel = new HashMap<>();
+            for (Stop stop : remaining) {
+                if (stop.parcelId() == null || byParcel.put(stop.parcelId(), stop) != null) {
+                    return -1;
+                }
+            }
+            for (int i = start; i < stops.size(); i++) {
+                Stop cached = stops.get(i);
+                Stop requested = byParcel.get(cached.parcelId());
+                if (requested == null
+                        || Math.abs(requested.lat() - cached.lat()) > COORDINATE_TOLERANCE
+                        || Math.abs(requested.lon() - cached.lon()) > COORDINATE_TOLERANCE) {
+                    return -1;
+                }
+            }
+            return start;
+        }
+
+        /**
+         * Whether the route visits exactly these parcels (in any order).
+         */
+        public boolean coversExactly(Set<String> parcelIds) {
+            return stops.size() == parcelIds.size() && stops.stream().allMatch(stop -> parcelIds.contains(stop.parcelId()));
+        }
+
+        /**
+         * Route payload starting with `firstLeg` (current position -> stops[first]) followed by the cached legs after
+         * stops[first]; distance, duration, visitOrder and summary are recomputed for the spliced legs.
+         * The overview geometry is not spliced (null): clients draw each leg from its step geometries.
+         * Cached maps are shared, never mutated.
+         *
+         * @return the spliced payload, or null if the cached payload has no leg per stop
+         */
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> splice(int first, Map<String, Object> firstLeg) {
+            Map<String, Object> cachedRouteBody = (Map<String, Object>) result.get("route");
+            List<Object> cachedLegs = cachedRouteBody != null ? (List<Object>) cachedRouteBody.get("legs") : null;
+            if (first < 0 || first >= stops.size() || cachedLegs == null || cachedLegs.size() != stops.size()) {
+                return null;
+            }
+            Map<String, Object> leg0 = new HashMap<>(firstLeg);
+            leg0.put("parcelId", stops.get(first).parcelId());
+
+            List<Object> legs = new ArrayList<>(cachedLegs.size() - first);
+            legs.add(leg0);
+            legs.addAll(cachedLegs.subList(first + 1, cachedLegs.size()));
+            double distance = 0;
+            double duration = 0;
+            for (Object leg : legs) {
+                distance += number(((Map<String, Object>) leg).get("distance"));
+                duration += number(((Map<String, Object>) leg).get("duration"));
+            }
+
+            Map<String, Object> route = new HashMap<>(cachedRouteBody);
+            route.put("legs", legs);
+            route.put("distance", distance);
+            route.put("duration", duration);
+            route.put("geometry", null);
+
+            Map<String, Object> spliced = new HashMap<>(result);
+            spliced.put("route", route);
+            List<Object> visitOrder = (List<Object>) result.get("visitOrder");
+            if (visitOrder != null && visitOrder.size() == stops.size()) {
+                spliced.put("visitOrder", new ArrayList<>(visitOrder.subList(first, visitOrder.size())));
+            }
+            Map<String, Object> summary = (Map<String, Object>) result.get("summary");
+            if (summary != null) {
+                Map<String, Object> newSummary = new HashMap<>(summary);
+                newSummary.put("totalDistance", distance);
+                newSummary.put("totalDuration", duration);
+                newSummary.put("totalWaypoints", legs.size());
+                spliced.put("summary", newSummary);
+            }
+            return spliced;
+        }
+
+        private static double number(Object value) {
+            return value instanceof Number ? ((Number) value).doubleValue() : 0d;
+        }
+    }
+
+    public Optional<CachedRoute> get(UUID sessionId, Kind kind) {
+        Key key = new Key(sessionId, kind);
+        CachedRoute cached = routes.get(key);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (isExpired(cached, Instant.now())) {
+            routes.remove(key, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    public void put(UUID sessionId, Kind kind, List<Stop> stops, Map<String, Object> result, String vehicle) {
+        routes.put(new Key(sessionId, kind), new CachedRoute(List.copyOf(stops), result, vehicle, Instant.now()));
+        if (routes.size() > maxSessions) {
+            trim();
+        }
+    }
+
+    public void evict(UUID sessionId) {
+        for (Kind kind : Kind.values()) {
+            routes.remove(new Key(sessionId, kind));
+        }
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * Drop expired entries first, then the oldest ones until the cache is back under its bound.
+     */
+    private void trim() {
+        Instant now = Instant.now();
+        routes.entrySet().removeIf(entry -> isExpired(entry.getValue(), now));
+        int excess = routes.size() - maxSessions;
+        if (excess <= 0) {
+            return;
+        }
+        routes.entrySet().stream()
+                .sorted(Comparator.comparing(entry -> entry.getValue().cachedAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(routes::remove);
+        log.debug("Session route cache trimmed by {} entries", excess);
+    }
+
+    private boolean isExpired(CachedRoute cached, Instant now) {
+        return Duration.between(cached.cachedAt(), now).toMinutes() >= ttlMinutes;
+    }
+}
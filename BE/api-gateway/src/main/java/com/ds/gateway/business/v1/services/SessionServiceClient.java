@@ -40,6 +40,27 @@ public class SessionServiceClient implements ISessionServiceClient {
         return callGet(uri);
     }
 
+    @Override
+    public ResponseEntity<?> getAssignmentInSession(UUID sessionId, UUID assignmentId) {
+        String uri = String.format("/api/v1/sessions/%s/assignments/%s", sessionId, assignmentId);
+        log.info("WebClient: GET -> {}", uri);
+        return callGet(uri);
+    }
+
+    @Override
+    public ResponseEntity<?> getSessionCounters(UUID sessionId) {
+        String uri = String.format("/api/v1/sessions/%s/counters", sessionId);
+        log.info("WebClient: GET -> {}", uri);
+        return callGet(uri);
+    }
+
+    @Override
+    public ResponseEntity<?> optimizeSessionRoute(UUID sessionId, Object optimizeRouteRequest) {
+        String uri = String.format("/api/v1/sessions/%s/route/optimize", sessionId);
+        log.info("WebClient: POST -> {}", uri);
+        return callPost(uri, optimizeRouteRequest);
+    }
+
     @Override
     public ResponseEntity<?> completeSession(UUID sessionId) {
         String uri = String.format("/api/v1/sessions/%s/complete", sessionId);
@@ -61,6 +82,13 @@ public class SessionServiceClient implements ISessionServiceClient {
         return callPost(uri, createSessionRequest);
     }
 
+    @Override
+    public ResponseEntity<?> planDispatch(Object dispatchPlanRequest) {
+        String uri = "/api/v1/sessions/dispatch/plan";
+        log.info("WebClient: POST -> {}", uri);
+        return callPost(uri, dispatchPlanRequest);
+    }
+
     @Override
     public ResponseEntity<?> getDailyTasks(UUID deliveryManId, List<String> status, int page, int size) {
         String uri = UriComponentsBuilder
@@ -160,12 +188,25 @@ public class SessionServiceClient implements ISessionServiceClient {
         return callPost(uri, addInfo);
     }
 
+    @Override
+    public ResponseEntity<?> applyActionBatch(UUID deliveryManId, Object taskActionBatchRequest) {
+        String uri = String.format("/api/v1/assignments/drivers/%s/actions/batch", deliveryManId);
+        log.info("WebClient: POST -> {}", uri);
+        return callPost(uri, taskActionBatchRequest);
+    }
+
     @Override
     public ResponseEntity<?> lastestShipperForParcel(UUID parcelId) {
         String uri = String.format("/api/v1/assignments/current-shipper/parcels/%s", parcelId);
         return callGet(uri);
     }
 
+    @Override
+    public ResponseEntity<?> parcelEta(UUID parcelId) {
+        String uri = String.format("/api/v1/assignments/parcels/%s/eta", parcelId);
+        return callGet(uri);
+    }
+
     @Override
     public ResponseEntity<?> updateAssignmentStatus(UUID sessionId, UUID assignmentId, Object statusUpdateRequest) {
         String uri = String.format("/api/v1/sessions/%s/assignments/%s/status", sessionId, assignmentId);
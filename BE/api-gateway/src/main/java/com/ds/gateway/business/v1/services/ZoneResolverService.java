@@ -0,0 +1,176 @@
+package com.ds.gateway.business.v1.services;
+
+import com.ds.gateway.business.v1.spatial.ZonePolygonIndex;
+import com.ds.gateway.common.entities.dto.common.PagedData;
+import com.ds.gateway.common.exceptions.ServiceUnavailableException;
+import com.ds.gateway.common.interfaces.IZoneServiceClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves which delivery zone contains a point without calling zone_service.
+ * - Zone polygons are loaded once at startup and kept in an immutable {@link ZonePolygonIndex}.
+ * - Zone create/update/delete proxied by the gateway trigger a background reload; a periodic reload
+ *   picks up changes made directly in zone_service.
+ * - A reload requested while another one runs is queued, so the last change is never missed.
+ */
+@Service
+@Slf4j
+public class ZoneResolverService {
+
+    private final IZoneServiceClient zoneServiceClient;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    private volatile ZonePolygonIndex index;
+
+    @Value("${zone-resolver.page-size:500}")
+    private int pageSize;
+
+    public ZoneResolverService(IZoneServiceClient zoneServiceClient) {
+        this.zoneServiceClient = zoneServiceClient;
+    }
+
+    /**
+     * Zone matched for a point; all fields are null when no zone contains it.
+     */
+    public record ZoneMatch(String zoneId, String code, String name, String centerId) {
+        static final ZoneMatch NONE = new ZoneMatch(null, null, null, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        invalidate();
+    }
+
+    @Scheduled(fixedDelayString = "${zone-resolver.refresh-interval-ms:900000}",
+            initialDelayString = "${zone-resolver.refresh-interval-ms:900000}")
+    public void refresh() {
+        invalidate();
+    }
+
+    /**
+     * Schedule a reload of the zone polygons (called after zones change).
+     */
+    public void invalidate() {
+        reloadRequested.set(true);
+        if (reloading.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(this::drainReloads);
+        }
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    public Optional<ZoneMatch> resolve(double lat, double lon) {
+        ZonePolygonIndex current = requireIndex();
+        return Optional.ofNullable(current.resolve(lat, lon)).map(ZoneResolverService::toMatch);
+    }
+
+    /**
+     * Resolve many points against the same index snapshot; result i belongs to point i.
+     */
+    public List<ZoneMatch> resolveAll(List<double[]> latLons) {
+        ZonePolygonIndex current = requireIndex();
+        List<ZoneMatch> matches = new ArrayList<>(latLons.size());
+        for (double[] point : latLons) {
+            ZonePolygonIndex.Zone zone = point == null ? null : current.resolve(point[0], point[1]);
+            matches.add(zone == null ? ZoneMatch.NONE : toMatch(zone));
+        }
+        return matches;
+    }
+
+    private ZonePolygonIndex requireIndex() {
+        ZonePolygonIndex current = index;
+        if (current == null) {
+            throw new ServiceUnavailableException("Zone polygons are still loading");
+        }
+        return current;
+    }
+
+    private void drainReloads() {
+        try {
+            while (reloadRequested.getAndSet(false)) {
+                reload();
+            }
+        } finally {
+            reloading.set(false);
+            // A request may have arrived between the last check and releasing the flag
+            if (reloadRequested.get() && reloading.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(this::drainReloads);
+            }
+        }
+    }
+
+    private void reload() {
+        long started = System.currentTimeMillis();
+        try {
+            List<ZonePolygonIndex.Zone> zones = new ArrayList<>();
+            int page = 0;
+            List<?> data;
+            do {
+                Map<String, Object> request = Map.of(
+                        "page", page,
+                        "size", pageSize,
+                        "sorts", List.of(Map.of("field", "zone_id", "direction", "asc")));
+                data = rowsOf(zoneServiceClient.listZones(request).join());
+                for (Object row : data) {
+                    toZone(asMap(row)).ifPresent(zones::add);
+                }
+                page++;
+            } while (data.size() == pageSize);
+            ZonePolygonIndex fresh = new ZonePolygonIndex(zones);
+            index = fresh;
+            log.info("Zone resolver loaded {} zones with polygons in {}ms", fresh.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.warn("Zone resolver reload failed, keeping {}: {}",
+                    index != null ? "the previous polygons" : "no polygons", e.getMessage());
+        }
+    }
+
+    private static Optional<ZonePolygonIndex.Zone> toZone(Map<String, Object> row) {
+        Object id = row.get("zone_id") != null ? row.get("zone_id") : row.get("id");
+        List<double[]> rings = ZonePolygonIndex.ringsOf(row.get("polygon"));
+        if (id == null || rings.isEmpty()) {
+            return Optional.empty();
+        }
+        Object centerId = row.get("center_id") != null ? row.get("center_id") : row.get("centerId");
+        return Optional.of(new ZonePolygonIndex.Zone(id.toString(), (String) row.get("code"), (String) row.get("name"),
+                centerId != null ? centerId.toString() : null, rings));
+    }
+
+    private static ZoneMatch toMatch(ZonePolygonIndex.Zone zone) {
+        return new ZoneMatch(zone.id(), zone.code(), zone.name(), zone.centerId());
+    }
+
+    /**
+     * Rows of a zone page: the typed client returns PagedData (result of the BaseResponse), a raw body is a Map.
+     */
+    private static List<?> rowsOf(Object page) {
+        if (page instanceof PagedData<?> paged) {
+            return paged.getData() != null ? paged.getData() : List.of();
+        }
+        return asList(asMap(page).get("data"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        throw new IllegalStateException("Unexpected zone_service payload: " + value);
+    }
+
+    private static List<?> asList(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+}
@@ -377,6 +377,22 @@ public class ZoneServiceClient implements IZoneServiceClient {
                 .toFuture();
     }
 
+    @Override
+    public CompletableFuture<Object> exportAddresses(String afterId, int limit) {
+        return zoneServiceWebClient.get()
+                .uri(uriBuilder -> {
+                    var builder = uriBuilder.path("/api/v1/addresses/export").queryParam("limit", limit);
+                    if (afterId != null) {
+                        builder.queryParam("afterId", afterId);
+                    }
+                    return builder.build();
+                })
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Object>() {})
+                .onErrorMap(ex -> new ServiceUnavailableException("Zone service unavailable: " + ex.getMessage(), ex))
+                .toFuture();
+    }
+
     @Override
     public CompletableFuture<Object> batchImportAddresses(Object requestBody) {
         return zoneServiceWebClient.post()
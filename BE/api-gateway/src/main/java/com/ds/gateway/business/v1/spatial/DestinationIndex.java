@@ -0,0 +1,385 @@
+package com.ds.gateway.business.v1.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index of destinations (id, lat, lon, payload) for nearest / radius lookups.
+ * Points are bucketed into fixed cells of cellDegrees x cellDegrees; k-nearest expands rings of
+ * cells around the query cell and stops as soon as the next ring cannot hold anything closer than
+ * the current k-th result. Distances are haversine meters (same formula as zone_service).
+ * Reads share a read lock; upserts/removals (address created, updated, deleted) take the write lock.
+ * Longitudes are not wrapped at the antimeridian.
+ */
+public final class DestinationIndex<T> {
+
+    public static final double EARTH_RADIUS_M = 6_371_000d;
+
+    private final double cellDegrees;
+    private final long lonCells;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+
+    private String[] ids = new String[1024];
+    private double[] lats = new double[1024];
+    private double[] lons = new double[1024];
+    private Object[] payloads = new Object[1024];
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int slotCount;
+
+    /**
+     * A destination found by a query, with its distance from the query point.
+     */
+    public record Neighbor<T>(String id, double lat, double lon, double distanceMeters, T payload) {
+    }
+
+    private static final class Bucket {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    public DestinationIndex(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 1) {
+            throw new IllegalArgumentException("cellDegrees must be in (0, 1]");
+        }
+        this.cellDegrees = cellDegrees;
+        this.lonCells = (long) Math.ceil(360 / cellDegrees) + 1;
+    }
+
+    /**
+     * Insert the destination or move/replace it if the id is already indexed.
+     */
+    public void upsert(String id, double lat, double lon, T payload) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotById.get(id);
+            if (existing != null) {
+                int slot = existing;
+                long oldCell = cellKey(lats[slot], lons[slot]);
+                long newCell = cellKey(lat, lon);
+                lats[slot] = lat;
+                lons[slot] = lon;
+                payloads[slot] = payload;
+                if (oldCell != newCell) {
+                    removeFromBucket(oldCell, slot);
+                    buckets.computeIfAbsent(newCell, key -> new Bucket()).add(slot);
+                }
+                return;
+            }
+            int slot = allocateSlot();
+            ids[slot] = id;
+            lats[slot] = lat;
+            lons[slot] = lon;
+            payloads[slot] = payload;
+            slotById.put(id, slot);
+            buckets.computeIfAbsent(cellKey(lat, lon), key -> new Bucket()).add(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return false;
+            }
+            removeFromBucket(cellKey(lats[slot], lons[slot]), slot);
+            ids[slot] = null;
+            payloads[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to k destinations closest to (lat, lon) within maxDistanceMeters, nearest first.
+     */
+    public List<Neighbor<T>> nearest(double lat, double lon, int k, double maxDistanceMeters) {
+        if (k <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            BoundedMaxHeap heap = new BoundedMaxHeap(k);
+            long latCell = latCell(lat);
+            long lonCell = lonCell(lon);
+            int bucketCount = buckets.size();
+            for (int ring = 0; ; ring++) {
+                double bound = ringLowerBoundMeters(lat, ring);
+                if (bound > maxDistanceMeters || (heap.isFull() && bound > heap.maxDistance())) {
+                    break;
+                }
+                // Ring larger than the number of non-empty cells: scan the remaining buckets directly
+                if (ring > 0 && 8L * ring > bucketCount) {
+                    for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+                        long key = entry.getKey();
+                        long distance = Math.max(Math.abs(key / lonCells - latCell), Math.abs(key % lonCells - lonCell));
+                        if (distance >= ring) {
+                            collect(entry.getValue(), lat, lon, maxDistanceMeters, heap);
+                        }
+                    }
+                    break;
+                }
+                if (ring == 0) {
+                    collect(buckets.get(latCell * lonCells + lonCell), lat, lon, maxDistanceMeters, heap);
+                    continue;
+                }
+                for (long dLon = -ring; dLon <= ring; dLon++) {
+                    collectCell(latCell - ring, lonCell + dLon, lat, lon, maxDistanceMeters, heap);
+                    collectCell(latCell + ring, lonCell + dLon, lat, lon, maxDistanceMeters, heap);
+                }
+                for (long dLat = -ring + 1; dLat <= ring - 1; dLat++) {
+                    collectCell(latCell + dLat, lonCell - ring, lat, lon, maxDistanceMeters, heap);
+                    collectCell(latCell + dLat, lonCell + ring, lat, lon, maxDistanceMeters, heap);
+                }
+            }
+            return heap.toSortedNeighbors();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All destinations within radiusMeters of (lat, lon), nearest first, at most limit results.
+     */
+    public List<Neighbor<T>> withinRadius(double lat, double lon, double radiusMeters, int limit) {
+        lock.readLock().lock();
+        try {
+            double latSpan = Math.toDegrees(radiusMeters / EARTH_RADIUS_M);
+            double cosMax = Math.cos(Math.toRadians(Math.min(90, Math.abs(lat) + latSpan)));
+            double sinHalf = radiusMeters / (2 * EARTH_RADIUS_M * cosMax);
+            double lonSpan = sinHalf >= 1 || cosMax <= 0 ? 360 : Math.toDegrees(2 * Math.asin(sinHalf));
+
+            long minLat = latCell(lat - latSpan);
+            long maxLat = latCell(lat + latSpan);
+            long minLon = lonCell(lon - lonSpan);
+            long maxLon = lonCell(lon + lonSpan);
+            List<Neighbor<T>> found = new ArrayList<>();
+            if ((maxLat - minLat + 1) * (maxLon - minLon + 1) > buckets.size()) {
+                for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+                    long key = entry.getKey();
+                    long cellLat = key / lonCells;
+                    long cellLon = key % lonCells;
+                    if (cellLat >= minLat && cellLat <= maxLat && cellLon >= minLon && cellLon <= maxLon) {
+                        collectWithin(entry.getValue(), lat, lon, radiusMeters, found);
+                    }
+                }
+            } else {
+                for (long cellLat = minLat; cellLat <= maxLat; cellLat++) {
+                    for (long cellLon = minLon; cellLon <= maxLon; cellLon++) {
+                        collectWithin(buckets.get(cellLat * lonCells + cellLon), lat, lon, radiusMeters, found);
+                    }
+                }
+            }
+            found.sort(Comparator.comparingDouble(Neighbor::distanceMeters));
+            return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_M * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Lower bound of the distance from the query to any point in ring `ring`: such a point differs
+     * from the query by at least (ring - 1) cells in latitude or in longitude.
+     */
+    private double ringLowerBoundMeters(double lat, int ring) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double gap = Math.toRadians((ring - 1) * cellDegrees);
+        double maxAbsLat = Math.min(90, Math.abs(lat) + (ring + 1) * cellDegrees);
+        double byLat = EARTH_RADIUS_M * gap;
+        double byLon = 2 * EARTH_RADIUS_M * Math.cos(Math.toRadians(maxAbsLat)) * Math.sin(Math.min(Math.PI / 2, gap / 2));
+        return Math.min(byLat, byLon);
+    }
+
+    private void collectCell(long cellLat, long cellLon, double lat, double lon, double maxDistance, BoundedMaxHeap heap) {
+        if (cellLat < 0 || cellLon < 0 || cellLon >= lonCells) {
+            return;
+        }
+        collect(buckets.get(cellLat * lonCells + cellLon), lat, lon, maxDistance, heap);
+    }
+
+    private void collect(Bucket bucket, double lat, double lon, double maxDistance, BoundedMaxHeap heap) {
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size; i++) {
+            int slot = bucket.slots[i];
+            double distance = haversineMeters(lat, lon, lats[slot], lons[slot]);
+            if (distance <= maxDistance) {
+                heap.offer(distance, slot);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collectWithin(Bucket bucket, double lat, double lon, double radius, List<Neighbor<T>> found) {
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size; i++) {
+            int slot = bucket.slots[i];
+            double distance = haversineMeters(lat, lon, lats[slot], lons[slot]);
+            if (distance <= radius) {
+                found.add(new Neighbor<>(ids[slot], lats[slot], lons[slot], distance, (T) payloads[slot]));
+            }
+        }
+    }
+
+    private void removeFromBucket(long cell, int slot) {
+        Bucket bucket = buckets.get(cell);
+        if (bucket != null) {
+            bucket.remove(slot);
+            if (bucket.size == 0) {
+                buckets.remove(cell);
+            }
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == ids.length) {
+            int capacity = slotCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            lats = Arrays.copyOf(lats, capacity);
+            lons = Arrays.copyOf(lons, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+        }
+        return slotCount++;
+    }
+
+    private long cellKey(double lat, double lon) {
+        return latCell(lat) * lonCells + lonCell(lon);
+    }
+
+    private long latCell(double lat) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / cellDegrees);
+    }
+
+    private long lonCell(double lon) {
+        return (long) Math.floor((Math.max(-180, Math.min(180, lon)) + 180) / cellDegrees);
+    }
+
+    /**
+     * Max-heap of the k best (distance, slot) pairs seen so far.
+     */
+    private final class BoundedMaxHeap {
+        private final double[] distances;
+        private final int[] slots;
+        private int size;
+
+        BoundedMaxHeap(int capacity) {
+            distances = new double[capacity];
+            slots = new int[capacity];
+        }
+
+        boolean isFull() {
+            return size == distances.length;
+        }
+
+        double maxDistance() {
+            return distances[0];
+        }
+
+        void offer(double distance, int slot) {
+            if (size < distances.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    distances[i] = distances[parent];
+                    slots[i] = slots[parent];
+                    i = parent;
+                }
+                distances[i] = distance;
+                slots[i] = slot;
+            } else if (distance < distances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    distances[i] = distances[child];
+                    slots[i] = slots[child];
+                    i = child;
+                }
+                distances[i] = distance;
+                slots[i] = slot;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Neighbor<T>> toSortedNeighbors() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble(i -> distances[i]));
+            List<Neighbor<T>> result = new ArrayList<>(size);
+            for (int i : order) {
+                int slot = slots[i];
+                result.add(new Neighbor<>(ids[slot], lats[slot], lons[slot], distances[i], (T) payloads[slot]));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.ds.gateway.business.v1.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable point-in-zone index built from zone polygons (GeoJSON Polygon / MultiPolygon, [lon, lat]).
+ * - Zones are bucketed by bounding box into a uniform grid covering all zones, so a lookup only tests
+ *   the few zones whose box overlaps the query cell.
+ * - Candidates are checked with the even-odd ray casting rule over every ring of the zone, which
+ *   handles holes and multi-part zones without distinguishing outer and inner rings.
+ * - When zones overlap, the one with the smallest bounding box wins (the most specific zone).
+ * A new instance is built on every refresh; readers never see a partially built index.
+ */
+public final class ZonePolygonIndex {
+
+    /**
+     * A zone with its rings flattened as [lon0, lat0, lon1, lat1, ...].
+     */
+    public record Zone(String id, String code, String name, String centerId, List<double[]> rings) {
+    }
+
+    private static final int TARGET_ZONES_PER_CELL = 4;
+    private static final int MAX_GRID_SIDE = 1024;
+
+    private final Zone[] zones;
+    private final double[] minLon;
+    private final double[] minLat;
+    private final double[] maxLon;
+    private final double[] maxLat;
+
+    private final double gridMinLon;
+    private final double gridMinLat;
+    private final double cellLon;
+    private final double cellLat;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+
+    public ZonePolygonIndex(List<Zone> input) {
+        List<Zone> usable = input.stream().filter(zone -> !zone.rings().isEmpty()).toList();
+        int n = usable.size();
+        zones = new Zone[n];
+        minLon = new double[n];
+        minLat = new double[n];
+        maxLon = new double[n];
+        maxLat = new double[n];
+
+        double allMinLon = Double.POSITIVE_INFINITY;
+        double allMinLat = Double.POSITIVE_INFINITY;
+        double allMaxLon = Double.NEGATIVE_INFINITY;
+        double allMaxLat = Double.NEGATIVE_INFINITY;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            double[] box = boundingBox(usable.get(i).rings());
+            order[i] = i;
+            minLon[i] = box[0];
+            minLat[i] = box[1];
+            maxLon[i] = box[2];
+            maxLat[i] = box[3];
+        }
+        // Smallest box first so that overlapping zones resolve to the most specific one
+        Arrays.sort(order, (a, b) -> Double.compare(area(a), area(b)));
+        double[][] boxes = {minLon.clone(), minLat.clone(), maxLon.clone(), maxLat.clone()};
+        for (int i = 0; i < n; i++) {
+            int source = order[i];
+            zones[i] = usable.get(source);
+            minLon[i] = boxes[0][source];
+            minLat[i] = boxes[1][source];
+            maxLon[i] = boxes[2][source];
+            maxLat[i] = boxes[3][source];
+            allMinLon = Math.min(allMinLon, minLon[i]);
+            allMinLat = Math.min(allMinLat, minLat[i]);
+            allMaxLon = Math.max(allMaxLon, maxLon[i]);
+            allMaxLat = Math.max(allMaxLat, maxLat[i]);
+        }
+
+        if (n == 0) {
+            gridMinLon = gridMinLat = 0;
+            cellLon = cellLat = 1;
+            columns = rows = 0;
+            cells = new int[0][];
+            return;
+        }
+        int side = (int) Math.min(MAX_GRID_SIDE, Math.max(1, Math.ceil(Math.sqrt((double) n / TARGET_ZONES_PER_CELL))));
+        gridMinLon = allMinLon;
+        gridMinLat = allMinLat;
+        columns = side;
+        rows = side;
+        cellLon = Math.max((allMaxLon - allMinLon) / columns, 1e-9);
+        cellLat = Math.max((allMaxLat - allMinLat) / rows, 1e-9);
+
+        List<List<Integer>> buckets = new ArrayList<>(rows * columns);
+        for (int i = 0; i < rows * columns; i++) {
+            buckets.add(new ArrayList<>(TARGET_ZONES_PER_CELL));
+        }
+        for (int i = 0; i < n; i++) {
+            int c0 = column(minLon[i]);
+            int c1 = column(maxLon[i]);
+            int r0 = row(minLat[i]);
+            int r1 = row(maxLat[i]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    buckets.get(r * columns + c).add(i);
+                }
+            }
+        }
+        cells = new int[buckets.size()][];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = buckets.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public int size() {
+        return zones.length;
+    }
+
+    /**
+     * Zone containing the point, or null if none does.
+     */
+    public Zone resolve(double lat, double lon) {
+        if (zones.length == 0 || lon < gridMinLon || lat < gridMinLat
+                || lon > gridMinLon + cellLon * columns || lat > gridMinLat + cellLat * rows) {
+            return null;
+        }
+        for (int i : cells[row(lat) * columns + column(lon)]) {
+            if (lon >= minLon[i] && lon <= maxLon[i] && lat >= minLat[i] && lat <= maxLat[i]
+                    && contains(zones[i].rings(), lat, lon)) {
+                return zones[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Even-odd rule over all rings: a point inside a hole crosses the outer ring and the hole once each.
+     */
+    static boolean contains(List<double[]> rings, double lat, double lon) {
+        boolean inside = false;
+        for (double[] ring : rings) {
+            int points = ring.length / 2;
+            for (int i = 0, j = points - 1; i < points; j = i++) {
+                double xi = ring[2 * i];
+                double yi = ring[2 * i + 1];
+                double xj = ring[2 * j];
+                double yj = ring[2 * j + 1];
+                if ((yi > lat) != (yj > lat) && lon < (xj - xi) * (lat - yi) / (yj - yi) + xi) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Rings of a GeoJSON Polygon or MultiPolygon geometry (a bare ring array is accepted as a Polygon).
+     */
+    public static List<double[]> ringsOf(Object geometry) {
+        List<double[]> rings = new ArrayList<>();
+        if (geometry instanceof Map<?, ?> map) {
+            Object coordinates = map.get("coordinates");
+            if ("MultiPolygon".equals(map.get("type")) && coordinates instanceof List<?> polygons) {
+                polygons.forEach(polygon -> addRings(polygon, rings));
+            } else {
+                addRings(coordinates, rings);
+            }
+        } else if (geometry instanceof List<?>) {
+            addRings(geometry, rings);
+        }
+        return rings;
+    }
+
+    private static void addRings(Object polygon, List<double[]> rings) {
+        if (!(polygon instanceof List<?> list) || list.isEmpty()) {
+            return;
+        }
+        if (list.get(0) instanceof List<?> first && !first.isEmpty() && first.get(0) instanceof Number) {
+            // A single ring given directly as [[lon, lat], ...]
+            addRing(list, rings);
+            return;
+        }
+        list.forEach(ring -> {
+            if (ring instanceof List<?> points) {
+                addRing(points, rings);
+            }
+        });
+    }
+
+    private static void addRing(List<?> points, List<double[]> rings) {
+        double[] flat = new double[points.size() * 2];
+        int size = 0;
+        for (Object point : points) {
+            if (point instanceof List<?> pair && pair.size() >= 2
+                    && pair.get(0) instanceof Number x && pair.get(1) instanceof Number y) {
+                flat[size++] = x.doubleValue();
+                flat[size++] = y.doubleValue();
+            }
+        }
+        if (size >= 6) {
+            rings.add(size == flat.length ? flat : Arrays.copyOf(flat, size));
+        }
+    }
+
+    private static double[] boundingBox(List<double[]> rings) {
+        double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (double[] ring : rings) {
+            for (int i = 0; i < ring.length; i += 2) {
+                box[0] = Math.min(box[0], ring[i]);
+                box[1] = Math.min(box[1], ring[i + 1]);
+                box[2] = Math.max(box[2], ring[i]);
+                box[3] = Math.max(box[3], ring[i + 1]);
+            }
+        }
+        return box;
+    }
+
+    private double area(int i) {
+        return (maxLon[i] - minLon[i]) * (maxLat[i] - minLat[i]);
+    }
+
+    private int column(double lon) {
+        return Math.min(columns - 1, Math.max(0, (int) ((lon - gridMinLon) / cellLon)));
+    }
+
+    private int row(double lat) {
+        return Math.min(rows - 1, Math.max(0, (int) ((lat - gridMinLat) / cellLat)));
+    }
+}
@@ -0,0 +1,16 @@
+package com.ds.gateway.common.entities.dto.zone;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ResolveZonesRequest {
+    private List<Point> points;
+
+    @Data
+    public static class Point {
+        private Double lat;
+        private Double lon;
+    }
+}
@@ -8,10 +8,30 @@ import java.util.UUID;
 public interface ISessionServiceClient {
     ResponseEntity<?> acceptParcelToSession(String deliveryManId, Object scanParcelRequest);
     ResponseEntity<?> getSessionById(UUID sessionId);
+
+    /**
+     * Get a single assignment of a session (lightweight projection, no session/assignment list)
+     */
+    ResponseEntity<?> getAssignmentInSession(UUID sessionId, UUID assignmentId);
+
+    /**
+     * Get session task counters (total/completed/failed) without the assignment list
+     */
+    ResponseEntity<?> getSessionCounters(UUID sessionId);
+
+    /**
+     * Optimized delivery order for the remaining tasks of a session
+     */
+    ResponseEntity<?> optimizeSessionRoute(UUID sessionId, Object optimizeRouteRequest);
     ResponseEntity<?> completeSession(UUID sessionId);
     ResponseEntity<?> failSession(UUID sessionId, Object sessionFailRequest);
     ResponseEntity<?> createSessionBatch(Object createSessionRequest);
 
+    /**
+     * Proposed sessions for all IN_WAREHOUSE parcels (batch dispatch)
+     */
+    ResponseEntity<?> planDispatch(Object dispatchPlanRequest);
+
     ResponseEntity<?> getDailyTasks(UUID deliveryManId, List<String> status, int page, int size);
     ResponseEntity<?> getTasksHistory(UUID deliveryManId, List<String> status,
                                       String createdAtStart, String createdAtEnd,
@@ -21,7 +41,18 @@ public interface ISessionServiceClient {
     ResponseEntity<?> failTask(UUID deliveryManId, UUID parcelId, Object taskFailRequest);
     ResponseEntity<?> refuseTask(UUID deliveryManId, UUID parcelId);
     ResponseEntity<?> postponeTask(UUID deliveryManId, UUID parcelId, String addInfo);
+
+    /**
+     * Apply queued shipper task actions (offline outbox) in order, idempotently by actionId
+     */
+    ResponseEntity<?> applyActionBatch(UUID deliveryManId, Object taskActionBatchRequest);
+
     ResponseEntity<?> lastestShipperForParcel(UUID parcelId);
+
+    /**
+     * Estimated delivery time of a parcel in an active session
+     */
+    ResponseEntity<?> parcelEta(UUID parcelId);
     
     /**
      * Update assignment status by sessionId and assignmentId
@@ -46,6 +46,7 @@ public interface IZoneServiceClient {
     CompletableFuture<Object> batchImportAddresses(Object requestBody);
     CompletableFuture<Object> getAddressesBySegment(String segmentId, Map<String, String> queryParams);
     CompletableFuture<Object> getAddressesByZone(String zoneId, Map<String, String> queryParams);
+    CompletableFuture<Object> exportAddresses(String afterId, int limit);
     
     // OSRM Data Management endpoints
     CompletableFuture<Object> buildOSRMInstance(String instanceId);
@@ -0,0 +1,129 @@
+package com.ds.gateway.application.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GzipRequestConfigTest {
+
+    private static final String BODY = "{\"points\":[{\"lat\":10.77,\"lon\":106.70,\"timestamp\":1700000000000}]}";
+
+    @Test
+    void inflatesBodyForBlockingReaders() throws Exception {
+        HttpServletRequest inflated = filter(gzipRequest(BODY), 1024);
+
+        assertNull(inflated.getHeader("Content-Encoding"));
+        assertEquals(BODY.length(), inflated.getContentLength());
+        assertEquals(BODY, new String(inflated.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readerSeesInflatedBody() throws Exception {
+        HttpServletRequest inflated = filter(gzipRequest(BODY), 1024);
+
+        try (BufferedReader reader = inflated.getReader()) {
+            assertEquals(BODY, reader.readLine());
+        }
+    }
+
+    @Test
+    void inflatedBodyIsDeliveredToReadListener() throws Exception {
+        ServletInputStream in = filter(gzipRequest(BODY), 1024).getInputStream();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        boolean[] allRead = {false};
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (in.isReady() && !in.isFinished()) {
+                    int read = in.read(buffer);
+                    if (read > 0) {
+                        received.write(buffer, 0, read);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertTrue(allRead[0]);
+        assertEquals(BODY, received.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void oversizedBodyIsRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        new GzipRequestConfig.GzipRequestFilter(16).doFilter(gzipRequest(BODY), response, chain);
+
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void truncatedBodyIsBadRequest() throws Exception {
+        MockHttpServletRequest request = gzipRequest(BODY);
+        byte[] compressed = request.getContentAsByteArray();
+        request.setContent(Arrays.copyOf(compressed, compressed.length - 12));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        new GzipRequestConfig.GzipRequestFilter(1024).doFilter(request, response, chain);
+
+        assertEquals(400, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void nonGzipBodyIsBadRequest() throws Exception {
+        MockHttpServletRequest request = gzipRequest(BODY);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new GzipRequestConfig.GzipRequestFilter(1024).doFilter(request, response, new MockFilterChain());
+
+        assertEquals(400, response.getStatus());
+    }
+
+    private static HttpServletRequest filter(MockHttpServletRequest request, int maxInflatedBytes) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        new GzipRequestConfig.GzipRequestFilter(maxInflatedBytes).doFilter(request, new MockHttpServletResponse(), chain);
+        return (HttpServletRequest) chain.getRequest();
+    }
+
+    private static MockHttpServletRequest gzipRequest(String body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/tracking/locations");
+        request.addHeader("Content-Encoding", "gzip");
+        request.setContentType("application/json");
+        request.setContent(compressed.toByteArray());
+        return request;
+    }
+}
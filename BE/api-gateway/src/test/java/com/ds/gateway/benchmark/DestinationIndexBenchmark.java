@@ -0,0 +1,86 @@
+package com.ds.gateway.benchmark;
+
+import com.ds.gateway.business.v1.spatial.DestinationIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Builds a 1M-address index over Vietnam (70% clustered around the big cities) and measures
+ * kNN / radius query latency against a linear scan.
+ * Run: java -cp target/classes:target/test-classes com.ds.gateway.benchmark.DestinationIndexBenchmark [points] [queries]
+ */
+public class DestinationIndexBenchmark {
+
+    private static final double[][] CITIES = {{10.77, 106.70}, {21.02, 105.84}, {16.05, 108.20}, {10.03, 105.78}, {20.86, 106.68}};
+
+    public static void main(String[] args) {
+        int points = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        Random random = new Random(1);
+
+        double[] lats = new double[points];
+        double[] lons = new double[points];
+        for (int i = 0; i < points; i++) {
+            double[] point = randomPoint(random);
+            lats[i] = point[0];
+            lons[i] = point[1];
+        }
+
+        long started = System.nanoTime();
+        DestinationIndex<Integer> index = new DestinationIndex<>(0.01);
+        for (int i = 0; i < points; i++) {
+            index.upsert(Integer.toString(i), lats[i], lons[i], i);
+        }
+        System.out.printf("build: %d points in %d ms%n", index.size(), (System.nanoTime() - started) / 1_000_000);
+
+        double[][] queryPoints = new double[queries][];
+        for (int q = 0; q < queries; q++) {
+            queryPoints[q] = randomPoint(random);
+        }
+
+        long[] knn = new long[queries];
+        long[] radius = new long[queries];
+        long sink = 0;
+        for (int round = 0; round < 2; round++) { // round 0 = warm-up
+            for (int q = 0; q < queries; q++) {
+                long t0 = System.nanoTime();
+                sink += index.nearest(queryPoints[q][0], queryPoints[q][1], 10, 5_000).size();
+                long t1 = System.nanoTime();
+                sink += index.withinRadius(queryPoints[q][0], queryPoints[q][1], 500, 100).size();
+                long t2 = System.nanoTime();
+                knn[q] = t1 - t0;
+                radius[q] = t2 - t1;
+            }
+        }
+        report("knn k=10", knn);
+        report("radius 500m", radius);
+
+        int bruteQueries = Math.min(queries, 50);
+        long bruteStarted = System.nanoTime();
+        for (int q = 0; q < bruteQueries; q++) {
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < points; i++) {
+                best = Math.min(best, DestinationIndex.haversineMeters(queryPoints[q][0], queryPoints[q][1], lats[i], lons[i]));
+            }
+            sink += (long) best;
+        }
+        System.out.printf("linear scan: %.2f ms/query%n", (System.nanoTime() - bruteStarted) / 1e6 / bruteQueries);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static double[] randomPoint(Random random) {
+        if (random.nextDouble() < 0.7) {
+            double[] city = CITIES[random.nextInt(CITIES.length)];
+            return new double[]{city[0] + random.nextGaussian() * 0.08, city[1] + random.nextGaussian() * 0.08};
+        }
+        return new double[]{8.5 + random.nextDouble() * 14.8, 102.1 + random.nextDouble() * 7.4};
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%s: p50 %.1f us, p99 %.1f us%n", label,
+                sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3);
+    }
+}
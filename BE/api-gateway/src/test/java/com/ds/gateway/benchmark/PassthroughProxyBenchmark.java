@@ -0,0 +1,176 @@
+package com.ds.gateway.benchmark;
+
+import com.ds.gateway.business.v1.services.PassthroughProxyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+/**
+ * Large address page (default 20k rows, ~5MB JSON) proxied three ways:
+ * - WebClient bodyToMono(Object) (what ZoneServiceClient did; default 256KB in-memory limit)
+ * - RestTemplate getForObject(Object) + Jackson re-serialization (what the settings/user-address proxies did)
+ * - PassthroughProxyService (bytes copied through, no parsing)
+ * Reports latency and bytes allocated on the proxying thread per request.
+ * A manual harness, not part of the test run and no figures are recorded for it: the expectation to check is that
+ * passthrough allocation stays flat as [rows] grows while parse + re-serialize grows with the payload.
+ * Run: java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)
+ *      com.ds.gateway.benchmark.PassthroughProxyBenchmark [rows] [requests]
+ */
+public class PassthroughProxyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        byte[] payload = addressPage(rows);
+        System.out.printf("payload: %d rows, %.2f MB%n", rows, payload.length / 1e6);
+
+        HttpServer upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/api/v1/addresses", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        });
+        upstream.setExecutor(Executors.newFixedThreadPool(4));
+        upstream.start();
+        String baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+        String url = baseUrl + "/api/v1/addresses?page=0&size=" + rows;
+
+        try {
+            WebClient webClient = WebClient.create(baseUrl);
+            try {
+                webClient.get().uri("/api/v1/addresses").retrieve().bodyToMono(Object.class).block();
+                System.out.println("webclient: ok");
+            } catch (Exception e) {
+                System.out.println("webclient: FAILED - " + e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            RestTemplate restTemplate = new RestTemplate(factory);
+            ObjectMapper objectMapper = new ObjectMapper();
+            run("parse + re-serialize", requests, () -> {
+                Object body = restTemplate.getForObject(url, Object.class);
+                CountingOutputStream out = new CountingOutputStream();
+                objectMapper.writeValue(out, body);
+                return out.count;
+            });
+
+            PassthroughProxyService proxy = new PassthroughProxyService(5000, 60000);
+            run("passthrough", requests, () -> {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/addresses");
+                request.setQueryString("page=0&size=" + rows);
+                DiscardingResponse response = new DiscardingResponse();
+                proxy.forward(baseUrl, request, response);
+                return response.out.count;
+            });
+        } finally {
+            upstream.stop(0);
+            ((java.util.concurrent.ExecutorService) upstream.getExecutor()).shutdownNow();
+        }
+    }
+
+    private static void run(String label, int requests, Proxied call) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] nanos = new long[requests];
+        long[] allocated = new long[requests];
+        long bytes = 0;
+        for (int round = 0; round < 2; round++) { // round 0 = warm-up
+            for (int i = 0; i < requests; i++) {
+                long a0 = threads.getCurrentThreadAllocatedBytes();
+                long t0 = System.nanoTime();
+                bytes += call.run();
+                nanos[i] = System.nanoTime() - t0;
+                allocated[i] = threads.getCurrentThreadAllocatedBytes() - a0;
+            }
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%s: p50 %.2f ms, p99 %.2f ms, allocated %.2f MB/request (%d bytes sent)%n", label,
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6,
+                Arrays.stream(allocated).average().orElse(0) / 1e6, bytes / (2L * requests));
+    }
+
+    private static byte[] addressPage(int rows) {
+        Random random = new Random(1);
+        StringBuilder json = new StringBuilder(rows * 260);
+        json.append("{\"result\":{\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"id\":\"").append(new java.util.UUID(random.nextLong(), random.nextLong()))
+                    .append("\",\"name\":\"So ").append(random.nextInt(500)).append(" Duong ").append(random.nextInt(2000))
+                    .append("\",\"addressText\":\"Phuong ").append(random.nextInt(30)).append(", Quan ").append(random.nextInt(12))
+                    .append(", TP Ho Chi Minh\",\"lat\":").append(10.7 + random.nextDouble() * 0.2)
+                    .append(",\"lon\":").append(106.6 + random.nextDouble() * 0.2)
+                    .append(",\"zoneId\":\"zone-").append(random.nextInt(300))
+                    .append("\",\"segmentId\":").append(random.nextInt(100_000))
+                    .append(",\"createdAt\":\"2025-01-01T00:00:00\"}");
+        }
+        json.append("],\"page\":{\"page\":0,\"size\":").append(rows).append(",\"totalElements\":").append(rows).append("}}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private interface Proxied {
+        long run() throws Exception;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * Response whose body goes to a counting sink, so the benchmark measures the proxy and not a capture buffer
+     */
+    private static class DiscardingResponse extends MockHttpServletResponse {
+        final CountingOutputStream out = new CountingOutputStream();
+        private final ServletOutputStream stream = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+
+            @Override
+            public void write(int b) {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                out.write(b, off, len);
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return stream;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ds.gateway.benchmark;
+
+import com.ds.gateway.business.v1.spatial.ZonePolygonIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Point-in-zone lookups over a grid of ward-like polygons (64 vertices each).
+ * Run: java -cp target/classes:target/test-classes com.ds.gateway.benchmark.ZoneResolverBenchmark [wardsPerSide] [points]
+ */
+public class ZoneResolverBenchmark {
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int points = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        double size = 0.02;
+
+        List<ZonePolygonIndex.Zone> wards = new ArrayList<>();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                wards.add(new ZonePolygonIndex.Zone(r + ":" + c, null, null, null,
+                        List.of(ward(106.0 + c * size, 10.0 + r * size, size, 64))));
+            }
+        }
+        long started = System.nanoTime();
+        ZonePolygonIndex index = new ZonePolygonIndex(wards);
+        System.out.printf("build: %d zones in %.1f ms%n", index.size(), (System.nanoTime() - started) / 1e6);
+
+        Random random = new Random(5);
+        double[] lats = new double[points];
+        double[] lons = new double[points];
+        for (int i = 0; i < points; i++) {
+            lats[i] = 10.0 + random.nextDouble() * side * size;
+            lons[i] = 106.0 + random.nextDouble() * side * size;
+        }
+        long resolved = 0;
+        long[] rounds = new long[5];
+        for (int round = 0; round < rounds.length; round++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < points; i++) {
+                if (index.resolve(lats[i], lons[i]) != null) {
+                    resolved++;
+                }
+            }
+            rounds[round] = System.nanoTime() - t0;
+        }
+        Arrays.sort(rounds);
+        System.out.printf("resolve: %.3f us/point (median of %d rounds, %d resolved)%n",
+                rounds[rounds.length / 2] / 1e3 / points, rounds.length, resolved);
+    }
+
+    /**
+     * Square ward whose edges are split into vertices so each polygon has `vertices` points.
+     */
+    private static double[] ward(double lon, double lat, double size, int vertices) {
+        int perEdge = vertices / 4;
+        double[] ring = new double[vertices * 2];
+        int k = 0;
+        double[][] corners = {{lon, lat}, {lon + size, lat}, {lon + size, lat + size}, {lon, lat + size}};
+        for (int edge = 0; edge < 4; edge++) {
+            double[] from = corners[edge];
+            double[] to = corners[(edge + 1) % 4];
+            for (int i = 0; i < perEdge; i++) {
+                double t = (double) i / perEdge;
+                ring[k++] = from[0] + (to[0] - from[0]) * t;
+                ring[k++] = from[1] + (to[1] - from[1]) * t;
+            }
+        }
+        return ring;
+    }
+}
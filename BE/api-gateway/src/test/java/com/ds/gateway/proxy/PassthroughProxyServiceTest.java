@@ -0,0 +1,99 @@
+package com.ds.gateway.proxy;
+
+import com.ds.gateway.business.v1.services.PassthroughProxyService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PassthroughProxyServiceTest {
+
+    private HttpServer upstream;
+    private String baseUrl;
+    private final AtomicReference<byte[]> receivedBody = new AtomicReference<>();
+    private final AtomicReference<String> receivedContentLength = new AtomicReference<>();
+    private final AtomicReference<String> receivedTransferEncoding = new AtomicReference<>();
+    private final AtomicReference<String> receivedQuery = new AtomicReference<>();
+
+    @BeforeEach
+    void startUpstream() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // Echo service: returns what it received, with its own status and headers
+        upstream.createContext("/api/v1/echo", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                receivedBody.set(in.readAllBytes());
+            }
+            receivedContentLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+            receivedTransferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+            receivedQuery.set(exchange.getRequestURI().getRawQuery());
+            byte[] body = receivedBody.get();
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.getResponseHeaders().set("ETag", "\"echo\"");
+            exchange.sendResponseHeaders(201, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.createContext("/api/v1/missing", exchange -> {
+            byte[] body = "{\"message\":\"not found\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+        baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void requestBodyIsStreamedWithItsContentLength() {
+        byte[] payload = new byte[3 * 1024 * 1024];
+        new Random(7).nextBytes(payload);
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/echo");
+        request.setQueryString("offset=42");
+        request.setContentType("application/octet-stream");
+        request.addHeader("Content-Length", String.valueOf(payload.length));
+        request.setContent(payload);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new PassthroughProxyService(2000, 10000).forward(baseUrl, request, response);
+
+        assertArrayEquals(payload, receivedBody.get());
+        assertEquals(String.valueOf(payload.length), receivedContentLength.get());
+        assertNull(receivedTransferEncoding.get());
+        assertEquals("offset=42", receivedQuery.get());
+        assertEquals(201, response.getStatus());
+        assertEquals("\"echo\"", response.getHeader("ETag"));
+        assertArrayEquals(payload, response.getContentAsByteArray());
+    }
+
+    @Test
+    void upstreamErrorIsForwarded() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/missing");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new PassthroughProxyService(2000, 10000).forward(baseUrl, request, response);
+
+        assertEquals(404, response.getStatus());
+        assertEquals("{\"message\":\"not found\"}", response.getContentAsString());
+    }
+}
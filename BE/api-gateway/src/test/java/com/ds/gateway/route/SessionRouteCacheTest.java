@@ -0,0 +1,165 @@
+package com.ds.gateway.route;
+
+import com.ds.gateway.business.v1.services.SessionRouteCache;
+import com.ds.gateway.business.v1.services.SessionRouteCache.CachedRoute;
+import com.ds.gateway.business.v1.services.SessionRouteCache.Kind;
+import com.ds.gateway.business.v1.services.SessionRouteCache.Stop;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionRouteCacheTest {
+
+    private static final List<Stop> STOPS = List.of(
+            new Stop("p1", 10.770, 106.690),
+            new Stop("p2", 10.775, 106.700),
+            new Stop("p3", 10.780, 106.710),
+            new Stop("p4", 10.790, 106.720));
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3})
+    void remainingSuffixStartsAtProgressPoint(int done) {
+        CachedRoute route = cachedRoute();
+        List<Stop> remaining = new ArrayList<>(STOPS.subList(done, STOPS.size()));
+        // Request order does not matter, only the set of remaining stops
+        Collections.reverse(remaining);
+
+        assertEquals(done, route.suffixStart(remaining));
+    }
+
+    @Test
+    void nonSuffixIsNotReused() {
+        CachedRoute route = cachedRoute();
+
+        // p1 delivered but p3 skipped: not a suffix of the cached order
+        assertEquals(-1, route.suffixStart(List.of(STOPS.get(1), STOPS.get(3))));
+        // Destination moved
+        assertEquals(-1, route.suffixStart(List.of(STOPS.get(2), new Stop("p4", 10.791, 106.720))));
+        // New stop added
+        assertEquals(-1, route.suffixStart(List.of(STOPS.get(0), STOPS.get(1), STOPS.get(2), STOPS.get(3),
+                new Stop("p5", 10.8, 106.73))));
+        // Duplicate parcel
+        assertEquals(-1, route.suffixStart(List.of(STOPS.get(3), STOPS.get(3))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3})
+    void spliceReplacesFirstLegAndKeepsTheRest(int first) {
+        CachedRoute route = cachedRoute();
+        Map<String, Object> newLeg = Map.of("distance", 500.0, "duration", 60.0, "steps", List.of());
+
+        Map<String, Object> spliced = route.splice(first, newLeg);
+
+        assertNotNull(spliced);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) spliced.get("route");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> legs = (List<Map<String, Object>>) body.get("legs");
+        assertEquals(STOPS.size() - first, legs.size());
+        assertEquals(STOPS.get(first).parcelId(), legs.get(0).get("parcelId"));
+        assertEquals(500.0, legs.get(0).get("distance"));
+        for (int i = 1; i < legs.size(); i++) {
+            assertEquals(STOPS.get(first + i).parcelId(), legs.get(i).get("parcelId"));
+        }
+        // Cached legs after the first one are 1000m / 100s each
+        double distance = 500.0 + 1000.0 * (legs.size() - 1);
+        double duration = 60.0 + 100.0 * (legs.size() - 1);
+        assertEquals(distance, body.get("distance"));
+        assertEquals(duration, body.get("duration"));
+        assertNull(body.get("geometry"));
+        assertEquals(STOPS.size() - first, ((List<?>) spliced.get("visitOrder")).size());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> summary = (Map<String, Object>) spliced.get("summary");
+        assertEquals(distance, summary.get("totalDistance"));
+        assertEquals(legs.size(), summary.get("totalWaypoints"));
+    }
+
+    @Test
+    void spliceLeavesCachedPayloadUntouched() {
+        CachedRoute route = cachedRoute();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> cachedBody = (Map<String, Object>) route.result().get("route");
+
+        route.splice(2, Map.of("distance", 1.0, "duration", 1.0));
+
+        assertEquals(STOPS.size(), ((List<?>) cachedBody.get("legs")).size());
+        assertEquals("encoded-polyline", cachedBody.get("geometry"));
+        assertEquals(4000.0, cachedBody.get("distance"));
+    }
+
+    @Test
+    void spliceNeedsOneLegPerStop() {
+        Map<String, Object> result = new HashMap<>(cachedRoute().result());
+        result.put("route", Map.of("legs", List.of(leg("p1"))));
+        CachedRoute route = new CachedRoute(STOPS, result, "motorbike", Instant.now());
+
+        assertNull(route.splice(0, Map.of("distance", 1.0)));
+        assertNull(cachedRoute().splice(4, Map.of("distance", 1.0)));
+    }
+
+    @Test
+    void demoAndLiveRoutesAreKeptApart() {
+        SessionRouteCache cache = new SessionRouteCache(30, 100);
+        UUID sessionId = UUID.randomUUID();
+        Map<String, Object> live = cachedRoute().result();
+
+        cache.put(sessionId, Kind.LIVE, STOPS, live, "motorbike");
+
+        assertTrue(cache.get(sessionId, Kind.DEMO).isEmpty());
+        assertSame(live, cache.get(sessionId, Kind.LIVE).orElseThrow().result());
+
+        Map<String, Object> demo = new HashMap<>(live);
+        cache.put(sessionId, Kind.DEMO, STOPS, demo, null);
+        assertSame(demo, cache.get(sessionId, Kind.DEMO).orElseThrow().result());
+        assertSame(live, cache.get(sessionId, Kind.LIVE).orElseThrow().result());
+        assertTrue(cache.get(sessionId, Kind.DEMO).orElseThrow().coversExactly(Set.of("p1", "p2", "p3", "p4")));
+        assertFalse(cache.get(sessionId, Kind.DEMO).orElseThrow().coversExactly(Set.of("p1", "p2", "p3")));
+
+        cache.evict(sessionId);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void expiredEntriesAreNotServed() {
+        SessionRouteCache cache = new SessionRouteCache(0, 100);
+        UUID sessionId = UUID.randomUUID();
+        cache.put(sessionId, Kind.LIVE, STOPS, cachedRoute().result(), "motorbike");
+
+        assertTrue(cache.get(sessionId, Kind.LIVE).isEmpty());
+    }
+
+    private static CachedRoute cachedRoute() {
+        List<Object> legs = new ArrayList<>();
+        List<Object> visitOrder = new ArrayList<>();
+        for (Stop stop : STOPS) {
+            legs.add(leg(stop.parcelId()));
+            visitOrder.add(Map.of("waypoint", Map.of("parcelId", stop.parcelId(), "lat", stop.lat(), "lon", stop.lon())));
+        }
+        Map<String, Object> route = Map.of("legs", legs, "distance", 4000.0, "duration", 400.0, "geometry", "encoded-polyline");
+        Map<String, Object> result = Map.of(
+                "route", route,
+                "visitOrder", visitOrder,
+                "summary", Map.of("totalDistance", 4000.0, "totalDuration", 400.0, "totalWaypoints", STOPS.size()));
+        return new CachedRoute(STOPS, result, "motorbike", Instant.now());
+    }
+
+    private static Map<String, Object> leg(String parcelId) {
+        return Map.of("parcelId", parcelId, "distance", 1000.0, "duration", 100.0);
+    }
+}
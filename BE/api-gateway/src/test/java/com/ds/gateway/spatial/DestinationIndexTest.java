@@ -0,0 +1,114 @@
+package com.ds.gateway.spatial;
+
+import com.ds.gateway.business.v1.spatial.DestinationIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DestinationIndexTest {
+
+    private static final double MIN_LAT = 8.5;
+    private static final double MAX_LAT = 23.3;
+    private static final double MIN_LON = 102.1;
+    private static final double MAX_LON = 109.5;
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(42);
+        int n = 20_000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        DestinationIndex<Integer> index = new DestinationIndex<>(0.01);
+        for (int i = 0; i < n; i++) {
+            // Half uniform over Vietnam, half clustered around Ho Chi Minh City
+            boolean clustered = i % 2 == 0;
+            lats[i] = clustered ? 10.77 + random.nextGaussian() * 0.05 : MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+            lons[i] = clustered ? 106.70 + random.nextGaussian() * 0.05 : MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON);
+            index.upsert("a" + i, lats[i], lons[i], i);
+        }
+        for (int q = 0; q < 200; q++) {
+            double lat = q % 2 == 0 ? 10.77 + random.nextGaussian() * 0.1 : MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+            double lon = q % 2 == 0 ? 106.70 + random.nextGaussian() * 0.1 : MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON);
+            double maxDistance = q % 3 == 0 ? 2_000 : Double.POSITIVE_INFINITY;
+            List<DestinationIndex.Neighbor<Integer>> found = index.nearest(lat, lon, 10, maxDistance);
+            double[] expected = bruteForce(lats, lons, lat, lon, maxDistance);
+            double[] expectedTop = Arrays.copyOf(expected, Math.min(10, expected.length));
+            assertEquals(expectedTop.length, found.size());
+            for (int i = 0; i < expectedTop.length; i++) {
+                assertEquals(expectedTop[i], found.get(i).distanceMeters(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void withinRadiusMatchesBruteForce() {
+        Random random = new Random(7);
+        int n = 10_000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        DestinationIndex<Integer> index = new DestinationIndex<>(0.01);
+        for (int i = 0; i < n; i++) {
+            lats[i] = 21.02 + random.nextGaussian() * 0.03;
+            lons[i] = 105.84 + random.nextGaussian() * 0.03;
+            index.upsert("a" + i, lats[i], lons[i], i);
+        }
+        for (int q = 0; q < 100; q++) {
+            double lat = 21.02 + random.nextGaussian() * 0.03;
+            double lon = 105.84 + random.nextGaussian() * 0.03;
+            double radius = 200 + random.nextInt(3_000);
+            List<DestinationIndex.Neighbor<Integer>> found = index.withinRadius(lat, lon, radius, Integer.MAX_VALUE);
+            double[] expected = bruteForce(lats, lons, lat, lon, radius);
+            assertEquals(expected.length, found.size());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], found.get(i).distanceMeters(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void upsertMovesAndRemoveDeletes() {
+        DestinationIndex<String> index = new DestinationIndex<>(0.01);
+        index.upsert("a", 10.77, 106.70, "first");
+        index.upsert("b", 10.80, 106.70, "second");
+        index.upsert("a", 10.81, 106.70, "moved");
+        assertEquals(2, index.size());
+
+        List<DestinationIndex.Neighbor<String>> near = index.nearest(10.81, 106.70, 1, Double.POSITIVE_INFINITY);
+        assertEquals("a", near.get(0).id());
+        assertEquals("moved", near.get(0).payload());
+        assertTrue(index.withinRadius(10.77, 106.70, 500, 10).isEmpty());
+
+        assertTrue(index.remove("a"));
+        assertTrue(!index.remove("a"));
+        assertEquals(1, index.size());
+        assertEquals("b", index.nearest(10.81, 106.70, 5, Double.POSITIVE_INFINITY).get(0).id());
+    }
+
+    @Test
+    void emptyIndexAndOversizedK() {
+        DestinationIndex<String> index = new DestinationIndex<>(0.01);
+        assertTrue(index.nearest(10.77, 106.70, 10, Double.POSITIVE_INFINITY).isEmpty());
+        index.upsert("a", 10.77, 106.70, "a");
+        index.upsert("b", 16.05, 108.20, "b");
+        assertEquals(2, index.nearest(21.02, 105.84, 10, Double.POSITIVE_INFINITY).size());
+    }
+
+    private static double[] bruteForce(double[] lats, double[] lons, double lat, double lon, double maxDistance) {
+        return Arrays.stream(indices(lats.length))
+                .mapToDouble(i -> DestinationIndex.haversineMeters(lat, lon, lats[i], lons[i]))
+                .filter(d -> d <= maxDistance)
+                .sorted()
+                .toArray();
+    }
+
+    private static int[] indices(int n) {
+        int[] result = new int[n];
+        Arrays.setAll(result, i -> i);
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ds.gateway.spatial;
+
+import com.ds.gateway.business.v1.spatial.ZonePolygonIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZonePolygonIndexTest {
+
+    private static List<List<Double>> square(double minLon, double minLat, double maxLon, double maxLat) {
+        return List.of(List.of(minLon, minLat), List.of(maxLon, minLat), List.of(maxLon, maxLat),
+                List.of(minLon, maxLat), List.of(minLon, minLat));
+    }
+
+    private static ZonePolygonIndex.Zone zone(String id, Object geometry) {
+        return new ZonePolygonIndex.Zone(id, id, id, null, ZonePolygonIndex.ringsOf(geometry));
+    }
+
+    @Test
+    void resolvesPolygonWithHole() {
+        Map<String, Object> ring = Map.of("type", "Polygon",
+                "coordinates", List.of(square(106.0, 10.0, 107.0, 11.0), square(106.4, 10.4, 106.6, 10.6)));
+        ZonePolygonIndex index = new ZonePolygonIndex(List.of(zone("outer", ring)));
+
+        assertEquals("outer", index.resolve(10.2, 106.2).id());
+        assertEquals(null, index.resolve(10.5, 106.5));
+        assertEquals(null, index.resolve(11.5, 106.5));
+    }
+
+    @Test
+    void resolvesMultiPolygonAndPrefersSmallestOverlappingZone() {
+        Map<String, Object> multi = Map.of("type", "MultiPolygon", "coordinates", List.of(
+                List.of(square(106.0, 10.0, 106.1, 10.1)),
+                List.of(square(108.0, 16.0, 108.1, 16.1))));
+        Map<String, Object> big = Map.of("type", "Polygon", "coordinates", List.of(square(105.0, 9.0, 109.0, 17.0)));
+        ZonePolygonIndex index = new ZonePolygonIndex(List.of(zone("big", big), zone("multi", multi)));
+
+        assertEquals("multi", index.resolve(16.05, 108.05).id());
+        assertEquals("multi", index.resolve(10.05, 106.05).id());
+        assertEquals("big", index.resolve(13.0, 107.0).id());
+    }
+
+    @Test
+    void ignoresZonesWithoutUsablePolygon() {
+        ZonePolygonIndex index = new ZonePolygonIndex(List.of(zone("none", null), zone("bad", Map.of("type", "Polygon"))));
+        assertEquals(0, index.size());
+        assertEquals(null, index.resolve(10.0, 106.0));
+    }
+
+    @Test
+    void matchesBruteForceOnGridOfWards() {
+        // 40 x 40 adjacent wards; each point must land in exactly the ward computed arithmetically
+        List<ZonePolygonIndex.Zone> wards = new ArrayList<>();
+        for (int r = 0; r < 40; r++) {
+            for (int c = 0; c < 40; c++) {
+                double lon = 106.0 + c * 0.01;
+                double lat = 10.0 + r * 0.01;
+                wards.add(zone(r + ":" + c, Map.of("type", "Polygon", "coordinates", List.of(square(lon, lat, lon + 0.01, lat + 0.01)))));
+            }
+        }
+        ZonePolygonIndex index = new ZonePolygonIndex(wards);
+        Random random = new Random(3);
+        for (int i = 0; i < 5_000; i++) {
+            int r = random.nextInt(40);
+            int c = random.nextInt(40);
+            double lat = 10.0 + r * 0.01 + 0.0005 + random.nextDouble() * 0.009;
+            double lon = 106.0 + c * 0.01 + 0.0005 + random.nextDouble() * 0.009;
+            ZonePolygonIndex.Zone found = index.resolve(lat, lon);
+            assertTrue(found != null, "point " + lat + "," + lon + " not resolved");
+            assertEquals(r + ":" + c, found.id());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ds.gateway.spatial;
+
+import com.ds.gateway.business.v1.services.ZoneResolverService;
+import com.ds.gateway.common.entities.dto.common.PagedData;
+import com.ds.gateway.common.interfaces.IZoneServiceClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ZoneResolverServiceTest {
+
+    private static Map<String, Object> zoneRow(String id, double minLon, double minLat, double maxLon, double maxLat) {
+        List<List<Double>> ring = List.of(List.of(minLon, minLat), List.of(maxLon, minLat), List.of(maxLon, maxLat),
+                List.of(minLon, maxLat), List.of(minLon, minLat));
+        return Map.of("zone_id", id, "code", id.toUpperCase(), "name", "Zone " + id, "center_id", "c1",
+                "polygon", Map.of("type", "Polygon", "coordinates", List.of(ring)));
+    }
+
+    @SafeVarargs
+    private static CompletableFuture<Object> page(Map<String, Object>... rows) {
+        return CompletableFuture.completedFuture(PagedData.builder().data(List.<Object>of(rows)).build());
+    }
+
+    private static void awaitReady(ZoneResolverService service) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!service.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void loadsIndexFromPagedZoneList() throws Exception {
+        IZoneServiceClient client = mock(IZoneServiceClient.class);
+        // Two full pages of 2 then a short page: the loader keeps paging until a page is not full
+        when(client.listZones(any())).thenReturn(
+                page(zoneRow("z1", 106.0, 10.0, 106.1, 10.1), zoneRow("z2", 106.2, 10.0, 106.3, 10.1)),
+                page(zoneRow("z3", 106.4, 10.0, 106.5, 10.1), zoneRow("z4", 106.6, 10.0, 106.7, 10.1)),
+                page(zoneRow("z5", 108.0, 16.0, 108.1, 16.1)));
+        ZoneResolverService service = new ZoneResolverService(client);
+        ReflectionTestUtils.setField(service, "pageSize", 2);
+
+        assertFalse(service.isReady());
+        service.invalidate();
+        awaitReady(service);
+
+        assertTrue(service.isReady());
+        verify(client, times(3)).listZones(any());
+        ZoneResolverService.ZoneMatch match = service.resolve(10.05, 106.45).orElseThrow();
+        assertEquals("z3", match.zoneId());
+        assertEquals("Z3", match.code());
+        assertEquals("c1", match.centerId());
+        assertEquals("z5", service.resolve(16.05, 108.05).orElseThrow().zoneId());
+        assertTrue(service.resolve(21.0, 105.8).isEmpty());
+    }
+
+    @Test
+    void acceptsRawMapPage() throws Exception {
+        IZoneServiceClient client = mock(IZoneServiceClient.class);
+        when(client.listZones(any())).thenReturn(CompletableFuture.completedFuture(
+                Map.of("data", List.of(zoneRow("z1", 106.0, 10.0, 106.1, 10.1)))));
+        ZoneResolverService service = new ZoneResolverService(client);
+        ReflectionTestUtils.setField(service, "pageSize", 500);
+
+        service.invalidate();
+        awaitReady(service);
+
+        assertEquals("z1", service.resolve(10.05, 106.05).orElseThrow().zoneId());
+    }
+}
@@ -0,0 +1,104 @@
+package com.ds.communication_service.app_context.models;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+
+import com.ds.communication_service.common.enums.MediaPurpose;
+import com.ds.communication_service.common.enums.MediaStatus;
+import com.ds.communication_service.common.enums.ThumbnailStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An uploaded media file (chat image, proof-of-delivery photo)
+ * Only metadata lives here; bytes are on disk under storageKey, messages store the media id
+ */
+@Entity
+@Table(name = "media_objects", indexes = {
+    @Index(name = "idx_media_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_media_purpose_reference", columnList = "purpose, reference_id")
+})
+@Getter
+@Setter
+public class MediaObject {
+
+    @Id
+    @JdbcTypeCode(Types.VARCHAR)
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(length = 36, nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false, length = 36)
+    private String ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MediaPurpose purpose;
+
+    /**
+     * Parcel id for DELIVERY_PROOF, null for chat images
+     */
+    @Column(name = "reference_id", length = 36)
+    private String referenceId;
+
+    @Column(name = "content_type", nullable = false, length = 50)
+    private String contentType;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "total_size", nullable = false)
+    private long totalSize;
+
+    /**
+     * Bytes durably written so far; the next chunk must start at this offset
+     */
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    /**
+     * Path of the file relative to the media storage directory
+     */
+    @Column(name = "storage_key", nullable = false, length = 100)
+    private String storageKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MediaStatus status = MediaStatus.UPLOADING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "thumbnail_status", nullable = false, length = 20)
+    private ThumbnailStatus thumbnailStatus = ThumbnailStatus.NONE;
+
+    private Integer width;
+
+    private Integer height;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    /**
+     * Guards the offset against two instances accepting the same chunk concurrently
+     */
+    @Version
+    private long version;
+}
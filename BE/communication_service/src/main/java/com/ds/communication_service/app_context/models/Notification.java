@@ -20,6 +20,8 @@ import java.util.UUID;
     @Index(name = "idx_notifications_user_id", columnList = "user_id"),
     @Index(name = "idx_notifications_read", columnList = "is_read"),
     @Index(name = "idx_notifications_created_at", columnList = "created_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_notifications_source_event_key", columnNames = "source_event_key")
 })
 @Getter
 @Setter
@@ -60,6 +62,13 @@ public class Notification {
     @Column(name = "action_url")
     private String actionUrl;
 
+    /**
+     * Key of the event this notification was created from (e.g. "<eventId>:<status>"), null for direct notifications
+     * Unique so a redelivered or retried event never notifies twice
+     */
+    @Column(name = "source_event_key", length = 100)
+    private String sourceEventKey;
+
     /**
      * Convert to DTO
      */
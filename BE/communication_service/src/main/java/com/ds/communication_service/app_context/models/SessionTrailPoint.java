@@ -0,0 +1,46 @@
+package com.ds.communication_service.app_context.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Downsampled GPS trail of a delivery session (one row per kept fix)
+ */
+@Entity
+@Table(name = "session_trail_points", indexes = {
+    @Index(name = "idx_session_trail_session_recorded", columnList = "session_id, recorded_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionTrailPoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    @Column(name = "shipper_id", nullable = false, length = 36)
+    private String shipperId;
+
+    @Column(nullable = false)
+    private double lat;
+
+    @Column(nullable = false)
+    private double lon;
+
+    private float speed;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+}
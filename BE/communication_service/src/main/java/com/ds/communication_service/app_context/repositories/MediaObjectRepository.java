@@ -0,0 +1,35 @@
+package com.ds.communication_service.app_context.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ds.communication_service.app_context.models.MediaObject;
+import com.ds.communication_service.common.enums.MediaPurpose;
+import com.ds.communication_service.common.enums.MediaStatus;
+import com.ds.communication_service.common.enums.ThumbnailStatus;
+
+/**
+ * Repository for MediaObject entity
+ */
+@Repository
+public interface MediaObjectRepository extends JpaRepository<MediaObject, UUID> {
+
+    /**
+     * Uploads started before the cutoff and never completed
+     */
+    List<MediaObject> findByStatusAndCreatedAtBefore(MediaStatus status, LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Completed files whose thumbnail was not generated (pool saturated, restart)
+     */
+    List<MediaObject> findByStatusAndThumbnailStatusAndCompletedAtBefore(
+            MediaStatus status, ThumbnailStatus thumbnailStatus, LocalDateTime cutoff, Pageable pageable);
+
+    List<MediaObject> findByPurposeAndReferenceIdAndStatusOrderByCreatedAtAsc(
+            MediaPurpose purpose, String referenceId, MediaStatus status);
+}
@@ -30,6 +30,11 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
      */
     long countByUserIdAndReadFalse(String userId);
 
+    /**
+     * Whether a notification was already created from this event
+     */
+    boolean existsBySourceEventKey(String sourceEventKey);
+
     /**
      * Delete old notifications (older than specified date)
      * Used for cleanup/maintenance
@@ -0,0 +1,19 @@
+package com.ds.communication_service.app_context.repositories;
+
+import com.ds.communication_service.app_context.models.SessionTrailPoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for SessionTrailPoint entity
+ */
+@Repository
+public interface SessionTrailPointRepository extends JpaRepository<SessionTrailPoint, Long> {
+
+    /**
+     * Trail of a session in time order
+     */
+    List<SessionTrailPoint> findBySessionIdOrderByRecordedAtAsc(String sessionId);
+}
@@ -9,15 +9,23 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Component;
 
+import com.ds.communication_service.business.v1.services.ParcelAccessService;
+import com.ds.communication_service.business.v1.tracking.ParcelSubscriptionRegistry;
+
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
+    private final ParcelAccessService parcelAccessService;
+
     /**
      * Được gọi mỗi khi một tin nhắn (CONNECT, SUBSCRIBE, SEND...) được gửi từ client.
      */
@@ -87,6 +95,15 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
             } else {
                 log.warn("WebSocket SUBSCRIBE: No Principal found for subscription to {}", destination);
             }
+
+            // Vị trí / trạng thái của đơn chỉ dành cho người gửi và người nhận đơn đó.
+            // Ném lỗi ở đây: client nhận frame ERROR, subscription không được đăng ký.
+            ParcelSubscriptionRegistry.ParcelTopic parcelTopic = ParcelSubscriptionRegistry.parse(destination);
+            if (parcelTopic != null
+                    && (user == null || !parcelAccessService.canFollow(user.getName(), parcelTopic.parcelId()))) {
+                log.warn("WebSocket SUBSCRIBE denied: user {} to {}", user != null ? user.getName() : null, destination);
+                throw new AccessDeniedException("Not allowed to follow parcel " + parcelTopic.parcelId());
+            }
         }
         
         // 7. Cho phép tin nhắn tiếp tục được xử lý
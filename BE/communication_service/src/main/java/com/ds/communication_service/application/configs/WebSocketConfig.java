@@ -1,6 +1,7 @@
 package com.ds.communication_service.application.configs;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
@@ -23,6 +24,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Autowired
     private WebSocketAuthInterceptor authInterceptor;
 
+    /**
+     * Resolved subscriber lists cached per destination. Each parcel status/location topic is its own destination,
+     * so the default (1024) would be evicted constantly with tens of thousands of customers subscribed,
+     * and every cache miss scans all subscriptions of all sessions.
+     */
+    @Value("${websocket.subscription-cache-limit:65536}")
+    private int subscriptionCacheLimit;
+
     @Bean(name = "webSocketTaskScheduler") 
     public TaskScheduler webSocketTaskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
@@ -47,6 +56,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        config.setCacheLimit(subscriptionCacheLimit);
+        // Transitions of one parcel must reach a session in the order they were published
+        config.setPreservePublishOrder(true);
         
         log.info("WebSocket message broker configured: heartbeat={}ms, userDestinationPrefix=/user", heartbeat[0]);
     }
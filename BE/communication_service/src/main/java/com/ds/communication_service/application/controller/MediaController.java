@@ -0,0 +1,104 @@
+package com.ds.communication_service.application.controller;
+
+import com.ds.communication_service.business.v1.media.MediaFileWriter;
+import com.ds.communication_service.common.dto.BaseResponse;
+import com.ds.communication_service.common.dto.CreateMediaUploadRequest;
+import com.ds.communication_service.common.dto.MediaUploadResponse;
+import com.ds.communication_service.common.interfaces.IMediaService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST API controller for media files (chat images, proof-of-delivery photos)
+ * Uploads are resumable: create, then PUT raw chunks at Upload-Offset; GET the upload to learn where to resume.
+ * Files are read by their (unguessable) id and support Range / If-None-Match.
+ */
+@RestController
+@RequestMapping("/api/v1/media")
+@RequiredArgsConstructor
+@Slf4j
+public class MediaController {
+
+    private final IMediaService mediaService;
+    private final MediaFileWriter fileWriter;
+
+    /**
+     * Start an upload
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<BaseResponse<MediaUploadResponse>> createUpload(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestBody CreateMediaUploadRequest request) {
+
+        MediaUploadResponse upload = mediaService.createUpload(request, userId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(BaseResponse.success("Upload created", upload));
+    }
+
+    /**
+     * Upload state; receivedBytes is the offset of the next chunk
+     */
+    @GetMapping("/uploads/{id}")
+    public ResponseEntity<BaseResponse<MediaUploadResponse>> getUpload(
+            @RequestHeader("X-User-Id") String userId,
+            @PathVariable UUID id) {
+
+        return ResponseEntity.ok(BaseResponse.success("Upload retrieved successfully", mediaService.getUpload(id, userId)));
+    }
+
+    /**
+     * Append a chunk (raw bytes, application/octet-stream) starting at Upload-Offset.
+     * The body is streamed to disk, never buffered.
+     */
+    @PutMapping(value = "/uploads/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<BaseResponse<MediaUploadResponse>> uploadChunk(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("Upload-Offset") long offset,
+            @PathVariable UUID id,
+            HttpServletRequest request) throws IOException {
+
+        MediaUploadResponse upload = mediaService.appendChunk(id, userId, offset, request.getInputStream(), request.getContentLengthLong());
+        return ResponseEntity.ok()
+            .header("Upload-Offset", String.valueOf(upload.getReceivedBytes()))
+            .body(BaseResponse.success("Chunk accepted", upload));
+    }
+
+    /**
+     * Original file
+     */
+    @RequestMapping(value = "/{id}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getContent(@PathVariable UUID id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        IMediaService.StoredFile file = mediaService.getContent(id, false);
+        fileWriter.write(file.path(), file.contentType(), file.etag(), request, response);
+    }
+
+    /**
+     * JPEG thumbnail (404 until it has been generated)
+     */
+    @RequestMapping(value = "/{id}/thumbnail", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void getThumbnail(@PathVariable UUID id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        IMediaService.StoredFile file = mediaService.getContent(id, true);
+        fileWriter.write(file.path(), file.contentType(), file.etag(), request, response);
+    }
+
+    /**
+     * Proof-of-delivery photos of a parcel (sender, receiver, assigned shipper, admins)
+     */
+    @GetMapping("/proofs/{parcelId}")
+    public ResponseEntity<BaseResponse<List<MediaUploadResponse>>> listProofs(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "X-User-Roles", required = false) String roles,
+            @PathVariable String parcelId) {
+
+        return ResponseEntity.ok(BaseResponse.success("Proofs retrieved successfully", mediaService.listProofs(parcelId, userId, roles)));
+    }
+}
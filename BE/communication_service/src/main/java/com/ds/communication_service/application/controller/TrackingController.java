@@ -0,0 +1,116 @@
+package com.ds.communication_service.application.controller;
+
+import com.ds.communication_service.business.v1.services.LocationTrackingService;
+import com.ds.communication_service.business.v1.services.ParcelAccessService;
+import com.ds.communication_service.business.v1.services.ParcelTrackingService;
+import com.ds.communication_service.business.v1.services.TrackingAccessService;
+import com.ds.communication_service.business.v1.tracking.LatestPositionStore;
+import com.ds.communication_service.common.dto.BaseResponse;
+import com.ds.communication_service.common.dto.LocationBatchRequest;
+import com.ds.communication_service.common.dto.ShipperLocationUpdate;
+import com.ds.communication_service.common.dto.TrailPointResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST API controller for shipper location tracking
+ * Shippers upload batches of GPS fixes for their own active session; the shipper, admins and customers with a parcel
+ * in the session read the latest position and the session trail
+ */
+@RestController
+@RequestMapping("/api/v1/tracking")
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingController {
+
+    private final LocationTrackingService locationTrackingService;
+    private final ParcelTrackingService parcelTrackingService;
+    private final ParcelAccessService parcelAccessService;
+    private final TrackingAccessService trackingAccessService;
+
+    /**
+     * Upload a batch of GPS fixes of the current shipper
+     */
+    @PostMapping("/locations")
+    public ResponseEntity<BaseResponse<Integer>> uploadLocations(
+            @RequestHeader("X-User-Id") String shipperId,
+            @RequestBody LocationBatchRequest request) {
+
+        if (request.getSessionId() != null && !trackingAccessService.isOwnActiveSession(shipperId, request.getSessionId())) {
+            throw new AccessDeniedException("Session " + request.getSessionId() + " is not an active session of shipper " + shipperId);
+        }
+        int accepted = locationTrackingService.ingest(shipperId, request);
+        return ResponseEntity.ok(BaseResponse.success("Locations accepted", accepted));
+    }
+
+    /**
+     * Latest known position of a shipper (the shipper, admins, customers with a parcel in the shipper's active session)
+     */
+    @GetMapping("/shippers/{shipperId}/location")
+    public ResponseEntity<BaseResponse<ShipperLocationUpdate>> getShipperLocation(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "X-User-Roles", required = false) String roles,
+            @PathVariable String shipperId) {
+
+        if (!trackingAccessService.canReadShipper(userId, roles, shipperId)) {
+            throw new AccessDeniedException("User " + userId + " may not follow shipper " + shipperId);
+        }
+        LatestPositionStore.Position position = locationTrackingService.getLatestPosition(shipperId);
+        if (position == null) {
+            return ResponseEntity.ok(BaseResponse.success("No location yet", null));
+        }
+        return ResponseEntity.ok(BaseResponse.success("Location retrieved successfully", toUpdate(null, position)));
+    }
+
+    /**
+     * Latest known position of the shipper currently carrying a parcel (sender and receiver only)
+     */
+    @GetMapping("/parcels/{parcelId}/location")
+    public ResponseEntity<BaseResponse<ShipperLocationUpdate>> getParcelLocation(
+            @RequestHeader("X-User-Id") String userId,
+            @PathVariable String parcelId) {
+
+        if (!parcelAccessService.canFollow(userId, parcelId)) {
+            throw new AccessDeniedException("User " + userId + " is not a party of parcel " + parcelId);
+        }
+        String shipperId = parcelTrackingService.findShipper(parcelId);
+        LatestPositionStore.Position position = shipperId != null ? locationTrackingService.getLatestPosition(shipperId) : null;
+        if (position == null) {
+            return ResponseEntity.ok(BaseResponse.success("No location yet", null));
+        }
+        return ResponseEntity.ok(BaseResponse.success("Location retrieved successfully", toUpdate(parcelId, position)));
+    }
+
+    /**
+     * Downsampled trail of a delivery session (its shipper, admins, customers with a parcel in the session)
+     */
+    @GetMapping("/sessions/{sessionId}/trail")
+    public ResponseEntity<BaseResponse<List<TrailPointResponse>>> getSessionTrail(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "X-User-Roles", required = false) String roles,
+            @PathVariable String sessionId) {
+
+        if (!trackingAccessService.canReadSession(userId, roles, sessionId)) {
+            throw new AccessDeniedException("User " + userId + " may not read the trail of session " + sessionId);
+        }
+        List<TrailPointResponse> trail = locationTrackingService.getSessionTrail(sessionId);
+        return ResponseEntity.ok(BaseResponse.success("Trail retrieved successfully", trail));
+    }
+
+    private static ShipperLocationUpdate toUpdate(String parcelId, LatestPositionStore.Position position) {
+        return ShipperLocationUpdate.builder()
+            .parcelId(parcelId)
+            .shipperId(position.shipperId())
+            .lat(position.lat())
+            .lon(position.lon())
+            .speed(position.speed())
+            .heading(position.heading())
+            .timestamp(position.timestamp())
+            .build();
+    }
+}
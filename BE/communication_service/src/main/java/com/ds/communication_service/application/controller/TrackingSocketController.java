@@ -0,0 +1,34 @@
+package com.ds.communication_service.application.controller;
+
+import java.security.Principal;
+
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+import com.ds.communication_service.business.v1.services.LocationTrackingService;
+import com.ds.communication_service.common.dto.LocationBatchRequest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingSocketController {
+
+    private final LocationTrackingService locationTrackingService;
+
+    /**
+     * Nhận lô vị trí GPS từ shipper qua WebSocket (không cần mở request HTTP cho mỗi lô)
+     * Client gửi đến "/app/location.batch"
+     */
+    @MessageMapping("/location.batch")
+    public void uploadLocations(@Payload LocationBatchRequest request, Principal principal) {
+        if (principal == null) {
+            log.error("Gửi vị trí thất bại. Không tìm thấy principal (user chưa xác thực).");
+            return;
+        }
+        locationTrackingService.ingest(principal.getName(), request);
+    }
+}
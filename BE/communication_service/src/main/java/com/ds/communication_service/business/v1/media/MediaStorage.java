@@ -0,0 +1,145 @@
+package com.ds.communication_service.business.v1.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Media files on local disk
+ * - A file being uploaded is "{key}.part"; chunks are streamed into it at their offset with FileChannel.transferFrom,
+ *   so a chunk is never held in heap (the JDK copies through a small transfer buffer)
+ * - When complete it is renamed atomically to "{key}"; the thumbnail is "{key}.thumb.jpg"
+ * - Keys are "yyyy/MM/{uuid}" so no directory grows without bound
+ */
+@Component
+@Slf4j
+public class MediaStorage {
+
+    private static final long TRANSFER_BLOCK = 256 * 1024;
+
+    private final Path root;
+
+    public MediaStorage(@Value("${media.storage-dir:./data/media}") String storageDir) throws IOException {
+        this.root = Paths.get(storageDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("Media storage directory: {}", root);
+    }
+
+    public String newStorageKey() {
+        LocalDate today = LocalDate.now();
+        return String.format("%d/%02d/%s", today.getYear(), today.getMonthValue(), UUID.randomUUID());
+    }
+
+    public Path file(String key) {
+        return resolve(key);
+    }
+
+    public Path partFile(String key) {
+        return resolve(key + ".part");
+    }
+
+    public Path thumbnailFile(String key) {
+        return resolve(key + ".thumb.jpg");
+    }
+
+    /**
+     * Streams one chunk into the partial file at offset and forces it to disk before returning,
+     * so the offset committed afterwards never points past durable bytes.
+     *
+     * @param maxBytes bytes the upload may still receive in this chunk
+     * @return bytes written
+     * @throws ChunkTooLargeException if the body has more than maxBytes (nothing beyond offset is kept)
+     */
+    public long writeChunk(String key, long offset, InputStream body, long maxBytes) throws IOException {
+        Path part = partFile(key);
+        Files.createDirectories(part.getParent());
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(body)) {
+            if (channel.size() < offset) {
+                throw new IllegalStateException("Partial file is shorter than the committed offset");
+            }
+            long written = 0;
+            while (written < maxBytes) {
+                long transferred = channel.transferFrom(source, offset + written, Math.min(TRANSFER_BLOCK, maxBytes - written));
+                if (transferred <= 0) {
+                    break; // end of the request body
+                }
+                written += transferred;
+            }
+            boolean overflow = written == maxBytes && source.read(ByteBuffer.allocate(1)) > 0;
+            // Bytes past the new offset belong to an earlier attempt that was never committed
+            channel.truncate(overflow ? offset : offset + written);
+            channel.force(false);
+            if (overflow) {
+                throw new ChunkTooLargeException(maxBytes);
+            }
+            return written;
+        }
+    }
+
+    /**
+     * First bytes of the partial file (content sniffing before the upload is accepted)
+     */
+    public byte[] readPartHeader(String key, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(partFile(key), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // fill
+            }
+            return buffer.array();
+        }
+    }
+
+    /**
+     * Moves the completed partial file to its final path; a no-op if that already happened
+     */
+    public void promote(String key) throws IOException {
+        Path part = partFile(key);
+        if (Files.notExists(part) && Files.exists(file(key))) {
+            return;
+        }
+        Files.move(part, file(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public void delete(String key) {
+        for (Path path : new Path[]{partFile(key), file(key), thumbnailFile(key)}) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Failed to delete media file {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private Path resolve(String relative) {
+        Path path = root.resolve(relative).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid media key");
+        }
+        return path;
+    }
+
+    /**
+     * Request body longer than the chunk the upload may receive
+     */
+    public static class ChunkTooLargeException extends IOException {
+        public ChunkTooLargeException(long maxBytes) {
+            super("Chunk exceeds the allowed " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ds.communication_service.business.v1.media;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ds.communication_service.app_context.models.MediaObject;
+import com.ds.communication_service.app_context.repositories.MediaObjectRepository;
+import com.ds.communication_service.common.enums.MediaStatus;
+import com.ds.communication_service.common.enums.ThumbnailStatus;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thumbnail generation and upload housekeeping
+ * - Thumbnails run on a small dedicated pool with a bounded queue, so a burst of photos cannot
+ *   take request threads or heap; work that does not fit stays PENDING and is picked up by the sweep
+ * - Uploads never completed within the expiry are deleted together with their partial files
+ */
+@Service
+@Slf4j
+public class MediaThumbnailService {
+
+    private static final int SWEEP_BATCH = 100;
+
+    private final MediaObjectRepository mediaRepository;
+    private final MediaStorage storage;
+    private final ThumbnailGenerator generator;
+    private final ThreadPoolExecutor executor;
+    private final long uploadExpiryHours;
+
+    public MediaThumbnailService(MediaObjectRepository mediaRepository,
+                                 MediaStorage storage,
+                                 ThumbnailGenerator generator,
+                                 @Value("${media.thumbnail-threads:2}") int threads,
+                                 @Value("${media.thumbnail-queue-capacity:200}") int queueCapacity,
+                                 @Value("${media.upload-expiry-hours:24}") long uploadExpiryHours) {
+        this.mediaRepository = mediaRepository;
+        this.storage = storage;
+        this.generator = generator;
+        this.uploadExpiryHours = uploadExpiryHours;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "media-thumbnail-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queue thumbnail generation; returns false when the pool is saturated (the sweep retries later)
+     */
+    public boolean submit(UUID mediaId) {
+        try {
+            executor.execute(() -> generate(mediaId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Thumbnail queue full, media {} left for the sweep", mediaId);
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${media.thumbnail-sweep-interval-ms:60000}")
+    public void sweepPendingThumbnails() {
+        List<MediaObject> pending = mediaRepository.findByStatusAndThumbnailStatusAndCompletedAtBefore(
+            MediaStatus.COMPLETE, ThumbnailStatus.PENDING, LocalDateTime.now().minusMinutes(1), PageRequest.of(0, SWEEP_BATCH));
+        for (MediaObject media : pending) {
+            if (!submit(media.getId())) {
+                break;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${media.expired-upload-sweep-interval-ms:3600000}")
+    public void deleteExpiredUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(uploadExpiryHours);
+        List<MediaObject> expired;
+        do {
+            expired = mediaRepository.findByStatusAndCreatedAtBefore(MediaStatus.UPLOADING, cutoff, PageRequest.of(0, SWEEP_BATCH));
+            for (MediaObject media : expired) {
+                storage.delete(media.getStorageKey());
+            }
+            mediaRepository.deleteAllInBatch(expired);
+            if (!expired.isEmpty()) {
+                log.info("Deleted {} expired uploads", expired.size());
+            }
+        } while (expired.size() == SWEEP_BATCH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generate(UUID mediaId) {
+        MediaObject media = mediaRepository.findById(mediaId).orElse(null);
+        if (media == null || media.getThumbnailStatus() != ThumbnailStatus.PENDING) {
+            return; // already done by another instance / sweep
+        }
+        try {
+            // Idempotent: finishes a publish that failed right after the upload was committed
+            storage.promote(media.getStorageKey());
+            int[] size = generator.generate(storage.file(media.getStorageKey()), storage.thumbnailFile(media.getStorageKey()));
+            media.setWidth(size[0]);
+            media.setHeight(size[1]);
+            media.setThumbnailStatus(ThumbnailStatus.READY);
+        } catch (Exception e) {
+            log.warn("Thumbnail generation failed for media {}: {}", mediaId, e.getMessage());
+            media.setThumbnailStatus(ThumbnailStatus.FAILED);
+        }
+        try {
+            mediaRepository.save(media);
+        } catch (Exception e) {
+            log.warn("Failed to record thumbnail state of media {}: {}", mediaId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.ds.communication_service.business.v1.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.communication_service.app_context.models.SessionTrailPoint;
+import com.ds.communication_service.app_context.repositories.SessionTrailPointRepository;
+import com.ds.communication_service.business.v1.tracking.LatestPositionStore;
+import com.ds.communication_service.business.v1.tracking.TrailDownsampler;
+import com.ds.communication_service.common.dto.LocationBatchRequest;
+import com.ds.communication_service.common.dto.TrailPointResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shipper location ingestion
+ * - Every valid fix updates the in-memory latest position (no DB write on the hot path)
+ * - Downsampled fixes are queued and flushed to session_trail_points in batches
+ */
+@Service
+@Slf4j
+public class LocationTrackingService {
+
+    private static final long MAX_CLOCK_SKEW_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final LatestPositionStore positionStore;
+    private final TrailDownsampler trailDownsampler;
+    private final SessionTrailPointRepository trailRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<SessionTrailPoint> pendingTrail;
+
+    private final Counter acceptedPings;
+    private final Counter rejectedPings;
+    private final Counter droppedTrailPoints;
+
+    @Value("${tracking.trail-flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    public LocationTrackingService(SessionTrailPointRepository trailRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${tracking.max-shippers:100000}") int maxShippers,
+                                   @Value("${tracking.trail-min-distance-m:25}") double trailMinDistanceMeters,
+                                   @Value("${tracking.trail-min-interval-ms:2000}") long trailMinIntervalMs,
+                                   @Value("${tracking.trail-max-interval-ms:30000}") long trailMaxIntervalMs,
+                                   @Value("${tracking.trail-queue-capacity:100000}") int trailQueueCapacity) {
+        this.trailRepository = trailRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.positionStore = new LatestPositionStore(maxShippers);
+        this.trailDownsampler = new TrailDownsampler(maxShippers, trailMinDistanceMeters, trailMinIntervalMs, trailMaxIntervalMs);
+        this.pendingTrail = new ArrayBlockingQueue<>(trailQueueCapacity);
+
+        this.acceptedPings = Counter.builder("tracking.pings").tag("result", "accepted").register(meterRegistry);
+        this.rejectedPings = Counter.builder("tracking.pings").tag("result", "rejected").register(meterRegistry);
+        this.droppedTrailPoints = Counter.builder("tracking.trail.dropped")
+            .description("Trail points dropped because the write queue was full")
+            .register(meterRegistry);
+        Gauge.builder("tracking.shippers", positionStore, LatestPositionStore::size)
+            .description("Shippers with a known position")
+            .register(meterRegistry);
+        Gauge.builder("tracking.trail.pending", pendingTrail, BlockingQueue::size)
+            .description("Trail points waiting to be persisted")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ingest a batch of fixes of one shipper. Returns the number of fixes that updated the latest position.
+     */
+    public int ingest(String shipperId, LocationBatchRequest request) {
+        if (shipperId == null || shipperId.isBlank() || request == null || request.getPoints() == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int accepted = 0;
+        for (LocationBatchRequest.Point point : request.getPoints()) {
+            if (!isValid(point, now)) {
+                rejectedPings.increment();
+                continue;
+            }
+            float speed = point.getSpeed() != null ? point.getSpeed() : 0f;
+            float heading = point.getHeading() != null ? point.getHeading() : 0f;
+            if (positionStore.update(shipperId, point.getLat(), point.getLon(), speed, heading, point.getTimestamp())) {
+                accepted++;
+            }
+            if (request.getSessionId() != null) {
+                recordTrail(shipperId, request.getSessionId(), point, speed);
+            }
+        }
+        acceptedPings.increment(accepted);
+        return accepted;
+    }
+
+    public LatestPositionStore.Position getLatestPosition(String shipperId) {
+        return positionStore.get(shipperId);
+    }
+
+    public LatestPositionStore getPositionStore() {
+        return positionStore;
+    }
+
+    public List<TrailPointResponse> getSessionTrail(String sessionId) {
+        return trailRepository.findBySessionIdOrderByRecordedAtAsc(sessionId).stream()
+            .map(point -> TrailPointResponse.builder()
+                .lat(point.getLat())
+                .lon(point.getLon())
+                .speed(point.getSpeed())
+                .recordedAt(point.getRecordedAt())
+                .build())
+            .toList();
+    }
+
+    /**
+     * Persist queued trail points in batches (one transaction per batch)
+     */
+    @Scheduled(fixedDelayString = "${tracking.trail-flush-interval-ms:1000}")
+    public void flushTrail() {
+        List<SessionTrailPoint> batch = new ArrayList<>(Math.min(flushBatchSize, pendingTrail.size()));
+        while (pendingTrail.drainTo(batch, flushBatchSize) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> trailRepository.saveAll(batch));
+            } catch (Exception e) {
+                // Trail is best-effort: drop the batch rather than block ingestion
+                log.error("Failed to persist {} trail points: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void recordTrail(String shipperId, String sessionId, LocationBatchRequest.Point point, float speed) {
+        int slot = positionStore.slotOf(shipperId);
+        if (slot == LatestPositionStore.NO_SLOT
+                || !trailDownsampler.accept(slot, sessionId, point.getLat(), point.getLon(), point.getTimestamp())) {
+            return;
+        }
+        SessionTrailPoint trailPoint = SessionTrailPoint.builder()
+            .sessionId(sessionId)
+            .shipperId(shipperId)
+            .lat(point.getLat())
+            .lon(point.getLon())
+            .speed(speed)
+            .recordedAt(Instant.ofEpochMilli(point.getTimestamp()))
+            .build();
+        if (!pendingTrail.offer(trailPoint)) {
+            droppedTrailPoints.increment();
+        }
+    }
+
+    private static boolean isValid(LocationBatchRequest.Point point, long now) {
+        return point != null
+            && point.getLat() >= -90 && point.getLat() <= 90
+            && point.getLon() >= -180 && point.getLon() <= 180
+            && !(point.getLat() == 0 && point.getLon() == 0)
+            && point.getTimestamp() > 0
+            && point.getTimestamp() <= now + MAX_CLOCK_SKEW_MS;
+    }
+}
@@ -0,0 +1,292 @@
+package com.ds.communication_service.business.v1.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import com.ds.communication_service.app_context.models.MediaObject;
+import com.ds.communication_service.app_context.repositories.MediaObjectRepository;
+import com.ds.communication_service.business.v1.media.MediaStorage;
+import com.ds.communication_service.business.v1.media.MediaThumbnailService;
+import com.ds.communication_service.common.dto.CreateMediaUploadRequest;
+import com.ds.communication_service.common.dto.MediaUploadResponse;
+import com.ds.communication_service.common.enums.MediaPurpose;
+import com.ds.communication_service.common.enums.MediaStatus;
+import com.ds.communication_service.common.enums.ThumbnailStatus;
+import com.ds.communication_service.common.exception.MediaUploadConflictException;
+import com.ds.communication_service.common.interfaces.IMediaService;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resumable media uploads (chat images, proof-of-delivery photos)
+ * - The client creates an upload with the total size, then PUTs chunks at Upload-Offset
+ * - Each chunk is streamed to disk and fsynced before received_bytes is committed, so after a dropped
+ *   connection the client asks for the upload and continues from receivedBytes
+ * - The last chunk checks the file signature and marks the upload COMPLETE; only once that is committed is the file
+ *   moved to its final path and its thumbnail queued. If the commit fails, the partial file is still in place and
+ *   the client resends the last chunk; if the move fails, it is retried on the next read
+ * Not @Transactional: the chunk is written to disk outside any DB transaction and the row is updated once
+ */
+@Service
+@Slf4j
+public class MediaService implements IMediaService {
+
+    private static final Map<String, byte[][]> SIGNATURES = Map.of(
+        "image/jpeg", new byte[][]{{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}},
+        "image/png", new byte[][]{{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}}
+    );
+
+    private final MediaObjectRepository mediaRepository;
+    private final MediaStorage storage;
+    private final MediaThumbnailService thumbnailService;
+    private final ParcelAccessService parcelAccessService;
+    private final long maxFileBytes;
+    private final long maxChunkBytes;
+
+    // Uploads with a chunk being written on this instance; a parallel chunk is rejected instead of interleaving
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public MediaService(MediaObjectRepository mediaRepository,
+                        MediaStorage storage,
+                        MediaThumbnailService thumbnailService,
+                        ParcelAccessService parcelAccessService,
+                        @Value("${media.max-file-bytes:20971520}") long maxFileBytes,
+                        @Value("${media.max-chunk-bytes:8388608}") long maxChunkBytes) {
+        this.mediaRepository = mediaRepository;
+        this.storage = storage;
+        this.thumbnailService = thumbnailService;
+        this.parcelAccessService = parcelAccessService;
+        this.maxFileBytes = maxFileBytes;
+        this.maxChunkBytes = maxChunkBytes;
+    }
+
+    @Override
+    public MediaUploadResponse createUpload(CreateMediaUploadRequest request, String ownerId) {
+        if (request.getPurpose() == null) {
+            throw new IllegalArgumentException("purpose is required");
+        }
+        String contentType = request.getContentType() == null ? null : request.getContentType().toLowerCase();
+        if (!SIGNATURES.containsKey(contentType)) {
+            throw new IllegalArgumentException("Unsupported content type: " + request.getContentType());
+        }
+        if (request.getSize() <= 0 || request.getSize() > maxFileBytes) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxFileBytes + " bytes");
+        }
+        if (request.getPurpose() == MediaPurpose.DELIVERY_PROOF
+                && (request.getReferenceId() == null || request.getReferenceId().isBlank())) {
+            throw new IllegalArgumentException("referenceId (parcel id) is required for DELIVERY_PROOF");
+        }
+        if (request.getPurpose() == MediaPurpose.DELIVERY_PROOF
+                && !parcelAccessService.isAssignedShipper(ownerId, request.getReferenceId())) {
+            throw new AccessDeniedException("User " + ownerId + " is not the shipper of parcel " + request.getReferenceId());
+        }
+
+        MediaObject media = new MediaObject();
+        media.setOwnerId(ownerId);
+        media.setPurpose(request.getPurpose());
+        media.setReferenceId(request.getReferenceId());
+        media.setContentType(contentType);
+        media.setFileName(truncate(request.getFileName(), 255));
+        media.setTotalSize(request.getSize());
+        media.setStorageKey(storage.newStorageKey());
+        MediaObject saved = mediaRepository.save(media);
+        log.info("Media upload created: id={}, owner={}, purpose={}, size={}", saved.getId(), ownerId, saved.getPurpose(), saved.getTotalSize());
+        return toDto(saved);
+    }
+
+    @Override
+    public MediaUploadResponse getUpload(UUID mediaId, String ownerId) {
+        return toDto(findOwned(mediaId, ownerId));
+    }
+
+    @Override
+    public MediaUploadResponse appendChunk(UUID mediaId, String ownerId, long offset, InputStream body, long contentLength) {
+        MediaObject media = findOwned(mediaId, ownerId);
+        if (media.getStatus() == MediaStatus.COMPLETE) {
+            if (offset == media.getTotalSize()) {
+                promote(media); // retry of the last chunk whose response was lost
+                return toDto(media);
+            }
+            throw new MediaUploadConflictException("Upload already complete", media.getTotalSize());
+        }
+        if (offset != media.getReceivedBytes()) {
+            throw new MediaUploadConflictException("Expected offset " + media.getReceivedBytes() + " but got " + offset,
+                media.getReceivedBytes());
+        }
+        long remaining = media.getTotalSize() - offset;
+        long allowed = Math.min(remaining, maxChunkBytes);
+        if (contentLength > allowed) {
+            throw new IllegalArgumentException("Chunk too large: at most " + allowed + " bytes allowed");
+        }
+        if (!inFlight.add(mediaId)) {
+            throw new MediaUploadConflictException("Another chunk is being written", media.getReceivedBytes());
+        }
+        try {
+            long written;
+            try {
+                written = storage.writeChunk(media.getStorageKey(), offset, body, allowed);
+            } catch (MediaStorage.ChunkTooLargeException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            } catch (IOException e) {
+                // Client disconnected mid-chunk: nothing is committed, it resumes from the stored offset
+                throw new UncheckedIOException("Failed to store chunk of media " + mediaId, e);
+            }
+
+            media.setReceivedBytes(offset + written);
+            boolean completed = media.getReceivedBytes() == media.getTotalSize();
+            if (completed) {
+                markComplete(media);
+            }
+            MediaObject saved = mediaRepository.saveAndFlush(media);
+            if (completed) {
+                log.info("Media upload completed: id={}, size={}", saved.getId(), saved.getTotalSize());
+                if (promote(saved)) {
+                    thumbnailService.submit(saved.getId());
+                }
+            }
+            return toDto(saved);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            long current = mediaRepository.findById(mediaId).map(MediaObject::getReceivedBytes).orElse(0L);
+            throw new MediaUploadConflictException("Upload was modified concurrently", current);
+        } finally {
+            inFlight.remove(mediaId);
+        }
+    }
+
+    @Override
+    public StoredFile getContent(UUID mediaId, boolean thumbnail) {
+        MediaObject media = mediaRepository.findById(mediaId)
+            .filter(m -> m.getStatus() == MediaStatus.COMPLETE)
+            .orElseThrow(() -> new EntityNotFoundException("Media not found: " + mediaId));
+        if (!thumbnail) {
+            if (!promote(media)) {
+                throw new UncheckedIOException(new IOException("Media file is not available yet: " + mediaId));
+            }
+            return new StoredFile(storage.file(media.getStorageKey()), media.getContentType(), media.getId().toString());
+        }
+        if (media.getThumbnailStatus() != ThumbnailStatus.READY) {
+            throw new EntityNotFoundException("Thumbnail not available for media: " + mediaId);
+        }
+        return new StoredFile(storage.thumbnailFile(media.getStorageKey()), "image/jpeg", media.getId() + "-thumb");
+    }
+
+    @Override
+    public List<MediaUploadResponse> listProofs(String parcelId, String userId, String roles) {
+        if (!parcelAccessService.canViewProofs(userId, roles, parcelId)) {
+            throw new AccessDeniedException("User " + userId + " may not view the proofs of parcel " + parcelId);
+        }
+        return mediaRepository.findByPurposeAndReferenceIdAndStatusOrderByCreatedAtAsc(
+                MediaPurpose.DELIVERY_PROOF, parcelId, MediaStatus.COMPLETE)
+            .stream()
+            .map(this::toDto)
+            .toList();
+    }
+
+    @Override
+    public void validateAttachment(String mediaId, String senderId) {
+        UUID id;
+        try {
+            id = UUID.fromString(mediaId);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid media id: " + mediaId);
+        }
+        MediaObject media = mediaRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Media not found: " + mediaId));
+        if (!media.getOwnerId().equals(senderId)) {
+            throw new AccessDeniedException("Media does not belong to the sender");
+        }
+        if (media.getStatus() != MediaStatus.COMPLETE) {
+            throw new IllegalStateException("Media upload is not complete: " + mediaId);
+        }
+    }
+
+    /**
+     * Verify the declared type against the file signature and mark the upload complete (saved by the caller)
+     */
+    private void markComplete(MediaObject media) {
+        try {
+            byte[] header = storage.readPartHeader(media.getStorageKey(), 16);
+            if (!matchesSignature(media.getContentType(), header)) {
+                storage.delete(media.getStorageKey());
+                mediaRepository.delete(media);
+                throw new IllegalArgumentException("File content does not match " + media.getContentType());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read media " + media.getId(), e);
+        }
+        media.setStatus(MediaStatus.COMPLETE);
+        media.setThumbnailStatus(ThumbnailStatus.PENDING);
+        media.setCompletedAt(LocalDateTime.now());
+    }
+
+    /**
+     * Move a COMPLETE upload to its final path (idempotent)
+     *
+     * @return false if the file could not be moved yet
+     */
+    private boolean promote(MediaObject media) {
+        try {
+            storage.promote(media.getStorageKey());
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to publish media {}: {}", media.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean matchesSignature(String contentType, byte[] header) {
+        for (byte[] signature : SIGNATURES.getOrDefault(contentType, new byte[0][])) {
+            if (header.length >= signature.length
+                    && Arrays.equals(Arrays.copyOf(header, signature.length), signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MediaObject findOwned(UUID mediaId, String ownerId) {
+        MediaObject media = mediaRepository.findById(mediaId)
+            .orElseThrow(() -> new EntityNotFoundException("Media not found: " + mediaId));
+        if (!media.getOwnerId().equals(ownerId)) {
+            log.warn("Security violation: User {} attempted to access upload {} of {}", ownerId, mediaId, media.getOwnerId());
+            throw new AccessDeniedException("User does not own this upload.");
+        }
+        return media;
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+
+    private MediaUploadResponse toDto(MediaObject media) {
+        return MediaUploadResponse.builder()
+            .id(media.getId().toString())
+            .purpose(media.getPurpose())
+            .referenceId(media.getReferenceId())
+            .contentType(media.getContentType())
+            .totalSize(media.getTotalSize())
+            .receivedBytes(media.getReceivedBytes())
+            .maxChunkSize(maxChunkBytes)
+            .status(media.getStatus())
+            .thumbnailStatus(media.getThumbnailStatus())
+            .width(media.getWidth())
+            .height(media.getHeight())
+            .createdAt(media.getCreatedAt())
+            .completedAt(media.getCompletedAt())
+            .build();
+    }
+}
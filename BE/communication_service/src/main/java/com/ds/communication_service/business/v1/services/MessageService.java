@@ -16,6 +16,7 @@ import com.ds.communication_service.common.dto.InteractiveProposalResponseDTO;
 import com.ds.communication_service.common.dto.MessageResponse;
 import com.ds.communication_service.common.enums.ContentType;
 import com.ds.communication_service.common.enums.MessageStatus;
+import com.ds.communication_service.common.interfaces.IMediaService;
 import com.ds.communication_service.common.interfaces.IMessageService;
 import com.ds.communication_service.infrastructure.kafka.MessageProducer;
 
@@ -32,6 +33,7 @@ public class MessageService implements IMessageService{
     private final ConversationRepository conversationRepository;
     private final ConversationService conversationService;
     private final MessageProducer messageProducer; 
+    private final IMediaService mediaService;
 
     @Override
     public Page<MessageResponse> getMessagesForConversation(UUID conversationId, String userId, Pageable pageable) {
@@ -57,13 +59,19 @@ public class MessageService implements IMessageService{
         Conversation conversation = conversationService
                     .findOrCreateConversation(senderId, payload.getRecipientId());
         log.info("Send message: {}", payload.getContent());
+
+        // IMAGE: content is the id of a completed upload of the sender; only the reference is stored
+        ContentType type = payload.getType() == ContentType.IMAGE ? ContentType.IMAGE : ContentType.TEXT;
+        if (type == ContentType.IMAGE) {
+            mediaService.validateAttachment(payload.getContent(), senderId);
+        }
         
         // 2. Create and save message with SENT status
         Message message = new Message();
         message.setConversation(conversation);
         message.setSenderId(senderId); 
         message.setContent(payload.getContent());
-        message.setType(ContentType.TEXT);
+        message.setType(type);
         message.setStatus(MessageStatus.SENT); // Set initial status
         message.setSentAt(java.time.LocalDateTime.now()); // Explicitly set sentAt timestamp
 
@@ -3,6 +3,7 @@ package com.ds.communication_service.business.v1.services;
 import com.ds.communication_service.app_context.models.Notification;
 import com.ds.communication_service.app_context.repositories.NotificationRepository;
 import com.ds.communication_service.common.dto.NotificationMessage;
+import com.ds.communication_service.common.dto.ParcelStatusChangedEvent;
 import com.ds.communication_service.infrastructure.kafka.EventProducer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,8 +38,11 @@ public class NotificationService {
      */
     @Transactional
     public NotificationMessage createAndSendNotification(NotificationMessage notificationDto) {
+        return saveAndPublish(Notification.fromDto(notificationDto));
+    }
+
+    private NotificationMessage saveAndPublish(Notification notification) {
         // Save notification to database
-        Notification notification = Notification.fromDto(notificationDto);
         Notification savedNotification = notificationRepository.save(notification);
         
         log.info("✅ Notification saved to database: id={}, userId={}, type={}", 
@@ -59,6 +63,53 @@ public class NotificationService {
         return savedDto;
     }
 
+    /**
+     * Notify the receiver about a parcel status change (consumed from parcel-status-events)
+     * Only statuses the customer cares about produce a notification
+     * Idempotent: the notification is keyed by event id + status, so a retried or redelivered event is skipped
+     *
+     * @param event ParcelStatusChanged event
+     */
+    @Transactional
+    public void notifyParcelStatusChanged(ParcelStatusChangedEvent event) {
+        String message = switch (event.getNewStatus()) {
+            case "ON_ROUTE" -> "Your parcel " + event.getCode() + " is on the way";
+            case "DELIVERED" -> "Your parcel " + event.getCode() + " has been delivered, please confirm receipt";
+            case "DELAYED" -> "Delivery of parcel " + event.getCode() + " has been delayed";
+            case "FAILED" -> "Delivery of parcel " + event.getCode() + " has failed";
+            default -> null;
+        };
+        if (message == null || event.getReceiverId() == null) {
+            return;
+        }
+
+        String sourceEventKey = sourceEventKey(event);
+        if (notificationRepository.existsBySourceEventKey(sourceEventKey)) {
+            log.debug("Notification for parcel event {} already sent", sourceEventKey);
+            return;
+        }
+
+        Notification notification = Notification.fromDto(NotificationMessage.builder()
+            .userId(event.getReceiverId())
+            .type(NotificationMessage.NotificationType.DELIVERY_UPDATE)
+            .title("Parcel " + event.getCode())
+            .message(message)
+            .data("{\"parcelId\":\"" + event.getParcelId() + "\",\"status\":\"" + event.getNewStatus() + "\"}")
+            .build());
+        notification.setSourceEventKey(sourceEventKey);
+        saveAndPublish(notification);
+    }
+
+    /**
+     * "<eventId>:<status>"; events without an id fall back to parcelId + sequence (also unique per transition)
+     */
+    private static String sourceEventKey(ParcelStatusChangedEvent event) {
+        String eventId = event.getEventId() != null
+            ? event.getEventId()
+            : event.getParcelId() + "#" + event.getSequence();
+        return eventId + ":" + event.getNewStatus();
+    }
+
     /**
      * Get notifications for a user (paginated)
      * 
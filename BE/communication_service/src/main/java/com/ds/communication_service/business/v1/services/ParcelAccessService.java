@@ -0,0 +1,89 @@
+package com.ds.communication_service.business.v1.services;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Who may follow a parcel (live location, status updates): its sender and its receiver
+ * - Parties never change after creation, so they are cached (bounded LRU) and parcel-service is asked once per parcel
+ * - Proof-of-delivery photos: uploaded only by the shipper currently assigned to the parcel, seen by the parties,
+ *   that shipper and admins; the assignment can change, so it is asked of session-service each time
+ * - Fails closed: if parcel-service or session-service cannot answer, access is denied and nothing is cached
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParcelAccessService {
+
+    private static final int MAX_CACHED_PARCELS = 100_000;
+    private static final String ROLE_ADMIN = "ADMIN";
+
+    private final ParcelServiceClient parcelServiceClient;
+    private final SessionServiceClient sessionServiceClient;
+
+    private final Map<String, ParcelServiceClient.ParcelParties> partiesByParcel = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParcelServiceClient.ParcelParties> eldest) {
+            return size() > MAX_CACHED_PARCELS;
+        }
+    };
+
+    public boolean canFollow(String userId, String parcelId) {
+        if (userId == null || userId.isBlank() || parcelId == null) {
+            return false;
+        }
+        ParcelServiceClient.ParcelParties parties;
+        synchronized (partiesByParcel) {
+            parties = partiesByParcel.get(parcelId);
+        }
+        if (parties == null) {
+            try {
+                parties = parcelServiceClient.getParties(parcelId);
+            } catch (Exception e) {
+                log.warn("Could not check access of user {} to parcel {}: {}", userId, parcelId, e.getMessage());
+                return false;
+            }
+            if (parties == null) {
+                return false;
+            }
+            synchronized (partiesByParcel) {
+                partiesByParcel.put(parcelId, parties);
+            }
+        }
+        return userId.equals(parties.senderId()) || userId.equals(parties.receiverId());
+    }
+
+    /**
+     * Whether the user is the shipper currently assigned to the parcel
+     */
+    public boolean isAssignedShipper(String userId, String parcelId) {
+        if (userId == null || userId.isBlank() || parcelId == null) {
+            return false;
+        }
+        return userId.equals(sessionServiceClient.getCurrentShipperId(parcelId));
+    }
+
+    /**
+     * Whether the user may list the proof-of-delivery photos of a parcel
+     * @param roles comma-separated roles of the caller (X-User-Roles set by the gateway)
+     */
+    public boolean canViewProofs(String userId, String roles, String parcelId) {
+        if (userId == null || userId.isBlank() || parcelId == null) {
+            return false;
+        }
+        return isAdmin(roles) || canFollow(userId, parcelId) || isAssignedShipper(userId, parcelId);
+    }
+
+    /**
+     * @param roles comma-separated roles of the caller (X-User-Roles set by the gateway)
+     */
+    public static boolean isAdmin(String roles) {
+        return roles != null && Arrays.stream(roles.split(",")).map(String::trim).anyMatch(ROLE_ADMIN::equals);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ds.communication_service.business.v1.services;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service to interact with Parcel Service
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ParcelServiceClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${services.parcel.base-url}")
+    private String parcelServiceBaseUrl;
+
+    /**
+     * Sender and receiver of a parcel
+     */
+    public record ParcelParties(String senderId, String receiverId) {
+    }
+
+    /**
+     * Get the sender and receiver of a parcel
+     * @param parcelId The parcel ID
+     * @return the parties, or null if the parcel does not exist
+     * @throws org.springframework.web.client.RestClientException if parcel-service cannot answer
+     */
+    public ParcelParties getParties(String parcelId) {
+        String url = parcelServiceBaseUrl + "/api/v1/parcels/" + parcelId;
+        try {
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+            );
+            Map<String, Object> body = response.getBody();
+            if (body == null) {
+                return null;
+            }
+            return new ParcelParties(asString(body.get("senderId")), asString(body.get("receiverId")));
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.BadRequest e) {
+            log.debug("Parcel {} not found", parcelId);
+            return null;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
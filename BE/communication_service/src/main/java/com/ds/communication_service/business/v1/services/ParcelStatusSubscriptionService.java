@@ -0,0 +1,55 @@
+package com.ds.communication_service.business.v1.services;
+
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import com.ds.communication_service.business.v1.tracking.ParcelSubscriptionRegistry;
+import com.ds.communication_service.common.dto.ParcelStatusChangedEvent;
+import com.ds.communication_service.common.dto.ParcelStatusUpdate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Parcel status subscriptions for customers (replaces polling getParcelById)
+ * - Clients subscribe to /topic/parcels/{parcelId}/status, one STOMP subscription per parcel
+ *   (only the sender and receiver may, see WebSocketAuthInterceptor)
+ * - Transitions come from the parcel-service Kafka feed; a transition is converted and handed to the broker
+ *   once, only when the parcel has at least one watcher, and the broker fans it out to that parcel's subscribers
+ * - Watchers are counted by ParcelSubscriptionRegistry, so unwatched transitions (the vast majority) cost a map lookup
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParcelStatusSubscriptionService {
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ParcelSubscriptionRegistry subscriptionRegistry;
+
+    /**
+     * Called for every (non-stale) parcel status change consumed from Kafka
+     */
+    public void onParcelStatusChanged(ParcelStatusChangedEvent event) {
+        if (!subscriptionRegistry.isWatched(ParcelSubscriptionRegistry.Topic.STATUS, event.getParcelId())) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSend(ParcelSubscriptionRegistry.Topic.STATUS.destination(event.getParcelId()),
+                ParcelStatusUpdate.builder()
+                    .parcelId(event.getParcelId())
+                    .code(event.getCode())
+                    .previousStatus(event.getPreviousStatus())
+                    .newStatus(event.getNewStatus())
+                    .event(event.getEvent())
+                    .sequence(event.getSequence())
+                    .occurredAt(event.getOccurredAt())
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to push status of parcel {}: {}", event.getParcelId(), e.getMessage());
+        }
+    }
+
+    public int getWatchedParcelCount() {
+        return subscriptionRegistry.watchedCount(ParcelSubscriptionRegistry.Topic.STATUS);
+    }
+}
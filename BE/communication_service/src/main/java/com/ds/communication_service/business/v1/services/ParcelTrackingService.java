@@ -0,0 +1,211 @@
+package com.ds.communication_service.business.v1.services;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ds.communication_service.business.v1.tracking.LatestPositionStore;
+import com.ds.communication_service.business.v1.tracking.ParcelSubscriptionRegistry;
+import com.ds.communication_service.common.dto.ShipperLocationUpdate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live tracking of parcels for customers
+ * - Clients subscribe to /topic/parcels/{parcelId}/location (only the sender and receiver may, see WebSocketAuthInterceptor);
+ *   watchers are counted by ParcelSubscriptionRegistry
+ * - Every tick, each watched parcel gets the latest position of its shipper, only if it moved since the last push
+ * - Nothing is sent for parcels nobody watches, and pushing stops once the parcel reaches a final status
+ * - The shipper of a watched parcel is looked up in session-service on a small dedicated pool (on subscribe and
+ *   when the cached answer expires); the tick only reads the cache, so a slow session-service never delays it
+ */
+@Service
+@Slf4j
+public class ParcelTrackingService {
+
+    private static final Set<String> FINAL_STATUSES = Set.of("DELIVERED", "SUCCEEDED", "FAILED", "LOST");
+
+    private final LocationTrackingService locationTrackingService;
+    private final SessionServiceClient sessionServiceClient;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ParcelSubscriptionRegistry subscriptionRegistry;
+    private final ThreadPoolExecutor lookupExecutor;
+    private final long shipperLookupTtlMs;
+
+    public ParcelTrackingService(LocationTrackingService locationTrackingService,
+                                 SessionServiceClient sessionServiceClient,
+                                 SimpMessageSendingOperations messagingTemplate,
+                                 ParcelSubscriptionRegistry subscriptionRegistry,
+                                 @Value("${tracking.shipper-lookup-ttl-ms:60000}") long shipperLookupTtlMs,
+                                 @Value("${tracking.shipper-lookup-threads:4}") int lookupThreads,
+                                 @Value("${tracking.shipper-lookup-queue-capacity:10000}") int lookupQueueCapacity) {
+        this.locationTrackingService = locationTrackingService;
+        this.sessionServiceClient = sessionServiceClient;
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.shipperLookupTtlMs = shipperLookupTtlMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.lookupExecutor = new ThreadPoolExecutor(lookupThreads, lookupThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(lookupQueueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "tracking-shipper-lookup-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        subscriptionRegistry.addListener(ParcelSubscriptionRegistry.Topic.LOCATION, new ParcelSubscriptionRegistry.Listener() {
+            @Override
+            public void onWatched(String parcelId) {
+                refreshShipperAsync(parcelId);
+            }
+
+            @Override
+            public void onUnwatched(String parcelId) {
+                shipperByParcel.remove(parcelId);
+                lastPushedTimestamp.remove(parcelId);
+            }
+        });
+    }
+
+    /**
+     * Shipper of a watched parcel; shipperId is null when the parcel is not assigned (cached as well)
+     */
+    private record ShipperLookup(String shipperId, long expiresAt, boolean finished) {
+    }
+
+    private final Map<String, ShipperLookup> shipperByParcel = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastPushedTimestamp = new ConcurrentHashMap<>();
+    private final Set<String> lookupsInFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Called for every parcel status change: the shipper may have changed, or tracking is over.
+     */
+    public void onParcelStatusChanged(String parcelId, String newStatus) {
+        if (!isWatched(parcelId)) {
+            return;
+        }
+        if (newStatus != null && FINAL_STATUSES.contains(newStatus)) {
+            shipperByParcel.put(parcelId, new ShipperLookup(null, Long.MAX_VALUE, true));
+        } else {
+            shipperByParcel.remove(parcelId);
+        }
+    }
+
+    /**
+     * Push the latest shipper position to every watched parcel (throttled by the tick interval)
+     */
+    @Scheduled(fixedDelayString = "${tracking.push-interval-ms:1000}")
+    public void pushPositions() {
+        Set<String> watched = subscriptionRegistry.watchedParcels(ParcelSubscriptionRegistry.Topic.LOCATION);
+        if (watched.isEmpty()) {
+            return;
+        }
+        LatestPositionStore store = locationTrackingService.getPositionStore();
+        long now = System.currentTimeMillis();
+        for (String parcelId : watched) {
+            String shipperId = cachedShipper(parcelId, now);
+            if (shipperId == null) {
+                continue;
+            }
+            LatestPositionStore.Position position = store.get(shipperId);
+            if (position == null) {
+                continue;
+            }
+            Long last = lastPushedTimestamp.get(parcelId);
+            if (last != null && last >= position.timestamp()) {
+                continue;
+            }
+            lastPushedTimestamp.put(parcelId, position.timestamp());
+            try {
+                messagingTemplate.convertAndSend("/topic/parcels/" + parcelId + "/location", ShipperLocationUpdate.builder()
+                    .parcelId(parcelId)
+                    .shipperId(shipperId)
+                    .lat(position.lat())
+                    .lon(position.lon())
+                    .speed(position.speed())
+                    .heading(position.heading())
+                    .timestamp(position.timestamp())
+                    .build());
+            } catch (Exception e) {
+                log.warn("Failed to push location of parcel {}: {}", parcelId, e.getMessage());
+            }
+        }
+    }
+
+    public int getWatchedParcelCount() {
+        return subscriptionRegistry.watchedCount(ParcelSubscriptionRegistry.Topic.LOCATION);
+    }
+
+    /**
+     * Shipper currently carrying the parcel (REST lookups).
+     * Watched parcels are answered from the cache kept for the tick; other parcels are looked up
+     * directly and not cached, so one-off requests cannot grow the cache.
+     */
+    public String findShipper(String parcelId) {
+        if (isWatched(parcelId)) {
+            ShipperLookup lookup = shipperByParcel.get(parcelId);
+            if (lookup != null) {
+                return cachedShipper(parcelId, System.currentTimeMillis());
+            }
+        }
+        return sessionServiceClient.getCurrentShipperId(parcelId);
+    }
+
+    /**
+     * Cached shipper of a watched parcel, never blocking: a missing or expired answer is refreshed
+     * in the background and the previous one (if any) is used meanwhile
+     */
+    private String cachedShipper(String parcelId, long now) {
+        ShipperLookup lookup = shipperByParcel.get(parcelId);
+        if (lookup == null || (!lookup.finished() && lookup.expiresAt() <= now)) {
+            refreshShipperAsync(parcelId);
+        }
+        return lookup == null || lookup.finished() ? null : lookup.shipperId();
+    }
+
+    private void refreshShipperAsync(String parcelId) {
+        if (!lookupsInFlight.add(parcelId)) {
+            return;
+        }
+        try {
+            lookupExecutor.execute(() -> {
+                try {
+                    String shipperId = sessionServiceClient.getCurrentShipperId(parcelId);
+                    long expiresAt = System.currentTimeMillis() + shipperLookupTtlMs;
+                    if (!isWatched(parcelId)) {
+                        return;
+                    }
+                    // A final status recorded meanwhile wins over the lookup
+                    shipperByParcel.compute(parcelId, (key, current) ->
+                        current != null && current.finished() ? current : new ShipperLookup(shipperId, expiresAt, false));
+                    if (!isWatched(parcelId)) {
+                        shipperByParcel.remove(parcelId);
+                    }
+                } finally {
+                    lookupsInFlight.remove(parcelId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lookupsInFlight.remove(parcelId);
+            log.warn("Shipper lookup queue full, parcel {} retried next tick", parcelId);
+        }
+    }
+
+    private boolean isWatched(String parcelId) {
+        return subscriptionRegistry.isWatched(ParcelSubscriptionRegistry.Topic.LOCATION, parcelId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+}
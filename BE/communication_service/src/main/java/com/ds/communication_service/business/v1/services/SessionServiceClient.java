@@ -0,0 +1,114 @@
+package com.ds.communication_service.business.v1.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service to interact with Session Service
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SessionServiceClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${services.session.base-url}")
+    private String sessionServiceBaseUrl;
+
+    /**
+     * Shipper, status and parcels of a delivery session
+     */
+    public record SessionParcels(String sessionId, String deliveryManId, String status, List<String> parcelIds) {
+    }
+
+    /**
+     * Get a delivery session with the parcels in it
+     * @param sessionId The session ID
+     * @return the session, or null if it does not exist or session-service cannot answer
+     */
+    public SessionParcels getSession(String sessionId) {
+        return fetchSession(sessionServiceBaseUrl + "/api/v1/sessions/" + sessionId, sessionId);
+    }
+
+    /**
+     * Get the IN_PROGRESS session of a shipper with the parcels in it
+     * @param shipperId The shipper (user) ID
+     * @return the session, or null if the shipper has none or session-service cannot answer
+     */
+    public SessionParcels getActiveSession(String shipperId) {
+        return fetchSession(sessionServiceBaseUrl + "/api/v1/sessions/drivers/" + shipperId + "/active", shipperId);
+    }
+
+    /**
+     * Get the shipper currently holding a parcel
+     * @param parcelId The parcel ID
+     * @return shipper (user) ID or null if the parcel is not assigned
+     */
+    public String getCurrentShipperId(String parcelId) {
+        try {
+            String url = sessionServiceBaseUrl + "/api/v1/assignments/current-shipper/parcels/" + parcelId;
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+            );
+            Map<String, Object> body = response.getBody();
+            if (response.getStatusCode().is2xxSuccessful() && body != null && body.get("id") != null) {
+                return body.get("id").toString();
+            }
+            return null;
+        } catch (Exception e) {
+            log.error("Error fetching current shipper for parcelId: {}. Error: {}", parcelId, e.getMessage());
+            return null;
+        }
+    }
+
+    private SessionParcels fetchSession(String url, String key) {
+        try {
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+            );
+            Map<String, Object> body = response.getBody();
+            if (!response.getStatusCode().is2xxSuccessful() || body == null || body.get("id") == null) {
+                return null;
+            }
+            List<String> parcelIds = new ArrayList<>();
+            if (body.get("assignments") instanceof List<?> assignments) {
+                for (Object assignment : assignments) {
+                    if (assignment instanceof Map<?, ?> task && task.get("parcelId") != null) {
+                        parcelIds.add(task.get("parcelId").toString());
+                    }
+                }
+            }
+            return new SessionParcels(body.get("id").toString(), asString(body.get("deliveryManId")),
+                asString(body.get("status")), parcelIds);
+        } catch (HttpClientErrorException.NotFound e) {
+            log.debug("No session found for {}", key);
+            return null;
+        } catch (Exception e) {
+            log.error("Error fetching session for {}. Error: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
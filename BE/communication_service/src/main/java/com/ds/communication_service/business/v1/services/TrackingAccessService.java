@@ -0,0 +1,97 @@
+package com.ds.communication_service.business.v1.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Who may read shipper positions and session trails, and which session a shipper may upload fixes for
+ * - Reads: the shipper themself, an admin, or a customer with a parcel in the session
+ *   (for a live position, the shipper's current IN_PROGRESS session)
+ * - Uploads: the session of a batch must be the caller's own IN_PROGRESS session; a confirmed session is cached
+ *   per shipper for a short time, so batches do not each ask session-service
+ * - Fails closed: if session-service cannot answer, access is denied
+ */
+@Service
+@Slf4j
+public class TrackingAccessService {
+
+    private static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+
+    private final SessionServiceClient sessionServiceClient;
+    private final ParcelAccessService parcelAccessService;
+    private final long activeSessionTtlMs;
+
+    private record ActiveSession(String sessionId, long expiresAt) {
+    }
+
+    private final Map<String, ActiveSession> activeSessionByShipper = new ConcurrentHashMap<>();
+
+    public TrackingAccessService(SessionServiceClient sessionServiceClient,
+                                 ParcelAccessService parcelAccessService,
+                                 @Value("${tracking.active-session-ttl-ms:30000}") long activeSessionTtlMs) {
+        this.sessionServiceClient = sessionServiceClient;
+        this.parcelAccessService = parcelAccessService;
+        this.activeSessionTtlMs = activeSessionTtlMs;
+    }
+
+    /**
+     * @param roles comma-separated roles of the caller (X-User-Roles set by the gateway)
+     */
+    public boolean canReadShipper(String userId, String roles, String shipperId) {
+        if (userId == null || userId.isBlank() || shipperId == null) {
+            return false;
+        }
+        if (userId.equals(shipperId) || ParcelAccessService.isAdmin(roles)) {
+            return true;
+        }
+        return hasParcelIn(userId, sessionServiceClient.getActiveSession(shipperId));
+    }
+
+    /**
+     * @param roles comma-separated roles of the caller (X-User-Roles set by the gateway)
+     */
+    public boolean canReadSession(String userId, String roles, String sessionId) {
+        if (userId == null || userId.isBlank() || sessionId == null) {
+            return false;
+        }
+        if (ParcelAccessService.isAdmin(roles)) {
+            return true;
+        }
+        SessionServiceClient.SessionParcels session = sessionServiceClient.getSession(sessionId);
+        if (session == null) {
+            return false;
+        }
+        return userId.equals(session.deliveryManId()) || hasParcelIn(userId, session);
+    }
+
+    /**
+     * Whether sessionId is the shipper's own IN_PROGRESS session
+     */
+    public boolean isOwnActiveSession(String shipperId, String sessionId) {
+        if (shipperId == null || sessionId == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        ActiveSession cached = activeSessionByShipper.get(shipperId);
+        if (cached != null && cached.expiresAt() > now && cached.sessionId().equals(sessionId)) {
+            return true;
+        }
+        SessionServiceClient.SessionParcels session = sessionServiceClient.getSession(sessionId);
+        if (session == null || !shipperId.equals(session.deliveryManId()) || !STATUS_IN_PROGRESS.equals(session.status())) {
+            log.debug("Session {} is not an active session of shipper {}", sessionId, shipperId);
+            return false;
+        }
+        activeSessionByShipper.put(shipperId, new ActiveSession(sessionId, now + activeSessionTtlMs));
+        return true;
+    }
+
+    private boolean hasParcelIn(String userId, SessionServiceClient.SessionParcels session) {
+        return session != null && session.parcelIds().stream()
+            .anyMatch(parcelId -> parcelAccessService.canFollow(userId, parcelId));
+    }
+}
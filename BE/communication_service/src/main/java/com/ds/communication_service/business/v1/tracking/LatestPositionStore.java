@@ -0,0 +1,149 @@
+package com.ds.communication_service.business.v1.tracking;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latest known position per shipper, stored in flat primitive arrays (no object per ping).
+ * - Each shipper gets a fixed slot on first ping; a slot holds 4 longs: lat bits, lon bits,
+ *   timestamp (epoch ms) and speed/heading packed as two float bits.
+ * - Writers take a per-slot sequence lock (odd version = write in progress); readers never block
+ *   and retry if a write overlapped their read.
+ * - Out-of-order pings (older timestamp than the stored one) are ignored.
+ */
+public final class LatestPositionStore {
+
+    public static final int NO_SLOT = -1;
+    private static final int STRIDE = 4;
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Integer> slotByShipper = new ConcurrentHashMap<>();
+    private final String[] shipperBySlot;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final long[] data;
+    private final AtomicLongArray versions;
+
+    public LatestPositionStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.shipperBySlot = new String[capacity];
+        this.data = new long[capacity * STRIDE];
+        this.versions = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Position snapshot returned to readers.
+     */
+    public record Position(String shipperId, double lat, double lon, float speed, float heading, long timestamp) {
+    }
+
+    /**
+     * Slot of the shipper, allocating one on first use; NO_SLOT when the store is full.
+     */
+    public int slotFor(String shipperId) {
+        Integer slot = slotByShipper.get(shipperId);
+        if (slot != null) {
+            return slot;
+        }
+        return slotByShipper.computeIfAbsent(shipperId, id -> {
+            int allocated = nextSlot.getAndIncrement();
+            if (allocated >= capacity) {
+                nextSlot.decrementAndGet();
+                return NO_SLOT;
+            }
+            shipperBySlot[allocated] = id;
+            return allocated;
+        });
+    }
+
+    public int slotOf(String shipperId) {
+        Integer slot = slotByShipper.get(shipperId);
+        return slot != null ? slot : NO_SLOT;
+    }
+
+    /**
+     * Store the ping if it is newer than the current one. Returns false when ignored (stale or store full).
+     */
+    public boolean update(String shipperId, double lat, double lon, float speed, float heading, long timestamp) {
+        int slot = slotFor(shipperId);
+        if (slot == NO_SLOT) {
+            slotByShipper.remove(shipperId, NO_SLOT);
+            return false;
+        }
+        long version;
+        do {
+            version = versions.get(slot);
+        } while ((version & 1) != 0 || !versions.compareAndSet(slot, version, version + 1));
+        try {
+            int base = slot * STRIDE;
+            if (version != 0 && data[base + 2] >= timestamp) {
+                return false;
+            }
+            data[base] = Double.doubleToRawLongBits(lat);
+            data[base + 1] = Double.doubleToRawLongBits(lon);
+            data[base + 2] = timestamp;
+            data[base + 3] = ((long) Float.floatToRawIntBits(speed) << 32) | (Float.floatToRawIntBits(heading) & 0xFFFFFFFFL);
+            return true;
+        } finally {
+            versions.set(slot, version + 2);
+        }
+    }
+
+    /**
+     * Latest position of the shipper, or null if none was received.
+     */
+    public Position get(String shipperId) {
+        int slot = slotOf(shipperId);
+        return slot == NO_SLOT ? null : get(slot);
+    }
+
+    public Position get(int slot) {
+        int base = slot * STRIDE;
+        while (true) {
+            long before = versions.get(slot);
+            if (before == 0) {
+                return null;
+            }
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long latBits = data[base];
+            long lonBits = data[base + 1];
+            long timestamp = data[base + 2];
+            long packed = data[base + 3];
+            VarHandle.acquireFence();
+            if (versions.get(slot) == before) {
+                return new Position(shipperBySlot[slot], Double.longBitsToDouble(latBits), Double.longBitsToDouble(lonBits),
+                    Float.intBitsToFloat((int) (packed >>> 32)), Float.intBitsToFloat((int) packed), timestamp);
+            }
+        }
+    }
+
+    /**
+     * Timestamp of the latest ping of the slot (0 if none); cheap check before a full read.
+     */
+    public long timestamp(int slot) {
+        while (true) {
+            long before = versions.get(slot);
+            long timestamp = data[slot * STRIDE + 2];
+            VarHandle.acquireFence();
+            if ((before & 1) == 0 && versions.get(slot) == before) {
+                return timestamp;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public int size() {
+        return Math.min(nextSlot.get(), capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
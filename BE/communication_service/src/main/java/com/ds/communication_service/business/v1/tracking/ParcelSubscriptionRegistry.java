@@ -0,0 +1,157 @@
+package com.ds.communication_service.business.v1.tracking;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Who watches which parcel topic (/topic/parcels/{parcelId}/location and /topic/parcels/{parcelId}/status)
+ * - Counts STOMP subscriptions per parcel and topic, so producers skip parcels nobody watches with a map lookup
+ * - A session subscribing twice to the same topic counts twice; unsubscribe and disconnect release exactly
+ *   what the session subscribed
+ * - Listeners hear when a parcel gains its first watcher and loses its last one on a topic
+ */
+@Component
+@Slf4j
+public class ParcelSubscriptionRegistry {
+
+    private static final Pattern PARCEL_TOPIC = Pattern.compile("^/topic/parcels/([^/]+)/(location|status)$");
+
+    public enum Topic {
+        LOCATION("location"),
+        STATUS("status");
+
+        private final String suffix;
+
+        Topic(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String destination(String parcelId) {
+            return "/topic/parcels/" + parcelId + "/" + suffix;
+        }
+
+        static Topic fromSuffix(String suffix) {
+            return "location".equals(suffix) ? LOCATION : STATUS;
+        }
+    }
+
+    /**
+     * A parcel topic destination, parsed
+     */
+    public record ParcelTopic(String parcelId, Topic topic) {
+    }
+
+    public interface Listener {
+        void onWatched(String parcelId);
+
+        void onUnwatched(String parcelId);
+    }
+
+    private final Map<Topic, Map<String, Integer>> watchers = new EnumMap<>(Topic.class);
+    private final Map<Topic, List<Listener>> listeners = new EnumMap<>(Topic.class);
+    private final Map<String, Map<String, ParcelTopic>> topicBySubscription = new ConcurrentHashMap<>();
+
+    public ParcelSubscriptionRegistry() {
+        for (Topic topic : Topic.values()) {
+            watchers.put(topic, new ConcurrentHashMap<>());
+            listeners.put(topic, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * @return the parcel topic, or null if the destination is not one
+     */
+    public static ParcelTopic parse(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        Matcher matcher = PARCEL_TOPIC.matcher(destination);
+        return matcher.matches() ? new ParcelTopic(matcher.group(1), Topic.fromSuffix(matcher.group(2))) : null;
+    }
+
+    public void addListener(Topic topic, Listener listener) {
+        listeners.get(topic).add(listener);
+    }
+
+    public boolean isWatched(Topic topic, String parcelId) {
+        return parcelId != null && watchers.get(topic).containsKey(parcelId);
+    }
+
+    public Set<String> watchedParcels(Topic topic) {
+        return watchers.get(topic).keySet();
+    }
+
+    public int watchedCount(Topic topic) {
+        return watchers.get(topic).size();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        ParcelTopic parcelTopic = parse(accessor.getDestination());
+        if (parcelTopic == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        ParcelTopic previous = topicBySubscription
+            .computeIfAbsent(accessor.getSessionId(), key -> new ConcurrentHashMap<>())
+            .put(accessor.getSubscriptionId(), parcelTopic);
+        if (previous != null) {
+            // Subscription id reused for another destination: the old one is gone
+            release(previous);
+        }
+        if (watchers.get(parcelTopic.topic()).merge(parcelTopic.parcelId(), 1, Integer::sum) == 1) {
+            log.debug("Parcel {} {} watched by session {}", parcelTopic.parcelId(), parcelTopic.topic(), accessor.getSessionId());
+            listeners.get(parcelTopic.topic()).forEach(listener -> listener.onWatched(parcelTopic.parcelId()));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, ParcelTopic> subscriptions = topicBySubscription.get(accessor.getSessionId());
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            release(subscriptions.remove(accessor.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, ParcelTopic> subscriptions = topicBySubscription.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(ParcelTopic parcelTopic) {
+        if (parcelTopic == null) {
+            return;
+        }
+        boolean[] last = {false};
+        watchers.get(parcelTopic.topic()).computeIfPresent(parcelTopic.parcelId(), (key, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            last[0] = true;
+            return null;
+        });
+        if (last[0]) {
+            log.debug("Parcel {} {} no longer watched", parcelTopic.parcelId(), parcelTopic.topic());
+            listeners.get(parcelTopic.topic()).forEach(listener -> listener.onUnwatched(parcelTopic.parcelId()));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ds.communication_service.business.v1.tracking;
+
+import java.util.Objects;
+
+/**
+ * Decides which pings of a shipper are kept in the persisted session trail.
+ * A ping is kept if it is the first of the session, moved at least minDistanceMeters from the
+ * last kept point, or maxIntervalMs passed since it; pings closer than minIntervalMs are always
+ * dropped (GPS bursts). State is per slot of {@link LatestPositionStore}.
+ */
+public final class TrailDownsampler {
+
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final int LOCK_STRIPES = 64;
+
+    private final double minDistanceMeters;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final double[] lastLat;
+    private final double[] lastLon;
+    private final long[] lastTimestamp;
+    private final String[] lastSession;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public TrailDownsampler(int capacity, double minDistanceMeters, long minIntervalMs, long maxIntervalMs) {
+        this.minDistanceMeters = minDistanceMeters;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.lastLat = new double[capacity];
+        this.lastLon = new double[capacity];
+        this.lastTimestamp = new long[capacity];
+        this.lastSession = new String[capacity];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * True if the ping should be persisted; the point then becomes the new reference of the slot.
+     */
+    public boolean accept(int slot, String sessionId, double lat, double lon, long timestamp) {
+        synchronized (locks[slot & (LOCK_STRIPES - 1)]) {
+            boolean keep;
+            if (!Objects.equals(lastSession[slot], sessionId)) {
+                keep = true;
+            } else {
+                long elapsed = timestamp - lastTimestamp[slot];
+                if (elapsed < minIntervalMs) {
+                    keep = false;
+                } else {
+                    keep = elapsed >= maxIntervalMs || distanceMeters(lastLat[slot], lastLon[slot], lat, lon) >= minDistanceMeters;
+                }
+            }
+            if (keep) {
+                lastSession[slot] = sessionId;
+                lastLat[slot] = lat;
+                lastLon[slot] = lon;
+                lastTimestamp[slot] = timestamp;
+            }
+            return keep;
+        }
+    }
+
+    /**
+     * Equirectangular approximation, accurate enough for the tens-of-meters thresholds used here.
+     */
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = (lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = lat2 - lat1;
+        return Math.sqrt(x * x + y * y) * METERS_PER_DEGREE;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ds.communication_service.common.dto;
 
+import com.ds.communication_service.common.enums.ContentType;
+
 import lombok.Data;
 
 @Data
@@ -7,4 +9,5 @@ public class ChatMessagePayload {
     private String content;
     private String recipientId;
     private String conversationId; // Optional: for tracking message ordering
+    private ContentType type; // Optional: TEXT (default) or IMAGE, where content is the id of an uploaded media file
 }
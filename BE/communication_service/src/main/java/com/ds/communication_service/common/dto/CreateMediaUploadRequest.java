@@ -0,0 +1,21 @@
+package com.ds.communication_service.common.dto;
+
+import com.ds.communication_service.common.enums.MediaPurpose;
+
+import lombok.Data;
+
+/**
+ * Starts a resumable upload; the body of each chunk is sent separately
+ */
+@Data
+public class CreateMediaUploadRequest {
+    private String fileName;
+    private String contentType;
+    private long size;
+    private MediaPurpose purpose;
+
+    /**
+     * Parcel id for DELIVERY_PROOF
+     */
+    private String referenceId;
+}
@@ -0,0 +1,41 @@
+package com.ds.communication_service.common.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Batch of GPS fixes sent by the shipper app (HTTP POST or STOMP /app/location.batch)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationBatchRequest {
+    /**
+     * Delivery session the fixes belong to (trail is persisted per session; optional)
+     */
+    private String sessionId;
+
+    private List<Point> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private double lat;
+        private double lon;
+        private Float speed;
+        private Float heading;
+        private Float accuracy;
+
+        /**
+         * Fix time on the device (epoch ms)
+         */
+        private long timestamp;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ds.communication_service.common.dto;
+
+import java.time.LocalDateTime;
+
+import com.ds.communication_service.common.enums.MediaPurpose;
+import com.ds.communication_service.common.enums.MediaStatus;
+import com.ds.communication_service.common.enums.ThumbnailStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of an upload / media file
+ * A client resumes an interrupted upload by sending the next chunk at receivedBytes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaUploadResponse {
+    private String id;
+    private MediaPurpose purpose;
+    private String referenceId;
+    private String contentType;
+    private long totalSize;
+    private long receivedBytes;
+
+    /**
+     * Largest chunk the server accepts in one request
+     */
+    private long maxChunkSize;
+
+    private MediaStatus status;
+    private ThumbnailStatus thumbnailStatus;
+    private Integer width;
+    private Integer height;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
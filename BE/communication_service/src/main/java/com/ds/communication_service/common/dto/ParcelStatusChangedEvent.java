@@ -0,0 +1,42 @@
+package com.ds.communication_service.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * ParcelStatusChanged event published by parcel-service (transactional outbox relay)
+ * Key = parcelId, so events of one parcel arrive in order on one partition
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelStatusChangedEvent {
+    /**
+     * Unique event ID
+     */
+    private String eventId;
+
+    /**
+     * Monotonic sequence (outbox id); lower values for the same parcel are stale
+     */
+    private long sequence;
+
+    private String parcelId;
+    private String code;
+    private String senderId;
+    private String receiverId;
+    private String previousStatus;
+    private String newStatus;
+
+    /**
+     * Parcel event that triggered the transition (e.g. SCAN_QR)
+     */
+    private String event;
+
+    private LocalDateTime occurredAt;
+}
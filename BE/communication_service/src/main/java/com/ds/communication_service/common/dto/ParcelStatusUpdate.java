@@ -0,0 +1,31 @@
+package com.ds.communication_service.common.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Status transition of a parcel
+ * Pushed to /topic/parcels/{parcelId}/status when parcel-service reports a transition
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelStatusUpdate {
+    private String parcelId;
+    private String code;
+    private String previousStatus;
+    private String newStatus;
+    private String event;
+
+    /**
+     * Outbox sequence of the transition; increases for the same parcel
+     */
+    private long sequence;
+
+    private LocalDateTime occurredAt;
+}
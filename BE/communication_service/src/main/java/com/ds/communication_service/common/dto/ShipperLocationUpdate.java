@@ -0,0 +1,28 @@
+package com.ds.communication_service.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Live position of the shipper carrying a parcel
+ * Pushed to /topic/parcels/{parcelId}/location at a throttled rate
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShipperLocationUpdate {
+    private String parcelId;
+    private String shipperId;
+    private double lat;
+    private double lon;
+    private float speed;
+    private float heading;
+
+    /**
+     * Fix time on the device (epoch ms)
+     */
+    private long timestamp;
+}
@@ -0,0 +1,19 @@
+package com.ds.communication_service.common.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrailPointResponse {
+    private double lat;
+    private double lon;
+    private float speed;
+    private Instant recordedAt;
+}
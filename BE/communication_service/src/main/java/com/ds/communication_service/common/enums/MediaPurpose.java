@@ -0,0 +1,16 @@
+package com.ds.communication_service.common.enums;
+
+/**
+ * What an uploaded media file is used for
+ */
+public enum MediaPurpose {
+    /**
+     * Image sent in a chat message (Message.type = IMAGE, Message.content = media id)
+     */
+    CHAT_IMAGE,
+
+    /**
+     * Proof-of-delivery photo taken by the shipper; referenceId is the parcel id
+     */
+    DELIVERY_PROOF
+}
@@ -0,0 +1,17 @@
+package com.ds.communication_service.common.enums;
+
+/**
+ * Lifecycle of an uploaded media file
+ * Flow: UPLOADING → COMPLETE
+ */
+public enum MediaStatus {
+    /**
+     * Chunks are being received; the file is a partial ".part" file on disk
+     */
+    UPLOADING,
+
+    /**
+     * All bytes received and verified; the file can be served and referenced by messages
+     */
+    COMPLETE
+}
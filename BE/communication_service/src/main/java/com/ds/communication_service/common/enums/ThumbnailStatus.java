@@ -0,0 +1,11 @@
+package com.ds.communication_service.common.enums;
+
+/**
+ * Thumbnail generation state of a media file (generated asynchronously after the upload completes)
+ */
+public enum ThumbnailStatus {
+    NONE,
+    PENDING,
+    READY,
+    FAILED
+}
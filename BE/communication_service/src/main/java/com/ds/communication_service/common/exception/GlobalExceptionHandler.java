@@ -76,6 +76,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * 409 - Conflict
+     * Chunk upload không bắt đầu tại offset đã ghi nhận (mất phản hồi, gửi lại, gửi song song).
+     * Header Upload-Offset cho client biết vị trí tiếp tục.
+     */
+    @ExceptionHandler(MediaUploadConflictException.class)
+    public ResponseEntity<ErrorResponse> handleUploadConflict(
+            MediaUploadConflictException ex,
+            WebRequest request
+    ) {
+        log.warn("Xung đột offset upload: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.builder()
+                .statusCode(HttpStatus.CONFLICT.value())
+                .timestamp(LocalDateTime.now())
+                .message(ex.getMessage())
+                .path(request.getDescription(false))
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("Upload-Offset", String.valueOf(ex.getCurrentOffset()))
+                .body(error);
+    }
+
     /**
      * 500 - Internal Server Error (Lỗi chung)
      * Bắt tất cả các lỗi khác (ví dụ: NullPointerException)
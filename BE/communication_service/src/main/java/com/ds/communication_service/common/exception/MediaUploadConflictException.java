@@ -0,0 +1,18 @@
+package com.ds.communication_service.common.exception;
+
+import lombok.Getter;
+
+/**
+ * A chunk does not start at the committed offset of the upload (lost response, retried or parallel chunk)
+ * The client resumes from currentOffset
+ */
+@Getter
+public class MediaUploadConflictException extends RuntimeException {
+
+    private final long currentOffset;
+
+    public MediaUploadConflictException(String message, long currentOffset) {
+        super(message);
+        this.currentOffset = currentOffset;
+    }
+}
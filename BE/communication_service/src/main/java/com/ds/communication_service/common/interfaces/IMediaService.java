@@ -0,0 +1,29 @@
+package com.ds.communication_service.common.interfaces;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import com.ds.communication_service.common.dto.CreateMediaUploadRequest;
+import com.ds.communication_service.common.dto.MediaUploadResponse;
+
+public interface IMediaService {
+    MediaUploadResponse createUpload(CreateMediaUploadRequest request, String ownerId);
+    MediaUploadResponse getUpload(UUID mediaId, String ownerId);
+    MediaUploadResponse appendChunk(UUID mediaId, String ownerId, long offset, InputStream body, long contentLength);
+    StoredFile getContent(UUID mediaId, boolean thumbnail);
+    /**
+     * Proof-of-delivery photos of a parcel, for its sender and receiver, its assigned shipper and admins
+     * @param roles comma-separated roles of the caller
+     */
+    List<MediaUploadResponse> listProofs(String parcelId, String userId, String roles);
+
+    /**
+     * Checks that a chat message may reference the media (complete image uploaded by the sender)
+     */
+    void validateAttachment(String mediaId, String senderId);
+
+    record StoredFile(Path path, String contentType, String etag) {
+    }
+}
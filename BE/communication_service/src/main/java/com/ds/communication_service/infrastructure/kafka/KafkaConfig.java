@@ -3,6 +3,7 @@ package com.ds.communication_service.infrastructure.kafka;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,9 +17,12 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,6 +34,8 @@ import java.util.Map;
  * - message-status-events: Status updates (SENT→DELIVERED→READ)
  * - typing-events: Typing indicator events
  * - notifications: In-app notification events
+ * - parcel-status-events: ParcelStatusChanged events from parcel-service (consumed only)
+ * - parcel-status-events.DLT: parcel status events that still failed after retries
  */
 @Configuration
 @EnableKafka
@@ -46,6 +52,7 @@ public class KafkaConfig {
     public static final String TOPIC_MESSAGE_STATUS = "message-status-events";
     public static final String TOPIC_TYPING_EVENTS = "typing-events";
     public static final String TOPIC_NOTIFICATIONS = "notifications";
+    public static final String TOPIC_PARCEL_STATUS_EVENTS = "parcel-status-events";
 
     /**
      * Producer configuration
@@ -115,6 +122,67 @@ public class KafkaConfig {
         return factory;
     }
 
+    /**
+     * Listener factory for events produced by other services.
+     * Payloads are plain JSON strings without type headers, parsed by the listener.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> externalEventsListenerContainerFactory() {
+        return externalEventsFactory();
+    }
+
+    /**
+     * Listener factory for parcel-status-events only: same consumer settings as the external events factory,
+     * plus retries and a dead-letter topic. Kept separate so other listeners keep the default error handling.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> parcelStatusListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = externalEventsFactory();
+        factory.setCommonErrorHandler(parcelStatusErrorHandler());
+        return factory;
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, String> externalEventsFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 200);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(config));
+        factory.setConcurrency(3);
+        factory.getContainerProperties().setAckMode(
+            org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        return factory;
+    }
+
+    /**
+     * Failed parcel status events are retried in place (the partition waits), then published unchanged
+     * to "<topic>.DLT" and committed, so a bad record is never silently skipped nor blocks forever.
+     * Unreadable payloads (IllegalArgumentException) go to the DLT without retries.
+     * Retries re-run the whole listener, so its side effects must be idempotent.
+     */
+    private DefaultErrorHandler parcelStatusErrorHandler() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        KafkaTemplate<String, String> dltTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config));
+
+        // Partition -1: let Kafka pick, the DLT does not need as many partitions as the source topic
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(dltTemplate,
+            (record, ex) -> new TopicPartition(record.topic() + ".DLT", -1));
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(2000L, 5));
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        return errorHandler;
+    }
+
     /**
      * Topic creation beans
      * Topics are created automatically if they don't exist
@@ -149,6 +217,16 @@ public class KafkaConfig {
                 .build();
     }
 
+    @Bean
+    public NewTopic parcelStatusEventsDltTopic() {
+        return TopicBuilder.name(TOPIC_PARCEL_STATUS_EVENTS + ".DLT")
+                .partitions(1)
+                .replicas(1)
+                .config("retention.ms", "2592000000") // 30 days to inspect and replay
+                .config("cleanup.policy", "delete")
+                .build();
+    }
+
     @Bean
     public NewTopic notificationsTopic() {
         return TopicBuilder.name(TOPIC_NOTIFICATIONS)
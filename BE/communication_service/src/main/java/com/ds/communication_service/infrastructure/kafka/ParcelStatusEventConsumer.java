@@ -0,0 +1,97 @@
+package com.ds.communication_service.infrastructure.kafka;
+
+import com.ds.communication_service.business.v1.services.NotificationService;
+import com.ds.communication_service.business.v1.services.ParcelStatusSubscriptionService;
+import com.ds.communication_service.business.v1.services.ParcelTrackingService;
+import com.ds.communication_service.common.dto.ParcelStatusChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Kafka consumer for ParcelStatusChanged events from parcel-service
+ * Turns parcel transitions into notifications and pushes to status subscribers asynchronously
+ * (no synchronous call from parcel-service)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParcelStatusEventConsumer {
+
+    private static final int MAX_TRACKED_PARCELS = 100_000;
+
+    private final NotificationService notificationService;
+    private final ParcelTrackingService parcelTrackingService;
+    private final ParcelStatusSubscriptionService parcelStatusSubscriptionService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Last processed sequence per parcel (bounded LRU) to drop redelivered/stale events
+     */
+    private final Map<String, Long> lastSequenceByParcel = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_TRACKED_PARCELS;
+        }
+    };
+
+    @KafkaListener(
+        topics = KafkaConfig.TOPIC_PARCEL_STATUS_EVENTS,
+        groupId = "${spring.kafka.consumer.group-id:communication-service-group}",
+        containerFactory = "parcelStatusListenerContainerFactory"
+    )
+    public void consumeParcelStatusChanged(
+            @Payload String payload,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset,
+            Acknowledgment acknowledgment) {
+
+        ParcelStatusChangedEvent event;
+        try {
+            event = objectMapper.readValue(payload, ParcelStatusChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            log.error("❌ Unreadable parcel status event (partition {}, offset {}): {}", partition, offset, e.getMessage());
+            // Not retryable: the container error handler sends it straight to the dead-letter topic
+            throw new IllegalArgumentException("Unreadable parcel status event", e);
+        }
+
+        if (isStale(event)) {
+            log.debug("Skipping stale parcel event: parcelId={}, sequence={}", event.getParcelId(), event.getSequence());
+        } else {
+            // Failures propagate so the container error handler retries the record, then dead-letters it.
+            // A retry re-runs every step: the notification is deduplicated by event id + status,
+            // the tracking cache is overwritten and status pushes carry the sequence for clients to drop repeats.
+            notificationService.notifyParcelStatusChanged(event);
+            parcelTrackingService.onParcelStatusChanged(event.getParcelId(), event.getNewStatus());
+            parcelStatusSubscriptionService.onParcelStatusChanged(event);
+            markProcessed(event);
+        }
+
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    private boolean isStale(ParcelStatusChangedEvent event) {
+        synchronized (lastSequenceByParcel) {
+            Long last = lastSequenceByParcel.get(event.getParcelId());
+            return last != null && last >= event.getSequence();
+        }
+    }
+
+    private void markProcessed(ParcelStatusChangedEvent event) {
+        synchronized (lastSequenceByParcel) {
+            lastSequenceByParcel.merge(event.getParcelId(), event.getSequence(), Math::max);
+        }
+    }
+}
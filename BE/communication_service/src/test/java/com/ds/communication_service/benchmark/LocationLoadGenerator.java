@@ -0,0 +1,167 @@
+package com.ds.communication_service.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ds.communication_service.business.v1.tracking.LatestPositionStore;
+import com.ds.communication_service.business.v1.tracking.TrailDownsampler;
+
+/**
+ * Load generator for shipper location ingestion.
+ * - mode "store": pings straight into LatestPositionStore + TrailDownsampler (hot path, no I/O) while a
+ *   reader thread polls positions like the parcel push tick.
+ * - mode "http": POSTs batches to /api/v1/tracking/locations of a running communication_service.
+ * Args: [mode] [shippers] [seconds] [threads] [baseUrl] [batchSize]
+ * Run the main method directly (not part of `mvn test`).
+ */
+public class LocationLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "store";
+        int shippers = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        String baseUrl = args.length > 4 ? args[4] : "http://localhost:21511";
+        int batchSize = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+
+        if ("http".equals(mode)) {
+            runHttp(shippers, seconds, threads, baseUrl, batchSize);
+        } else {
+            runStore(shippers, seconds, threads);
+        }
+    }
+
+    private static void runStore(int shippers, int seconds, int threads) throws InterruptedException {
+        LatestPositionStore store = new LatestPositionStore(shippers);
+        TrailDownsampler downsampler = new TrailDownsampler(shippers, 25, 2_000, 30_000);
+        String[] ids = shipperIds(shippers);
+        LongAdder pings = new LongAdder();
+        LongAdder kept = new LongAdder();
+        AtomicLong reads = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(thread);
+                long clock = System.currentTimeMillis();
+                long local = 0;
+                long localKept = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 1_000; i++) {
+                        int shipper = thread + threads * random.nextInt(Math.max(1, shippers / threads));
+                        if (shipper >= shippers) {
+                            continue;
+                        }
+                        double lat = 10.70 + random.nextDouble() * 0.2;
+                        double lon = 106.60 + random.nextDouble() * 0.2;
+                        long ts = ++clock;
+                        store.update(ids[shipper], lat, lon, 8.5f, 90f, ts);
+                        if (downsampler.accept(store.slotOf(ids[shipper]), "session-" + (shipper & 1023), lat, lon, ts)) {
+                            localKept++;
+                        }
+                        local++;
+                    }
+                }
+                pings.add(local);
+                kept.add(localKept);
+                done.countDown();
+            }, "ping-" + t).start();
+        }
+
+        Thread reader = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(99);
+            while (System.nanoTime() < deadline) {
+                if (store.get(ids[random.nextInt(shippers)]) != null) {
+                    reads.incrementAndGet();
+                }
+            }
+        }, "reader");
+        reader.start();
+
+        done.await();
+        reader.join();
+        long total = pings.sum();
+        System.out.printf("store mode: %d shippers, %d threads, %ds%n", shippers, threads, seconds);
+        System.out.printf("pings: %d (%.0f/s), kept for trail: %d (%.1f%%), reads: %d (%.0f/s)%n",
+            total, total / (double) seconds, kept.sum(), 100.0 * kept.sum() / Math.max(1, total),
+            reads.get(), reads.get() / (double) seconds);
+    }
+
+    private static void runHttp(int shippers, int seconds, int threads, String baseUrl, int batchSize) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        String[] ids = shipperIds(shippers);
+        LongAdder sent = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder latencyNanos = new LongAdder();
+        LongAdder requests = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(thread);
+                while (System.nanoTime() < deadline) {
+                    String shipperId = ids[random.nextInt(shippers)];
+                    String body = batchJson(random, batchSize);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/tracking/locations"))
+                        .header("Content-Type", "application/json")
+                        .header("X-User-Id", shipperId)
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                    long started = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() / 100 == 2) {
+                            sent.add(batchSize);
+                        } else {
+                            failed.increment();
+                        }
+                    } catch (Exception e) {
+                        failed.increment();
+                    }
+                    latencyNanos.add(System.nanoTime() - started);
+                    requests.increment();
+                }
+                done.countDown();
+            }, "http-" + t).start();
+        }
+
+        done.await();
+        System.out.printf("http mode: %s, %d threads, batch %d, %ds%n", baseUrl, threads, batchSize, seconds);
+        System.out.printf("pings: %d (%.0f/s), failed requests: %d, mean request latency: %.2f ms%n",
+            sent.sum(), sent.sum() / (double) seconds, failed.sum(),
+            latencyNanos.sum() / 1e6 / Math.max(1, requests.sum()));
+    }
+
+    private static String batchJson(SplittableRandom random, int batchSize) {
+        long now = System.currentTimeMillis();
+        StringBuilder json = new StringBuilder("{\"sessionId\":null,\"points\":[");
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"lat\":").append(10.70 + random.nextDouble() * 0.2)
+                .append(",\"lon\":").append(106.60 + random.nextDouble() * 0.2)
+                .append(",\"speed\":8.5,\"heading\":90,\"timestamp\":").append(now - (batchSize - i) * 1_000L)
+                .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String[] shipperIds(int shippers) {
+        String[] ids = new String[shippers];
+        for (int i = 0; i < shippers; i++) {
+            ids[i] = "shipper-" + i;
+        }
+        return ids;
+    }
+}
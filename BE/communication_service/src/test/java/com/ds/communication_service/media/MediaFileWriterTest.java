@@ -0,0 +1,94 @@
+package com.ds.communication_service.media;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.ds.communication_service.business.v1.media.MediaFileWriter;
+
+class MediaFileWriterTest {
+
+    private static final String ETAG = "media-1";
+
+    @TempDir
+    Path dir;
+
+    private final MediaFileWriter writer = new MediaFileWriter();
+    private final byte[] content = new byte[1000];
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.write(dir.resolve("photo.jpg"), content);
+    }
+
+    @Test
+    void fullBodyWithoutRange() throws Exception {
+        MockHttpServletResponse response = get(null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        MockHttpServletResponse response = get("bytes=100-199");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertEquals(100, response.getContentLength());
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    void openEndedRangeResumesDownload() throws Exception {
+        MockHttpServletResponse response = get("bytes=900-");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 900-999/1000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 900, 1000), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() throws Exception {
+        MockHttpServletResponse response = get("bytes=1000-1100");
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/media/1");
+        request.addHeader("If-None-Match", "\"" + ETAG + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(file, "image/jpeg", ETAG, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private MockHttpServletResponse get(String range) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/media/1");
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(file, "image/jpeg", ETAG, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,207 @@
+package com.ds.communication_service.media;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.access.AccessDeniedException;
+
+import com.ds.communication_service.app_context.models.MediaObject;
+import com.ds.communication_service.app_context.repositories.MediaObjectRepository;
+import com.ds.communication_service.business.v1.media.MediaStorage;
+import com.ds.communication_service.business.v1.media.MediaThumbnailService;
+import com.ds.communication_service.business.v1.services.MediaService;
+import com.ds.communication_service.business.v1.services.ParcelAccessService;
+import com.ds.communication_service.common.dto.CreateMediaUploadRequest;
+import com.ds.communication_service.common.dto.MediaUploadResponse;
+import com.ds.communication_service.common.enums.MediaPurpose;
+import com.ds.communication_service.common.enums.MediaStatus;
+import com.ds.communication_service.common.exception.MediaUploadConflictException;
+
+/**
+ * Resumable uploads against a real MediaStorage in a temp directory; the repository keeps detached copies,
+ * like a database row that is only changed by a successful save
+ */
+class MediaServiceTest {
+
+    private static final String OWNER = "user-1";
+    private static final String PARCEL = "parcel-1";
+
+    @TempDir
+    Path storageDir;
+
+    private final Map<UUID, MediaObject> rows = new ConcurrentHashMap<>();
+    private final AtomicBoolean failNextSave = new AtomicBoolean();
+    private MediaStorage storage;
+    private ParcelAccessService parcelAccess;
+    private MediaService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MediaObjectRepository repository = mock(MediaObjectRepository.class);
+        when(repository.save(any(MediaObject.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        when(repository.saveAndFlush(any(MediaObject.class))).thenAnswer(invocation -> {
+            if (failNextSave.getAndSet(false)) {
+                throw new DataAccessResourceFailureException("connection reset");
+            }
+            return store(invocation.getArgument(0));
+        });
+        when(repository.findById(any(UUID.class))).thenAnswer(invocation ->
+            Optional.ofNullable(rows.get(invocation.<UUID>getArgument(0))).map(MediaServiceTest::copy));
+
+        when(repository.findByPurposeAndReferenceIdAndStatusOrderByCreatedAtAsc(any(), any(), any())).thenReturn(List.of());
+
+        storage = new MediaStorage(storageDir.toString());
+        parcelAccess = mock(ParcelAccessService.class);
+        when(parcelAccess.isAssignedShipper(OWNER, PARCEL)).thenReturn(true);
+        when(parcelAccess.canViewProofs("receiver-1", null, PARCEL)).thenReturn(true);
+        service = new MediaService(repository, storage, mock(MediaThumbnailService.class), parcelAccess, 1024 * 1024, 64);
+    }
+
+    @Test
+    void resumesAtReceivedOffset() throws Exception {
+        byte[] image = jpeg(150);
+        MediaUploadResponse upload = create(image.length);
+        UUID id = UUID.fromString(upload.getId());
+
+        assertEquals(64, append(id, 0, image, 0, 64).getReceivedBytes());
+        // Connection dropped: the client asks where to continue
+        long offset = service.getUpload(id, OWNER).getReceivedBytes();
+        assertEquals(64, offset);
+        assertEquals(128, append(id, offset, image, 64, 128).getReceivedBytes());
+        MediaUploadResponse done = append(id, 128, image, 128, image.length);
+
+        assertEquals(MediaStatus.COMPLETE, done.getStatus());
+        assertArrayEquals(image, Files.readAllBytes(service.getContent(id, false).path()));
+    }
+
+    @Test
+    void chunkAtWrongOffsetIsConflict() throws Exception {
+        byte[] image = jpeg(100);
+        UUID id = UUID.fromString(create(image.length).getId());
+        append(id, 0, image, 0, 64);
+
+        MediaUploadConflictException resent = assertThrows(MediaUploadConflictException.class,
+            () -> append(id, 0, image, 0, 64));
+        MediaUploadConflictException skipped = assertThrows(MediaUploadConflictException.class,
+            () -> append(id, 80, image, 80, 100));
+
+        assertEquals(64, resent.getCurrentOffset());
+        assertEquals(64, skipped.getCurrentOffset());
+        assertEquals(64, service.getUpload(id, OWNER).getReceivedBytes());
+    }
+
+    @Test
+    void lastChunkCanBeResentWhenCompletionWasNotCommitted() throws Exception {
+        byte[] image = jpeg(100);
+        UUID id = UUID.fromString(create(image.length).getId());
+        append(id, 0, image, 0, 64);
+
+        failNextSave.set(true);
+        assertThrows(DataAccessResourceFailureException.class, () -> append(id, 64, image, 64, 100));
+        assertEquals(MediaStatus.UPLOADING, service.getUpload(id, OWNER).getStatus());
+        assertTrue(Files.exists(storage.partFile(rows.get(id).getStorageKey())));
+
+        MediaUploadResponse done = append(id, 64, image, 64, 100);
+        assertEquals(MediaStatus.COMPLETE, done.getStatus());
+        assertArrayEquals(image, Files.readAllBytes(service.getContent(id, false).path()));
+        // Response of the last chunk lost again: the resend is answered from the committed state
+        assertEquals(MediaStatus.COMPLETE, append(id, 100, new byte[0], 0, 0).getStatus());
+    }
+
+    @Test
+    void deliveryProofOnlyFromAssignedShipper() {
+        assertEquals(MediaPurpose.DELIVERY_PROOF, createProof(OWNER, PARCEL).getPurpose());
+
+        assertThrows(AccessDeniedException.class, () -> createProof("user-2", PARCEL));
+        assertThrows(AccessDeniedException.class, () -> createProof(OWNER, "parcel-2"));
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    void proofListOnlyForPartiesOfTheParcel() {
+        assertTrue(service.listProofs(PARCEL, "receiver-1", null).isEmpty());
+
+        assertThrows(AccessDeniedException.class, () -> service.listProofs(PARCEL, "stranger-1", "USER"));
+        assertThrows(AccessDeniedException.class, () -> service.listProofs("parcel-2", "receiver-1", null));
+    }
+
+    private MediaUploadResponse createProof(String ownerId, String parcelId) {
+        CreateMediaUploadRequest request = new CreateMediaUploadRequest();
+        request.setFileName("proof.jpg");
+        request.setContentType("image/jpeg");
+        request.setSize(100);
+        request.setPurpose(MediaPurpose.DELIVERY_PROOF);
+        request.setReferenceId(parcelId);
+        return service.createUpload(request, ownerId);
+    }
+
+    private MediaUploadResponse create(long size) {
+        CreateMediaUploadRequest request = new CreateMediaUploadRequest();
+        request.setFileName("proof.jpg");
+        request.setContentType("image/jpeg");
+        request.setSize(size);
+        request.setPurpose(MediaPurpose.CHAT_IMAGE);
+        return service.createUpload(request, OWNER);
+    }
+
+    private MediaUploadResponse append(UUID id, long offset, byte[] data, int from, int to) {
+        byte[] chunk = Arrays.copyOfRange(data, from, to);
+        return service.appendChunk(id, OWNER, offset, new ByteArrayInputStream(chunk), chunk.length);
+    }
+
+    private MediaObject store(MediaObject media) {
+        if (media.getId() == null) {
+            media.setId(UUID.randomUUID());
+        }
+        rows.put(media.getId(), copy(media));
+        return media;
+    }
+
+    private static MediaObject copy(MediaObject source) {
+        MediaObject copy = new MediaObject();
+        copy.setId(source.getId());
+        copy.setOwnerId(source.getOwnerId());
+        copy.setPurpose(source.getPurpose());
+        copy.setReferenceId(source.getReferenceId());
+        copy.setContentType(source.getContentType());
+        copy.setFileName(source.getFileName());
+        copy.setTotalSize(source.getTotalSize());
+        copy.setReceivedBytes(source.getReceivedBytes());
+        copy.setStorageKey(source.getStorageKey());
+        copy.setStatus(source.getStatus());
+        copy.setThumbnailStatus(source.getThumbnailStatus());
+        copy.setCompletedAt(source.getCompletedAt());
+        return copy;
+    }
+
+    private static byte[] jpeg(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        return bytes;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ds.communication_service.notification;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ds.communication_service.app_context.models.Notification;
+import com.ds.communication_service.app_context.repositories.NotificationRepository;
+import com.ds.communication_service.business.v1.services.NotificationService;
+import com.ds.communication_service.common.dto.ParcelStatusChangedEvent;
+import com.ds.communication_service.infrastructure.kafka.EventProducer;
+
+/**
+ * Parcel status notifications survive consumer retries: the same event never notifies twice
+ */
+class NotificationServiceTest {
+
+    private final Set<String> storedKeys = new HashSet<>();
+    private NotificationRepository repository;
+    private EventProducer eventProducer;
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationRepository.class);
+        eventProducer = mock(EventProducer.class);
+        when(repository.existsBySourceEventKey(anyString())).thenAnswer(invocation -> storedKeys.contains(invocation.<String>getArgument(0)));
+        when(repository.save(any(Notification.class))).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            notification.setId(UUID.randomUUID());
+            storedKeys.add(notification.getSourceEventKey());
+            return notification;
+        });
+        service = new NotificationService(repository, eventProducer);
+    }
+
+    @Test
+    void retriedEventNotifiesOnce() {
+        ParcelStatusChangedEvent event = event("evt-1", 1, "ON_ROUTE");
+
+        service.notifyParcelStatusChanged(event);
+        // The listener failed after notifying and the error handler re-ran it
+        service.notifyParcelStatusChanged(event);
+
+        verify(repository, times(1)).save(any(Notification.class));
+        verify(eventProducer, times(1)).publishNotification(anyString(), any());
+    }
+
+    @Test
+    void eachTransitionNotifies() {
+        service.notifyParcelStatusChanged(event("evt-1", 1, "ON_ROUTE"));
+        service.notifyParcelStatusChanged(event("evt-2", 2, "DELIVERED"));
+        // Older producer without event id: keyed by parcel + sequence
+        service.notifyParcelStatusChanged(event(null, 3, "FAILED"));
+        service.notifyParcelStatusChanged(event(null, 3, "FAILED"));
+
+        verify(repository, times(3)).save(any(Notification.class));
+    }
+
+    private static ParcelStatusChangedEvent event(String eventId, long sequence, String newStatus) {
+        return ParcelStatusChangedEvent.builder()
+            .eventId(eventId)
+            .sequence(sequence)
+            .parcelId("parcel-1")
+            .code("P001")
+            .receiverId("customer-1")
+            .newStatus(newStatus)
+            .build();
+    }
+}
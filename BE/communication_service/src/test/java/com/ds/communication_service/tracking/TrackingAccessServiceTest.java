@@ -0,0 +1,70 @@
+package com.ds.communication_service.tracking;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ds.communication_service.business.v1.services.ParcelAccessService;
+import com.ds.communication_service.business.v1.services.SessionServiceClient;
+import com.ds.communication_service.business.v1.services.SessionServiceClient.SessionParcels;
+import com.ds.communication_service.business.v1.services.TrackingAccessService;
+
+class TrackingAccessServiceTest {
+
+    private static final String SHIPPER = "shipper-1";
+    private static final String CUSTOMER = "customer-1";
+    private static final String STRANGER = "stranger-1";
+
+    private SessionServiceClient sessionClient;
+    private TrackingAccessService access;
+
+    @BeforeEach
+    void setUp() {
+        sessionClient = mock(SessionServiceClient.class);
+        ParcelAccessService parcelAccess = mock(ParcelAccessService.class);
+        when(parcelAccess.canFollow(CUSTOMER, "parcel-1")).thenReturn(true);
+        SessionParcels session = new SessionParcels("session-1", SHIPPER, "IN_PROGRESS", List.of("parcel-1", "parcel-2"));
+        when(sessionClient.getSession("session-1")).thenReturn(session);
+        when(sessionClient.getActiveSession(SHIPPER)).thenReturn(session);
+        when(sessionClient.getSession("session-old")).thenReturn(new SessionParcels("session-old", SHIPPER, "COMPLETED", List.of()));
+        access = new TrackingAccessService(sessionClient, parcelAccess, 30_000);
+    }
+
+    @Test
+    void shipperPositionIsVisibleToShipperAdminAndCustomersOfTheSession() {
+        assertTrue(access.canReadShipper(SHIPPER, null, SHIPPER));
+        assertTrue(access.canReadShipper("admin-1", "USER,ADMIN", SHIPPER));
+        assertTrue(access.canReadShipper(CUSTOMER, "USER", SHIPPER));
+        assertFalse(access.canReadShipper(STRANGER, "USER", SHIPPER));
+        assertFalse(access.canReadShipper(null, "ADMIN", SHIPPER));
+    }
+
+    @Test
+    void trailIsVisibleToShipperAdminAndCustomersOfTheSession() {
+        assertTrue(access.canReadSession(SHIPPER, null, "session-1"));
+        assertTrue(access.canReadSession("admin-1", "ADMIN", "session-1"));
+        assertTrue(access.canReadSession(CUSTOMER, null, "session-1"));
+        assertFalse(access.canReadSession(STRANGER, null, "session-1"));
+        assertFalse(access.canReadSession(SHIPPER, null, "session-unknown"));
+    }
+
+    @Test
+    void uploadsAreAcceptedOnlyForTheCallersActiveSession() {
+        assertTrue(access.isOwnActiveSession(SHIPPER, "session-1"));
+        assertTrue(access.isOwnActiveSession(SHIPPER, "session-1"));
+        assertFalse(access.isOwnActiveSession("shipper-2", "session-1"));
+        assertFalse(access.isOwnActiveSession(SHIPPER, "session-old"));
+        assertFalse(access.isOwnActiveSession(SHIPPER, "session-unknown"));
+
+        // Cached for SHIPPER after the first check; shipper-2 is not the owner and is looked up once
+        verify(sessionClient, times(2)).getSession("session-1");
+    }
+}
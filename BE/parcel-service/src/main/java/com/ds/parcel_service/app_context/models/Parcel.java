@@ -22,12 +22,17 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.*;
 
 @Entity
-@Table(name = "parcels",uniqueConstraints = {@UniqueConstraint(columnNames = {"code"})})
+@Table(
+    name = "parcels",
+    uniqueConstraints = {@UniqueConstraint(columnNames = {"code"})},
+    indexes = {@Index(name = "idx_parcels_updated_at_id", columnList = "updated_at, id")} // change feed (keyset)
+)
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -0,0 +1,47 @@
+package com.ds.parcel_service.app_context.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Bản ghi outbox: được ghi cùng transaction với thay đổi trạng thái đơn,
+ * relay sẽ đọc theo thứ tự id tăng dần và publish lên Kafka.
+ */
+@Entity
+@Table(
+    name = "parcel_outbox",
+    indexes = {@Index(name = "idx_parcel_outbox_published_at_id", columnList = "published_at, id")}
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_id", length = 36, nullable = false, updatable = false)
+    private String aggregateId;
+
+    @Column(name = "event_type", length = 64, nullable = false, updatable = false)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+}
@@ -1,5 +1,7 @@
 package com.ds.parcel_service.app_context.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -10,4 +12,6 @@ import com.ds.parcel_service.app_context.models.ParcelDestination;
 
 public interface ParcelDestinationRepository extends JpaRepository<ParcelDestination, UUID>{
     Optional<ParcelDestination> findByParcelAndIsCurrentTrue(Parcel parcel);
+
+    List<ParcelDestination> findByParcelInAndIsCurrentTrue(Collection<Parcel> parcels);
 }
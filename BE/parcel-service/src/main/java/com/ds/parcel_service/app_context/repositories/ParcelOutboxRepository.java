@@ -0,0 +1,36 @@
+package com.ds.parcel_service.app_context.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.ds.parcel_service.app_context.models.ParcelOutboxEvent;
+
+public interface ParcelOutboxRepository extends JpaRepository<ParcelOutboxEvent, Long> {
+
+    /**
+     * Khóa lô sự kiện chưa publish cũ nhất (theo id). Relay giữ khóa tới khi đánh dấu xong,
+     * nên nhiều instance chạy song song vẫn publish đúng thứ tự.
+     */
+    @Query(value = "SELECT * FROM parcel_outbox WHERE published_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE",
+           nativeQuery = true)
+    List<ParcelOutboxEvent> lockUnpublishedBatch(int limit);
+
+    @Modifying
+    @Query("UPDATE ParcelOutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(Collection<Long> ids, LocalDateTime publishedAt);
+
+    long countByPublishedAtIsNull();
+
+    @Query("SELECT MIN(e.createdAt) FROM ParcelOutboxEvent e WHERE e.publishedAt IS NULL")
+    Optional<LocalDateTime> findOldestUnpublishedCreatedAt();
+
+    @Modifying
+    @Query("DELETE FROM ParcelOutboxEvent e WHERE e.publishedAt IS NOT NULL AND e.publishedAt < :before")
+    int deletePublishedBefore(LocalDateTime before);
+}
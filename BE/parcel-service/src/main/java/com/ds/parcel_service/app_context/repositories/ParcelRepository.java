@@ -9,15 +9,27 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
 import com.ds.parcel_service.app_context.models.Parcel;
 import com.ds.parcel_service.common.enums.ParcelStatus;
 
+import jakarta.persistence.LockModeType;
+
 public interface ParcelRepository extends JpaRepository<Parcel, UUID>, JpaSpecificationExecutor<Parcel>{
     Optional<Parcel> findByCode(String code);
 
     boolean existsByCode(String code);
 
+    /**
+     * Khóa dòng (SELECT ... FOR UPDATE) để kiểm tra và chuyển trạng thái
+     * nguyên tử trong cùng một transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Parcel p WHERE p.id = :id")
+    Optional<Parcel> findByIdForUpdate(UUID id);
+
     List<Parcel> findByStatusAndDeliveredAtBefore(ParcelStatus delivered, LocalDateTime deadline);
 
     List<Parcel> findByStatusAndDeliveredAtBetween(ParcelStatus delivered, LocalDateTime twentyFourHoursAgo,
@@ -26,4 +38,12 @@ public interface ParcelRepository extends JpaRepository<Parcel, UUID>, JpaSpecif
     Page<Parcel> findBySenderId(String senderId, Pageable pageable);
 
     Page<Parcel> findByReceiverId(String receiverId, Pageable pageable);
+
+    /**
+     * Change feed: phân trang keyset theo (updatedAt, id) tăng dần.
+     * Chỉ lấy các bản ghi có updatedAt < until để tránh bỏ sót các transaction commit muộn.
+     */
+    @Query("SELECT p FROM Parcel p WHERE (p.updatedAt > :sinceUpdatedAt OR (p.updatedAt = :sinceUpdatedAt AND p.id > :sinceId)) "
+         + "AND p.updatedAt < :until ORDER BY p.updatedAt ASC, p.id ASC")
+    List<Parcel> findChangedSince(LocalDateTime sinceUpdatedAt, UUID sinceId, LocalDateTime until, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.ds.parcel_service.application.client;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DestinationIdsRequest {
+    private List<String> ids;
+}
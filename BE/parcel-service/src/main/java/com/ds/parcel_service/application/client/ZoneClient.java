@@ -23,6 +23,12 @@ public interface ZoneClient {
     @PostMapping("/api/v1/addresses/get-or-create")
     DestinationResponse<DesDetail> getOrCreateDestination(@RequestBody CreateDestinationRequest request);
 
+    /**
+     * Lấy nhiều địa chỉ trong một lần gọi (tối đa 500 id); id không tồn tại bị bỏ qua.
+     */
+    @PostMapping("/api/v1/addresses/by-ids")
+    ListAddressResponse getDestinationsByIds(@RequestBody DestinationIdsRequest request);
+
     @GetMapping("/api/v1/addresses/nearest")
     ListAddressResponse getNearestDestination(
         @RequestParam BigDecimal lat, 
@@ -1,10 +1,12 @@
 package com.ds.parcel_service.application.controllers;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -23,8 +25,10 @@ import com.ds.parcel_service.common.entities.dto.request.ParcelCreateRequest;
 import com.ds.parcel_service.common.entities.dto.request.ParcelFilterRequest;
 import com.ds.parcel_service.common.entities.dto.request.ParcelUpdateRequest;
 import com.ds.parcel_service.common.entities.dto.response.PageResponse;
+import com.ds.parcel_service.common.entities.dto.response.ParcelChangesResponse;
 import com.ds.parcel_service.common.entities.dto.response.ParcelResponse;
 import com.ds.parcel_service.common.enums.ParcelEvent;
+import com.ds.parcel_service.common.enums.ParcelStatus;
 import com.ds.parcel_service.common.interfaces.IParcelService;
 
 import jakarta.validation.Valid;
@@ -128,9 +132,15 @@ public class ParcelController {
             @PathVariable UUID parcelId,
             @RequestParam 
             @EnumValue(name = "event", enumClass = ParcelEvent.class, message = "event must be a valid enum value") 
-            String event
+            String event,
+            @RequestParam(required = false)
+            @EnumValue(name = "expectedStatus", enumClass = ParcelStatus.class, message = "expectedStatus must be a valid enum value")
+            String expectedStatus
     ) {
-        ParcelResponse response = parcelService.changeParcelStatus(parcelId, ParcelEvent.valueOf(event));
+        // expectedStatus: chuyển trạng thái có điều kiện (vd: quét QR chỉ hợp lệ khi đơn đang IN_WAREHOUSE)
+        ParcelResponse response = expectedStatus == null
+            ? parcelService.changeParcelStatus(parcelId, ParcelEvent.valueOf(event))
+            : parcelService.changeParcelStatusIfCurrent(parcelId, ParcelEvent.valueOf(event), ParcelStatus.valueOf(expectedStatus));
         return ResponseEntity.ok(response);
     }
 
@@ -224,4 +234,17 @@ public class ParcelController {
     ResponseEntity<Map<String, ParcelResponse>> fetchParcelsBulk(@RequestBody List<UUID> parcelIds) {
         return ResponseEntity.ok(parcelService.fetchParcelsBulk(parcelIds));
     }
+
+    /**
+     * Change feed cho các bản sao chỉ-đọc (vd: session-service):
+     * các đơn thay đổi sau watermark (sinceUpdatedAt, sinceId), phân trang keyset.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ParcelChangesResponse> getParcelChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime sinceUpdatedAt,
+            @RequestParam(required = false) UUID sinceId,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(parcelService.getParcelChanges(sinceUpdatedAt, sinceId, limit));
+    }
 }
@@ -0,0 +1,168 @@
+package com.ds.parcel_service.business.v1.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.parcel_service.app_context.models.ParcelOutboxEvent;
+import com.ds.parcel_service.app_context.repositories.ParcelOutboxRepository;
+import com.ds.parcel_service.application.configs.KafkaConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relay outbox -> Kafka.
+ * - Mỗi lượt khóa một lô sự kiện chưa publish (theo id tăng dần), gửi theo lô với key = parcelId,
+ *   chờ ack rồi đánh dấu published trong cùng transaction.
+ * - Chỉ đánh dấu phần đầu liên tiếp gửi thành công; phần còn lại được gửi lại ở lượt sau
+ *   (at-least-once, consumer lọc trùng/cũ bằng sequence = id outbox).
+ * - Metric: parcel.outbox.publisher.lag (giây, tuổi của sự kiện chưa publish cũ nhất),
+ *   parcel.outbox.pending và parcel.outbox.publish.batch.
+ */
+@Component
+@Slf4j
+public class ParcelOutboxRelay {
+
+    private final ParcelOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer batchTimer;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+
+    @Value("${parcel-outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${parcel-outbox.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${parcel-outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${parcel-outbox.retention-hours:72}")
+    private long retentionHours;
+
+    public ParcelOutboxRelay(ParcelOutboxRepository outboxRepository,
+                             KafkaTemplate<String, String> kafkaTemplate,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        // READ_COMMITTED: không giữ gap lock, tránh chặn các transaction đang ghi thêm vào outbox
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.batchTimer = Timer.builder("parcel.outbox.publish.batch")
+            .description("Time to publish and mark one outbox batch")
+            .register(meterRegistry);
+        Gauge.builder("parcel.outbox.publisher.lag", lagSeconds, AtomicLong::get)
+            .description("Age in seconds of the oldest unpublished parcel status event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("parcel.outbox.pending", pending, AtomicLong::get)
+            .description("Number of unpublished parcel status events")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${parcel-outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer published = batchTimer.record(() -> transactionTemplate.execute(status -> publishBatch()));
+                if (published == null || published < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Parcel outbox relay failed, will retry next cycle: {}", e.getMessage());
+        } finally {
+            refreshMetrics();
+        }
+    }
+
+    /**
+     * Xóa các sự kiện đã publish quá thời gian lưu giữ.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deletePublishedBefore(before));
+        log.info("Purged {} published parcel outbox events older than {}", deleted, before);
+    }
+
+    /**
+     * @return số sự kiện đã publish; nhỏ hơn batchSize nghĩa là outbox đã cạn hoặc có lỗi gửi.
+     */
+    private int publishBatch() {
+        List<ParcelOutboxEvent> batch = outboxRepository.lockUnpublishedBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (ParcelOutboxEvent event : batch) {
+            futures.add(kafkaTemplate.send(KafkaConfig.TOPIC_PARCEL_STATUS_EVENTS,
+                event.getAggregateId(), withSequence(event)));
+        }
+        kafkaTemplate.flush();
+
+        List<Long> publishedIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                publishedIds.add(batch.get(i).getId());
+            } catch (Exception e) {
+                log.warn("Failed to publish outbox event {} (parcel {}): {}",
+                    batch.get(i).getId(), batch.get(i).getAggregateId(), e.getMessage());
+                break;
+            }
+        }
+
+        if (!publishedIds.isEmpty()) {
+            outboxRepository.markPublished(publishedIds, LocalDateTime.now());
+        }
+        return publishedIds.size() == batch.size() ? publishedIds.size() : 0;
+    }
+
+    private String withSequence(ParcelOutboxEvent event) {
+        try {
+            ObjectNode node = (ObjectNode) objectMapper.readTree(event.getPayload());
+            node.put("sequence", event.getId());
+            return objectMapper.writeValueAsString(node);
+        } catch (Exception e) {
+            throw new IllegalStateException("Corrupted outbox payload " + event.getId(), e);
+        }
+    }
+
+    private void refreshMetrics() {
+        try {
+            pending.set(outboxRepository.countByPublishedAtIsNull());
+            lagSeconds.set(outboxRepository.findOldestUnpublishedCreatedAt()
+                .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds()))
+                .orElse(0L));
+        } catch (Exception e) {
+            log.debug("Cannot refresh parcel outbox metrics: {}", e.getMessage());
+        }
+    }
+}
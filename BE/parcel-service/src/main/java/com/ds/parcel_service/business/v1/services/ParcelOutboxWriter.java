@@ -0,0 +1,62 @@
+package com.ds.parcel_service.business.v1.services;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.ds.parcel_service.app_context.models.Parcel;
+import com.ds.parcel_service.app_context.models.ParcelOutboxEvent;
+import com.ds.parcel_service.app_context.repositories.ParcelOutboxRepository;
+import com.ds.parcel_service.common.entities.dto.event.ParcelStatusChangedEvent;
+import com.ds.parcel_service.common.enums.ParcelEvent;
+import com.ds.parcel_service.common.enums.ParcelStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ghi sự kiện ParcelStatusChanged vào outbox trong CÙNG transaction với thay đổi trạng thái.
+ * Không gọi Kafka trên luồng chuyển trạng thái; ParcelOutboxRelay sẽ publish bất đồng bộ.
+ */
+@Component
+@RequiredArgsConstructor
+public class ParcelOutboxWriter {
+
+    private final ParcelOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(TxType.MANDATORY)
+    public void recordStatusChanged(Parcel parcel, ParcelStatus previousStatus, ParcelEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        ParcelStatusChangedEvent payload = ParcelStatusChangedEvent.builder()
+            .eventId(UUID.randomUUID().toString())
+            .parcelId(parcel.getId().toString())
+            .code(parcel.getCode())
+            .senderId(parcel.getSenderId())
+            .receiverId(parcel.getReceiverId())
+            .previousStatus(previousStatus.name())
+            .newStatus(parcel.getStatus().name())
+            .event(event.name())
+            .occurredAt(now)
+            .build();
+
+        outboxRepository.save(ParcelOutboxEvent.builder()
+            .aggregateId(payload.getParcelId())
+            .eventType(ParcelStatusChangedEvent.TYPE)
+            .payload(toJson(payload))
+            .createdAt(now)
+            .build());
+    }
+
+    private String toJson(ParcelStatusChangedEvent payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize parcel status event", e);
+        }
+    }
+}
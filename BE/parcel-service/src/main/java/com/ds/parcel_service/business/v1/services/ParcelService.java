@@ -1,12 +1,14 @@
 package com.ds.parcel_service.business.v1.services;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -17,6 +19,7 @@ import com.ds.parcel_service.app_context.repositories.ParcelDestinationRepositor
 import com.ds.parcel_service.app_context.repositories.ParcelRepository;
 import com.ds.parcel_service.application.client.CreateDestinationRequest;
 import com.ds.parcel_service.application.client.DesDetail;
+import com.ds.parcel_service.application.client.DestinationIdsRequest;
 import com.ds.parcel_service.application.client.DestinationResponse;
 import com.ds.parcel_service.application.client.ListAddressResponse;
 import com.ds.parcel_service.application.client.ZoneClient;
@@ -25,6 +28,7 @@ import com.ds.parcel_service.common.entities.dto.request.ParcelCreateRequest;
 import com.ds.parcel_service.common.entities.dto.request.ParcelFilterRequest;
 import com.ds.parcel_service.common.entities.dto.request.ParcelUpdateRequest;
 import com.ds.parcel_service.common.entities.dto.response.PageResponse;
+import com.ds.parcel_service.common.entities.dto.response.ParcelChangesResponse;
 import com.ds.parcel_service.common.entities.dto.response.ParcelResponse;
 import com.ds.parcel_service.common.enums.DeliveryType;
 import com.ds.parcel_service.common.enums.DestinationType;
@@ -56,6 +60,13 @@ public class ParcelService implements IParcelService{
     private final ParcelRepository parcelRepository;
     private final ParcelDestinationRepository parcelDestinationRepository;
     private final ZoneClient zoneClient;
+    private final ParcelOutboxWriter parcelOutboxWriter;
+
+    private static final int MAX_CHANGES_PAGE_SIZE = 1000;
+    private static final int DESTINATION_BATCH_SIZE = 500;
+    private static final long CHANGES_SETTLE_SECONDS = 2;
+    private static final LocalDateTime CHANGES_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
 
     private final Map<ParcelStatus, IParcelState> stateMap = Map.of(
         ParcelStatus.IN_WAREHOUSE, new InWarehouseState(),
@@ -86,6 +97,11 @@ public class ParcelService implements IParcelService{
         Parcel parcel = parcelRepository.findById(parcelId)
             .orElseThrow(() -> new ResourceNotFound("Parcel not found"));
 
+        return applyTransition(parcel, event);
+    }
+
+    private Parcel applyTransition(Parcel parcel, ParcelEvent event) {
+        UUID parcelId = parcel.getId();
         ParcelStatus currentStatus = parcel.getStatus();
                 
         IParcelState currentStateObject = stateMap.get(currentStatus);
@@ -112,14 +128,32 @@ public class ParcelService implements IParcelService{
         }
         
         parcel.setStatus(nextStatus);
-        return parcelRepository.save(parcel);
+        Parcel saved = parcelRepository.save(parcel);
+        // Sự kiện được ghi cùng transaction; relay publish lên Kafka sau khi commit
+        parcelOutboxWriter.recordStatusChanged(saved, currentStatus, event);
+        return saved;
     }
 
     @Override
+    @Transactional
     public ParcelResponse changeParcelStatus(UUID parcelId, ParcelEvent event) {
         return toDto(processTransition(parcelId, event));
     }
 
+    @Override
+    @Transactional
+    public ParcelResponse changeParcelStatusIfCurrent(UUID parcelId, ParcelEvent event, ParcelStatus expectedStatus) {
+        // Khóa dòng để "kiểm tra trạng thái + chuyển trạng thái" là một thao tác duy nhất
+        Parcel parcel = parcelRepository.findByIdForUpdate(parcelId)
+            .orElseThrow(() -> new ResourceNotFound("Parcel not found"));
+
+        if (parcel.getStatus() != expectedStatus) {
+            throw new IllegalStateException("Parcel " + parcelId + " is not " + expectedStatus
+                                            + ". Current status: " + parcel.getStatus());
+        }
+        return toDto(applyTransition(parcel, event));
+    }
+
     @Override
     @Transactional
     public ParcelResponse createParcel(ParcelCreateRequest request) {
@@ -322,6 +356,7 @@ public class ParcelService implements IParcelService{
     private ParcelResponse toDtoWithLocation(Parcel parcel, DestinationResponse<DesDetail> des) {
         ParcelResponse response = toDto(parcel);
         log.info("before {} {}", des.getResult().getLat(), des.getResult().getLon());
+        response.setDestinationId(des.getResult().getId());
         response.setLat(des.getResult().getLat());
         response.setLon(des.getResult().getLon());
         log.info("after {} {}", response.getLat(), response.getLon());
@@ -356,6 +391,73 @@ public class ParcelService implements IParcelService{
             ));
     }
 
+    @Override
+    public ParcelChangesResponse getParcelChanges(LocalDateTime sinceUpdatedAt, UUID sinceId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE_SIZE));
+        LocalDateTime since = sinceUpdatedAt != null ? sinceUpdatedAt : CHANGES_EPOCH;
+        UUID afterId = sinceId != null ? sinceId : MIN_UUID;
+        // Bỏ qua các thay đổi quá mới (chưa "lắng") để transaction commit muộn không bị nhảy qua watermark
+        LocalDateTime until = LocalDateTime.now().minusSeconds(CHANGES_SETTLE_SECONDS);
+
+        List<Parcel> changed = parcelRepository.findChangedSince(since, afterId, until, PageRequest.of(0, pageSize));
+        List<ParcelResponse> items = toDtosWithLocation(changed);
+
+        if (changed.isEmpty()) {
+            return ParcelChangesResponse.builder()
+                .items(items)
+                .nextUpdatedAt(since)
+                .nextId(afterId.toString())
+                .hasMore(false)
+                .build();
+        }
+        Parcel last = changed.get(changed.size() - 1);
+        return ParcelChangesResponse.builder()
+            .items(items)
+            .nextUpdatedAt(last.getUpdatedAt())
+            .nextId(last.getId().toString())
+            .hasMore(changed.size() == pageSize)
+            .build();
+    }
+
+    /**
+     * Gắn toạ độ điểm giao hiện tại cho cả trang change feed: một truy vấn lấy điểm giao của mọi đơn,
+     * một lần gọi zone-service cho mỗi DESTINATION_BATCH_SIZE địa chỉ (không gọi theo từng đơn).
+     * Lỗi từ zone-service không làm hỏng cả trang: các đơn đó trả về không có toạ độ.
+     */
+    private List<ParcelResponse> toDtosWithLocation(List<Parcel> parcels) {
+        if (parcels.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, String> destinationByParcel = parcelDestinationRepository.findByParcelInAndIsCurrentTrue(parcels).stream()
+            .collect(Collectors.toMap(des -> des.getParcel().getId(), ParcelDestination::getDestinationId, (a, b) -> a));
+
+        List<String> destinationIds = destinationByParcel.values().stream().distinct().toList();
+        Map<String, DesDetail> details = new HashMap<>();
+        for (int from = 0; from < destinationIds.size(); from += DESTINATION_BATCH_SIZE) {
+            List<String> batch = destinationIds.subList(from, Math.min(from + DESTINATION_BATCH_SIZE, destinationIds.size()));
+            try {
+                ListAddressResponse response = zoneClient.getDestinationsByIds(new DestinationIdsRequest(batch));
+                if (response != null && response.getResult() != null) {
+                    response.getResult().forEach(detail -> details.put(detail.getId(), detail));
+                }
+            } catch (Exception e) {
+                log.warn("Failed to resolve {} destinations for change feed: {}", batch.size(), e.getMessage());
+            }
+        }
+
+        return parcels.stream().map(parcel -> {
+            ParcelResponse response = toDto(parcel);
+            String destinationId = destinationByParcel.get(parcel.getId());
+            DesDetail detail = destinationId != null ? details.get(destinationId) : null;
+            if (detail != null) {
+                response.setDestinationId(detail.getId());
+                response.setLat(detail.getLat());
+                response.setLon(detail.getLon());
+            }
+            return response;
+        }).toList();
+    }
+
     @Override
     public PageResponse<ParcelResponse> getParcelsSentByCustomer(String customerId, int page, int size) {
         Pageable pageable = PageUtil.build(page, size, "createdAt", "DESC", Parcel.class);
@@ -0,0 +1,31 @@
+package com.ds.parcel_service.common.entities.dto.event;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sự kiện ParcelStatusChanged publish lên Kafka (key = parcelId).
+ * sequence tăng dần theo từng đơn: consumer bỏ qua sự kiện có sequence nhỏ hơn sự kiện đã xử lý.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelStatusChangedEvent {
+    public static final String TYPE = "ParcelStatusChanged";
+
+    private String eventId;
+    private long sequence;
+    private String parcelId;
+    private String code;
+    private String senderId;
+    private String receiverId;
+    private String previousStatus;
+    private String newStatus;
+    private String event;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,24 @@
+package com.ds.parcel_service.common.entities.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một trang của change feed: các đơn thay đổi sau watermark (updatedAt, id),
+ * sắp xếp tăng dần. Client gửi lại nextUpdatedAt/nextId để lấy trang kế tiếp.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelChangesResponse {
+    private List<ParcelResponse> items;
+    private LocalDateTime nextUpdatedAt;
+    private String nextId;
+    private boolean hasMore;
+}
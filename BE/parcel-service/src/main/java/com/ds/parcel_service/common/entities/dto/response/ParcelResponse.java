@@ -34,6 +34,7 @@ public class ParcelResponse {
     private LocalTime windowEnd;
     private LocalDateTime deliveredAt;
 
+    private String destinationId;
     private BigDecimal lat;
     private BigDecimal lon;
 }
@@ -1,5 +1,6 @@
 package com.ds.parcel_service.common.interfaces;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -10,14 +11,22 @@ import com.ds.parcel_service.common.entities.dto.request.ParcelUpdateRequest;
 import com.ds.parcel_service.common.entities.dto.request.PagingRequestV0;
 import com.ds.parcel_service.common.entities.dto.request.PagingRequestV2;
 import com.ds.parcel_service.common.entities.dto.response.PageResponse;
+import com.ds.parcel_service.common.entities.dto.response.ParcelChangesResponse;
 import com.ds.parcel_service.common.entities.dto.response.ParcelResponse;
 import com.ds.parcel_service.common.enums.ParcelEvent;
+import com.ds.parcel_service.common.enums.ParcelStatus;
 
 public interface IParcelService {
     ParcelResponse createParcel(ParcelCreateRequest request);
     ParcelResponse updateParcel(UUID parcelId, ParcelUpdateRequest request);
     void deleteParcel(UUID parcelId);
     ParcelResponse changeParcelStatus(UUID parcelId, ParcelEvent event);
+
+    /**
+     * Chuyển trạng thái chỉ khi đơn đang ở expectedStatus (kiểm tra và cập nhật nguyên tử).
+     * Ném IllegalStateException nếu trạng thái hiện tại khác expectedStatus.
+     */
+    ParcelResponse changeParcelStatusIfCurrent(UUID parcelId, ParcelEvent event, ParcelStatus expectedStatus);
     ParcelResponse getParcelById(UUID parcelId);
     ParcelResponse getParcelByCode(String code);
     
@@ -38,6 +47,11 @@ public interface IParcelService {
     
     Map<String, ParcelResponse> fetchParcelsBulk(List<UUID> parcelIds);
 
+    /**
+     * Change feed: các đơn thay đổi sau watermark (sinceUpdatedAt, sinceId), tối đa limit bản ghi.
+     */
+    ParcelChangesResponse getParcelChanges(LocalDateTime sinceUpdatedAt, UUID sinceId, int limit);
+
     PageResponse<ParcelResponse> getParcelsSentByCustomer(String customerId, int page, int size);
 
     PageResponse<ParcelResponse> getParcelsReceivedByCustomer(String customerId, int page, int size);
@@ -28,6 +28,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.ds.parcel_service.app_context.models.Parcel;
 import com.ds.parcel_service.app_context.repositories.ParcelRepository;
+import com.ds.parcel_service.business.v1.services.ParcelOutboxWriter;
 import com.ds.parcel_service.business.v1.services.ParcelService;
 import com.ds.parcel_service.common.entities.dto.response.ParcelResponse;
 import com.ds.parcel_service.common.enums.ParcelEvent;
@@ -42,6 +43,9 @@ class ParcelServiceTransitionTest {
 
     @Mock
     private ParcelRepository parcelRepository;
+
+    @Mock
+    private ParcelOutboxWriter parcelOutboxWriter;
     
     // Giả lập các State Handler
     // Chúng ta không cần mock toàn bộ Map, vì service sẽ tự động
@@ -83,6 +87,7 @@ class ParcelServiceTransitionTest {
         // Assert
         assertEquals(expectedEnd, result.getStatus(), "Trạng thái cuối cùng không đúng.");
         verify(parcelRepository, times(1)).save(any(Parcel.class)); // Phải được gọi save
+        verify(parcelOutboxWriter, times(1)).recordStatusChanged(any(Parcel.class), any(), any()); // Phải ghi outbox
         
         if (shouldCallSetDeliveredAt) {
             assertNotNull(result.getDeliveredAt(), "deliveredAt đáng lẽ phải được set.");
@@ -104,6 +109,7 @@ class ParcelServiceTransitionTest {
         assertEquals(expectedState, result.getStatus(), "Trạng thái đáng lẽ không đổi.");
         // KHÔNG được gọi save, vì service có logic return sớm
         verify(parcelRepository, never()).save(any(Parcel.class)); 
+        verify(parcelOutboxWriter, never()).recordStatusChanged(any(), any(), any());
     }
 
     /**
@@ -117,6 +123,7 @@ class ParcelServiceTransitionTest {
         }, "Event " + invalidEvent + " đáng lẽ phải bất hợp lệ cho trạng thái " + parcel.getStatus());
         
         verify(parcelRepository, never()).save(any(Parcel.class)); // Không được save nếu có lỗi
+        verify(parcelOutboxWriter, never()).recordStatusChanged(any(), any(), any());
     }
 
     // --- CÁC BÀI TEST ĐƯỢC NHÓM THEO TRẠNG THÁI ---
@@ -0,0 +1,49 @@
+package com.ds.session.session_service.app_context.models;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.JdbcTypeCode;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lộ trình thực tế (waypoints) của một task, tách khỏi bảng delivery_assignments:
+ * - Chỉ được đọc khi cần xem lộ trình (không bị kéo theo mỗi lần truy vấn danh sách task).
+ * - polyline: tọa độ đã mã hóa delta + varint (xem PolylineCodec), nhỏ hơn nhiều so với JSON.
+ * - rawWaypoints: chỉ dùng khi dữ liệu gửi lên không phải danh sách tọa độ (giữ nguyên để không mất dữ liệu).
+ */
+@Entity
+@Table(name = "assignment_routes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssignmentRoute {
+    @Id
+    @JdbcTypeCode(Types.VARCHAR)
+    @Column(name = "assignment_id", length = 36, nullable = false, updatable = false)
+    private UUID assignmentId;
+
+    @Column(columnDefinition = "mediumtext")
+    private String polyline;
+
+    @Column(name = "point_count", nullable = false)
+    private int pointCount;
+
+    @Column(name = "raw_waypoints", columnDefinition = "mediumtext")
+    private String rawWaypoints;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -9,6 +9,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import com.ds.session.session_service.common.enums.AssignmentStatus;
+import com.ds.session.session_service.common.enums.ParcelEvent;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -71,13 +72,25 @@ public class DeliveryAssignment {
     @Column(name = "fail_reason")
     private String failReason;
 
-    @Column(columnDefinition = "json")
-    private String waypoints;
-
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private AssignmentStatus status;
 
+    /**
+     * Lượt quét chưa được Parcel-Service xác nhận (không rõ đơn đã chuyển ON_ROUTE hay chưa).
+     * Quét lại chỉ gọi Parcel-Service khi cờ này bật; bình thường trả về task hiện có, không gọi mạng.
+     */
+    @Column(name = "parcel_status_pending", nullable = false, columnDefinition = "bit not null default 0")
+    private boolean parcelStatusPending;
+
+    /**
+     * Sự kiện trạng thái đơn của task vừa kết thúc, chưa được Parcel-Service nhận (gửi sau commit, gửi lại định kỳ).
+     * null: không còn gì phải đồng bộ.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pending_parcel_event", length = 40)
+    private ParcelEvent pendingParcelEvent;
+
     @LastModifiedDate
     @Column(nullable = false)
     private LocalDateTime updatedAt;
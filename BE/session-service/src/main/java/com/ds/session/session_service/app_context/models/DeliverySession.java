@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List; // Thêm import
 import java.util.UUID;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 
 import com.ds.session.session_service.common.enums.SessionStatus;
@@ -20,6 +21,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany; // Thêm import
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,6 +32,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "delivery_sessions")
+@DynamicUpdate // Chỉ ghi các cột thay đổi, không ghi đè bộ đếm được cập nhật bằng câu lệnh UPDATE nguyên tử
 @Getter
 @Setter
 @NoArgsConstructor
@@ -53,6 +57,27 @@ public class DeliverySession {
 
     private LocalDateTime endTime; // Được đặt khi phiên kết thúc
 
+    /**
+     * = deliveryManId khi phiên đang IN_PROGRESS, NULL khi phiên đã kết thúc.
+     * Ràng buộc UNIQUE trên cột này đảm bảo ở tầng DB mỗi shipper chỉ có tối đa
+     * MỘT phiên đang hoạt động (kể cả khi chạy nhiều instance).
+     */
+    @Column(name = "active_delivery_man_id", unique = true)
+    private String activeDeliveryManId;
+
+    /**
+     * Bộ đếm task được duy trì khi thêm task / đổi trạng thái task
+     * (tránh phải nạp và duyệt toàn bộ assignments chỉ để đếm).
+     */
+    @Column(name = "total_tasks", nullable = false, columnDefinition = "int not null default 0")
+    private int totalTasks;
+
+    @Column(name = "completed_tasks", nullable = false, columnDefinition = "int not null default 0")
+    private int completedTasks;
+
+    @Column(name = "failed_tasks", nullable = false, columnDefinition = "int not null default 0")
+    private int failedTasks;
+
     // --- BỔ SUNG MỐI QUAN HỆ HAI CHIỀU ---
     /**
      * Danh sách các lượt giao hàng (task) thuộc phiên này.
@@ -72,8 +97,15 @@ public class DeliverySession {
     @Builder.Default 
     private List<DeliveryAssignment> assignments = new ArrayList<>();
 
+    @PrePersist
+    @PreUpdate
+    void syncActiveDeliveryManId() {
+        this.activeDeliveryManId = status == SessionStatus.IN_PROGRESS ? deliveryManId : null;
+    }
+
     public void addAssignment(DeliveryAssignment assignment) {
         assignments.add(assignment);
         assignment.setSession(this);
+        totalTasks++;
     }
 }
\ No newline at end of file
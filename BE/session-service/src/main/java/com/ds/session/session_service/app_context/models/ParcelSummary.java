@@ -0,0 +1,65 @@
+package com.ds.session.session_service.app_context.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bản sao CHỈ-ĐỌC thông tin đơn hàng từ Parcel-Service (được đồng bộ qua change feed).
+ * Dùng để ghép thông tin đơn vào danh sách task mà không phải gọi sang Parcel-Service.
+ * - updatedAt: thời điểm cập nhật phía Parcel-Service (dùng làm watermark đồng bộ).
+ */
+@Entity
+@Table(
+    name = "parcel_summaries",
+    indexes = {
+        @Index(name = "idx_parcel_summaries_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_parcel_summaries_status", columnList = "status")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelSummary {
+    @Id
+    @Column(length = 36, nullable = false, updatable = false)
+    private String id;
+
+    private String code;
+    private String senderId;
+    private String receiverId;
+    private String receiverPhoneNumber;
+    private String deliveryType;
+    private String receiveFrom;
+    private String targetDestination;
+    private String status;
+    private double weight;
+    private BigDecimal value;
+    private LocalTime windowStart;
+    private LocalTime windowEnd;
+
+    @Column(name = "destination_id", length = 36)
+    private String destinationId;
+
+    @Column(precision = 10, scale = 7)
+    private BigDecimal lat;
+
+    @Column(precision = 10, scale = 7)
+    private BigDecimal lon;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
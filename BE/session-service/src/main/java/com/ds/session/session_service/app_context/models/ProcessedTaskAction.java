@@ -0,0 +1,67 @@
+package com.ds.session.session_service.app_context.models;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.JdbcTypeCode;
+
+import com.ds.session.session_service.common.enums.TaskActionOutcome;
+import com.ds.session.session_service.common.enums.TaskActionType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Hành động (từ outbox của app shipper) đã được xử lý, khóa theo actionId do thiết bị sinh ra.
+ * Dùng để xử lý lô một cách idempotent: thiết bị gửi lại (mất phản hồi, timeout) không áp dụng hành động hai lần.
+ */
+@Entity
+@Table(name = "processed_task_actions", indexes = {
+    @Index(name = "idx_processed_task_actions_processed_at", columnList = "processed_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedTaskAction {
+    @Id
+    @JdbcTypeCode(Types.VARCHAR)
+    @Column(name = "action_id", length = 36, nullable = false, updatable = false)
+    private UUID actionId;
+
+    @Column(name = "delivery_man_id", length = 36, nullable = false)
+    private String deliveryManId;
+
+    @Column(name = "parcel_id", length = 36, nullable = false)
+    private String parcelId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TaskActionType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TaskActionOutcome outcome;
+
+    @Column(length = 500)
+    private String message;
+
+    /** Thời điểm shipper thực hiện trên thiết bị (có thể sớm hơn nhiều so với lúc gửi lên). */
+    @Column(name = "client_timestamp")
+    private LocalDateTime clientTimestamp;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -1,16 +1,22 @@
 package com.ds.session.session_service.app_context.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.ds.session.session_service.app_context.models.DeliveryAssignment;
 import com.ds.session.session_service.common.enums.AssignmentStatus;
+import com.ds.session.session_service.common.enums.ParcelEvent;
 import com.ds.session.session_service.common.enums.SessionStatus;
 
 @Repository
@@ -24,6 +30,12 @@ public interface DeliveryAssignmentRepository extends JpaRepository<DeliveryAssi
      */
     long countBySession_IdAndStatus(UUID sessionId, AssignmentStatus status);
 
+    /**
+     * Đếm tổng số task trong một phiên.
+     * (Dùng khi bù trừ (compensate) lượt quét thất bại: chỉ xóa phiên vừa tạo nếu nó rỗng)
+     */
+    long countBySession_Id(UUID sessionId);
+
     /**
      * Tìm tất cả các task trong một phiên đang ở trạng thái cụ thể.
      * (Ví dụ: Tìm tất cả task PENDING để hủy khi phiên bị FAILED)
@@ -35,6 +47,18 @@ public interface DeliveryAssignmentRepository extends JpaRepository<DeliveryAssi
      * (Dùng để kiểm tra xem đơn hàng đã được quét vào phiên này chưa)
      */
     Optional<DeliveryAssignment> findBySession_IdAndParcelId(UUID sessionId, String parcelId);
+
+    /**
+     * Tìm một assignment theo id, đồng thời kiểm tra nó thuộc phiên sessionId.
+     * (Không cần nạp phiên và toàn bộ danh sách task của phiên)
+     */
+    Optional<DeliveryAssignment> findByIdAndSession_Id(UUID id, UUID sessionId);
+
+    /**
+     * Như findByIdAndSession_Id nhưng nạp luôn phiên trong cùng câu truy vấn (cho response cần thông tin phiên).
+     */
+    @Query("SELECT da FROM DeliveryAssignment da JOIN FETCH da.session s WHERE da.id = :id AND s.id = :sessionId")
+    Optional<DeliveryAssignment> findWithSessionByIdAndSessionId(UUID id, UUID sessionId);
     
     /**
      * Kiểm tra xem một task (parcel) đã tồn tại trong phiên (session) chưa.
@@ -50,6 +74,56 @@ public interface DeliveryAssignmentRepository extends JpaRepository<DeliveryAssi
     @Query("SELECT da FROM DeliveryAssignment da JOIN da.session s WHERE da.parcelId = :parcelId AND s.status = :status")
     Optional<DeliveryAssignment> findActiveByParcelId(String parcelId, SessionStatus status);
 
+    /**
+     * Tất cả assignment đang hoạt động của một đơn, kèm phiên (bình thường tối đa một;
+     * hai lượt quét đồng thời của hai shipper có thể cùng giữ chỗ trước khi Parcel-Service phân xử).
+     */
+    @Query("SELECT da FROM DeliveryAssignment da JOIN FETCH da.session s WHERE da.parcelId = :parcelId AND s.status = :status")
+    List<DeliveryAssignment> findAllActiveByParcelId(String parcelId, SessionStatus status);
+
+    /**
+     * Bật/tắt cờ "lượt quét chưa được Parcel-Service xác nhận" mà không nạp task.
+     */
+    @Modifying
+    @Query("UPDATE DeliveryAssignment da SET da.parcelStatusPending = :pending WHERE da.id = :id")
+    int updateParcelStatusPending(UUID id, boolean pending);
+
+    /**
+     * Tắt cờ chưa xác nhận cho nhiều task một lần (các đơn Parcel-Service đã nhận ON_ROUTE).
+     */
+    @Modifying
+    @Query("UPDATE DeliveryAssignment da SET da.parcelStatusPending = false WHERE da.id IN :ids")
+    int clearParcelStatusPending(Collection<UUID> ids);
+
+    /**
+     * Task có sự kiện trạng thái đơn chưa gửi được, cập nhật lần cuối trước mốc cho trước (cũ nhất trước).
+     */
+    @Query("SELECT da FROM DeliveryAssignment da WHERE da.pendingParcelEvent IS NOT NULL AND da.updatedAt < :before ORDER BY da.updatedAt")
+    List<DeliveryAssignment> findWithPendingParcelEvent(LocalDateTime before, Pageable pageable);
+
+    /**
+     * Xóa sự kiện chờ gửi nếu nó vẫn là sự kiện vừa gửi (không nạp task).
+     */
+    @Modifying
+    @Query("UPDATE DeliveryAssignment da SET da.pendingParcelEvent = NULL WHERE da.id = :id AND da.pendingParcelEvent = :event")
+    int clearPendingParcelEvent(UUID id, ParcelEvent event);
+
     Optional<DeliveryAssignment> findFirstByParcelIdOrderByUpdatedAtDesc(String parcelId);
+
+    /**
+     * Những parcelId trong danh sách đang nằm trong một phiên có trạng thái cho trước.
+     */
+    @Query("SELECT da.parcelId FROM DeliveryAssignment da JOIN da.session s WHERE da.parcelId IN :parcelIds AND s.status = :status")
+    List<String> findParcelIdsInSessionsWithStatus(Collection<String> parcelIds, SessionStatus status);
+
+    /**
+     * Task theo trạng thái cập nhật sau một thời điểm (nạp lịch sử cho thống kê vận tốc ETA).
+     */
+    Slice<DeliveryAssignment> findByStatusAndUpdatedAtAfter(AssignmentStatus status, LocalDateTime after, Pageable pageable);
+
+    /**
+     * Task kết thúc gần nhất của phiên (vị trí / thời điểm xuất phát của chặng tiếp theo khi tính ETA).
+     */
+    Optional<DeliveryAssignment> findFirstBySession_IdAndStatusNotOrderByUpdatedAtDesc(UUID sessionId, AssignmentStatus status);
 }
 
@@ -6,6 +6,8 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.ds.session.session_service.app_context.models.DeliverySession;
@@ -26,6 +28,12 @@ public interface DeliverySessionRepository extends JpaRepository<DeliverySession
      */
     List<DeliverySession> findAllByDeliveryManIdAndStatus(String deliveryManId, SessionStatus status);
 
+    /**
+     * Tìm tất cả các phiên theo trạng thái.
+     * (Dùng để nạp lại ActiveSessionRegistry khi khởi động)
+     */
+    List<DeliverySession> findAllByStatus(SessionStatus status);
+
     /**
      * ĐÂY CHÍNH LÀ FILTER THEO NGÀY MÀ BẠN HỎI:
      * Tìm tất cả các phiên của shipper, theo trạng thái, VÀ
@@ -37,5 +45,24 @@ public interface DeliverySessionRepository extends JpaRepository<DeliverySession
             SessionStatus status,
             LocalDateTime startTime,
             LocalDateTime endTime);
-}
 
+    /**
+     * Cộng dồn (nguyên tử) các bộ đếm task của phiên, tránh phải nạp toàn bộ assignments để đếm.
+     */
+    @Modifying
+    @Query("UPDATE DeliverySession s SET s.totalTasks = s.totalTasks + :total, "
+         + "s.completedTasks = s.completedTasks + :completed, s.failedTasks = s.failedTasks + :failed "
+         + "WHERE s.id = :sessionId")
+    int adjustTaskCounters(UUID sessionId, int total, int completed, int failed);
+
+    /**
+     * Tính lại bộ đếm cho các phiên tạo trước khi có cột đếm (total_tasks = 0 nhưng đã có task).
+     */
+    @Modifying
+    @Query(value = "UPDATE delivery_sessions s SET "
+         + "s.total_tasks = (SELECT COUNT(*) FROM delivery_assignments a WHERE a.session_id = s.id), "
+         + "s.completed_tasks = (SELECT COUNT(*) FROM delivery_assignments a WHERE a.session_id = s.id AND a.status = 'COMPLETED'), "
+         + "s.failed_tasks = (SELECT COUNT(*) FROM delivery_assignments a WHERE a.session_id = s.id AND a.status = 'FAILED') "
+         + "WHERE s.total_tasks = 0", nativeQuery = true)
+    int backfillTaskCounters();
+}
@@ -0,0 +1,23 @@
+package com.ds.session.session_service.app_context.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ds.session.session_service.app_context.models.ParcelSummary;
+
+@Repository
+public interface ParcelSummaryRepository extends JpaRepository<ParcelSummary, String> {
+
+    /**
+     * Bản ghi mới nhất theo (updatedAt, id): dùng để khôi phục watermark khi khởi động lại.
+     */
+    Optional<ParcelSummary> findFirstByOrderByUpdatedAtDescIdDesc();
+
+    /**
+     * Các đơn theo trạng thái (ví dụ IN_WAREHOUSE cho việc chia đơn hàng loạt).
+     */
+    List<ParcelSummary> findAllByStatus(String status);
+}
@@ -0,0 +1,24 @@
+package com.ds.session.session_service.app_context.repositories;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ds.session.session_service.app_context.models.ProcessedTaskAction;
+
+@Repository
+public interface ProcessedTaskActionRepository extends JpaRepository<ProcessedTaskAction, UUID> {
+
+    /**
+     * Xóa các bản ghi cũ: thiết bị không gửi lại hành động sau khoảng thời gian lưu giữ.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProcessedTaskAction a WHERE a.processedAt < :before")
+    int deleteProcessedBefore(LocalDateTime before);
+}
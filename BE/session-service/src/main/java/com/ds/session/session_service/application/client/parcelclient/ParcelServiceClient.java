@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.ds.session.session_service.application.client.parcelclient.response.ParcelChangesResponse;
 import com.ds.session.session_service.application.client.parcelclient.response.ParcelResponse;
 import com.ds.session.session_service.common.enums.ParcelEvent;
 
@@ -25,7 +26,23 @@ public interface ParcelServiceClient {
 
     @PutMapping("/api/v1/parcels/change-status/{parcelId}")
     ParcelResponse changeParcelStatus(@PathVariable String parcelId, @RequestParam ParcelEvent event);
+
+    /**
+     * Chuyển trạng thái có điều kiện: Parcel-Service chỉ chuyển khi đơn đang ở expectedStatus
+     * (kiểm tra + cập nhật trong cùng một lần gọi).
+     */
+    @PutMapping("/api/v1/parcels/change-status/{parcelId}")
+    ParcelResponse changeParcelStatusIfCurrent(@PathVariable String parcelId, @RequestParam ParcelEvent event, @RequestParam String expectedStatus);
     
     @PostMapping("/api/v1/parcels/bulk")
     Map<String, ParcelResponse> fetchParcelsBulk(@RequestBody List<UUID> parcelIds);
+
+    /**
+     * Change feed: các đơn thay đổi sau watermark (sinceUpdatedAt là ISO date-time).
+     */
+    @GetMapping("/api/v1/parcels/changes")
+    ParcelChangesResponse fetchParcelChanges(
+        @RequestParam(required = false) String sinceUpdatedAt,
+        @RequestParam(required = false) String sinceId,
+        @RequestParam int limit);
 }
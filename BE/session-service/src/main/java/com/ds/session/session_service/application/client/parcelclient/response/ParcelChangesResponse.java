@@ -0,0 +1,20 @@
+package com.ds.session.session_service.application.client.parcelclient.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelChangesResponse {
+    private List<ParcelResponse> items;
+    private LocalDateTime nextUpdatedAt;
+    private String nextId;
+    private boolean hasMore;
+}
@@ -1,6 +1,7 @@
 package com.ds.session.session_service.application.client.parcelclient.response;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 import lombok.AllArgsConstructor;
@@ -26,7 +27,9 @@ public class ParcelResponse {
     private BigDecimal value;
     private LocalTime windowStart;
     private LocalTime windowEnd;
+    private LocalDateTime updatedAt;
 
+    private String destinationId;
     private BigDecimal lat;
     private BigDecimal lon;
 }
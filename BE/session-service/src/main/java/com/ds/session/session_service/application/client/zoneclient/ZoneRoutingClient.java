@@ -0,0 +1,22 @@
+package com.ds.session.session_service.application.client.zoneclient;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import com.ds.session.session_service.application.client.zoneclient.request.MatrixRequest;
+import com.ds.session.session_service.application.client.zoneclient.response.MatrixResponse;
+import com.ds.session.session_service.application.client.zoneclient.response.ZoneBaseResponse;
+
+@FeignClient(
+    name = "zone-service",
+    url = "${ZONE_SERVICE_URL:http://localhost:21503}"
+)
+public interface ZoneRoutingClient {
+
+    /**
+     * Ma trận thời gian (giây) / quãng đường (mét) giữa sources và destinations (OSRM table).
+     */
+    @PostMapping("/api/v1/routing/matrix")
+    ZoneBaseResponse<MatrixResponse> calculateMatrix(@RequestBody MatrixRequest request);
+}
@@ -0,0 +1,27 @@
+package com.ds.session.session_service.application.client.zoneclient.request;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatrixRequest {
+    private List<Waypoint> sources;
+    private List<Waypoint> destinations;
+    private String vehicle;
+    private String mode;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Waypoint {
+        private double lat;
+        private double lon;
+    }
+}
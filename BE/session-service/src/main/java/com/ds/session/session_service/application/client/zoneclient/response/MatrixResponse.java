@@ -0,0 +1,18 @@
+package com.ds.session.session_service.application.client.zoneclient.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * durations (giây) / distances (mét) theo [source][destination]; null khi không có đường đi.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatrixResponse {
+    private List<List<Double>> durations;
+    private List<List<Double>> distances;
+}
@@ -0,0 +1,13 @@
+package com.ds.session.session_service.application.client.zoneclient.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneBaseResponse<T> {
+    private T result;
+    private String message;
+}
@@ -0,0 +1,56 @@
+package com.ds.session.session_service.application.configs;
+
+import java.security.Principal;
+import java.util.Collections;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Xác thực kênh task giống communication-service: CONNECT gửi "Authorization: Bearer <USER_ID>",
+ * userId trở thành Principal nên /user/queue/tasks chỉ nhận task của chính shipper đó.
+ */
+@Component
+@Slf4j
+public class TaskWebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private static final String ALLOWED_SUBSCRIPTION = "/user/queue/tasks";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message; // heartbeat
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (StompCommand.CONNECT.equals(command)) {
+            String authHeader = accessor.getFirstNativeHeader("Authorization");
+            if (authHeader == null || !authHeader.startsWith("Bearer ") || authHeader.substring(7).isBlank()) {
+                log.warn("Task WebSocket CONNECT rejected: missing or invalid Authorization header");
+                throw new MessageDeliveryException("Missing Authorization header");
+            }
+            String userId = authHeader.substring(7).trim();
+            Principal principal = new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList());
+            accessor.setUser(principal);
+            log.debug("Task WebSocket CONNECT: shipper {}", userId);
+        } else if (StompCommand.SUBSCRIBE.equals(command)) {
+            if (accessor.getUser() == null || !ALLOWED_SUBSCRIPTION.equals(accessor.getDestination())) {
+                log.warn("Task WebSocket SUBSCRIBE to {} rejected", accessor.getDestination());
+                throw new MessageDeliveryException("Subscription not allowed: " + accessor.getDestination());
+            }
+        } else if (StompCommand.SEND.equals(command)) {
+            throw new MessageDeliveryException("Task channel is read-only");
+        }
+        return message;
+    }
+}
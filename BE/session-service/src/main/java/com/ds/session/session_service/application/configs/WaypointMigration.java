@@ -0,0 +1,94 @@
+package com.ds.session.session_service.application.configs;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.session.session_service.app_context.repositories.AssignmentRouteRepository;
+import com.ds.session.session_service.business.v1.services.AssignmentRouteService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chuyển dữ liệu cột JSON cũ delivery_assignments.waypoints sang bảng assignment_routes (polyline nén).
+ * - Chạy sau khi Hibernate (ddl-auto) đã tạo bảng mới; mỗi lô một transaction.
+ * - Dòng đã chuyển được set waypoints = NULL nên có thể chạy lại an toàn (kể cả khi bị dừng giữa chừng).
+ * - Cột cũ được giữ lại (rỗng) để có thể rollback phiên bản; entity không còn đọc cột này.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaypointMigration {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AssignmentRouteService assignmentRouteService;
+    private final AssignmentRouteRepository assignmentRouteRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${waypoint-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${waypoint-migration.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled || !legacyColumnExists()) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int total = 0;
+            int migrated;
+            do {
+                migrated = transactionTemplate.execute(status -> migrateBatch());
+                total += migrated;
+            } while (migrated == batchSize);
+            if (total > 0) {
+                log.info("Migrated waypoints of {} assignments to assignment_routes in {}ms", total, System.currentTimeMillis() - started);
+            }
+        } catch (Exception e) {
+            log.error("Waypoint migration failed, will resume on next start: {}", e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int migrateBatch() {
+        List<Object[]> rows = entityManager.createNativeQuery(
+                "SELECT id, CAST(waypoints AS CHAR) FROM delivery_assignments WHERE waypoints IS NOT NULL LIMIT :limit")
+            .setParameter("limit", batchSize)
+            .getResultList();
+        for (Object[] row : rows) {
+            UUID assignmentId = UUID.fromString(row[0].toString());
+            String waypoints = row[1] != null ? row[1].toString() : null;
+            // Không ghi đè lộ trình mới hơn đã được lưu theo định dạng mới
+            if (!assignmentRouteRepository.existsById(assignmentId)) {
+                assignmentRouteService.toRoute(assignmentId, waypoints).ifPresent(assignmentRouteRepository::save);
+            }
+        }
+        if (!rows.isEmpty()) {
+            entityManager.createNativeQuery("UPDATE delivery_assignments SET waypoints = NULL WHERE id IN (:ids)")
+                .setParameter("ids", rows.stream().map(row -> row[0].toString()).toList())
+                .executeUpdate();
+        }
+        return rows.size();
+    }
+
+    private boolean legacyColumnExists() {
+        Number count = (Number) entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM information_schema.columns "
+                    + "WHERE table_schema = DATABASE() AND table_name = 'delivery_assignments' AND column_name = 'waypoints'")
+            .getSingleResult();
+        return count.intValue() > 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ds.session.session_service.application.configs;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Kênh STOMP đẩy thay đổi danh sách task tới app shipper (/ws-tasks, nginx chuyển thẳng tới session-service).
+ * Chỉ có chiều server -> client: không có đích /app, client chỉ được subscribe /user/queue/tasks.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    // Server gửi heartbeat mỗi 10s, chờ heartbeat của client mỗi 10s
+    private static final long[] HEARTBEAT = new long[]{10000, 10000};
+
+    private final TaskWebSocketAuthInterceptor authInterceptor;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry config) {
+        config.enableSimpleBroker("/queue")
+            .setTaskScheduler(messageBrokerTaskScheduler)
+            .setHeartbeatValue(HEARTBEAT);
+        config.setUserDestinationPrefix("/user");
+        // Giữ thứ tự gửi theo từng phiên WebSocket (seq đến app đúng thứ tự)
+        config.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws-tasks")
+            .setAllowedOriginPatterns("*")
+            .withSockJS();
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(authInterceptor);
+    }
+}
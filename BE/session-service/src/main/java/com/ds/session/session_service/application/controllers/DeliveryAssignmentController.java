@@ -15,11 +15,18 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ds.session.session_service.common.entities.dto.request.RouteInfo;
+import com.ds.session.session_service.common.entities.dto.request.TaskActionBatchRequest;
 import com.ds.session.session_service.common.entities.dto.request.TaskFailRequest;
+import com.ds.session.session_service.common.entities.dto.response.AssignmentRouteResponse;
 import com.ds.session.session_service.common.entities.dto.response.DeliveryAssignmentResponse;
 import com.ds.session.session_service.common.entities.dto.response.PageResponse;
+import com.ds.session.session_service.common.entities.dto.response.ParcelEtaResponse;
 import com.ds.session.session_service.common.entities.dto.response.ShipperInfo;
+import com.ds.session.session_service.common.entities.dto.response.TaskActionBatchResponse;
+import com.ds.session.session_service.common.interfaces.IAssignmentRouteService;
 import com.ds.session.session_service.common.interfaces.IDeliveryAssignmentService;
+import com.ds.session.session_service.common.interfaces.IEtaService;
+import com.ds.session.session_service.common.interfaces.ITaskActionBatchService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +44,9 @@ import lombok.extern.slf4j.Slf4j;
 public class DeliveryAssignmentController {
 
     private final IDeliveryAssignmentService assignmentService;
+    private final IAssignmentRouteService assignmentRouteService;
+    private final IEtaService etaService;
+    private final ITaskActionBatchService taskActionBatchService;
 
     /**
      * Lấy tất cả các task trong "phiên" (session) ĐANG HOẠT ĐỘNG của shipper.
@@ -149,6 +159,19 @@ public class DeliveryAssignmentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * API app shipper gọi để đẩy các hành động đã ghi trong outbox (quét / hoàn thành / thất bại / từ chối / hoãn).
+     * Áp dụng theo thứ tự thời gian trên thiết bị, idempotent theo actionId.
+     */
+    @PostMapping("/drivers/{deliveryManId}/actions/batch")
+    public ResponseEntity<TaskActionBatchResponse> applyActionBatch(
+        @PathVariable UUID deliveryManId,
+        @Valid @RequestBody TaskActionBatchRequest request
+    ) {
+        log.info("Shipper {} flushing {} queued task actions", deliveryManId, request.getActions().size());
+        return ResponseEntity.ok(taskActionBatchService.applyBatch(deliveryManId, request));
+    }
+
     @GetMapping("/current-shipper/parcels/{parcelId}")
     public ResponseEntity<ShipperInfo> getCurrentShipperInfoForParcel(@PathVariable String parcelId) {
         Optional<ShipperInfo> shipperOpt = assignmentService.getLatestDriverIdForParcel(parcelId);
@@ -158,6 +181,23 @@ public class DeliveryAssignmentController {
             return ResponseEntity.ok(null);
         }
     }
-    
-}
 
+    /**
+     * Lộ trình thực tế của task (polyline nén). includePoints=true để nhận thêm danh sách điểm đã giải mã.
+     */
+    @GetMapping("/{assignmentId}/route")
+    public ResponseEntity<AssignmentRouteResponse> getAssignmentRoute(
+        @PathVariable UUID assignmentId,
+        @RequestParam(defaultValue = "false") boolean includePoints
+    ) {
+        return ResponseEntity.ok(assignmentRouteService.getRoute(assignmentId, includePoints));
+    }
+
+    /**
+     * Thời điểm giao dự kiến của đơn (cho khách theo dõi). Tính trong bộ nhớ, cache theo phiên.
+     */
+    @GetMapping("/parcels/{parcelId}/eta")
+    public ResponseEntity<ParcelEtaResponse> getParcelEta(@PathVariable String parcelId) {
+        return ResponseEntity.ok(etaService.getParcelEta(parcelId));
+    }
+}
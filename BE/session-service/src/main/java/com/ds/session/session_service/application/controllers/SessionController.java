@@ -14,13 +14,20 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ds.session.session_service.common.entities.dto.request.CreateSessionRequest;
+import com.ds.session.session_service.common.entities.dto.request.DispatchPlanRequest;
+import com.ds.session.session_service.common.entities.dto.request.OptimizeRouteRequest;
 import com.ds.session.session_service.common.entities.dto.request.ScanParcelRequest;
 import com.ds.session.session_service.common.entities.dto.request.SessionFailRequest;
 import com.ds.session.session_service.common.entities.dto.request.UpdateAssignmentStatusRequest;
 import com.ds.session.session_service.common.entities.dto.response.AssignmentResponse;
 import com.ds.session.session_service.common.entities.dto.response.DeliveryAssignmentResponse;
+import com.ds.session.session_service.common.entities.dto.response.DispatchPlanResponse;
+import com.ds.session.session_service.common.entities.dto.response.OptimizedRouteResponse;
+import com.ds.session.session_service.common.entities.dto.response.SessionCountersResponse;
 import com.ds.session.session_service.common.entities.dto.response.SessionResponse;
 import com.ds.session.session_service.common.interfaces.IDeliveryAssignmentService;
+import com.ds.session.session_service.common.interfaces.IDispatchPlanningService;
+import com.ds.session.session_service.common.interfaces.IRouteOptimizationService;
 import com.ds.session.session_service.common.interfaces.ISessionService;
 
 import jakarta.validation.Valid;
@@ -40,6 +47,8 @@ public class SessionController {
 
     private final ISessionService sessionService;
     private final IDeliveryAssignmentService assignmentService;
+    private final IRouteOptimizationService routeOptimizationService;
+    private final IDispatchPlanningService dispatchPlanningService;
 
     /**
      * API này dùng cho logic "Quét và chấp nhận đơn hàng"
@@ -66,6 +75,58 @@ public class SessionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Lấy phiên ĐANG HOẠT ĐỘNG của shipper (kèm các task), 404 nếu shipper không có phiên nào.
+     * Dùng bởi communication-service để kiểm tra quyền xem vị trí / lộ trình của shipper.
+     */
+    @GetMapping("/drivers/{deliveryManId}/active")
+    public ResponseEntity<SessionResponse> getActiveSession(@PathVariable("deliveryManId") String deliveryManId) {
+        log.info("Fetching active session of shipper {}", deliveryManId);
+        return ResponseEntity.ok(sessionService.getActiveSession(deliveryManId));
+    }
+
+    /**
+     * Lấy MỘT task trong phiên (dùng bởi API gateway thay vì tải cả phiên để tìm parcelId).
+     */
+    @GetMapping("/{sessionId}/assignments/{assignmentId}")
+    public ResponseEntity<AssignmentResponse> getAssignmentInSession(
+            @PathVariable UUID sessionId,
+            @PathVariable UUID assignmentId
+    ) {
+        log.info("Fetching assignment {} of session {}", assignmentId, sessionId);
+        return ResponseEntity.ok(sessionService.getAssignmentInSession(sessionId, assignmentId));
+    }
+
+    /**
+     * Lấy bộ đếm task của phiên (không kèm danh sách task).
+     */
+    @GetMapping("/{sessionId}/counters")
+    public ResponseEntity<SessionCountersResponse> getSessionCounters(@PathVariable UUID sessionId) {
+        log.info("Fetching task counters for session {}", sessionId);
+        return ResponseEntity.ok(sessionService.getSessionCounters(sessionId));
+    }
+
+    /**
+     * Đề xuất thứ tự giao cho các task còn lại của phiên (khung giờ + tải trọng), tính ngay trong session-service.
+     */
+    @PostMapping("/{sessionId}/route/optimize")
+    public ResponseEntity<OptimizedRouteResponse> optimizeSessionRoute(
+            @PathVariable UUID sessionId,
+            @Valid @RequestBody OptimizeRouteRequest request
+    ) {
+        log.info("Optimizing route for session {}", sessionId);
+        return ResponseEntity.ok(routeOptimizationService.optimizeSessionRoute(sessionId, request));
+    }
+
+    /**
+     * Đề xuất phiên giao cho nhiều shipper từ các đơn đang IN_WAREHOUSE (chưa tạo phiên).
+     */
+    @PostMapping("/dispatch/plan")
+    public ResponseEntity<DispatchPlanResponse> planDispatch(@Valid @RequestBody DispatchPlanRequest request) {
+        log.info("Planning dispatch for {} shippers", request.getShippers().size());
+        return ResponseEntity.ok(dispatchPlanningService.planDispatch(request));
+    }
+
     /**
      * API này được shipper gọi khi chủ động bấm "Kết thúc phiên" trên ứng dụng.
      */
@@ -0,0 +1,96 @@
+package com.ds.session.session_service.business.v1.eta;
+
+/**
+ * Ước lượng thời điểm tới các điểm giao còn lại của một phiên, hoàn toàn trong bộ nhớ (không gọi routing backend).
+ * - Thứ tự ghé: nearest-neighbor từ vị trí xuất phát (điểm giao vừa hoàn thành gần nhất của shipper).
+ * - Mỗi chặng: khoảng cách đường chim bay * hệ số đường vòng / vận tốc thống kê tại điểm đến theo giờ trong ngày
+ *   lúc bắt đầu chặng, cộng thời gian phục vụ mỗi điểm.
+ * - Không biết vị trí xuất phát: chặng đầu tính bằng 0 (ETA tính từ điểm giao đầu tiên).
+ */
+public final class EtaCalculator {
+
+    private static final double EARTH_RADIUS_M = 6_371_000d;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final SpeedStatistics statistics;
+    private final double detourFactor;
+    private final double serviceSeconds;
+
+    public EtaCalculator(SpeedStatistics statistics, double detourFactor, double serviceSeconds) {
+        this.statistics = statistics;
+        this.detourFactor = detourFactor;
+        this.serviceSeconds = serviceSeconds;
+    }
+
+    /**
+     * @param order[i] điểm giao thứ i được ghé; arrivalSeconds[p] số giây từ lúc xuất phát tới khi tới điểm p;
+     *              basis[p] nguồn vận tốc của chặng tới p
+     */
+    public record Result(int[] order, double[] arrivalSeconds, SpeedStatistics.Basis[] basis) {
+    }
+
+    /**
+     * @param originLat, originLon vị trí xuất phát (NaN nếu không biết)
+     * @param startSecondOfDay giây trong ngày tại thời điểm xuất phát
+     */
+    public Result estimate(double originLat, double originLon, double[] lat, double[] lon, int startSecondOfDay) {
+        int n = lat.length;
+        int[] order = new int[n];
+        double[] arrival = new double[n];
+        SpeedStatistics.Basis[] basis = new SpeedStatistics.Basis[n];
+        boolean[] visited = new boolean[n];
+        boolean originKnown = !Double.isNaN(originLat) && !Double.isNaN(originLon);
+        double currentLat = originLat;
+        double currentLon = originLon;
+        double elapsed = 0;
+        for (int i = 0; i < n; i++) {
+            int next = -1;
+            double nextDistance = Double.POSITIVE_INFINITY;
+            if (i == 0 && !originKnown) {
+                // Bắt đầu từ điểm phía tây nhất để thứ tự nearest-neighbor ổn định giữa các lần tính
+                next = westmost(lat, lon);
+                nextDistance = 0;
+            } else {
+                for (int p = 0; p < n; p++) {
+                    if (visited[p]) {
+                        continue;
+                    }
+                    double d = haversineMeters(currentLat, currentLon, lat[p], lon[p]);
+                    if (d < nextDistance) {
+                        nextDistance = d;
+                        next = p;
+                    }
+                }
+            }
+            int hour = (int) (((startSecondOfDay + (long) elapsed) % SECONDS_PER_DAY) / 3600);
+            SpeedStatistics.Estimate speed = statistics.speed(lat[next], lon[next], hour);
+            elapsed += nextDistance * detourFactor / speed.metersPerSecond();
+            visited[next] = true;
+            order[i] = next;
+            arrival[next] = elapsed;
+            basis[next] = speed.basis();
+            elapsed += serviceSeconds;
+            currentLat = lat[next];
+            currentLon = lon[next];
+        }
+        return new Result(order, arrival, basis);
+    }
+
+    private static int westmost(double[] lat, double[] lon) {
+        int best = 0;
+        for (int p = 1; p < lat.length; p++) {
+            if (lon[p] < lon[best] || (lon[p] == lon[best] && lat[p] < lat[best])) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
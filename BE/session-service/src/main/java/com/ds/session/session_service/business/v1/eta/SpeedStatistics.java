@@ -0,0 +1,117 @@
+package com.ds.session.session_service.business.v1.eta;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thống kê vận tốc di chuyển thực tế, cập nhật dần (streaming) theo từng task hoàn thành: không bao giờ tính lại từ đầu.
+ * - Khu vực = ô lưới cellDegrees quanh điểm giao (session-service không có zoneId của đơn), khung giờ = giờ trong ngày.
+ * - Vận tốc = tổng quãng đường / tổng thời gian của các mẫu (ổn định hơn trung bình của từng tỉ số).
+ * - Ước lượng lùi dần khi thiếu mẫu: ô + giờ -> ô (mọi giờ) -> giờ (mọi ô) -> toàn bộ -> vận tốc mặc định.
+ * - Mẫu bất thường (vận tốc ngoài [MIN_SPEED, MAX_SPEED]) bị bỏ qua.
+ */
+public final class SpeedStatistics {
+
+    /** Nguồn của vận tốc được dùng cho một chặng (từ cụ thể tới chung nhất). */
+    public enum Basis { ZONE_HOUR, ZONE, HOUR, OVERALL, DEFAULT }
+
+    public record Estimate(double metersPerSecond, Basis basis, long samples) {
+    }
+
+    private static final double MIN_SPEED = 0.5;
+    private static final double MAX_SPEED = 30.0;
+    private static final int HOURS = 24;
+
+    private final double cellDegrees;
+    private final long minSamples;
+    private final double defaultMetersPerSecond;
+
+    private final ConcurrentHashMap<Long, Accumulator> byCellHour = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Accumulator> byCell = new ConcurrentHashMap<>();
+    private final Accumulator[] byHour = new Accumulator[HOURS];
+    private final Accumulator overall = new Accumulator();
+
+    public SpeedStatistics(double cellDegrees, long minSamples, double defaultMetersPerSecond) {
+        this.cellDegrees = cellDegrees;
+        this.minSamples = Math.max(1, minSamples);
+        this.defaultMetersPerSecond = defaultMetersPerSecond;
+        for (int h = 0; h < HOURS; h++) {
+            byHour[h] = new Accumulator();
+        }
+    }
+
+    /**
+     * Ghi nhận một chặng đã đi: quãng đường (m) và thời gian (s) tới điểm giao (lat, lon), hoàn thành lúc hour.
+     * @return false nếu mẫu bị loại
+     */
+    public boolean record(double lat, double lon, int hour, double distanceM, double durationS) {
+        if (!(distanceM > 0) || !(durationS > 0) || hour < 0 || hour >= HOURS) {
+            return false;
+        }
+        double speed = distanceM / durationS;
+        if (speed < MIN_SPEED || speed > MAX_SPEED) {
+            return false;
+        }
+        long cell = cellKey(lat, lon);
+        byCellHour.computeIfAbsent(cell * HOURS + hour, key -> new Accumulator()).add(distanceM, durationS);
+        byCell.computeIfAbsent(cell, key -> new Accumulator()).add(distanceM, durationS);
+        byHour[hour].add(distanceM, durationS);
+        overall.add(distanceM, durationS);
+        return true;
+    }
+
+    public Estimate speed(double lat, double lon, int hour) {
+        long cell = cellKey(lat, lon);
+        int h = Math.floorMod(hour, HOURS);
+        Estimate estimate = estimate(byCellHour.get(cell * HOURS + h), Basis.ZONE_HOUR);
+        if (estimate == null) {
+            estimate = estimate(byCell.get(cell), Basis.ZONE);
+        }
+        if (estimate == null) {
+            estimate = estimate(byHour[h], Basis.HOUR);
+        }
+        if (estimate == null) {
+            estimate = estimate(overall, Basis.OVERALL);
+        }
+        return estimate != null ? estimate : new Estimate(defaultMetersPerSecond, Basis.DEFAULT, 0);
+    }
+
+    public long sampleCount() {
+        return (long) overall.snapshot()[2];
+    }
+
+    public int zoneCount() {
+        return byCell.size();
+    }
+
+    private Estimate estimate(Accumulator accumulator, Basis basis) {
+        if (accumulator == null) {
+            return null;
+        }
+        double[] snapshot = accumulator.snapshot();
+        long samples = (long) snapshot[2];
+        return samples >= minSamples ? new Estimate(snapshot[0] / snapshot[1], basis, samples) : null;
+    }
+
+    private long cellKey(double lat, double lon) {
+        // Chỉ số ô được dịch về số dương để ghép (lat, lon) vào một long và nhân thêm 24 giờ mà không tràn
+        long latIndex = (long) Math.floor((lat + 90) / cellDegrees);
+        long lonIndex = (long) Math.floor((lon + 180) / cellDegrees);
+        return latIndex * 1_000_000L + lonIndex;
+    }
+
+    private static final class Accumulator {
+        private double distance;
+        private double duration;
+        private long count;
+
+        synchronized void add(double distanceM, double durationS) {
+            distance += distanceM;
+            duration += durationS;
+            count++;
+        }
+
+        synchronized double[] snapshot() {
+            return new double[] {distance, duration, count};
+        }
+    }
+}
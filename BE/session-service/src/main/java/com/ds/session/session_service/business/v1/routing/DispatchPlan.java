@@ -0,0 +1,17 @@
+package com.ds.session.session_service.business.v1.routing;
+
+/**
+ * Kết quả chia đơn: shipperOfParcel[p] là shipper nhận đơn p (-1 nếu không xếp được).
+ * Các mảng theo shipper: tổng khối lượng, số điểm giao, tâm cụm và bán kính cụm (mét).
+ */
+public record DispatchPlan(
+    int[] shipperOfParcel,
+    double[] loadKg,
+    int[] stops,
+    double[] centroidLat,
+    double[] centroidLon,
+    double[] radiusMeters,
+    int unassigned,
+    int iterations
+) {
+}
@@ -0,0 +1,367 @@
+package com.ds.session.session_service.business.v1.routing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Chia đơn cho nhiều shipper bằng k-means có ràng buộc tải trọng (capacitated k-means), mỗi cụm gắn với MỘT shipper.
+ * - Tọa độ được chiếu về mặt phẳng (mét, equirectangular quanh vĩ độ trung bình): đủ chính xác trong phạm vi một thành phố.
+ * - Khởi tạo tâm cụm bằng k-means++ (tất định theo seed).
+ * - Mỗi vòng: tính song song tâm gần nhất / nhì của từng đơn, xếp đơn theo "regret" (chênh lệch khoảng cách tâm nhì - tâm nhất)
+ *   giảm dần rồi gán tham lam vào tâm gần nhất còn chỗ (khối lượng, số điểm, loại xe). Đơn ở sát ranh giới cụm
+ *   được xếp sau cùng nên là đơn bị đẩy sang cụm bên cạnh khi cụm gần nhất đã đầy.
+ * - Cập nhật tâm cụm, lặp tới khi phép gán không đổi hoặc hết số vòng.
+ * - Bước sửa cuối: đơn còn sót vì hạn mức cân bằng (không phải vì hết chỗ) được xếp vào shipper gần nhất còn chỗ theo
+ *   tải trọng / số điểm thật. Đơn còn lại sau bước này thì không shipper nào chở thêm được.
+ * Độ phức tạp mỗi vòng ~ O(n * k) cho phần song song + O(n log n) cho phần gán tuần tự.
+ */
+public final class DispatchPlanner {
+
+    private static final double METERS_PER_DEGREE = 111_320d;
+
+    private final ForkJoinPool pool;
+
+    public DispatchPlanner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public DispatchPlan plan(DispatchProblem problem, int maxIterations, long seed) {
+        int n = problem.parcelCount();
+        int k = problem.shipperCount();
+        int[] assignment = new int[n];
+        Arrays.fill(assignment, -1);
+        if (n == 0 || k == 0) {
+            double[] noCentroid = new double[k];
+            Arrays.fill(noCentroid, Double.NaN);
+            return new DispatchPlan(assignment, new double[k], new int[k], noCentroid, noCentroid.clone(), new double[k], n, 0);
+        }
+
+        double refLat = 0;
+        for (int p = 0; p < n; p++) {
+            refLat += problem.lat(p);
+        }
+        refLat /= n;
+        double lonScale = Math.cos(Math.toRadians(refLat));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int p = 0; p < n; p++) {
+            x[p] = problem.lon(p) * lonScale * METERS_PER_DEGREE;
+            y[p] = problem.lat(p) * METERS_PER_DEGREE;
+        }
+
+        double[] weightQuota = new double[k];
+        int[] stopQuota = new int[k];
+        quotas(problem, weightQuota, stopQuota);
+
+        double[] cx = new double[k];
+        double[] cy = new double[k];
+        seedCentroids(x, y, cx, cy, new SplittableRandom(seed));
+
+        int iterations = 0;
+        while (iterations < Math.max(1, maxIterations)) {
+            iterations++;
+            int[] next = assign(problem, x, y, cx, cy, weightQuota, stopQuota);
+            boolean changed = !Arrays.equals(next, assignment);
+            assignment = next;
+            updateCentroids(x, y, assignment, cx, cy);
+            if (!changed) {
+                break;
+            }
+        }
+        if (repair(problem, assignment, x, y, cx, cy) > 0) {
+            updateCentroids(x, y, assignment, cx, cy);
+        }
+        return toPlan(problem, assignment, x, y, cx, cy, iterations, lonScale);
+    }
+
+    /**
+     * Hạn mức của từng shipper: tổng (khối lượng, số đơn) * (1 + tolerance) chia theo tỉ lệ tải trọng bằng phương pháp
+     * "rót nước" (water-filling): shipper chạm trần (tải trọng / số điểm tối đa) giữ ở trần, phần dư chia lại cho những
+     * người còn lại. Nếu tổng vượt tổng trần thì hạn mức chính là trần (đơn dư sẽ không được xếp).
+     */
+    private static void quotas(DispatchProblem problem, double[] weightQuota, int[] stopQuota) {
+        int n = problem.parcelCount();
+        int k = problem.shipperCount();
+        double totalWeight = 0;
+        double heaviest = 0;
+        for (int p = 0; p < n; p++) {
+            totalWeight += problem.weight(p);
+            heaviest = Math.max(heaviest, problem.weight(p));
+        }
+        double slack = 1 + problem.balanceTolerance();
+        double[] capacity = new double[k];
+        double[] stopCap = new double[k];
+        for (int s = 0; s < k; s++) {
+            capacity[s] = Math.max(0, problem.capacity(s));
+            stopCap[s] = problem.maxStops(s) > 0 ? problem.maxStops(s) : n;
+        }
+        double[] weights = waterFill(totalWeight * slack, capacity, capacity);
+        double[] stops = waterFill(n * slack, capacity, stopCap);
+        for (int s = 0; s < k; s++) {
+            weightQuota[s] = Math.min(capacity[s], Math.max(weights[s], heaviest));
+            stopQuota[s] = (int) Math.min(stopCap[s], Math.ceil(stops[s]));
+        }
+    }
+
+    /**
+     * Chia total theo tỉ lệ share, mỗi phần không vượt cap; phần bị cắt được chia lại cho các phần chưa chạm trần.
+     */
+    static double[] waterFill(double total, double[] share, double[] cap) {
+        int k = share.length;
+        double[] result = new double[k];
+        boolean[] capped = new boolean[k];
+        double remaining = total;
+        boolean changed = true;
+        while (changed && remaining > 0) {
+            changed = false;
+            double activeShare = 0;
+            for (int s = 0; s < k; s++) {
+                if (!capped[s]) {
+                    activeShare += share[s];
+                }
+            }
+            if (activeShare <= 0) {
+                break;
+            }
+            for (int s = 0; s < k; s++) {
+                if (!capped[s] && remaining * share[s] / activeShare >= cap[s]) {
+                    capped[s] = true;
+                    result[s] = cap[s];
+                    remaining -= cap[s];
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                for (int s = 0; s < k; s++) {
+                    if (!capped[s]) {
+                        result[s] = remaining * share[s] / activeShare;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void seedCentroids(double[] x, double[] y, double[] cx, double[] cy, SplittableRandom random) {
+        int n = x.length;
+        int k = cx.length;
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int first = random.nextInt(n);
+        cx[0] = x[first];
+        cy[0] = y[first];
+        for (int c = 1; c < k; c++) {
+            double total = 0;
+            for (int p = 0; p < n; p++) {
+                double dx = x[p] - cx[c - 1];
+                double dy = y[p] - cy[c - 1];
+                nearest[p] = Math.min(nearest[p], dx * dx + dy * dy);
+                total += nearest[p];
+            }
+            int chosen = n - 1;
+            if (total > 0) {
+                double target = random.nextDouble() * total;
+                for (int p = 0; p < n; p++) {
+                    target -= nearest[p];
+                    if (target <= 0) {
+                        chosen = p;
+                        break;
+                    }
+                }
+            } else {
+                chosen = random.nextInt(n);
+            }
+            cx[c] = x[chosen];
+            cy[c] = y[chosen];
+        }
+    }
+
+    private int[] assign(DispatchProblem problem, double[] x, double[] y, double[] cx, double[] cy,
+                         double[] weightQuota, int[] stopQuota) {
+        int n = x.length;
+        int k = cx.length;
+        int[] nearest = new int[n];
+        double[] regret = new double[n];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(p -> {
+            double best = Double.POSITIVE_INFINITY;
+            double second = Double.POSITIVE_INFINITY;
+            int bestIndex = 0;
+            for (int c = 0; c < k; c++) {
+                double dx = x[p] - cx[c];
+                double dy = y[p] - cy[c];
+                double d = dx * dx + dy * dy;
+                if (d < best) {
+                    second = best;
+                    best = d;
+                    bestIndex = c;
+                } else if (d < second) {
+                    second = d;
+                }
+            }
+            nearest[p] = bestIndex;
+            regret[p] = k == 1 ? 0 : Math.sqrt(second) - Math.sqrt(best);
+        })).join();
+
+        Integer[] order = new Integer[n];
+        for (int p = 0; p < n; p++) {
+            order[p] = p;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byRegret = Double.compare(regret[b], regret[a]);
+            return byRegret != 0 ? byRegret : Double.compare(problem.weight(b), problem.weight(a));
+        });
+
+        int[] assignment = new int[n];
+        double[] load = new double[k];
+        int[] stops = new int[k];
+        for (int p : order) {
+            int chosen = fits(problem, p, nearest[p], load, stops, weightQuota, stopQuota) ? nearest[p] : -1;
+            if (chosen < 0) {
+                double best = Double.POSITIVE_INFINITY;
+                for (int c = 0; c < k; c++) {
+                    if (!fits(problem, p, c, load, stops, weightQuota, stopQuota)) {
+                        continue;
+                    }
+                    double dx = x[p] - cx[c];
+                    double dy = y[p] - cy[c];
+                    double d = dx * dx + dy * dy;
+                    if (d < best) {
+                        best = d;
+                        chosen = c;
+                    }
+                }
+            }
+            assignment[p] = chosen;
+            if (chosen >= 0) {
+                load[chosen] += problem.weight(p);
+                stops[chosen]++;
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Xếp các đơn chưa có shipper theo giới hạn thật (tải trọng, số điểm tối đa, loại xe) thay vì hạn mức cân bằng:
+     * đơn nặng trước, vào tâm cụm gần nhất còn chỗ.
+     *
+     * @return số đơn được xếp thêm
+     */
+    private static int repair(DispatchProblem problem, int[] assignment, double[] x, double[] y, double[] cx, double[] cy) {
+        int n = assignment.length;
+        int k = cx.length;
+        double[] load = new double[k];
+        int[] stops = new int[k];
+        double[] capacity = new double[k];
+        int[] stopCap = new int[k];
+        for (int s = 0; s < k; s++) {
+            capacity[s] = Math.max(0, problem.capacity(s));
+            stopCap[s] = problem.maxStops(s) > 0 ? problem.maxStops(s) : n;
+        }
+        int missing = 0;
+        for (int p = 0; p < n; p++) {
+            if (assignment[p] >= 0) {
+                load[assignment[p]] += problem.weight(p);
+                stops[assignment[p]]++;
+            } else {
+                missing++;
+            }
+        }
+        if (missing == 0) {
+            return 0;
+        }
+        Integer[] order = new Integer[missing];
+        for (int p = 0, i = 0; p < n; p++) {
+            if (assignment[p] < 0) {
+                order[i++] = p;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(problem.weight(b), problem.weight(a)));
+
+        int placed = 0;
+        for (int p : order) {
+            int chosen = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < k; c++) {
+                if (!fits(problem, p, c, load, stops, capacity, stopCap)) {
+                    continue;
+                }
+                double dx = x[p] - cx[c];
+                double dy = y[p] - cy[c];
+                double d = dx * dx + dy * dy;
+                if (d < best) {
+                    best = d;
+                    chosen = c;
+                }
+            }
+            if (chosen >= 0) {
+                assignment[p] = chosen;
+                load[chosen] += problem.weight(p);
+                stops[chosen]++;
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    private static boolean fits(DispatchProblem problem, int parcel, int shipper, double[] load, int[] stops,
+                                double[] weightQuota, int[] stopQuota) {
+        return stops[shipper] < stopQuota[shipper]
+            && load[shipper] + problem.weight(parcel) <= weightQuota[shipper] + 1e-9
+            && problem.canCarry(shipper, parcel);
+    }
+
+    private static void updateCentroids(double[] x, double[] y, int[] assignment, double[] cx, double[] cy) {
+        int k = cx.length;
+        double[] sumX = new double[k];
+        double[] sumY = new double[k];
+        int[] count = new int[k];
+        for (int p = 0; p < x.length; p++) {
+            int c = assignment[p];
+            if (c >= 0) {
+                sumX[c] += x[p];
+                sumY[c] += y[p];
+                count[c]++;
+            }
+        }
+        for (int c = 0; c < k; c++) {
+            // Cụm rỗng giữ nguyên tâm cũ
+            if (count[c] > 0) {
+                cx[c] = sumX[c] / count[c];
+                cy[c] = sumY[c] / count[c];
+            }
+        }
+    }
+
+    private static DispatchPlan toPlan(DispatchProblem problem, int[] assignment, double[] x, double[] y,
+                                       double[] cx, double[] cy, int iterations, double lonScale) {
+        int k = problem.shipperCount();
+        double[] load = new double[k];
+        int[] stops = new int[k];
+        double[] radius = new double[k];
+        int unassigned = 0;
+        for (int p = 0; p < assignment.length; p++) {
+            int c = assignment[p];
+            if (c < 0) {
+                unassigned++;
+                continue;
+            }
+            load[c] += problem.weight(p);
+            stops[c]++;
+            radius[c] = Math.max(radius[c], Math.hypot(x[p] - cx[c], y[p] - cy[c]));
+        }
+        double[] centroidLat = new double[k];
+        double[] centroidLon = new double[k];
+        for (int c = 0; c < k; c++) {
+            if (stops[c] > 0) {
+                centroidLat[c] = cy[c] / METERS_PER_DEGREE;
+                centroidLon[c] = cx[c] / (METERS_PER_DEGREE * lonScale);
+            } else {
+                centroidLat[c] = Double.NaN;
+                centroidLon[c] = Double.NaN;
+            }
+        }
+        return new DispatchPlan(assignment, load, stops, centroidLat, centroidLon, radius, unassigned, iterations);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ds.session.session_service.business.v1.routing;
+
+/**
+ * Bài toán chia đơn trong kho cho NHIỀU shipper (đề xuất phiên giao hàng loạt).
+ * - Đơn: tọa độ + khối lượng (kg).
+ * - Shipper: tải trọng (capacityKg), số điểm giao tối đa của phiên, khối lượng tối đa của MỘT đơn
+ *   mà phương tiện chở được (xe máy không chở được đơn quá nặng); giá trị <= 0 nghĩa là không giới hạn.
+ * - balanceTolerance: mỗi shipper nhận tối đa (1 + tolerance) lần phần chia theo tỉ lệ tải trọng,
+ *   giúp các phiên cân bằng thay vì dồn hết cho shipper gần nhất.
+ */
+public final class DispatchProblem {
+
+    private final double[] lat;
+    private final double[] lon;
+    private final double[] weight;
+    private final double[] capacity;
+    private final int[] maxStops;
+    private final double[] maxParcelWeight;
+    private final double balanceTolerance;
+
+    public DispatchProblem(double[] lat, double[] lon, double[] weight,
+                           double[] capacity, int[] maxStops, double[] maxParcelWeight, double balanceTolerance) {
+        if (lat.length != lon.length || lat.length != weight.length) {
+            throw new IllegalArgumentException("lat, lon and weight must have the same length");
+        }
+        if (capacity.length != maxStops.length || capacity.length != maxParcelWeight.length) {
+            throw new IllegalArgumentException("capacity, maxStops and maxParcelWeight must have the same length");
+        }
+        if (balanceTolerance < 0) {
+            throw new IllegalArgumentException("balanceTolerance must be >= 0");
+        }
+        this.lat = lat;
+        this.lon = lon;
+        this.weight = weight;
+        this.capacity = capacity;
+        this.maxStops = maxStops;
+        this.maxParcelWeight = maxParcelWeight;
+        this.balanceTolerance = balanceTolerance;
+    }
+
+    public int parcelCount() {
+        return lat.length;
+    }
+
+    public int shipperCount() {
+        return capacity.length;
+    }
+
+    public double lat(int parcel) {
+        return lat[parcel];
+    }
+
+    public double lon(int parcel) {
+        return lon[parcel];
+    }
+
+    public double weight(int parcel) {
+        return weight[parcel];
+    }
+
+    public double capacity(int shipper) {
+        return capacity[shipper];
+    }
+
+    public int maxStops(int shipper) {
+        return maxStops[shipper];
+    }
+
+    /**
+     * Phương tiện của shipper chở được đơn này không (khối lượng một đơn).
+     */
+    public boolean canCarry(int shipper, int parcel) {
+        return maxParcelWeight[shipper] <= 0 || weight[parcel] <= maxParcelWeight[shipper];
+    }
+
+    public double balanceTolerance() {
+        return balanceTolerance;
+    }
+}
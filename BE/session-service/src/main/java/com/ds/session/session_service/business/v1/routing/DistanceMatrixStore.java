@@ -0,0 +1,471 @@
+package com.ds.session.session_service.business.v1.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Bộ nhớ đệm ma trận thời gian/quãng đường giữa các điểm giao, dùng lại giữa các phiên
+ * (cùng một địa chỉ xuất hiện lặp lại hằng ngày).
+ * - Mỗi destinationId giữ một "slot" cố định; giá trị lưu trong các hàng float[] cấp phát lười
+ *   (tối đa maxNodes x maxNodes x 2 x 4 byte), NaN nghĩa là cặp chưa có dữ liệu.
+ * - Các cặp còn thiếu được lấy từ backend theo lô (sources + destinations <= maxCoordinatesPerRequest)
+ *   và KHÔNG giữ khóa trong lúc gọi backend.
+ * - Hết slot thì loại điểm ít được dùng gần đây nhất (LRU) cùng toàn bộ hàng/cột của nó.
+ * - Cặp đã có sẵn được đọc dưới khóa đọc, trả ma trận con N x N mà không cấp phát gì ngoài kết quả.
+ */
+public final class DistanceMatrixStore {
+
+    private static final int NO_SLOT = -1;
+
+    private final int capacity;
+    private final int maxCoordinatesPerRequest;
+    private final RoutingMatrixBackend backend;
+    private final LongConsumer fillLatencyListener;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final String[] slotIds;
+    private final double[] slotLat;
+    private final double[] slotLon;
+    private final int[] slotGeneration;
+    private final float[][] durationRows;
+    private final float[][] distanceRows;
+    private final int[] freeSlots;
+    private int freeCount;
+
+    private final AtomicLongArray lastAccess;
+    private final AtomicLong clock = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder fills = new LongAdder();
+    private final LongAdder fillNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DistanceMatrixStore(int maxNodes, int maxCoordinatesPerRequest, RoutingMatrixBackend backend,
+                               LongConsumer fillLatencyListener) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("maxNodes must be >= 2");
+        }
+        if (maxCoordinatesPerRequest < 2) {
+            throw new IllegalArgumentException("maxCoordinatesPerRequest must be >= 2");
+        }
+        this.capacity = maxNodes;
+        this.maxCoordinatesPerRequest = maxCoordinatesPerRequest;
+        this.backend = backend;
+        this.fillLatencyListener = fillLatencyListener != null ? fillLatencyListener : nanos -> { };
+        this.slotIds = new String[maxNodes];
+        this.slotLat = new double[maxNodes];
+        this.slotLon = new double[maxNodes];
+        this.slotGeneration = new int[maxNodes];
+        this.durationRows = new float[maxNodes][];
+        this.distanceRows = new float[maxNodes][];
+        this.freeSlots = new int[maxNodes];
+        for (int i = 0; i < maxNodes; i++) {
+            freeSlots[i] = maxNodes - 1 - i;
+        }
+        this.freeCount = maxNodes;
+        this.lastAccess = new AtomicLongArray(maxNodes);
+    }
+
+    /**
+     * Ma trận con theo đúng thứ tự locations (row-major, đường chéo = 0).
+     * Cặp thiếu được lấy từ backend; lỗi backend được ném lại cho nơi gọi tự xử lý.
+     */
+    public Submatrix submatrix(List<MatrixLocation> locations) {
+        int n = locations.size();
+        float[] durations = new float[n * n];
+        float[] distances = new float[n * n];
+        if (n == 0) {
+            return new Submatrix(0, durations, distances);
+        }
+        int[] slots = new int[n];
+        if (tryReadCached(locations, slots, durations, distances)) {
+            return new Submatrix(n, durations, distances);
+        }
+        return fillAndRead(locations, durations, distances);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Tỉ lệ cặp (i != j) được phục vụ từ bộ nhớ đệm, tính từ lúc khởi tạo.
+     */
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0d : (double) h / total;
+    }
+
+    public long fills() {
+        return fills.sum();
+    }
+
+    /**
+     * Thời gian trung bình một lần gọi backend (ms).
+     */
+    public double averageFillMillis() {
+        long count = fills.sum();
+        return count == 0 ? 0d : fillNanos.sum() / 1e6 / count;
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return capacity - freeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Đường nhanh: mọi điểm đã có slot (đúng toạ độ) và mọi cặp đã có dữ liệu.
+     */
+    private boolean tryReadCached(List<MatrixLocation> locations, int[] slots, float[] durations, float[] distances) {
+        int n = locations.size();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < n; i++) {
+                MatrixLocation location = locations.get(i);
+                Integer slot = slotById.get(location.id());
+                if (slot == null || !sameCoordinates(slot, location)) {
+                    return false;
+                }
+                slots[i] = slot;
+            }
+            for (int i = 0; i < n; i++) {
+                float[] durationRow = durationRows[slots[i]];
+                float[] distanceRow = distanceRows[slots[i]];
+                int base = i * n;
+                for (int j = 0; j < n; j++) {
+                    if (slots[i] == slots[j]) {
+                        continue;
+                    }
+                    if (durationRow == null) {
+                        return false;
+                    }
+                    float duration = durationRow[slots[j]];
+                    if (Float.isNaN(duration)) {
+                        return false;
+                    }
+                    durations[base + j] = duration;
+                    distances[base + j] = distanceRow[slots[j]];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long now = clock.incrementAndGet();
+        long pairs = 0;
+        for (int i = 0; i < n; i++) {
+            lastAccess.set(slots[i], now);
+            for (int j = 0; j < n; j++) {
+                if (slots[i] != slots[j]) {
+                    pairs++;
+                }
+            }
+        }
+        hits.add(pairs);
+        return true;
+    }
+
+    /**
+     * Đường chậm: cấp slot cho điểm mới (có thể loại LRU), xác định các cặp thiếu,
+     * gọi backend ngoài khóa rồi ghi kết quả vào các slot còn thuộc đúng điểm đó.
+     */
+    private Submatrix fillAndRead(List<MatrixLocation> locations, float[] durations, float[] distances) {
+        int n = locations.size();
+
+        // Gom các điểm trùng id (nhiều đơn cùng một địa chỉ)
+        Map<String, Integer> uniqueIndex = new HashMap<>();
+        List<MatrixLocation> unique = new ArrayList<>();
+        int[] requestToUnique = new int[n];
+        for (int i = 0; i < n; i++) {
+            MatrixLocation location = locations.get(i);
+            Integer index = uniqueIndex.get(location.id());
+            if (index == null) {
+                index = unique.size();
+                uniqueIndex.put(location.id(), index);
+                unique.add(location);
+            }
+            requestToUnique[i] = index;
+        }
+        int u = unique.size();
+        int[] slots = new int[u];
+        int[] generations = new int[u];
+        float[] uniqueDurations = new float[u * u];
+        float[] uniqueDistances = new float[u * u];
+        Arrays.fill(uniqueDurations, Float.NaN);
+        Arrays.fill(uniqueDistances, Float.NaN);
+        boolean[] sourceMissing = new boolean[u];
+        boolean[] destinationMissing = new boolean[u];
+        long hitPairs = 0;
+        long missPairs = 0;
+
+        lock.writeLock().lock();
+        try {
+            long now = clock.incrementAndGet();
+            // Ghim trước các slot đã có của yêu cầu này để việc loại LRU không đụng tới chúng
+            boolean[] pinned = new boolean[capacity];
+            for (MatrixLocation location : unique) {
+                Integer existing = slotById.get(location.id());
+                if (existing != null) {
+                    pinned[existing] = true;
+                }
+            }
+            for (int a = 0; a < u; a++) {
+                slots[a] = u <= capacity ? acquireSlot(unique.get(a), pinned) : NO_SLOT;
+                if (slots[a] != NO_SLOT) {
+                    pinned[slots[a]] = true;
+                    generations[a] = slotGeneration[slots[a]];
+                    lastAccess.set(slots[a], now);
+                }
+            }
+            for (int a = 0; a < u; a++) {
+                uniqueDurations[a * u + a] = 0f;
+                uniqueDistances[a * u + a] = 0f;
+                float[] durationRow = slots[a] != NO_SLOT ? durationRows[slots[a]] : null;
+                float[] distanceRow = slots[a] != NO_SLOT ? distanceRows[slots[a]] : null;
+                for (int b = 0; b < u; b++) {
+                    if (a == b) {
+                        continue;
+                    }
+                    float duration = durationRow != null ? durationRow[slots[b]] : Float.NaN;
+                    if (Float.isNaN(duration)) {
+                        sourceMissing[a] = true;
+                        destinationMissing[b] = true;
+                    } else {
+                        uniqueDurations[a * u + b] = duration;
+                        uniqueDistances[a * u + b] = distanceRow[slots[b]];
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int a = requestToUnique[i];
+                int b = requestToUnique[j];
+                if (a == b) {
+                    continue;
+                }
+                if (Float.isNaN(uniqueDurations[a * u + b])) {
+                    missPairs++;
+                } else {
+                    hitPairs++;
+                }
+            }
+        }
+        hits.add(hitPairs);
+        misses.add(missPairs);
+
+        List<Integer> sources = indicesOf(sourceMissing);
+        List<Integer> destinations = indicesOf(destinationMissing);
+        if (!sources.isEmpty()) {
+            fetchMissing(unique, sources, destinations, uniqueDurations, uniqueDistances);
+            store(unique, slots, generations, sources, destinations, uniqueDurations, uniqueDistances);
+        }
+
+        for (int i = 0; i < n; i++) {
+            int a = requestToUnique[i];
+            for (int j = 0; j < n; j++) {
+                int b = requestToUnique[j];
+                durations[i * n + j] = uniqueDurations[a * u + b];
+                distances[i * n + j] = uniqueDistances[a * u + b];
+            }
+        }
+        return new Submatrix(n, durations, distances);
+    }
+
+    /**
+     * Chia khối sources x destinations thành các lô vừa giới hạn toạ độ của backend.
+     */
+    private void fetchMissing(List<MatrixLocation> unique, List<Integer> sources, List<Integer> destinations,
+                              float[] uniqueDurations, float[] uniqueDistances) {
+        int u = unique.size();
+        int destinationChunk;
+        int sourceChunk;
+        if (sources.size() + destinations.size() <= maxCoordinatesPerRequest) {
+            sourceChunk = sources.size();
+            destinationChunk = destinations.size();
+        } else {
+            destinationChunk = Math.min(destinations.size(), Math.max(1, maxCoordinatesPerRequest / 2));
+            sourceChunk = maxCoordinatesPerRequest - destinationChunk;
+        }
+        for (int d = 0; d < destinations.size(); d += destinationChunk) {
+            List<Integer> destinationBatch = destinations.subList(d, Math.min(destinations.size(), d + destinationChunk));
+            List<MatrixLocation> destinationLocations = destinationBatch.stream().map(unique::get).toList();
+            for (int s = 0; s < sources.size(); s += sourceChunk) {
+                List<Integer> sourceBatch = sources.subList(s, Math.min(sources.size(), s + sourceChunk));
+                List<MatrixLocation> sourceLocations = sourceBatch.stream().map(unique::get).toList();
+                int columns = destinationBatch.size();
+                float[] blockDurations = new float[sourceBatch.size() * columns];
+                float[] blockDistances = new float[sourceBatch.size() * columns];
+
+                long started = System.nanoTime();
+                backend.fetch(sourceLocations, destinationLocations, blockDurations, blockDistances);
+                long elapsed = System.nanoTime() - started;
+                fills.increment();
+                fillNanos.add(elapsed);
+                fillLatencyListener.accept(elapsed);
+
+                for (int r = 0; r < sourceBatch.size(); r++) {
+                    int a = sourceBatch.get(r);
+                    for (int c = 0; c < columns; c++) {
+                        int b = destinationBatch.get(c);
+                        if (a != b) {
+                            uniqueDurations[a * u + b] = blockDurations[r * columns + c];
+                            uniqueDistances[a * u + b] = blockDistances[r * columns + c];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void store(List<MatrixLocation> unique, int[] slots, int[] generations, List<Integer> sources,
+                       List<Integer> destinations, float[] uniqueDurations, float[] uniqueDistances) {
+        int u = unique.size();
+        lock.writeLock().lock();
+        try {
+            for (int a : sources) {
+                if (!stillOwned(slots[a], generations[a], unique.get(a))) {
+                    continue;
+                }
+                float[] durationRow = row(durationRows, slots[a]);
+                float[] distanceRow = row(distanceRows, slots[a]);
+                for (int b : destinations) {
+                    if (a == b || !stillOwned(slots[b], generations[b], unique.get(b))) {
+                        continue;
+                    }
+                    durationRow[slots[b]] = uniqueDurations[a * u + b];
+                    distanceRow[slots[b]] = uniqueDistances[a * u + b];
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean stillOwned(int slot, int generation, MatrixLocation location) {
+        return slot != NO_SLOT && slotGeneration[slot] == generation && location.id().equals(slotIds[slot]);
+    }
+
+    /**
+     * Gọi dưới khóa ghi. Điểm đổi toạ độ (địa chỉ được sửa) bị xoá dữ liệu cũ và giữ nguyên slot.
+     */
+    private int acquireSlot(MatrixLocation location, boolean[] pinned) {
+        Integer existing = slotById.get(location.id());
+        if (existing != null) {
+            if (!sameCoordinates(existing, location)) {
+                clearSlot(existing);
+                slotLat[existing] = location.lat();
+                slotLon[existing] = location.lon();
+            }
+            return existing;
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = leastRecentlyUsed(pinned);
+            slotById.remove(slotIds[slot]);
+            clearSlot(slot);
+            evictions.increment();
+        }
+        slotIds[slot] = location.id();
+        slotLat[slot] = location.lat();
+        slotLon[slot] = location.lon();
+        slotById.put(location.id(), slot);
+        return slot;
+    }
+
+    private int leastRecentlyUsed(boolean[] pinned) {
+        int victim = NO_SLOT;
+        long oldest = Long.MAX_VALUE;
+        for (int slot = 0; slot < capacity; slot++) {
+            long access = lastAccess.get(slot);
+            if (!pinned[slot] && access < oldest) {
+                oldest = access;
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+
+    private void clearSlot(int slot) {
+        slotGeneration[slot]++;
+        if (durationRows[slot] != null) {
+            Arrays.fill(durationRows[slot], Float.NaN);
+            Arrays.fill(distanceRows[slot], Float.NaN);
+        }
+        for (int other = 0; other < capacity; other++) {
+            if (durationRows[other] != null) {
+                durationRows[other][slot] = Float.NaN;
+                distanceRows[other][slot] = Float.NaN;
+            }
+        }
+    }
+
+    private boolean sameCoordinates(int slot, MatrixLocation location) {
+        return slotLat[slot] == location.lat() && slotLon[slot] == location.lon();
+    }
+
+    private float[] row(float[][] rows, int slot) {
+        float[] row = rows[slot];
+        if (row == null) {
+            row = new float[capacity];
+            Arrays.fill(row, Float.NaN);
+            rows[slot] = row;
+        }
+        return row;
+    }
+
+    private static List<Integer> indicesOf(boolean[] flags) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i]) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Ma trận con N x N, row-major: durations (giây), distances (mét); Float.POSITIVE_INFINITY = không có đường.
+     */
+    public record Submatrix(int size, float[] durations, float[] distances) {
+
+        public float duration(int from, int to) {
+            return durations[from * size + to];
+        }
+
+        public float distance(int from, int to) {
+            return distances[from * size + to];
+        }
+    }
+}
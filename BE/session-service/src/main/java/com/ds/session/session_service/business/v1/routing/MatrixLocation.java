@@ -0,0 +1,7 @@
+package com.ds.session.session_service.business.v1.routing;
+
+/**
+ * Một điểm trong ma trận khoảng cách, định danh bằng destinationId của zone_service.
+ */
+public record MatrixLocation(String id, double lat, double lon) {
+}
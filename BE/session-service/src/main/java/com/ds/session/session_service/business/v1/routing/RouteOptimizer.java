@@ -0,0 +1,445 @@
+package com.ds.session.session_service.business.v1.routing;
+
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Bộ tối ưu thứ tự giao hàng chạy trong JVM.
+ * - Khởi tạo: nearest-neighbor theo thời điểm bắt đầu phục vụ (start 0), EDD theo hạn khung giờ (start 1),
+ *   nearest-neighbor ngẫu nhiên kiểu GRASP cho các start còn lại.
+ * - Tìm kiếm cục bộ: 2-opt + Or-opt (di chuyển đoạn 1..3 điểm), first-improvement, chỉ xét các nước đi
+ *   tạo cạnh tới NEIGHBORS láng giềng gần nhất (granular neighborhood) để giữ độ phức tạp ~ O(n * K) mỗi vòng.
+ *   Delta quãng đường tính O(1) bằng tổng tiền tố (hỗ trợ ma trận bất đối xứng); chỉ các bước có thể cải thiện
+ *   mới được đánh giá đầy đủ O(n) với khung giờ.
+ * - Multi-start song song trên ForkJoinPool, có giới hạn thời gian.
+ * Hàm mục tiêu: thời điểm hoàn thành điểm cuối (di chuyển + chờ + phục vụ) + LATE_PENALTY * tổng thời gian trễ.
+ */
+public final class RouteOptimizer {
+
+    /** 1 giây trễ khung giờ "đắt" bằng 100 giây di chuyển. */
+    public static final double LATE_PENALTY = 100.0;
+
+    private static final double EPS = 1e-6;
+    private static final int RCL_SIZE = 3;
+    private static final int MAX_SEGMENT = 3;
+    private static final int NEIGHBORS = 30;
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    private final ForkJoinPool pool;
+
+    public RouteOptimizer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param starts số lần khởi tạo (>= 1); các lần chạy song song trên pool
+     * @param timeLimitMillis giới hạn thời gian cho toàn bộ lần tối ưu (<= 0: không giới hạn)
+     */
+    public RouteSolution optimize(RoutingProblem problem, int starts, long timeLimitMillis, long seed) {
+        if (problem.size() == 0) {
+            return toSolution(problem, new int[0]);
+        }
+        long deadline = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1_000_000L : Long.MAX_VALUE;
+        int runs = Math.max(1, starts);
+        Neighbors neighbors = Neighbors.of(problem, NEIGHBORS);
+
+        Candidate best;
+        if (runs == 1) {
+            best = solveFrom(problem, neighbors, 0, seed, deadline);
+        } else {
+            best = pool.submit(() -> IntStream.range(0, runs)
+                    .parallel()
+                    .mapToObj(start -> solveFrom(problem, neighbors, start, seed + start * SEED_STRIDE, deadline))
+                    .min(Comparator.comparingDouble(Candidate::objective))
+                    .orElseThrow())
+                .join();
+        }
+        return toSolution(problem, best.route());
+    }
+
+    /**
+     * Giá trị hàm mục tiêu của một thứ tự ghé (node 1..size).
+     */
+    public static double evaluate(RoutingProblem problem, int[] route) {
+        double time = 0;
+        double late = 0;
+        int prev = 0;
+        for (int node : route) {
+            time += problem.travel(prev, node);
+            if (time < problem.windowOpen(node)) {
+                time = problem.windowOpen(node);
+            } else if (time > problem.windowClose(node)) {
+                late += time - problem.windowClose(node);
+            }
+            time += problem.serviceTime(node);
+            prev = node;
+        }
+        return time + LATE_PENALTY * late;
+    }
+
+    private Candidate solveFrom(RoutingProblem problem, Neighbors neighbors, int start, long seed, long deadline) {
+        int[] route = switch (start) {
+            case 0 -> nearestNeighbor(problem, null);
+            case 1 -> earliestDeadlineFirst(problem);
+            default -> nearestNeighbor(problem, new SplittableRandom(seed));
+        };
+        LocalSearch search = new LocalSearch(problem, route, neighbors, deadline);
+        search.run();
+        return new Candidate(route, search.objective);
+    }
+
+    /**
+     * Nearest-neighbor theo thời điểm bắt đầu phục vụ (có cộng phạt trễ).
+     * Khi random != null, chọn ngẫu nhiên trong RCL_SIZE ứng viên tốt nhất.
+     */
+    static int[] nearestNeighbor(RoutingProblem problem, SplittableRandom random) {
+        int n = problem.size();
+        int[] route = new int[n];
+        boolean[] visited = new boolean[n + 1];
+        int[] rclNodes = new int[RCL_SIZE];
+        double[] rclScores = new double[RCL_SIZE];
+        int prev = 0;
+        double time = 0;
+
+        for (int step = 0; step < n; step++) {
+            int rclCount = 0;
+            for (int node = 1; node <= n; node++) {
+                if (visited[node]) {
+                    continue;
+                }
+                double arrival = time + problem.travel(prev, node);
+                double begin = Math.max(arrival, problem.windowOpen(node));
+                double score = begin + LATE_PENALTY * Math.max(0, begin - problem.windowClose(node));
+                rclCount = offer(rclNodes, rclScores, rclCount, random == null ? 1 : RCL_SIZE, node, score);
+            }
+            int chosen = rclNodes[random == null ? 0 : random.nextInt(rclCount)];
+            visited[chosen] = true;
+            route[step] = chosen;
+            time = Math.max(time + problem.travel(prev, chosen), problem.windowOpen(chosen)) + problem.serviceTime(chosen);
+            prev = chosen;
+        }
+        return route;
+    }
+
+    /**
+     * Sắp theo hạn khung giờ (điểm không có khung giờ xếp cuối), hòa thì theo giờ mở.
+     */
+    static int[] earliestDeadlineFirst(RoutingProblem problem) {
+        return IntStream.rangeClosed(1, problem.size())
+            .boxed()
+            .sorted(Comparator.<Integer>comparingDouble(problem::windowClose)
+                .thenComparingDouble(problem::windowOpen)
+                .thenComparingDouble(node -> problem.travel(0, node)))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Chèn ứng viên vào danh sách tốt nhất (đã sắp tăng dần theo score), giữ tối đa limit phần tử.
+     */
+    private static int offer(int[] nodes, double[] scores, int count, int limit, int node, double score) {
+        if (count == limit && score >= scores[count - 1]) {
+            return count;
+        }
+        int pos = count < limit ? count++ : count - 1;
+        while (pos > 0 && scores[pos - 1] > score) {
+            nodes[pos] = nodes[pos - 1];
+            scores[pos] = scores[pos - 1];
+            pos--;
+        }
+        nodes[pos] = node;
+        scores[pos] = score;
+        return count;
+    }
+
+    private static RouteSolution toSolution(RoutingProblem problem, int[] route) {
+        double[] arrivals = new double[route.length];
+        double time = 0;
+        double travel = 0;
+        double late = 0;
+        int lateStops = 0;
+        int prev = 0;
+        for (int i = 0; i < route.length; i++) {
+            int node = route[i];
+            double leg = problem.travel(prev, node);
+            travel += leg;
+            time += leg;
+            arrivals[i] = time;
+            if (time < problem.windowOpen(node)) {
+                time = problem.windowOpen(node);
+            } else if (time > problem.windowClose(node)) {
+                late += time - problem.windowClose(node);
+                lateStops++;
+            }
+            time += problem.serviceTime(node);
+            prev = node;
+        }
+        return new RouteSolution(route, arrivals, time + LATE_PENALTY * late, travel, time, late, lateStops,
+            problem.isCapacityExceeded());
+    }
+
+    private record Candidate(int[] route, double objective) {
+    }
+
+    /**
+     * Danh sách láng giềng gần nhất (granular neighborhood) của mỗi node, theo chiều ra và chiều vào.
+     * Node 0 (xuất phát) chỉ xuất hiện trong danh sách chiều vào.
+     */
+    private record Neighbors(int[][] outgoing, int[][] incoming) {
+        static Neighbors of(RoutingProblem problem, int limit) {
+            int nodes = problem.size() + 1;
+            int k = Math.min(limit, problem.size());
+            int[][] outgoing = new int[nodes][];
+            int[][] incoming = new int[nodes][];
+            for (int u = 0; u < nodes; u++) {
+                final int node = u;
+                outgoing[u] = nearest(nodes, k, node, v -> v != 0 && v != node, v -> problem.travel(node, v));
+                incoming[u] = nearest(nodes, k, node, v -> v != node, v -> problem.travel(v, node));
+            }
+            return new Neighbors(outgoing, incoming);
+        }
+
+        private static int[] nearest(int nodes, int k, int node, IntPredicate allowed,
+                                     IntToDoubleFunction cost) {
+            return IntStream.range(0, nodes)
+                .filter(allowed)
+                .boxed()
+                .sorted(Comparator.comparingDouble(cost::applyAsDouble))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+    }
+
+    /**
+     * 2-opt + Or-opt trên một lời giải. Mảng path có node 0 ở đầu: path[k] = route[k - 1].
+     */
+    private static final class LocalSearch {
+        private final RoutingProblem problem;
+        private final int[] route;
+        private final int[] scratch;
+        private final int[] path;
+        private final double[] forward;
+        private final double[] backward;
+        private final double[] departAt;
+        private final int[] position;
+        private final int[][] outgoing;
+        private final int[][] incoming;
+        private final double[] lateUpTo;
+        private final double serviceSum;
+        private final long deadline;
+        private final int n;
+        private double objective;
+
+        LocalSearch(RoutingProblem problem, int[] route, Neighbors neighbors, long deadline) {
+            this.problem = problem;
+            this.outgoing = neighbors.outgoing();
+            this.incoming = neighbors.incoming();
+            this.position = new int[route.length + 1];
+            this.route = route;
+            this.n = route.length;
+            this.scratch = new int[n];
+            this.path = new int[n + 1];
+            this.forward = new double[n + 1];
+            this.backward = new double[n + 1];
+            this.departAt = new double[n + 1];
+            this.lateUpTo = new double[n + 1];
+            this.deadline = deadline;
+            double services = 0;
+            for (int node : route) {
+                services += problem.serviceTime(node);
+            }
+            this.serviceSum = services;
+            this.objective = evaluate(problem, route);
+            rebuildPrefix();
+        }
+
+        void run() {
+            boolean improved = true;
+            while (improved && !timeUp()) {
+                improved = twoOpt();
+                improved |= orOpt();
+            }
+        }
+
+        /**
+         * Đảo ngược đoạn path[i..j].
+         */
+        private boolean twoOpt() {
+            boolean improved = false;
+            for (int i = 1; i < n; i++) {
+                if (timeUp()) {
+                    break;
+                }
+                // Chỉ xét các nước đi tạo cạnh mới (path[i-1] -> v) với v thuộc danh sách láng giềng gần của path[i-1]
+                for (int v : outgoing[path[i - 1]]) {
+                    int j = position[v];
+                    if (v == 0 || j <= i) {
+                        continue;
+                    }
+                    double delta = problem.travel(path[i - 1], path[j]) - problem.travel(path[i - 1], path[i])
+                        + (backward[j] - backward[i]) - (forward[j] - forward[i]);
+                    if (j < n) {
+                        delta += problem.travel(path[i], path[j + 1]) - problem.travel(path[j], path[j + 1]);
+                    }
+                    if (!mayImprove(delta)) {
+                        continue;
+                    }
+                    // route index = path index - 1
+                    System.arraycopy(route, 0, scratch, 0, n);
+                    for (int a = i - 1, b = j - 1; a < b; a++, b--) {
+                        int tmp = scratch[a];
+                        scratch[a] = scratch[b];
+                        scratch[b] = tmp;
+                    }
+                    if (accept(i - 1)) {
+                        improved = true;
+                    }
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * Chuyển đoạn path[i..i+len-1] tới giữa path[k] và path[k+1],
+         * với path[k] thuộc danh sách láng giềng (chiều vào) của điểm đầu đoạn.
+         */
+        private boolean orOpt() {
+            boolean improved = false;
+            for (int len = 1; len <= Math.min(MAX_SEGMENT, n - 1); len++) {
+                for (int i = 1; i + len - 1 <= n; i++) {
+                    if (timeUp()) {
+                        return improved;
+                    }
+                    int end = i + len - 1;
+                    int a = path[i - 1];
+                    int s = path[i];
+                    int e = path[end];
+                    boolean hasNext = end < n;
+                    double removal = -problem.travel(a, s);
+                    if (hasNext) {
+                        int b = path[end + 1];
+                        removal += problem.travel(a, b) - problem.travel(e, b);
+                    }
+                    for (int c : incoming[s]) {
+                        int k = position[c];
+                        if (k >= i - 1 && k <= end) {
+                            continue;
+                        }
+                        double delta = removal + problem.travel(c, s);
+                        if (k < n) {
+                            int d = path[k + 1];
+                            delta += problem.travel(e, d) - problem.travel(c, d);
+                        }
+                        if (!mayImprove(delta)) {
+                            continue;
+                        }
+                        moveSegment(i - 1, len, k);
+                        if (accept(Math.min(i - 1, k))) {
+                            improved = true;
+                            // Đoạn đã đổi chỗ: các biến a/s/e không còn đúng, chuyển sang vị trí i kế tiếp
+                            break;
+                        }
+                    }
+                }
+            }
+            return improved;
+        }
+
+        /**
+         * Ghi vào scratch: route với đoạn [from, from+len) được chèn sau path[k] (route index k - 1).
+         */
+        private void moveSegment(int from, int len, int k) {
+            int w = 0;
+            if (k < from) {
+                // Chèn lùi về trước: [0..k) + segment + [k..from) + [from+len..n)
+                System.arraycopy(route, 0, scratch, w, k);
+                w += k;
+                System.arraycopy(route, from, scratch, w, len);
+                w += len;
+                System.arraycopy(route, k, scratch, w, from - k);
+                w += from - k;
+                System.arraycopy(route, from + len, scratch, w, n - from - len);
+            } else {
+                // Chèn về sau: [0..from) + [from+len..k) + segment + [k..n)
+                System.arraycopy(route, 0, scratch, w, from);
+                w += from;
+                System.arraycopy(route, from + len, scratch, w, k - from - len);
+                w += k - from - len;
+                System.arraycopy(route, from, scratch, w, len);
+                w += len;
+                System.arraycopy(route, k, scratch, w, n - k);
+            }
+        }
+
+        /**
+         * Cận dưới của mục tiêu mới là (quãng đường mới + tổng thời gian phục vụ) vì chờ và trễ đều >= 0.
+         */
+        private boolean mayImprove(double travelDelta) {
+            return forward[n] + travelDelta + serviceSum < objective - EPS;
+        }
+
+        /**
+         * Đánh giá scratch bắt đầu từ vị trí thay đổi đầu tiên (phần trước giữ nguyên trạng thái đã lưu),
+         * dừng sớm khi giá trị tạm đã không còn tốt hơn (thời gian và trễ chỉ tăng dần).
+         */
+        private boolean accept(int firstChanged) {
+            double time = departAt[firstChanged];
+            double late = lateUpTo[firstChanged];
+            int prev = path[firstChanged];
+            double bound = objective - EPS;
+            for (int r = firstChanged; r < n; r++) {
+                int node = scratch[r];
+                time += problem.travel(prev, node);
+                if (time < problem.windowOpen(node)) {
+                    time = problem.windowOpen(node);
+                } else if (time > problem.windowClose(node)) {
+                    late += time - problem.windowClose(node);
+                }
+                time += problem.serviceTime(node);
+                if (time + LATE_PENALTY * late >= bound) {
+                    return false;
+                }
+                prev = node;
+            }
+            double candidate = time + LATE_PENALTY * late;
+            if (candidate < bound) {
+                System.arraycopy(scratch, 0, route, 0, n);
+                objective = candidate;
+                rebuildPrefix();
+                return true;
+            }
+            return false;
+        }
+
+        private void rebuildPrefix() {
+            path[0] = 0;
+            System.arraycopy(route, 0, path, 1, n);
+            forward[0] = 0;
+            backward[0] = 0;
+            for (int k = 1; k <= n; k++) {
+                position[path[k]] = k;
+                forward[k] = forward[k - 1] + problem.travel(path[k - 1], path[k]);
+                backward[k] = backward[k - 1] + problem.travel(path[k], path[k - 1]);
+                int node = path[k];
+                double time = departAt[k - 1] + problem.travel(path[k - 1], node);
+                double late = lateUpTo[k - 1];
+                if (time < problem.windowOpen(node)) {
+                    time = problem.windowOpen(node);
+                } else if (time > problem.windowClose(node)) {
+                    late += time - problem.windowClose(node);
+                }
+                departAt[k] = time + problem.serviceTime(node);
+                lateUpTo[k] = late;
+            }
+        }
+
+        private boolean timeUp() {
+            return deadline != Long.MAX_VALUE && System.nanoTime() > deadline;
+        }
+    }
+}
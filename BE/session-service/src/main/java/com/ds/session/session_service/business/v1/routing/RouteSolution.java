@@ -0,0 +1,23 @@
+package com.ds.session.session_service.business.v1.routing;
+
+/**
+ * Kết quả tối ưu: thứ tự ghé các điểm giao (node 1..size) và thời điểm đến dự kiến (giây kể từ lúc xuất phát).
+ */
+public record RouteSolution(
+    int[] order,
+    double[] arrivalSeconds,
+    double objective,
+    double travelSeconds,
+    double completionSeconds,
+    double latenessSeconds,
+    int lateStops,
+    boolean capacityExceeded
+) {
+    public boolean isTimeWindowFeasible() {
+        return lateStops == 0;
+    }
+
+    public boolean isFeasible() {
+        return lateStops == 0 && !capacityExceeded;
+    }
+}
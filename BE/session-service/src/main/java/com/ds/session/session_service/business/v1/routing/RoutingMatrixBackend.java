@@ -0,0 +1,15 @@
+package com.ds.session.session_service.business.v1.routing;
+
+import java.util.List;
+
+/**
+ * Nguồn dữ liệu đường đi thực tế cho {@link DistanceMatrixStore} (zone_service/OSRM, hoặc stub khi test).
+ */
+public interface RoutingMatrixBackend {
+
+    /**
+     * Ghi kết quả theo hàng (row-major) sources.size() x destinations.size() vào durations (giây)
+     * và distances (mét). Cặp không có đường đi ghi Float.POSITIVE_INFINITY.
+     */
+    void fetch(List<MatrixLocation> sources, List<MatrixLocation> destinations, float[] durations, float[] distances);
+}
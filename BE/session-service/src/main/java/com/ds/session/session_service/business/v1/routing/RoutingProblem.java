@@ -0,0 +1,104 @@
+package com.ds.session.session_service.business.v1.routing;
+
+import java.util.Arrays;
+
+/**
+ * Bài toán sắp xếp điểm giao cho MỘT shipper (một phiên).
+ * - Node 0 là vị trí xuất phát, node 1..size là các điểm giao.
+ * - Thời gian di chuyển là ma trận phẳng (size+1) x (size+1), đơn vị giây, có thể bất đối xứng.
+ * - Khung giờ [windowOpen, windowClose] tính bằng giây kể từ lúc xuất phát; đến sớm thì chờ, đến muộn bị phạt.
+ * - Tải trọng: tổng demand phải không vượt quá capacity (capacity <= 0 nghĩa là không giới hạn).
+ */
+public final class RoutingProblem {
+
+    public static final double NO_WINDOW_CLOSE = Double.POSITIVE_INFINITY;
+
+    private final int size;
+    private final int stride;
+    private final double[] travel;
+    private final double[] serviceTime;
+    private final double[] windowOpen;
+    private final double[] windowClose;
+    private final double[] demand;
+    private final double capacity;
+
+    /**
+     * Các mảng theo node có độ dài size + 1 (phần tử 0 ứng với điểm xuất phát và bị bỏ qua).
+     */
+    public RoutingProblem(int size, double[] travel, double[] serviceTime,
+                          double[] windowOpen, double[] windowClose, double[] demand, double capacity) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0");
+        }
+        int nodes = size + 1;
+        requireLength("travel", travel, nodes * nodes);
+        requireLength("serviceTime", serviceTime, nodes);
+        requireLength("windowOpen", windowOpen, nodes);
+        requireLength("windowClose", windowClose, nodes);
+        requireLength("demand", demand, nodes);
+        this.size = size;
+        this.stride = nodes;
+        this.travel = travel;
+        this.serviceTime = serviceTime;
+        this.windowOpen = windowOpen;
+        this.windowClose = windowClose;
+        this.demand = demand;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Bài toán không có khung giờ, thời gian phục vụ và tải trọng (chỉ ma trận di chuyển).
+     */
+    public static RoutingProblem ofTravelMatrix(int size, double[] travel) {
+        int nodes = size + 1;
+        double[] close = new double[nodes];
+        Arrays.fill(close, NO_WINDOW_CLOSE);
+        return new RoutingProblem(size, travel, new double[nodes], new double[nodes], close, new double[nodes], 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double travel(int from, int to) {
+        return travel[from * stride + to];
+    }
+
+    public double serviceTime(int node) {
+        return serviceTime[node];
+    }
+
+    public double windowOpen(int node) {
+        return windowOpen[node];
+    }
+
+    public double windowClose(int node) {
+        return windowClose[node];
+    }
+
+    public double demand(int node) {
+        return demand[node];
+    }
+
+    public double capacity() {
+        return capacity;
+    }
+
+    public double totalDemand() {
+        double total = 0;
+        for (int node = 1; node <= size; node++) {
+            total += demand[node];
+        }
+        return total;
+    }
+
+    public boolean isCapacityExceeded() {
+        return capacity > 0 && totalDemand() > capacity;
+    }
+
+    private static void requireLength(String name, double[] array, int expected) {
+        if (array == null || array.length != expected) {
+            throw new IllegalArgumentException(name + " must have length " + expected);
+        }
+    }
+}
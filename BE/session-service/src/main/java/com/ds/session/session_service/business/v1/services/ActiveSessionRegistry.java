@@ -0,0 +1,130 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ds.session.session_service.app_context.models.DeliverySession;
+import com.ds.session.session_service.app_context.repositories.DeliverySessionRepository;
+import com.ds.session.session_service.common.enums.SessionStatus;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bộ nhớ đệm phiên ĐANG HOẠT ĐỘNG (IN_PROGRESS) theo shipper: deliveryManId -> sessionId.
+ * - Giúp luồng quét QR và các hành động trên task không phải truy vấn findByDeliveryManIdAndStatus.
+ * - Cache được ghi đồng thời (write-through) khi phiên được tạo/kết thúc/hủy và nạp lại khi khởi động.
+ * - Khóa phân mảnh (striped lock) theo shipper: các lượt quét đầu tiên đồng thời của cùng một shipper
+ *   được gộp vào một phiên duy nhất mà không cần khóa toàn cục.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveSessionRegistry {
+
+    private final DeliverySessionRepository sessionRepository;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentHashMap<String, UUID> activeSessions = new ConcurrentHashMap<>();
+    private final ReentrantLock[] shipperLocks = createLocks();
+
+    /**
+     * Nạp lại toàn bộ phiên IN_PROGRESS từ DB khi service khởi động.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<DeliverySession> sessions = sessionRepository.findAllByStatus(SessionStatus.IN_PROGRESS);
+        activeSessions.clear();
+        sessions.forEach(session -> activeSessions.put(session.getDeliveryManId(), session.getId()));
+        log.info("Active session registry rebuilt with {} sessions", activeSessions.size());
+    }
+
+    /**
+     * Chạy action trong khóa của shipper (các shipper khác nhau gần như không tranh chấp).
+     * Action nên bao gồm cả việc commit transaction để lượt quét kế tiếp thấy được phiên vừa tạo.
+     */
+    public <T> T withShipperLock(String deliveryManId, Supplier<T> action) {
+        ReentrantLock lock = shipperLocks[Math.floorMod(deliveryManId.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lấy id phiên đang hoạt động của shipper; nếu chưa có trong cache thì nạp từ DB.
+     */
+    public Optional<UUID> findActiveSessionId(String deliveryManId) {
+        UUID cached = activeSessions.get(deliveryManId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<UUID> loaded = sessionRepository
+            .findByDeliveryManIdAndStatus(deliveryManId, SessionStatus.IN_PROGRESS)
+            .map(DeliverySession::getId);
+        loaded.ifPresent(sessionId -> activeSessions.putIfAbsent(deliveryManId, sessionId));
+        return loaded;
+    }
+
+    public void register(String deliveryManId, UUID sessionId) {
+        activeSessions.put(deliveryManId, sessionId);
+    }
+
+    /**
+     * Xóa phiên khỏi cache (chỉ khi cache vẫn đang trỏ tới đúng phiên đó).
+     */
+    public void evict(String deliveryManId, UUID sessionId) {
+        if (activeSessions.remove(deliveryManId, sessionId)) {
+            log.debug("Evicted active session {} of shipper {}", sessionId, deliveryManId);
+        }
+    }
+
+    /**
+     * Ghi cache sau khi transaction hiện tại commit thành công (tránh cache trỏ tới phiên bị rollback).
+     */
+    public void registerAfterCommit(String deliveryManId, UUID sessionId) {
+        afterCommit(() -> register(deliveryManId, sessionId));
+    }
+
+    public void evictAfterCommit(String deliveryManId, UUID sessionId) {
+        afterCommit(() -> evict(deliveryManId, sessionId));
+    }
+
+    public int size() {
+        return activeSessions.size();
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
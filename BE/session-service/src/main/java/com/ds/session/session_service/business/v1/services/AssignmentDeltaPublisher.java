@@ -0,0 +1,109 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ds.session.session_service.common.entities.dto.response.AssignmentDeltaResponse;
+import com.ds.session.session_service.common.entities.dto.response.DeliveryAssignmentResponse;
+import com.ds.session.session_service.common.enums.AssignmentDeltaType;
+import com.ds.session.session_service.common.enums.SessionStatus;
+import com.ds.session.session_service.common.interfaces.IAssignmentDeltaPublisher;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Đẩy thay đổi danh sách task tới kênh STOMP riêng của từng shipper (/user/queue/tasks),
+ * để app áp dụng dần thay vì tải lại cả trang task + phiên mỗi lần mở màn hình.
+ * - Chỉ gửi SAU KHI transaction commit (không đẩy thay đổi có thể bị rollback).
+ * - seq được cấp và gửi trong cùng khóa theo shipper: thứ tự seq trùng thứ tự gửi.
+ * - Gửi thất bại / shipper offline thì bỏ qua: app kết nối lại sẽ tải lại toàn bộ.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssignmentDeltaPublisher implements IAssignmentDeltaPublisher {
+
+    private static final String TASKS_DESTINATION = "/queue/tasks";
+
+    // Mỗi lần chạy service là một stream mới: seq bắt đầu lại từ 1
+    private final String stream = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void assignmentAdded(String deliveryManId, DeliveryAssignmentResponse assignment) {
+        publishAfterCommit(deliveryManId, AssignmentDeltaResponse.builder()
+            .type(AssignmentDeltaType.ADDED)
+            .sessionId(assignment.getSessionId())
+            .sessionStatus(SessionStatus.IN_PROGRESS)
+            .assignment(assignment));
+    }
+
+    @Override
+    public void assignmentUpdated(String deliveryManId, DeliveryAssignmentResponse assignment) {
+        publishAfterCommit(deliveryManId, AssignmentDeltaResponse.builder()
+            .type(AssignmentDeltaType.UPDATED)
+            .sessionId(assignment.getSessionId())
+            .assignment(assignment));
+    }
+
+    @Override
+    public void sessionStarted(String deliveryManId, UUID sessionId) {
+        publishAfterCommit(deliveryManId, AssignmentDeltaResponse.builder()
+            .type(AssignmentDeltaType.SESSION_STARTED)
+            .sessionId(sessionId.toString())
+            .sessionStatus(SessionStatus.IN_PROGRESS));
+    }
+
+    @Override
+    public void sessionEnded(String deliveryManId, UUID sessionId, SessionStatus status) {
+        publishAfterCommit(deliveryManId, AssignmentDeltaResponse.builder()
+            .type(AssignmentDeltaType.SESSION_ENDED)
+            .sessionId(sessionId.toString())
+            .sessionStatus(status));
+    }
+
+    private void publishAfterCommit(String deliveryManId, AssignmentDeltaResponse.AssignmentDeltaResponseBuilder delta) {
+        if (deliveryManId == null) {
+            return;
+        }
+        delta.occurredAt(LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(deliveryManId, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(deliveryManId, delta);
+            }
+        });
+    }
+
+    private void send(String deliveryManId, AssignmentDeltaResponse.AssignmentDeltaResponseBuilder delta) {
+        Sequence sequence = sequences.computeIfAbsent(deliveryManId, id -> new Sequence());
+        synchronized (sequence) {
+            AssignmentDeltaResponse message = delta.stream(stream).seq(++sequence.value).build();
+            try {
+                messagingTemplate.convertAndSendToUser(deliveryManId, TASKS_DESTINATION, message);
+                log.debug("Pushed {} #{} to shipper {}", message.getType(), message.getSeq(), deliveryManId);
+            } catch (RuntimeException e) {
+                // seq đã cấp vẫn giữ: app thấy hụt seq và tự tải lại
+                log.warn("Could not push {} to shipper {}: {}", message.getType(), deliveryManId, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Sequence {
+        private long value;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+
+import com.ds.session.session_service.app_context.models.AssignmentRoute;
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.app_context.repositories.AssignmentRouteRepository;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.common.entities.dto.response.AssignmentRouteResponse;
+import com.ds.session.session_service.common.exceptions.ResourceNotFound;
+import com.ds.session.session_service.common.interfaces.IAssignmentRouteService;
+import com.ds.session.session_service.common.utils.PolylineCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lưu/đọc lộ trình thực tế của task ở dạng polyline nén (bảng assignment_routes).
+ * Định dạng waypoints client gửi lên được chấp nhận:
+ * - GeoJSON LineString {"type":"LineString","coordinates":[[lon,lat],...]} hoặc chỉ mảng coordinates [[lon,lat],...]
+ * - Mảng đối tượng [{"lat":..,"lon"|"lng":..},...]
+ * Dữ liệu khác (không phải danh sách tọa độ) được giữ nguyên ở rawWaypoints.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssignmentRouteService implements IAssignmentRouteService {
+
+    private final AssignmentRouteRepository assignmentRouteRepository;
+    private final DeliveryAssignmentRepository deliveryAssignmentRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Ghi (hoặc ghi đè) lộ trình của task. Không có dữ liệu thì không tạo bản ghi.
+     */
+    @Override
+    public void save(UUID assignmentId, String waypoints) {
+        toRoute(assignmentId, waypoints).ifPresent(assignmentRouteRepository::save);
+    }
+
+    @Override
+    public AssignmentRouteResponse getRoute(UUID assignmentId, boolean includePoints) {
+        DeliveryAssignment assignment = deliveryAssignmentRepository.findById(assignmentId)
+            .orElseThrow(() -> new ResourceNotFound("Assignment not found: " + assignmentId));
+        AssignmentRoute route = assignmentRouteRepository.findById(assignmentId).orElse(null);
+        return AssignmentRouteResponse.from(assignment, route, includePoints);
+    }
+
+    /**
+     * Chuyển waypoints (chuỗi JSON) thành bản ghi assignment_routes; empty nếu không có dữ liệu.
+     */
+    public Optional<AssignmentRoute> toRoute(UUID assignmentId, String waypoints) {
+        if (waypoints == null || waypoints.isBlank()) {
+            return Optional.empty();
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(waypoints);
+            // Dữ liệu cũ bị serialize hai lần (chuỗi JSON chứa JSON)
+            if (node != null && node.isTextual()) {
+                node = objectMapper.readTree(node.asText());
+            }
+        } catch (JsonProcessingException e) {
+            return Optional.of(raw(assignmentId, waypoints));
+        }
+        if (node == null || node.isNull() || (node.isContainerNode() && node.isEmpty())) {
+            return Optional.empty();
+        }
+        double[] latLon = parseCoordinates(node);
+        if (latLon == null) {
+            return Optional.of(raw(assignmentId, waypoints));
+        }
+        return Optional.of(AssignmentRoute.builder()
+            .assignmentId(assignmentId)
+            .polyline(PolylineCodec.encode(latLon))
+            .pointCount(latLon.length / 2)
+            .updatedAt(LocalDateTime.now())
+            .build());
+    }
+
+    /**
+     * Tọa độ xen kẽ [lat, lon, ...] hoặc null nếu node không phải danh sách tọa độ hợp lệ.
+     */
+    static double[] parseCoordinates(JsonNode node) {
+        JsonNode points = node.isObject() && node.has("coordinates") ? node.get("coordinates") : node;
+        if (!points.isArray() || points.isEmpty()) {
+            return null;
+        }
+        double[] latLon = new double[points.size() * 2];
+        for (int i = 0; i < points.size(); i++) {
+            JsonNode point = points.get(i);
+            double lat;
+            double lon;
+            if (point.isArray() && point.size() >= 2 && point.get(0).isNumber() && point.get(1).isNumber()) {
+                // GeoJSON: [lon, lat]
+                lon = point.get(0).asDouble();
+                lat = point.get(1).asDouble();
+            } else if (point.isObject() && point.path("lat").isNumber()
+                    && (point.path("lon").isNumber() || point.path("lng").isNumber())) {
+                lat = point.get("lat").asDouble();
+                lon = point.has("lon") ? point.get("lon").asDouble() : point.get("lng").asDouble();
+            } else {
+                return null;
+            }
+            if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+                return null;
+            }
+            latLon[2 * i] = lat;
+            latLon[2 * i + 1] = lon;
+        }
+        return latLon;
+    }
+
+    private static AssignmentRoute raw(UUID assignmentId, String waypoints) {
+        return AssignmentRoute.builder()
+            .assignmentId(assignmentId)
+            .rawWaypoints(waypoints)
+            .updatedAt(LocalDateTime.now())
+            .build();
+    }
+}
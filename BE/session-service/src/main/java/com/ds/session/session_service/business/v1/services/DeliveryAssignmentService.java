@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +14,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ds.session.session_service.app_context.models.DeliveryAssignment;
-import com.ds.session.session_service.app_context.models.DeliverySession; 
 import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
 import com.ds.session.session_service.app_context.repositories.DeliverySessionRepository; 
 import com.ds.session.session_service.application.client.parcelclient.ParcelServiceClient;
@@ -28,13 +26,15 @@ import com.ds.session.session_service.common.entities.dto.response.ShipperInfo;
 import com.ds.session.session_service.common.enums.AssignmentStatus;
 import com.ds.session.session_service.common.enums.ParcelEvent;
 import com.ds.session.session_service.common.enums.SessionStatus; 
+import com.ds.session.session_service.common.exceptions.ParcelServiceUnavailableException;
 import com.ds.session.session_service.common.exceptions.ResourceNotFound;
+import com.ds.session.session_service.common.interfaces.IAssignmentDeltaPublisher;
+import com.ds.session.session_service.common.interfaces.IAssignmentRouteService;
 import com.ds.session.session_service.common.interfaces.IDeliveryAssignmentService;
+import com.ds.session.session_service.common.interfaces.IEtaService;
 import com.ds.session.session_service.common.mapper.ParcelMapper;
 import com.ds.session.session_service.common.utils.AssignmentSpecification;
 import com.ds.session.session_service.common.utils.PageUtil;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper; 
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -48,8 +48,13 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
     private final DeliveryAssignmentRepository deliveryAssignmentRepository;
     private final DeliverySessionRepository deliverySessionRepository; 
     private final ParcelServiceClient parcelServiceClient;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final ParcelReplicaService parcelReplicaService;
     private final ParcelMapper parcelMapper; 
-    private final ObjectMapper objectMapper; 
+    private final IAssignmentRouteService assignmentRouteService;
+    private final IEtaService etaService;
+    private final IAssignmentDeltaPublisher deltaPublisher;
+    private final ParcelStatusSyncService parcelStatusSyncService;
 
     @Override
     public DeliveryAssignmentResponse completeTask(UUID parcelId, UUID deliveryManId, RouteInfo routeInfo) {
@@ -102,10 +107,10 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
     private DeliveryAssignmentResponse updateTaskState(UUID parcelId, UUID deliveryManId, RouteInfo routeInfo,
                                                        AssignmentStatus newStatus, ParcelEvent parcelEvent, String failReason) {
         
-        // 1. Tìm session đang hoạt động của shipper
-        DeliverySession session = getActiveSessionOrFail(deliveryManId.toString());
+        // 1. Tìm session đang hoạt động của shipper (từ ActiveSessionRegistry)
+        UUID sessionId = getActiveSessionIdOrFail(deliveryManId.toString());
         // 2. Tìm task (đơn hàng) trong session đó
-        DeliveryAssignment assignment = getAssignmentInSessionOrFail(session.getId(), parcelId.toString());
+        DeliveryAssignment assignment = getAssignmentInSessionOrFail(sessionId, parcelId.toString());
         
         // 3. Kiểm tra trạng thái
         ensureStatusIsProcessing(assignment); 
@@ -113,22 +118,28 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
         // 4. Cập nhật thông tin tuyến đường
         setRouteInfo(assignment, routeInfo);
         
-        // 5. Đồng bộ với Parcel service
-        ParcelInfo parcel = updateParcelStatusAndMap(parcelId, parcelEvent);
+        // 5. Thông tin đơn từ bản sao cục bộ (không gọi Parcel-Service trong transaction)
+        ParcelInfo parcel = findParcelInfo(parcelId.toString());
 
-        // 6. Cập nhật trạng thái (tham số hóa)
+        // 6. Cập nhật trạng thái (tham số hóa) và bộ đếm task của phiên
+        adjustSessionCounters(sessionId, assignment.getStatus(), newStatus);
         assignment.setStatus(newStatus);
         assignment.setFailReason(failReason); 
         
-        // 7. Lưu
+        // 7. Lưu, kèm sự kiện trạng thái đơn chờ gửi: Parcel-Service nhận sau commit (gửi lại nếu lỗi)
+        assignment.setPendingParcelEvent(parcelEvent);
         deliveryAssignmentRepository.save(assignment);
+        parcelStatusSyncService.syncAfterCommit(assignment.getId(), assignment.getParcelId(), parcelEvent);
+        notifyEta(assignment, parcel);
 
         // 8. Trả về DTO
         // TODO: Lấy SĐT shipper và tên người nhận từ User-Service.
         String deliveryManPhone = null; 
         String receiverName = null; 
         
-        return DeliveryAssignmentResponse.from(assignment, parcel, assignment.getSession(), deliveryManPhone, receiverName);
+        DeliveryAssignmentResponse response = DeliveryAssignmentResponse.from(assignment, parcel, assignment.getSession(), deliveryManPhone, receiverName);
+        deltaPublisher.assignmentUpdated(response.getDeliveryManAssignedId(), response);
+        return response;
     }
 
 
@@ -207,37 +218,13 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
         List<DeliveryAssignment> tasks = tasksPage.getContent();
 
         // 1. Thu thập tất cả các parcelId
-        List<UUID> parcelIds = tasks.stream()
-            .map(t -> UUID.fromString(t.getParcelId()))
+        List<String> parcelIds = tasks.stream()
+            .map(DeliveryAssignment::getParcelId)
             .distinct()
             .toList();
 
-        // 2. Fetch parcel information from parcel-service with error handling
-        Map<String, ParcelResponse> parcelResponseMap = Collections.emptyMap();
-        if (parcelIds.isEmpty()) {
-            log.warn("No parcel IDs to fetch from parcel-service");
-        } else {
-            log.info("Fetching {} parcels from parcel-service...", parcelIds.size());
-            long startTime = System.currentTimeMillis();
-            try {
-                parcelResponseMap = parcelServiceClient.fetchParcelsBulk(parcelIds);
-                long duration = System.currentTimeMillis() - startTime;
-                log.info("Successfully fetched {} parcels from parcel-service in {}ms", parcelResponseMap.size(), duration);
-            } catch (Exception ex) {
-                long duration = System.currentTimeMillis() - startTime;
-                log.error("Failed to fetch parcels from parcel-service after {}ms: {}. Error type: {}. Returning tasks without parcel details.", 
-                         duration, ex.getMessage(), ex.getClass().getSimpleName(), ex);
-                // Return empty response - tasks will be filtered out below
-                // This prevents the entire request from failing when parcel-service is unavailable
-            }
-        }
-        
-        Map<String, ParcelInfo> parcelInfoMap = parcelResponseMap.entrySet().stream()
-            .filter(entry -> entry.getValue() != null)
-            .collect(Collectors.toMap(
-                Map.Entry::getKey, 
-                entry -> parcelMapper.toParcelInfo(entry.getValue())
-            ));
+        // 2. Ghép thông tin đơn từ bản sao cục bộ (chỉ các đơn chưa kịp đồng bộ mới gọi Parcel-Service)
+        Map<String, ParcelInfo> parcelInfoMap = parcelReplicaService.findParcelInfos(parcelIds);
         
         // 3. TODO: Lấy SĐT Shipper
         String deliveryManPhone = null; // Tạm thời
@@ -279,24 +266,28 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
     }
 
     // --- UTILITY METHODS ---
-    private String toJson(Object obj) {
-        try {
-            return objectMapper.writeValueAsString(obj);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize route info object to JSON string.", e);
-            throw new RuntimeException("Failed to serialize route info", e);
+    /**
+     * Task vừa kết thúc: cập nhật thống kê vận tốc ETA và bỏ ETA đã cache của phiên (sau khi commit).
+     */
+    private void notifyEta(DeliveryAssignment assignment, ParcelInfo parcel) {
+        if (assignment.getStatus() == AssignmentStatus.IN_PROGRESS) {
+            return;
         }
+        Double lat = parcel != null && parcel.getLat() != null ? parcel.getLat().doubleValue() : null;
+        Double lon = parcel != null && parcel.getLon() != null ? parcel.getLon().doubleValue() : null;
+        etaService.onAssignmentFinished(assignment, lat, lon);
     }
 
     private void setRouteInfo(DeliveryAssignment deliveryAssignment, RouteInfo routeInfo) {
         if (routeInfo == null) return;
         deliveryAssignment.setDistanceM(routeInfo.getDistanceM());
         deliveryAssignment.setDurationS(routeInfo.getDurationS());
-        deliveryAssignment.setWaypoints(toJson(routeInfo.getWaypoints())); 
+        // Waypoints lưu nén ở bảng riêng (assignment_routes), không nằm trong dòng của task
+        assignmentRouteService.save(deliveryAssignment.getId(), routeInfo.getWaypoints());
     }
     
-    private DeliverySession getActiveSessionOrFail(String deliveryManId) {
-        return deliverySessionRepository.findByDeliveryManIdAndStatus(deliveryManId, SessionStatus.IN_PROGRESS)
+    private UUID getActiveSessionIdOrFail(String deliveryManId) {
+        return activeSessionRegistry.findActiveSessionId(deliveryManId)
             .orElseThrow(() -> new ResourceNotFound("No active delivery session found for shipper."));
     }
 
@@ -305,6 +296,18 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
             .orElseThrow(() -> new ResourceNotFound("Assignment for parcel " + parcelId + " not found in session " + sessionId));
     }
 
+    /**
+     * Cập nhật bộ đếm completed/failed của phiên theo chuyển trạng thái task (oldStatus -> newStatus).
+     */
+    private void adjustSessionCounters(UUID sessionId, AssignmentStatus oldStatus, AssignmentStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        int completedDelta = (newStatus == AssignmentStatus.COMPLETED ? 1 : 0) - (oldStatus == AssignmentStatus.COMPLETED ? 1 : 0);
+        int failedDelta = (newStatus == AssignmentStatus.FAILED ? 1 : 0) - (oldStatus == AssignmentStatus.FAILED ? 1 : 0);
+        deliverySessionRepository.adjustTaskCounters(sessionId, 0, completedDelta, failedDelta);
+    }
+
     private void ensureStatusIsProcessing(DeliveryAssignment assignment) {
         if (!AssignmentStatus.IN_PROGRESS.equals(assignment.getStatus())) {
             throw new IllegalStateException("Can not finish assignment that is not currently IN_PROGRESS.");
@@ -361,18 +364,10 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
                                                              UpdateAssignmentStatusRequest request) {
         log.info("Updating assignment {} status in session {} to {}", assignmentId, sessionId, request.getAssignmentStatus());
         
-        // 1. Find session
-        DeliverySession session = deliverySessionRepository.findById(sessionId)
-            .orElseThrow(() -> new ResourceNotFound("Session not found: " + sessionId));
-        
-        // 2. Find assignment in session
-        DeliveryAssignment assignment = deliveryAssignmentRepository.findById(assignmentId)
-            .orElseThrow(() -> new ResourceNotFound("Assignment not found: " + assignmentId));
-        
-        // 3. Verify assignment belongs to session
-        if (!assignment.getSession().getId().equals(sessionId)) {
-            throw new IllegalStateException("Assignment " + assignmentId + " does not belong to session " + sessionId);
-        }
+        // 1-3. Find assignment and verify it belongs to session; the session is fetched in the same query
+        //      because the response needs it (no separate lazy load)
+        DeliveryAssignment assignment = deliveryAssignmentRepository.findWithSessionByIdAndSessionId(assignmentId, sessionId)
+            .orElseThrow(() -> new ResourceNotFound("Assignment " + assignmentId + " not found in session " + sessionId));
         
         // 4. Update route info if provided
         if (request.getRouteInfo() != null) {
@@ -382,7 +377,8 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
         // 5. Update parcel status via Parcel service
         ParcelInfo parcel = updateParcelStatusAndMap(UUID.fromString(assignment.getParcelId()), request.getParcelEvent());
         
-        // 6. Update assignment status
+        // 6. Update assignment status and session task counters
+        adjustSessionCounters(sessionId, assignment.getStatus(), request.getAssignmentStatus());
         assignment.setStatus(request.getAssignmentStatus());
         if (request.getFailReason() != null) {
             assignment.setFailReason(request.getFailReason());
@@ -390,12 +386,24 @@ public class DeliveryAssignmentService implements IDeliveryAssignmentService {
         
         // 7. Save
         deliveryAssignmentRepository.save(assignment);
+        notifyEta(assignment, parcel);
         
         // 8. Return DTO
         String deliveryManPhone = null;
         String receiverName = null;
         
-        return DeliveryAssignmentResponse.from(assignment, parcel, assignment.getSession(), deliveryManPhone, receiverName);
+        DeliveryAssignmentResponse response = DeliveryAssignmentResponse.from(assignment, parcel, assignment.getSession(), deliveryManPhone, receiverName);
+        deltaPublisher.assignmentUpdated(response.getDeliveryManAssignedId(), response);
+        return response;
+    }
+
+    private ParcelInfo findParcelInfo(String parcelId) {
+        ParcelInfo parcel = parcelReplicaService.findParcelInfos(List.of(parcelId)).get(parcelId);
+        if (parcel == null) {
+            // Chưa có trong bản sao và Parcel-Service không trả lời: thử lại sau
+            throw new ParcelServiceUnavailableException("Parcel " + parcelId + " is not available yet, please retry");
+        }
+        return parcel;
     }
 
     private ParcelInfo updateParcelStatusAndMap(UUID parcelId, ParcelEvent event) {
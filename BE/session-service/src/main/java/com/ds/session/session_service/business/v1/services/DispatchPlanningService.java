@@ -0,0 +1,219 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ds.session.session_service.app_context.models.ParcelSummary;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.app_context.repositories.ParcelSummaryRepository;
+import com.ds.session.session_service.business.v1.routing.DispatchPlan;
+import com.ds.session.session_service.business.v1.routing.DispatchPlanner;
+import com.ds.session.session_service.business.v1.routing.DispatchProblem;
+import com.ds.session.session_service.common.entities.dto.request.DispatchPlanRequest;
+import com.ds.session.session_service.common.entities.dto.response.DispatchPlanResponse;
+import com.ds.session.session_service.common.enums.SessionStatus;
+import com.ds.session.session_service.common.interfaces.IDispatchPlanningService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chia đơn trong kho cho các shipper theo lô (thay cho việc shipper quét từng đơn).
+ * - Đơn lấy từ bản sao parcel_summaries (status IN_WAREHOUSE), bỏ qua đơn đã nằm trong phiên IN_PROGRESS.
+ * - Chỉ ĐỀ XUẤT phiên: người điều phối xác nhận từng phiên qua POST /api/v1/sessions như hiện tại.
+ * - Bản sao không có zoneId nên các cụm được gom theo vị trí giao hàng (đơn cùng khu vực nằm gần nhau).
+ */
+@Service
+@Slf4j
+public class DispatchPlanningService implements IDispatchPlanningService {
+
+    private static final String PARCEL_STATUS_IN_WAREHOUSE = "IN_WAREHOUSE";
+    private static final String VEHICLE_MOTORBIKE = "MOTORBIKE";
+    private static final int ACTIVE_LOOKUP_CHUNK = 1000;
+
+    private final ParcelSummaryRepository parcelSummaryRepository;
+    private final DeliveryAssignmentRepository assignmentRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final ForkJoinPool plannerPool;
+    private final DispatchPlanner dispatchPlanner;
+
+    @Value("${dispatch.balance-tolerance:0.15}")
+    private double defaultBalanceTolerance;
+
+    @Value("${dispatch.max-iterations:15}")
+    private int maxIterations;
+
+    @Value("${dispatch.max-stops:80}")
+    private int defaultMaxStops;
+
+    @Value("${dispatch.motorbike-max-stops:60}")
+    private int motorbikeMaxStops;
+
+    @Value("${dispatch.motorbike-max-parcel-kg:30}")
+    private double motorbikeMaxParcelKg;
+
+    public DispatchPlanningService(ParcelSummaryRepository parcelSummaryRepository,
+                                   DeliveryAssignmentRepository assignmentRepository,
+                                   ActiveSessionRegistry activeSessionRegistry,
+                                   @Value("${dispatch.parallelism:0}") int parallelism) {
+        this.parcelSummaryRepository = parcelSummaryRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.plannerPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.dispatchPlanner = new DispatchPlanner(plannerPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        plannerPool.shutdown();
+    }
+
+    @Override
+    public DispatchPlanResponse planDispatch(DispatchPlanRequest request) {
+        long started = System.nanoTime();
+
+        List<DispatchPlanRequest.Shipper> shippers = new ArrayList<>();
+        List<String> skippedShippers = new ArrayList<>();
+        Set<String> seenShippers = new HashSet<>();
+        for (DispatchPlanRequest.Shipper shipper : request.getShippers()) {
+            if (!seenShippers.add(shipper.getDeliveryManId())) {
+                continue;
+            }
+            if (activeSessionRegistry.findActiveSessionId(shipper.getDeliveryManId()).isPresent()) {
+                skippedShippers.add(shipper.getDeliveryManId());
+            } else {
+                shippers.add(shipper);
+            }
+        }
+
+        List<ParcelSummary> candidates = loadWarehouseParcels(request.getParcelIds());
+        List<DispatchPlanResponse.UnassignedParcel> unassigned = new ArrayList<>();
+        List<ParcelSummary> routable = new ArrayList<>(candidates.size());
+        for (ParcelSummary parcel : candidates) {
+            if (parcel.getLat() == null || parcel.getLon() == null) {
+                unassigned.add(unassignedParcel(parcel, "NO_COORDINATES"));
+            } else {
+                routable.add(parcel);
+            }
+        }
+
+        int n = routable.size();
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double[] weight = new double[n];
+        for (int p = 0; p < n; p++) {
+            ParcelSummary parcel = routable.get(p);
+            lat[p] = parcel.getLat().doubleValue();
+            lon[p] = parcel.getLon().doubleValue();
+            weight[p] = Math.max(0, parcel.getWeight());
+        }
+        int k = shippers.size();
+        double[] capacity = new double[k];
+        int[] maxStops = new int[k];
+        double[] maxParcelWeight = new double[k];
+        for (int s = 0; s < k; s++) {
+            DispatchPlanRequest.Shipper shipper = shippers.get(s);
+            boolean motorbike = VEHICLE_MOTORBIKE.equalsIgnoreCase(shipper.getVehicleType());
+            capacity[s] = shipper.getCapacityKg();
+            maxStops[s] = shipper.getMaxStops() != null ? shipper.getMaxStops() : (motorbike ? motorbikeMaxStops : defaultMaxStops);
+            maxParcelWeight[s] = motorbike ? motorbikeMaxParcelKg : 0;
+        }
+        double tolerance = request.getBalanceTolerance() != null ? request.getBalanceTolerance() : defaultBalanceTolerance;
+        DispatchProblem problem = new DispatchProblem(lat, lon, weight, capacity, maxStops, maxParcelWeight, tolerance);
+        DispatchPlan plan = dispatchPlanner.plan(problem, maxIterations, n * 31L + k);
+
+        List<List<String>> parcelsByShipper = new ArrayList<>(k);
+        for (int s = 0; s < k; s++) {
+            parcelsByShipper.add(new ArrayList<>(plan.stops()[s]));
+        }
+        for (int p = 0; p < n; p++) {
+            int s = plan.shipperOfParcel()[p];
+            if (s >= 0) {
+                parcelsByShipper.get(s).add(routable.get(p).getId());
+            } else {
+                unassigned.add(unassignedParcel(routable.get(p), carriedByAnyone(problem, p) ? "NO_CAPACITY" : "TOO_HEAVY_FOR_VEHICLES"));
+            }
+        }
+
+        List<DispatchPlanResponse.ProposedSession> sessions = new ArrayList<>();
+        for (int s = 0; s < k; s++) {
+            if (plan.stops()[s] == 0) {
+                continue;
+            }
+            DispatchPlanRequest.Shipper shipper = shippers.get(s);
+            sessions.add(DispatchPlanResponse.ProposedSession.builder()
+                .deliveryManId(shipper.getDeliveryManId())
+                .vehicleType(shipper.getVehicleType())
+                .parcelIds(parcelsByShipper.get(s))
+                .stops(plan.stops()[s])
+                .totalWeightKg(plan.loadKg()[s])
+                .capacityKg(capacity[s])
+                .utilization(plan.loadKg()[s] / capacity[s])
+                .centroidLat(plan.centroidLat()[s])
+                .centroidLon(plan.centroidLon()[s])
+                .radiusMeters(plan.radiusMeters()[s])
+                .build());
+        }
+
+        long computeMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Dispatch plan: {} parcels -> {} sessions ({} shippers skipped), {} unassigned, {} iterations, {}ms",
+            candidates.size(), sessions.size(), skippedShippers.size(), unassigned.size(), plan.iterations(), computeMillis);
+
+        return DispatchPlanResponse.builder()
+            .sessions(sessions)
+            .unassigned(unassigned)
+            .skippedShippers(skippedShippers)
+            .parcelCount(candidates.size())
+            .assignedCount(n - plan.unassigned())
+            .iterations(plan.iterations())
+            .computeMillis(computeMillis)
+            .build();
+    }
+
+    /**
+     * Đơn IN_WAREHOUSE (lọc theo danh sách nếu có) chưa thuộc phiên IN_PROGRESS nào.
+     */
+    private List<ParcelSummary> loadWarehouseParcels(List<String> parcelIds) {
+        List<ParcelSummary> parcels = parcelIds == null || parcelIds.isEmpty()
+            ? parcelSummaryRepository.findAllByStatus(PARCEL_STATUS_IN_WAREHOUSE)
+            : parcelSummaryRepository.findAllById(new HashSet<>(parcelIds)).stream()
+                .filter(parcel -> PARCEL_STATUS_IN_WAREHOUSE.equals(parcel.getStatus()))
+                .toList();
+
+        Set<String> inActiveSession = new HashSet<>();
+        for (int from = 0; from < parcels.size(); from += ACTIVE_LOOKUP_CHUNK) {
+            List<String> chunk = parcels.subList(from, Math.min(parcels.size(), from + ACTIVE_LOOKUP_CHUNK)).stream()
+                .map(ParcelSummary::getId)
+                .toList();
+            inActiveSession.addAll(assignmentRepository.findParcelIdsInSessionsWithStatus(chunk, SessionStatus.IN_PROGRESS));
+        }
+        if (inActiveSession.isEmpty()) {
+            return parcels;
+        }
+        // Bản sao có thể chưa kịp nhận trạng thái ON_ROUTE của các đơn vừa quét
+        return parcels.stream().filter(parcel -> !inActiveSession.contains(parcel.getId())).toList();
+    }
+
+    private static boolean carriedByAnyone(DispatchProblem problem, int parcel) {
+        for (int s = 0; s < problem.shipperCount(); s++) {
+            if (problem.canCarry(s, parcel) && problem.weight(parcel) <= problem.capacity(s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static DispatchPlanResponse.UnassignedParcel unassignedParcel(ParcelSummary parcel, String reason) {
+        return DispatchPlanResponse.UnassignedParcel.builder()
+            .parcelId(parcel.getId())
+            .parcelCode(parcel.getCode())
+            .reason(reason)
+            .build();
+    }
+}
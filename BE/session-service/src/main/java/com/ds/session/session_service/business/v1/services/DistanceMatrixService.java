@@ -0,0 +1,75 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ds.session.session_service.business.v1.routing.DistanceMatrixStore;
+import com.ds.session.session_service.business.v1.routing.MatrixLocation;
+import com.ds.session.session_service.business.v1.routing.RoutingMatrixBackend;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ma trận đường đi thực tế giữa các điểm giao, dùng chung cho mọi phiên (xem {@link DistanceMatrixStore}).
+ * Metrics: session.distance-matrix.hit-ratio, session.distance-matrix.pairs{result=hit|miss},
+ * session.distance-matrix.fill (độ trễ mỗi lần gọi zone_service), session.distance-matrix.size.
+ */
+@Service
+@Slf4j
+public class DistanceMatrixService {
+
+    private final DistanceMatrixStore store;
+    private final boolean enabled;
+
+    public DistanceMatrixService(RoutingMatrixBackend backend,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${distance-matrix.enabled:true}") boolean enabled,
+                                 @Value("${distance-matrix.max-nodes:2048}") int maxNodes,
+                                 @Value("${distance-matrix.max-coordinates-per-request:100}") int maxCoordinatesPerRequest) {
+        this.enabled = enabled;
+        Timer fillTimer = Timer.builder("session.distance-matrix.fill")
+            .description("Latency of one batched matrix fill from zone-service")
+            .register(meterRegistry);
+        this.store = new DistanceMatrixStore(maxNodes, maxCoordinatesPerRequest, backend,
+            nanos -> fillTimer.record(nanos, TimeUnit.NANOSECONDS));
+        Gauge.builder("session.distance-matrix.hit-ratio", store, DistanceMatrixStore::hitRatio)
+            .description("Share of destination pairs served from the cached matrix")
+            .register(meterRegistry);
+        Gauge.builder("session.distance-matrix.size", store, DistanceMatrixStore::size)
+            .description("Number of destinations held in the cached matrix")
+            .register(meterRegistry);
+        FunctionCounter.builder("session.distance-matrix.pairs", store, DistanceMatrixStore::hits)
+            .tag("result", "hit")
+            .register(meterRegistry);
+        FunctionCounter.builder("session.distance-matrix.pairs", store, DistanceMatrixStore::misses)
+            .tag("result", "miss")
+            .register(meterRegistry);
+        FunctionCounter.builder("session.distance-matrix.evictions", store, DistanceMatrixStore::evictions)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ma trận con theo thứ tự locations; rỗng nếu tính năng bị tắt hoặc zone_service lỗi
+     * (nơi gọi tự chuyển sang ước lượng đường chim bay).
+     */
+    public Optional<DistanceMatrixStore.Submatrix> submatrix(List<MatrixLocation> locations) {
+        if (!enabled || locations.size() > store.capacity()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(store.submatrix(locations));
+        } catch (Exception e) {
+            log.warn("Distance matrix fill for {} destinations failed, falling back to estimate: {}",
+                locations.size(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.app_context.models.ParcelSummary;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.app_context.repositories.ParcelSummaryRepository;
+import com.ds.session.session_service.business.v1.eta.EtaCalculator;
+import com.ds.session.session_service.business.v1.eta.SpeedStatistics;
+import com.ds.session.session_service.common.entities.dto.response.ParcelEtaResponse;
+import com.ds.session.session_service.common.enums.AssignmentStatus;
+import com.ds.session.session_service.common.enums.SessionStatus;
+import com.ds.session.session_service.common.exceptions.ResourceNotFound;
+import com.ds.session.session_service.common.interfaces.IEtaService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ETA cho khách hàng, tính trong bộ nhớ từ thống kê vận tốc thực tế (không gọi routing backend mỗi lần khách tải lại).
+ * - Thống kê vận tốc theo khu vực / giờ được cập nhật dần mỗi khi một task kết thúc; khi khởi động chỉ nạp một lần
+ *   lịch sử eta.history-days ngày gần nhất.
+ * - Kết quả được cache theo PHIÊN (một lần tính cho mọi đơn còn lại của shipper) và tra theo parcelId.
+ *   Cache bị bỏ khi một task của phiên kết thúc hoặc phiên kết thúc, và tự hết hạn sau eta.cache-ttl-seconds.
+ */
+@Service
+@Slf4j
+public class EtaService implements IEtaService {
+
+    private static final int HISTORY_PAGE_SIZE = 1000;
+
+    private final DeliveryAssignmentRepository assignmentRepository;
+    private final ParcelSummaryRepository parcelSummaryRepository;
+    private final ParcelReplicaService parcelReplicaService;
+    private final SpeedStatistics speedStatistics;
+    private final EtaCalculator etaCalculator;
+
+    private final ConcurrentHashMap<UUID, SessionEta> sessionEtas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UUID> parcelSessions = new ConcurrentHashMap<>();
+    /** Thời điểm (nanoTime) bỏ cache gần nhất của phiên: kết quả tính xong sau đó nhưng bắt đầu trước đó sẽ không được lưu. */
+    private final ConcurrentHashMap<UUID, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    @Value("${eta.cache-ttl-seconds:120}")
+    private long cacheTtlSeconds;
+
+    @Value("${eta.history-days:30}")
+    private int historyDays;
+
+    private record StopEta(int stopsBefore, long offsetSeconds, SpeedStatistics.Basis basis) {
+    }
+
+    private record SessionEta(String deliveryManId, LocalDateTime baseTime, boolean originKnown,
+                              Map<String, StopEta> stops, LocalDateTime computedAt, long startedNanos) {
+    }
+
+    public EtaService(DeliveryAssignmentRepository assignmentRepository,
+                      ParcelSummaryRepository parcelSummaryRepository,
+                      ParcelReplicaService parcelReplicaService,
+                      @Value("${eta.cell-degrees:0.02}") double cellDegrees,
+                      @Value("${eta.min-samples:5}") long minSamples,
+                      @Value("${route-optimizer.average-speed-kmh:25}") double averageSpeedKmh,
+                      @Value("${route-optimizer.detour-factor:1.3}") double detourFactor,
+                      @Value("${route-optimizer.service-time-seconds:120}") double serviceTimeSeconds) {
+        this.assignmentRepository = assignmentRepository;
+        this.parcelSummaryRepository = parcelSummaryRepository;
+        this.parcelReplicaService = parcelReplicaService;
+        this.speedStatistics = new SpeedStatistics(cellDegrees, minSamples, averageSpeedKmh / 3.6);
+        this.etaCalculator = new EtaCalculator(speedStatistics, detourFactor, serviceTimeSeconds);
+    }
+
+    /**
+     * Nạp lịch sử một lần (chạy nền, không làm chậm khởi động); sau đó thống kê chỉ được cập nhật dần.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHistory() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                LocalDateTime since = LocalDateTime.now().minusDays(historyDays);
+                long recorded = 0;
+                for (AssignmentStatus status : List.of(AssignmentStatus.COMPLETED, AssignmentStatus.FAILED)) {
+                    int page = 0;
+                    Slice<DeliveryAssignment> slice;
+                    do {
+                        slice = assignmentRepository.findByStatusAndUpdatedAtAfter(status, since,
+                            PageRequest.of(page++, HISTORY_PAGE_SIZE, Sort.by("updatedAt", "id")));
+                        recorded += recordHistory(slice.getContent());
+                    } while (slice.hasNext());
+                }
+                log.info("ETA speed statistics loaded: {} samples in {} zones", recorded, speedStatistics.zoneCount());
+            } catch (Exception e) {
+                log.warn("Failed to load ETA history, statistics will start empty: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ParcelEtaResponse getParcelEta(String parcelId) {
+        UUID cachedSession = parcelSessions.get(parcelId);
+        if (cachedSession != null) {
+            SessionEta cached = sessionEtas.get(cachedSession);
+            if (isFresh(cachedSession, cached) && cached.stops().containsKey(parcelId)) {
+                return toResponse(parcelId, cachedSession, cached);
+            }
+        }
+
+        Optional<DeliveryAssignment> active = assignmentRepository.findActiveByParcelId(parcelId, SessionStatus.IN_PROGRESS);
+        if (active.isEmpty() || active.get().getStatus() != AssignmentStatus.IN_PROGRESS) {
+            DeliveryAssignment latest = active.or(() -> assignmentRepository.findFirstByParcelIdOrderByUpdatedAtDesc(parcelId))
+                .orElseThrow(() -> new ResourceNotFound("Parcel " + parcelId + " has not been assigned to a shipper"));
+            return ParcelEtaResponse.builder()
+                .parcelId(parcelId)
+                .sessionId(latest.getSession().getId())
+                .deliveryManId(latest.getSession().getDeliveryManId())
+                .assignmentStatus(latest.getStatus().name())
+                .computedAt(LocalDateTime.now())
+                .build();
+        }
+
+        DeliveryAssignment assignment = active.get();
+        UUID sessionId = assignment.getSession().getId();
+        SessionEta computed = computeSessionEta(sessionId, assignment.getSession().getDeliveryManId());
+        return toResponse(parcelId, sessionId, computed);
+    }
+
+    @Override
+    public void onAssignmentFinished(DeliveryAssignment assignment, Double destinationLat, Double destinationLon) {
+        UUID sessionId = assignment.getSession().getId();
+        double distance = assignment.getDistanceM();
+        double duration = assignment.getDurationS();
+        afterCommit(() -> {
+            if (destinationLat != null && destinationLon != null) {
+                speedStatistics.record(destinationLat, destinationLon, LocalDateTime.now().getHour(), distance, duration);
+            }
+            invalidate(sessionId);
+        });
+    }
+
+    @Override
+    public void onSessionEnded(UUID sessionId) {
+        afterCommit(() -> {
+            invalidate(sessionId);
+            invalidatedAt.remove(sessionId);
+        });
+    }
+
+    /**
+     * Dọn các kết quả đã hết hạn (phiên không còn ai hỏi ETA).
+     */
+    @Scheduled(fixedDelayString = "${eta.cache-ttl-seconds:120}000")
+    public void evictExpired() {
+        sessionEtas.forEach((sessionId, eta) -> {
+            if (!isFresh(sessionId, eta)) {
+                removeSession(sessionId, eta);
+            }
+        });
+    }
+
+    private SessionEta computeSessionEta(UUID sessionId, String deliveryManId) {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        List<DeliveryAssignment> remaining = assignmentRepository.findBySession_IdAndStatus(sessionId, AssignmentStatus.IN_PROGRESS);
+        Optional<DeliveryAssignment> lastFinished =
+            assignmentRepository.findFirstBySession_IdAndStatusNotOrderByUpdatedAtDesc(sessionId, AssignmentStatus.IN_PROGRESS);
+
+        List<String> parcelIds = new ArrayList<>(remaining.size() + 1);
+        remaining.forEach(a -> parcelIds.add(a.getParcelId()));
+        lastFinished.ifPresent(a -> parcelIds.add(a.getParcelId()));
+        Map<String, ParcelInfo> parcels = parcelReplicaService.findParcelInfos(parcelIds);
+
+        List<String> routable = new ArrayList<>(remaining.size());
+        for (DeliveryAssignment a : remaining) {
+            ParcelInfo parcel = parcels.get(a.getParcelId());
+            if (parcel != null && parcel.getLat() != null && parcel.getLon() != null) {
+                routable.add(a.getParcelId());
+            }
+        }
+        double[] lat = new double[routable.size()];
+        double[] lon = new double[routable.size()];
+        for (int i = 0; i < routable.size(); i++) {
+            ParcelInfo parcel = parcels.get(routable.get(i));
+            lat[i] = parcel.getLat().doubleValue();
+            lon[i] = parcel.getLon().doubleValue();
+        }
+
+        // Xuất phát từ điểm giao vừa kết thúc gần nhất, tại thời điểm kết thúc (nhưng không sớm hơn hiện tại quá xa)
+        double originLat = Double.NaN;
+        double originLon = Double.NaN;
+        LocalDateTime baseTime = now;
+        if (lastFinished.isPresent()) {
+            ParcelInfo previous = parcels.get(lastFinished.get().getParcelId());
+            if (previous != null && previous.getLat() != null && previous.getLon() != null) {
+                originLat = previous.getLat().doubleValue();
+                originLon = previous.getLon().doubleValue();
+                LocalDateTime finishedAt = lastFinished.get().getUpdatedAt();
+                baseTime = finishedAt != null && finishedAt.isBefore(now) ? finishedAt : now;
+            }
+        }
+
+        EtaCalculator.Result result = etaCalculator.estimate(originLat, originLon, lat, lon, baseTime.toLocalTime().toSecondOfDay());
+        Map<String, StopEta> stops = new HashMap<>();
+        int[] order = result.order();
+        for (int i = 0; i < order.length; i++) {
+            int stop = order[i];
+            stops.put(routable.get(stop), new StopEta(i, Math.round(result.arrivalSeconds()[stop]), result.basis()[stop]));
+        }
+
+        SessionEta eta = new SessionEta(deliveryManId, baseTime, !Double.isNaN(originLat), stops, now, started);
+        Long invalidated = invalidatedAt.get(sessionId);
+        if (invalidated == null || invalidated - started < 0) {
+            SessionEta previous = sessionEtas.put(sessionId, eta);
+            if (previous != null) {
+                previous.stops().keySet().forEach(parcelId -> parcelSessions.remove(parcelId, sessionId));
+            }
+            stops.keySet().forEach(parcelId -> parcelSessions.put(parcelId, sessionId));
+        }
+        log.debug("Computed ETA for session {}: {} stops in {}ms", sessionId, stops.size(), (System.nanoTime() - started) / 1_000_000);
+        return eta;
+    }
+
+    private ParcelEtaResponse toResponse(String parcelId, UUID sessionId, SessionEta eta) {
+        ParcelEtaResponse.ParcelEtaResponseBuilder response = ParcelEtaResponse.builder()
+            .parcelId(parcelId)
+            .sessionId(sessionId)
+            .deliveryManId(eta.deliveryManId())
+            .assignmentStatus(AssignmentStatus.IN_PROGRESS.name())
+            .originKnown(eta.originKnown())
+            .computedAt(eta.computedAt());
+        StopEta stop = eta.stops().get(parcelId);
+        if (stop == null) {
+            // Đơn chưa có tọa độ: không ước lượng được
+            return response.build();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime arrival = eta.baseTime().plusSeconds(stop.offsetSeconds());
+        if (arrival.isBefore(now)) {
+            arrival = now;
+        }
+        return response
+            .stopsBefore(stop.stopsBefore())
+            .estimatedArrival(arrival)
+            .remainingSeconds(Duration.between(now, arrival).getSeconds())
+            .basis(stop.basis().name())
+            .build();
+    }
+
+    private long recordHistory(List<DeliveryAssignment> assignments) {
+        List<String> parcelIds = assignments.stream()
+            .filter(a -> a.getDistanceM() > 0 && a.getDurationS() > 0)
+            .map(DeliveryAssignment::getParcelId)
+            .toList();
+        if (parcelIds.isEmpty()) {
+            return 0;
+        }
+        // Chỉ đọc bản sao cục bộ: đơn cũ không có trong bản sao thì bỏ qua, không gọi sang Parcel-Service
+        Map<String, ParcelSummary> parcels = new HashMap<>();
+        parcelSummaryRepository.findAllById(parcelIds).forEach(parcel -> parcels.put(parcel.getId(), parcel));
+        long recorded = 0;
+        for (DeliveryAssignment a : assignments) {
+            ParcelSummary parcel = parcels.get(a.getParcelId());
+            if (parcel != null && parcel.getLat() != null && parcel.getLon() != null && a.getUpdatedAt() != null
+                && speedStatistics.record(parcel.getLat().doubleValue(), parcel.getLon().doubleValue(),
+                    a.getUpdatedAt().getHour(), a.getDistanceM(), a.getDurationS())) {
+                recorded++;
+            }
+        }
+        return recorded;
+    }
+
+    private boolean isFresh(UUID sessionId, SessionEta eta) {
+        if (eta == null || Duration.between(eta.computedAt(), LocalDateTime.now()).getSeconds() >= cacheTtlSeconds) {
+            return false;
+        }
+        Long invalidated = invalidatedAt.get(sessionId);
+        return invalidated == null || invalidated - eta.startedNanos() < 0;
+    }
+
+    private void invalidate(UUID sessionId) {
+        invalidatedAt.put(sessionId, System.nanoTime());
+        SessionEta removed = sessionEtas.remove(sessionId);
+        if (removed != null) {
+            removed.stops().keySet().forEach(parcelId -> parcelSessions.remove(parcelId, sessionId));
+        }
+    }
+
+    private void removeSession(UUID sessionId, SessionEta eta) {
+        if (sessionEtas.remove(sessionId, eta)) {
+            eta.stops().keySet().forEach(parcelId -> parcelSessions.remove(parcelId, sessionId));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -27,6 +27,7 @@ public class ParcelInfo {
     private LocalTime windowStart;
     private LocalTime windowEnd;
 
+    private String destinationId;
     private BigDecimal lat;
     private BigDecimal lon;
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.session.session_service.app_context.models.ParcelSummary;
+import com.ds.session.session_service.app_context.repositories.ParcelSummaryRepository;
+import com.ds.session.session_service.application.client.parcelclient.ParcelServiceClient;
+import com.ds.session.session_service.application.client.parcelclient.response.ParcelChangesResponse;
+import com.ds.session.session_service.application.client.parcelclient.response.ParcelResponse;
+import com.ds.session.session_service.common.mapper.ParcelMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bản sao cục bộ (chỉ-đọc) của thông tin đơn hàng, đồng bộ liên tục từ change feed của Parcel-Service.
+ * - Danh sách task được ghép thông tin đơn từ bảng parcel_summaries (không gọi sang Parcel-Service).
+ * - Độ trễ dữ liệu bị chặn bởi chu kỳ poll (parcel-replica.poll-interval-ms) + thời gian "lắng" phía Parcel-Service.
+ * - Chỉ những đơn chưa có trong bản sao (vừa tạo, chưa kịp đồng bộ) mới được lấy trực tiếp từ Parcel-Service.
+ * - Độ trễ của bản sao được xuất thành gauge session.parcel-replica.staleness (giây).
+ */
+@Service
+@Slf4j
+public class ParcelReplicaService {
+
+    private final ParcelSummaryRepository parcelSummaryRepository;
+    private final ParcelServiceClient parcelServiceClient;
+    private final ParcelMapper parcelMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${parcel-replica.batch-size:500}")
+    private int batchSize;
+
+    @Value("${parcel-replica.max-pages-per-poll:20}")
+    private int maxPagesPerPoll;
+
+    private volatile LocalDateTime watermarkUpdatedAt;
+    private volatile String watermarkId;
+    private volatile boolean watermarkLoaded;
+    private volatile LocalDateTime lastSuccessfulPollAt;
+
+    public ParcelReplicaService(ParcelSummaryRepository parcelSummaryRepository,
+                                ParcelServiceClient parcelServiceClient,
+                                ParcelMapper parcelMapper,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.parcelSummaryRepository = parcelSummaryRepository;
+        this.parcelServiceClient = parcelServiceClient;
+        this.parcelMapper = parcelMapper;
+        this.transactionTemplate = transactionTemplate;
+        Gauge.builder("session.parcel-replica.staleness", this, ParcelReplicaService::stalenessSeconds)
+            .description("Time since the last successful poll of the parcel change feed (NaN before the first one)")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Poll change feed và upsert vào bản sao. Mỗi lần poll đọc tối đa maxPagesPerPoll trang.
+     */
+    @Scheduled(fixedDelayString = "${parcel-replica.poll-interval-ms:2000}")
+    public void pollChanges() {
+        try {
+            loadWatermarkIfNeeded();
+            int pages = 0;
+            int applied = 0;
+            ParcelChangesResponse page;
+            do {
+                page = parcelServiceClient.fetchParcelChanges(
+                    watermarkUpdatedAt != null ? watermarkUpdatedAt.toString() : null, watermarkId, batchSize);
+                if (page == null) {
+                    break;
+                }
+                applied += upsert(page.getItems());
+                if (page.getNextUpdatedAt() != null) {
+                    watermarkUpdatedAt = page.getNextUpdatedAt();
+                    watermarkId = page.getNextId();
+                }
+                pages++;
+            } while (page.isHasMore() && pages < maxPagesPerPoll);
+
+            lastSuccessfulPollAt = LocalDateTime.now();
+            if (applied > 0) {
+                log.info("Parcel replica applied {} changes (watermark {} / {})", applied, watermarkUpdatedAt, watermarkId);
+            }
+        } catch (Exception e) {
+            log.warn("Parcel replica poll failed, will retry next cycle: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lấy thông tin đơn cho danh sách parcelId: đọc từ bản sao, chỉ gọi Parcel-Service cho các đơn còn thiếu.
+     */
+    public Map<String, ParcelInfo> findParcelInfos(Collection<String> parcelIds) {
+        Map<String, ParcelInfo> result = new HashMap<>();
+        for (ParcelSummary summary : parcelSummaryRepository.findAllById(parcelIds)) {
+            result.put(summary.getId(), parcelMapper.toParcelInfo(summary));
+        }
+        if (result.size() == parcelIds.size()) {
+            return result;
+        }
+
+        List<UUID> missing = parcelIds.stream()
+            .filter(id -> !result.containsKey(id))
+            .map(UUID::fromString)
+            .toList();
+        log.info("Parcel replica miss for {} parcels, fetching from parcel-service", missing.size());
+        try {
+            Map<String, ParcelResponse> fetched = parcelServiceClient.fetchParcelsBulk(missing);
+            // Không ghi vào bản sao: bản sao chỉ nhận dữ liệu theo thứ tự của change feed để watermark luôn đúng
+            fetched.values().stream()
+                .filter(r -> r != null)
+                .forEach(r -> result.put(r.getId(), parcelMapper.toParcelInfo(r)));
+        } catch (Exception e) {
+            log.error("Failed to fetch {} missing parcels from parcel-service: {}", missing.size(), e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Độ trễ của bản sao so với lần poll thành công gần nhất (null nếu chưa poll thành công lần nào).
+     */
+    public Duration getStaleness() {
+        LocalDateTime last = lastSuccessfulPollAt;
+        return last == null ? null : Duration.between(last, LocalDateTime.now());
+    }
+
+    private double stalenessSeconds() {
+        Duration staleness = getStaleness();
+        return staleness == null ? Double.NaN : staleness.toMillis() / 1000d;
+    }
+
+    private int upsert(List<ParcelResponse> items) {
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+        List<ParcelSummary> summaries = items.stream().map(parcelMapper::toParcelSummary).toList();
+        transactionTemplate.executeWithoutResult(status -> parcelSummaryRepository.saveAll(summaries));
+        return summaries.size();
+    }
+
+    private void loadWatermarkIfNeeded() {
+        if (watermarkLoaded) {
+            return;
+        }
+        parcelSummaryRepository.findFirstByOrderByUpdatedAtDescIdDesc().ifPresent(latest -> {
+            watermarkUpdatedAt = latest.getUpdatedAt();
+            watermarkId = latest.getId();
+        });
+        watermarkLoaded = true;
+        log.info("Parcel replica resuming from watermark {} / {}", watermarkUpdatedAt, watermarkId);
+    }
+}
@@ -0,0 +1,116 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.application.client.parcelclient.ParcelServiceClient;
+import com.ds.session.session_service.common.enums.ParcelEvent;
+
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gửi trạng thái đơn của task vừa kết thúc sang Parcel-Service NGOÀI transaction của task.
+ * - Task kết thúc commit kèm sự kiện chờ gửi (pending_parcel_event) trong cùng transaction.
+ * - Sau commit gửi ngay; Parcel-Service nhận (hoặc từ chối dứt khoát, 4xx: gửi lại cũng vậy) thì xóa sự kiện chờ.
+ * - Lỗi tạm thời (timeout, 5xx): giữ sự kiện chờ, job định kỳ gửi lại các sự kiện đã chờ quá parcel-status-sync.retry-after-ms.
+ */
+@Service
+@Slf4j
+public class ParcelStatusSyncService {
+
+    private final DeliveryAssignmentRepository assignmentRepository;
+    private final ParcelServiceClient parcelServiceClient;
+    /** Transaction riêng: chạy được cả trong afterCommit, khi transaction của task vẫn còn gắn với luồng */
+    private final TransactionTemplate requiresNew;
+
+    @Value("${parcel-status-sync.retry-after-ms:30000}")
+    private long retryAfterMs;
+
+    @Value("${parcel-status-sync.batch-size:100}")
+    private int batchSize;
+
+    public ParcelStatusSyncService(DeliveryAssignmentRepository assignmentRepository,
+                                   ParcelServiceClient parcelServiceClient,
+                                   PlatformTransactionManager transactionManager) {
+        this.assignmentRepository = assignmentRepository;
+        this.parcelServiceClient = parcelServiceClient;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Gửi sự kiện sau khi transaction hiện tại commit (không có transaction: gửi ngay).
+     * Người gọi đã đặt assignment.pendingParcelEvent = event trong transaction đó.
+     */
+    public void syncAfterCommit(UUID assignmentId, String parcelId, ParcelEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sync(assignmentId, parcelId, event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sync(assignmentId, parcelId, event);
+            }
+        });
+    }
+
+    /**
+     * Gửi lại các sự kiện còn chờ (lần gửi sau commit bị lỗi tạm thời, hoặc service dừng trước khi kịp gửi).
+     */
+    @Scheduled(fixedDelayString = "${parcel-status-sync.retry-interval-ms:60000}")
+    public void retryPending() {
+        List<DeliveryAssignment> pending;
+        try {
+            pending = assignmentRepository.findWithPendingParcelEvent(
+                LocalDateTime.now().minus(Duration.ofMillis(retryAfterMs)), PageRequest.of(0, batchSize));
+        } catch (Exception e) {
+            log.warn("Could not load pending parcel events: {}", e.getMessage());
+            return;
+        }
+        if (!pending.isEmpty()) {
+            log.info("Retrying {} pending parcel status events", pending.size());
+        }
+        for (DeliveryAssignment assignment : pending) {
+            sync(assignment.getId(), assignment.getParcelId(), assignment.getPendingParcelEvent());
+        }
+    }
+
+    void sync(UUID assignmentId, String parcelId, ParcelEvent event) {
+        try {
+            parcelServiceClient.changeParcelStatus(parcelId, event);
+        } catch (FeignException e) {
+            if (e.status() < 400 || e.status() >= 500 || e.status() == 408 || e.status() == 429) {
+                log.warn("Parcel status {} of parcel {} not delivered, will retry: {}", event, parcelId, e.getMessage());
+                return;
+            }
+            // Parcel-Service không nhận chuyển trạng thái này: gửi lại cũng vậy, cần xử lý tay
+            log.error("Parcel-Service rejected {} for parcel {} of finished task {} ({}): {}",
+                event, parcelId, assignmentId, e.status(), e.getMessage());
+        } catch (Exception e) {
+            log.warn("Parcel status {} of parcel {} not delivered, will retry: {}", event, parcelId, e.getMessage());
+            return;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> assignmentRepository.clearPendingParcelEvent(assignmentId, event));
+        } catch (Exception e) {
+            // Lần gửi lại sẽ bị Parcel-Service từ chối (đã chuyển) và được xóa khi đó
+            log.error("Failed to clear pending parcel event of task {}: {}", assignmentId, e.getMessage());
+        }
+    }
+}
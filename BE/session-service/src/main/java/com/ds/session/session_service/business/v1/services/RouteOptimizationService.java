@@ -0,0 +1,237 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.app_context.repositories.DeliverySessionRepository;
+import com.ds.session.session_service.business.v1.routing.MatrixLocation;
+import com.ds.session.session_service.business.v1.routing.RouteOptimizer;
+import com.ds.session.session_service.business.v1.routing.RouteSolution;
+import com.ds.session.session_service.business.v1.routing.RoutingProblem;
+import com.ds.session.session_service.common.entities.dto.request.OptimizeRouteRequest;
+import com.ds.session.session_service.common.entities.dto.response.OptimizedRouteResponse;
+import com.ds.session.session_service.common.enums.AssignmentStatus;
+import com.ds.session.session_service.common.exceptions.ResourceNotFound;
+import com.ds.session.session_service.common.interfaces.IRouteOptimizationService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sắp xếp thứ tự giao cho phiên ngay trong session-service.
+ * - Thời gian giữa các điểm giao lấy từ ma trận đường đi thực tế được cache ({@link DistanceMatrixService}).
+ * - Chặng từ vị trí xuất phát (thay đổi liên tục, không đáng cache) và mọi cặp thiếu dữ liệu được ước lượng
+ *   từ khoảng cách đường chim bay * hệ số đường vòng / vận tốc trung bình.
+ */
+@Service
+@Slf4j
+public class RouteOptimizationService implements IRouteOptimizationService {
+
+    private static final double EARTH_RADIUS_M = 6_371_000d;
+
+    private final DeliverySessionRepository sessionRepository;
+    private final DeliveryAssignmentRepository assignmentRepository;
+    private final ParcelReplicaService parcelReplicaService;
+    private final DistanceMatrixService distanceMatrixService;
+    private final ForkJoinPool optimizerPool;
+    private final RouteOptimizer routeOptimizer;
+
+    @Value("${route-optimizer.average-speed-kmh:25}")
+    private double averageSpeedKmh;
+
+    @Value("${route-optimizer.detour-factor:1.3}")
+    private double detourFactor;
+
+    @Value("${route-optimizer.service-time-seconds:120}")
+    private int defaultServiceTimeSeconds;
+
+    @Value("${route-optimizer.starts:8}")
+    private int starts;
+
+    @Value("${route-optimizer.time-limit-ms:1500}")
+    private long timeLimitMs;
+
+    public RouteOptimizationService(DeliverySessionRepository sessionRepository,
+                                    DeliveryAssignmentRepository assignmentRepository,
+                                    ParcelReplicaService parcelReplicaService,
+                                    DistanceMatrixService distanceMatrixService,
+                                    @Value("${route-optimizer.parallelism:0}") int parallelism) {
+        this.sessionRepository = sessionRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.parcelReplicaService = parcelReplicaService;
+        this.distanceMatrixService = distanceMatrixService;
+        this.optimizerPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.routeOptimizer = new RouteOptimizer(optimizerPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        optimizerPool.shutdown();
+    }
+
+    @Override
+    public OptimizedRouteResponse optimizeSessionRoute(UUID sessionId, OptimizeRouteRequest request) {
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new ResourceNotFound("Session not found: " + sessionId);
+        }
+        long started = System.nanoTime();
+        LocalDateTime departure = request.getDepartureTime() != null ? request.getDepartureTime() : LocalDateTime.now();
+        int serviceSeconds = request.getServiceTimeSeconds() != null ? request.getServiceTimeSeconds() : defaultServiceTimeSeconds;
+
+        List<DeliveryAssignment> assignments = assignmentRepository.findBySession_IdAndStatus(sessionId, AssignmentStatus.IN_PROGRESS);
+        Map<String, ParcelInfo> parcels = parcelReplicaService.findParcelInfos(
+            assignments.stream().map(DeliveryAssignment::getParcelId).distinct().toList());
+
+        List<DeliveryAssignment> routable = new ArrayList<>();
+        List<DeliveryAssignment> unroutable = new ArrayList<>();
+        for (DeliveryAssignment assignment : assignments) {
+            ParcelInfo parcel = parcels.get(assignment.getParcelId());
+            if (parcel != null && parcel.getLat() != null && parcel.getLon() != null) {
+                routable.add(assignment);
+            } else {
+                unroutable.add(assignment);
+            }
+        }
+
+        int n = routable.size();
+        double[] lat = new double[n + 1];
+        double[] lon = new double[n + 1];
+        double[] service = new double[n + 1];
+        double[] open = new double[n + 1];
+        double[] close = new double[n + 1];
+        double[] demand = new double[n + 1];
+        lat[0] = request.getStartLat();
+        lon[0] = request.getStartLon();
+        close[0] = RoutingProblem.NO_WINDOW_CLOSE;
+        double totalWeight = 0;
+        List<ParcelInfo> stopParcels = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            ParcelInfo parcel = parcels.get(routable.get(i - 1).getParcelId());
+            stopParcels.add(parcel);
+            lat[i] = parcel.getLat().doubleValue();
+            lon[i] = parcel.getLon().doubleValue();
+            service[i] = serviceSeconds;
+            open[i] = parcel.getWindowStart() != null ? Math.max(0, secondsFrom(departure, parcel.getWindowStart())) : 0;
+            close[i] = parcel.getWindowEnd() != null ? Math.max(0, secondsFrom(departure, parcel.getWindowEnd())) : RoutingProblem.NO_WINDOW_CLOSE;
+            demand[i] = parcel.getWeight();
+            totalWeight += parcel.getWeight();
+        }
+        for (DeliveryAssignment assignment : unroutable) {
+            ParcelInfo parcel = parcels.get(assignment.getParcelId());
+            totalWeight += parcel != null ? parcel.getWeight() : 0;
+        }
+
+        double capacity = request.getCapacityKg() != null ? request.getCapacityKg() : 0;
+        RoutingProblem problem = new RoutingProblem(n, travelMatrix(stopParcels, lat, lon), service, open, close, demand, capacity);
+        RouteSolution solution = routeOptimizer.optimize(problem, starts, timeLimitMs, sessionId.getLeastSignificantBits());
+
+        List<OptimizedRouteResponse.Stop> stops = new ArrayList<>(assignments.size());
+        int[] order = solution.order();
+        for (int i = 0; i < order.length; i++) {
+            int node = order[i];
+            DeliveryAssignment assignment = routable.get(node - 1);
+            ParcelInfo parcel = parcels.get(assignment.getParcelId());
+            double arrival = solution.arrivalSeconds()[i];
+            stops.add(OptimizedRouteResponse.Stop.builder()
+                .sequence(i + 1)
+                .assignmentId(assignment.getId())
+                .parcelId(assignment.getParcelId())
+                .parcelCode(parcel.getCode())
+                .lat(lat[node])
+                .lon(lon[node])
+                .estimatedArrival(departure.plusSeconds((long) arrival))
+                .late(arrival > close[node])
+                .build());
+        }
+        for (DeliveryAssignment assignment : unroutable) {
+            ParcelInfo parcel = parcels.get(assignment.getParcelId());
+            stops.add(OptimizedRouteResponse.Stop.builder()
+                .sequence(stops.size() + 1)
+                .assignmentId(assignment.getId())
+                .parcelId(assignment.getParcelId())
+                .parcelCode(parcel != null ? parcel.getCode() : null)
+                .unroutable(true)
+                .build());
+        }
+
+        long computeMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Optimized route for session {}: {} stops ({} unroutable), travel {}s, {} late, {}ms",
+            sessionId, stops.size(), unroutable.size(), (long) solution.travelSeconds(), solution.lateStops(), computeMillis);
+
+        return OptimizedRouteResponse.builder()
+            .sessionId(sessionId)
+            .departureTime(departure)
+            .stops(stops)
+            .totalTravelSeconds(solution.travelSeconds())
+            .totalLatenessSeconds(solution.latenessSeconds())
+            .lateStops(solution.lateStops())
+            .totalWeightKg(totalWeight)
+            .capacityExceeded(capacity > 0 && totalWeight > capacity)
+            .computeMillis(computeMillis)
+            .build();
+    }
+
+    /**
+     * Ma trận thời gian di chuyển (giây) giữa các điểm, node 0 là vị trí xuất phát.
+     * Các cặp điểm giao có destinationId được thay bằng thời gian đường đi thực tế nếu lấy được.
+     */
+    private double[] travelMatrix(List<ParcelInfo> stopParcels, double[] lat, double[] lon) {
+        double[] matrix = estimatedTravelMatrix(lat, lon);
+        if (stopParcels.size() < 2 || stopParcels.stream().anyMatch(parcel -> parcel.getDestinationId() == null)) {
+            return matrix;
+        }
+        List<MatrixLocation> locations = new ArrayList<>(stopParcels.size());
+        for (int i = 1; i < lat.length; i++) {
+            locations.add(new MatrixLocation(stopParcels.get(i - 1).getDestinationId(), lat[i], lon[i]));
+        }
+        int nodes = lat.length;
+        distanceMatrixService.submatrix(locations).ifPresent(road -> {
+            for (int i = 1; i < nodes; i++) {
+                for (int j = 1; j < nodes; j++) {
+                    float seconds = road.duration(i - 1, j - 1);
+                    if (i != j && Float.isFinite(seconds)) {
+                        matrix[i * nodes + j] = seconds;
+                    }
+                }
+            }
+        });
+        return matrix;
+    }
+
+    private double[] estimatedTravelMatrix(double[] lat, double[] lon) {
+        int nodes = lat.length;
+        double metersPerSecond = averageSpeedKmh / 3.6;
+        double[] matrix = new double[nodes * nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = i + 1; j < nodes; j++) {
+                double seconds = haversineMeters(lat[i], lon[i], lat[j], lon[j]) * detourFactor / metersPerSecond;
+                matrix[i * nodes + j] = seconds;
+                matrix[j * nodes + i] = seconds;
+            }
+        }
+        return matrix;
+    }
+
+    private static long secondsFrom(LocalDateTime departure, LocalTime time) {
+        return Duration.between(departure, departure.toLocalDate().atTime(time)).getSeconds();
+    }
+
+    static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
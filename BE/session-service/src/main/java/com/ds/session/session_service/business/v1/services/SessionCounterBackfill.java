@@ -0,0 +1,30 @@
+package com.ds.session.session_service.business.v1.services;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ds.session.session_service.app_context.repositories.DeliverySessionRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tính lại bộ đếm task (total/completed/failed) cho các phiên được tạo trước khi có các cột đếm.
+ * Chỉ chạm vào các phiên có total_tasks = 0 nên lần khởi động sau gần như không tốn chi phí.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionCounterBackfill {
+
+    private final DeliverySessionRepository sessionRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int updated = sessionRepository.backfillTaskCounters();
+        log.info("Session task counters backfilled for {} sessions", updated);
+    }
+}
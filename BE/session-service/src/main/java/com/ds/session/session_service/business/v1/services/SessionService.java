@@ -1,12 +1,14 @@
 package com.ds.session.session_service.business.v1.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ds.session.session_service.app_context.models.DeliveryAssignment;
 import com.ds.session.session_service.app_context.models.DeliverySession;
@@ -16,13 +18,20 @@ import com.ds.session.session_service.application.client.parcelclient.ParcelServ
 import com.ds.session.session_service.application.client.parcelclient.response.ParcelResponse;
 import com.ds.session.session_service.common.entities.dto.request.CreateSessionRequest;
 import com.ds.session.session_service.common.entities.dto.response.AssignmentResponse;
+import com.ds.session.session_service.common.entities.dto.response.DeliveryAssignmentResponse;
+import com.ds.session.session_service.common.entities.dto.response.SessionCountersResponse;
 import com.ds.session.session_service.common.entities.dto.response.SessionResponse;
 import com.ds.session.session_service.common.enums.AssignmentStatus;
 import com.ds.session.session_service.common.enums.ParcelEvent;
 import com.ds.session.session_service.common.enums.SessionStatus;
+import com.ds.session.session_service.common.exceptions.ParcelServiceUnavailableException;
 import com.ds.session.session_service.common.exceptions.ResourceNotFound;
+import com.ds.session.session_service.common.interfaces.IAssignmentDeltaPublisher;
+import com.ds.session.session_service.common.interfaces.IEtaService;
 import com.ds.session.session_service.common.interfaces.ISessionService;
+import com.ds.session.session_service.common.mapper.ParcelMapper;
 
+import feign.FeignException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -36,85 +45,272 @@ public class SessionService implements ISessionService {
     private final DeliverySessionRepository sessionRepository;
     private final DeliveryAssignmentRepository assignmentRepository;
     private final ParcelServiceClient parcelApiClient; 
-
-
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final IEtaService etaService;
+    private final IAssignmentDeltaPublisher deltaPublisher;
+    private final ParcelMapper parcelMapper;
+
+    private static final String PARCEL_STATUS_IN_WAREHOUSE = "IN_WAREHOUSE";
+    private static final String PARCEL_STATUS_ON_ROUTE = "ON_ROUTE";
+
+
+    /**
+     * Luồng quét QR rút gọn (1 lần gọi Parcel-Service cho mỗi lượt quét):
+     * 1. Giữ chỗ task trong DB bằng một transaction ngắn (phiên lấy từ ActiveSessionRegistry).
+     *    Đơn đang nằm trong phiên hoạt động của shipper khác bị từ chối ngay ở bước này.
+     * 2. Gọi Parcel-Service chuyển trạng thái có điều kiện IN_WAREHOUSE -> ON_ROUTE, NGOÀI transaction.
+     * 3. Parcel-Service từ chối dứt khoát (4xx): bù trừ (xóa task vừa giữ chỗ, xóa phiên nếu vừa tạo và rỗng).
+     *    Lỗi không rõ kết quả (timeout, 5xx): hỏi lại trạng thái đơn rồi mới quyết định; nếu vẫn không biết
+     *    thì giữ task (đánh dấu chưa xác nhận) và ném ParcelServiceUnavailableException để client quét lại.
+     * Quét lại đơn đã có trong phiên của chính shipper: trả về task hiện có, không gọi mạng,
+     * trừ khi task còn đánh dấu chưa xác nhận.
+     */
     @Override
-    @Transactional
     public AssignmentResponse acceptParcelToSession(String deliveryManId, String parcelId) {
         log.info("Processing scan for parcel {} by shipper {}", parcelId, deliveryManId);
 
-        // 1. Kiểm tra trạng thái đơn hàng từ ParcelService
-        ParcelResponse parcelInfo = parcelApiClient.fetchParcelResponse(parcelId);
-        if (parcelInfo == null || !"IN_WAREHOUSE".equals(parcelInfo.getStatus())) {
-            throw new IllegalStateException("Parcel " + parcelId + " is not IN_WAREHOUSE or does not exist. Current status: " + (parcelInfo != null ? parcelInfo.getStatus() : "N/A"));
+        // 1. Giữ chỗ task (transaction ngắn, không gọi HTTP bên trong).
+        // Khóa theo shipper bao trùm cả commit: các lượt quét đầu tiên đồng thời chỉ tạo ra MỘT phiên.
+        ScanReservation reservation = activeSessionRegistry.withShipperLock(deliveryManId, () -> {
+            ScanReservation reserved = transactionTemplate.execute(status -> reserveAssignment(deliveryManId, parcelId));
+            if (reserved.sessionCreated()) {
+                activeSessionRegistry.register(deliveryManId, reserved.sessionId());
+            }
+            return reserved;
+        });
+        if (reservation.alreadyScanned() && !reservation.statusPending()) {
+            log.warn("Parcel {} already in this active session. Returning existing task.", parcelId);
+            return reservation.response();
         }
 
-        // 2. Kiểm tra xem đơn hàng này đã thuộc một phiên (session) ĐANG HOẠT ĐỘNG
-        // của BẤT KỲ shipper nào khác chưa.
-        Optional<DeliveryAssignment> existingActiveAssignment = assignmentRepository.findActiveByParcelId(parcelId, SessionStatus.IN_PROGRESS);
-        if (existingActiveAssignment.isPresent()) {
-            // Nếu đơn hàng đã được gán cho chính shipper này (quét lại)
-            if (existingActiveAssignment.get().getSession().getDeliveryManId().equals(deliveryManId)) {
-                log.warn("Parcel {} already in this active session. Returning existing task.", parcelId);
-                return toAssignmentResponse(existingActiveAssignment.get());
+        // 2. Một lần gọi duy nhất: Parcel-Service kiểm tra IN_WAREHOUSE và chuyển sang ON_ROUTE nguyên tử
+        ParcelResponse parcel;
+        try {
+            parcel = parcelApiClient.changeParcelStatusIfCurrent(parcelId, ParcelEvent.SCAN_QR, PARCEL_STATUS_IN_WAREHOUSE);
+            if (reservation.statusPending()) {
+                setStatusPending(reservation, false);
+            }
+        } catch (FeignException e) {
+            // Quét lại task chưa xác nhận: 4xx có thể là do lần gọi trước đã chuyển đơn sang ON_ROUTE
+            if (e.status() >= 400 && e.status() < 500 && !reservation.statusPending()) {
+                log.warn("Parcel-Service rejected scan of parcel {} ({}): {}", parcelId, e.status(), e.getMessage());
+                compensateReservation(deliveryManId, reservation);
+                throw new IllegalStateException(e.status() == 404
+                    ? "Parcel " + parcelId + " does not exist"
+                    : "Parcel " + parcelId + " is not IN_WAREHOUSE", e);
             }
-            // Nếu đơn hàng bị gán cho shipper khác
+            parcel = resolveAmbiguousScan(deliveryManId, parcelId, reservation, e);
+        }
+
+        log.info("Successfully added parcel {} to session {}.", parcelId, reservation.sessionId());
+        if (parcel != null) {
+            deltaPublisher.assignmentAdded(deliveryManId, toDeliveryAssignmentResponse(deliveryManId, reservation, parcelMapper.toParcelInfo(parcel)));
+        } else {
+            // Không có thông tin đơn để đẩy: báo app tải lại danh sách
+            deltaPublisher.sessionStarted(deliveryManId, reservation.sessionId());
+        }
+        return reservation.response();
+    }
+
+    /**
+     * Task vừa quét, cùng dạng với danh sách /tasks/today (thông tin đơn lấy từ phản hồi của Parcel-Service).
+     */
+    private DeliveryAssignmentResponse toDeliveryAssignmentResponse(String deliveryManId, ScanReservation reservation, ParcelInfo parcel) {
+        AssignmentResponse assignment = reservation.response();
+        return DeliveryAssignmentResponse.builder()
+            .sessionId(reservation.sessionId().toString())
+            .parcelId(assignment.getParcelId())
+            .parcelCode(parcel.getCode())
+            .deliveryType(parcel.getDeliveryType())
+            .status(assignment.getStatus().name())
+            .deliveryManAssignedId(deliveryManId)
+            .receiverId(parcel.getReceiverId())
+            .receiverPhone(parcel.getReceiverPhoneNumber())
+            .deliveryLocation(parcel.getTargetDestination())
+            .value(parcel.getValue())
+            .weight(parcel.getWeight())
+            .createdAt(assignment.getScanedAt())
+            .completedAt(assignment.getUpdatedAt())
+            .failReason(assignment.getFailReason())
+            .lat(parcel.getLat())
+            .lon(parcel.getLon())
+            .build();
+    }
+
+    private ScanReservation reserveAssignment(String deliveryManId, String parcelId) {
+        Optional<UUID> activeSessionId = activeSessionRegistry.findActiveSessionId(deliveryManId);
+
+        // Quét lại đơn đã có trong phiên hiện tại của chính shipper này
+        if (activeSessionId.isPresent()) {
+            Optional<DeliveryAssignment> existing = assignmentRepository.findBySession_IdAndParcelId(activeSessionId.get(), parcelId);
+            if (existing.isPresent()) {
+                return new ScanReservation(activeSessionId.get(), existing.get().getId(), false, true,
+                    existing.get().isParcelStatusPending(), toAssignmentResponse(existing.get()));
+            }
+        }
+
+        // Đơn đã thuộc một phiên ĐANG HOẠT ĐỘNG của shipper khác
+        if (isHeldByAnotherSession(parcelId, activeSessionId.orElse(null))) {
             throw new IllegalStateException("Parcel " + parcelId + " is already in an active session of another delivery man.");
         }
-        
-        // 3. Tìm phiên (session) đang IN_PROGRESS của shipper này
-        Optional<DeliverySession> activeSessionOpt = sessionRepository.findByDeliveryManIdAndStatus(deliveryManId, SessionStatus.IN_PROGRESS);
 
         DeliverySession sessionToUse;
-
-        if (activeSessionOpt.isEmpty()) {
-            // 4a. Logic: "scan đơn đầu tiên sẽ tạo phiên"
+        boolean sessionCreated = activeSessionId.isEmpty();
+        if (sessionCreated) {
+            // Logic: "scan đơn đầu tiên sẽ tạo phiên"
             log.info("No active session found for shipper {}. Creating a new session.", deliveryManId);
-            sessionToUse = DeliverySession.builder()
+            sessionToUse = sessionRepository.save(DeliverySession.builder()
                 .deliveryManId(deliveryManId)
                 .status(SessionStatus.IN_PROGRESS)
                 .startTime(LocalDateTime.now())
-                .build();
+                .totalTasks(1)
+                .build());
         } else {
-            // 4b. Logic: "scan mới thì add thêm task vào phiên"
-            log.info("Found active session {} for shipper {}. Adding task.", activeSessionOpt.get().getId(), deliveryManId);
-            sessionToUse = activeSessionOpt.get();
+            // Logic: "scan mới thì add thêm task vào phiên" (không cần nạp cả danh sách task của phiên)
+            sessionToUse = sessionRepository.getReferenceById(activeSessionId.get());
+            sessionRepository.adjustTaskCounters(sessionToUse.getId(), 1, 0, 0);
         }
 
-        // 5. Tạo Assignment (Task) mới
-        DeliveryAssignment newAssignment = DeliveryAssignment.builder()
+        DeliveryAssignment newAssignment = assignmentRepository.save(DeliveryAssignment.builder()
+            .session(sessionToUse)
             .parcelId(parcelId)
             .status(AssignmentStatus.IN_PROGRESS)
             .scanedAt(LocalDateTime.now())
-            .build();
-        
-        // 6. Liên kết task vào session
-        sessionToUse.addAssignment(newAssignment);
+            .build());
 
-        // 7. Gọi Parcel-Service để cập nhật trạng thái đơn hàng
+        return new ScanReservation(sessionToUse.getId(), newAssignment.getId(), sessionCreated, false, false, toAssignmentResponse(newAssignment));
+    }
+
+    /**
+     * Lần gọi chuyển trạng thái không có kết quả rõ ràng (timeout, 5xx): đọc lại trạng thái đơn.
+     * - ON_ROUTE và không phiên hoạt động nào khác giữ đơn: lần gọi trước đã thành công, giữ task.
+     * - ON_ROUTE nhưng phiên của shipper khác cũng giữ đơn: đơn thuộc về lượt quét kia, bù trừ.
+     * - Trạng thái khác IN_WAREHOUSE: đơn không quét được, bù trừ.
+     * - IN_WAREHOUSE: chưa chuyển, bù trừ và ném lỗi tạm thời để client quét lại.
+     * - Không đọc được: giữ task, đánh dấu chưa xác nhận và ném lỗi tạm thời; lần quét lại sẽ gọi
+     *   chuyển trạng thái lần nữa.
+     */
+    private ParcelResponse resolveAmbiguousScan(String deliveryManId, String parcelId, ScanReservation reservation, FeignException cause) {
+        log.warn("Scan of parcel {} got no definitive answer from Parcel-Service: {}", parcelId, cause.getMessage());
+        ParcelResponse current;
         try {
-            parcelApiClient.changeParcelStatus(parcelId, ParcelEvent.SCAN_QR);
+            current = parcelApiClient.fetchParcelResponse(parcelId);
         } catch (Exception e) {
-            log.error("Failed to call Parcel-Service for parcel {}: {}", parcelId, e.getMessage());
-            throw new RuntimeException("Failed to update parcel status via API: " + e.getMessage(), e);
+            log.warn("Could not read state of parcel {}, keeping reservation {}: {}", parcelId, reservation.assignmentId(), e.getMessage());
+            if (!reservation.statusPending()) {
+                setStatusPending(reservation, true);
+            }
+            throw new ParcelServiceUnavailableException("Parcel-Service unavailable, please scan parcel " + parcelId + " again", cause);
+        }
+        String status = current != null ? current.getStatus() : null;
+        if (PARCEL_STATUS_ON_ROUTE.equals(status)) {
+            if (isHeldByAnotherSession(parcelId, reservation.sessionId())) {
+                log.warn("Parcel {} is ON_ROUTE but held by another active session, releasing reservation {}", parcelId, reservation.assignmentId());
+                compensateReservation(deliveryManId, reservation);
+                throw new IllegalStateException("Parcel " + parcelId + " is already in an active session of another delivery man.", cause);
+            }
+            if (reservation.statusPending()) {
+                setStatusPending(reservation, false);
+            }
+            return current;
+        }
+        compensateReservation(deliveryManId, reservation);
+        if (PARCEL_STATUS_IN_WAREHOUSE.equals(status)) {
+            throw new ParcelServiceUnavailableException("Parcel-Service unavailable, please scan parcel " + parcelId + " again", cause);
         }
+        throw new IllegalStateException("Parcel " + parcelId + " is not IN_WAREHOUSE", cause);
+    }
+
+    /**
+     * Đơn có nằm trong một phiên IN_PROGRESS khác sessionId không (sessionId null: bất kỳ phiên nào).
+     */
+    private boolean isHeldByAnotherSession(String parcelId, UUID sessionId) {
+        return assignmentRepository.findAllActiveByParcelId(parcelId, SessionStatus.IN_PROGRESS).stream()
+            .anyMatch(assignment -> !assignment.getSession().getId().equals(sessionId));
+    }
 
-        // 8. Lưu session (và task mới sẽ được lưu theo nhờ CascadeType.ALL)
-        sessionRepository.save(sessionToUse);
-        log.info("Successfully added parcel {} to session {}.", parcelId, sessionToUse.getId());
+    private void setStatusPending(ScanReservation reservation, boolean pending) {
+        try {
+            transactionTemplate.execute(status -> assignmentRepository.updateParcelStatusPending(reservation.assignmentId(), pending));
+        } catch (Exception e) {
+            log.error("Failed to mark scan reservation {} pending={}: {}", reservation.assignmentId(), pending, e.getMessage());
+        }
+    }
 
-        // Trả về task vừa được tạo
-        return toAssignmentResponse(newAssignment);
+    private void compensateReservation(String deliveryManId, ScanReservation reservation) {
+        try {
+            // Cùng khóa với bước giữ chỗ: không xóa phiên trong lúc lượt quét khác đang thêm task vào nó
+            activeSessionRegistry.withShipperLock(deliveryManId, () -> transactionTemplate.execute(status -> {
+                assignmentRepository.deleteById(reservation.assignmentId());
+                if (reservation.sessionCreated() && assignmentRepository.countBySession_Id(reservation.sessionId()) == 0) {
+                    sessionRepository.deleteById(reservation.sessionId());
+                    activeSessionRegistry.evictAfterCommit(deliveryManId, reservation.sessionId());
+                } else {
+                    sessionRepository.adjustTaskCounters(reservation.sessionId(), -1, 0, 0);
+                }
+                return null;
+            }));
+        } catch (Exception e) {
+            log.error("Failed to compensate scan reservation {} of shipper {}: {}", reservation.assignmentId(), deliveryManId, e.getMessage());
+        }
     }
 
+    /**
+     * Kết quả bước giữ chỗ của luồng quét QR.
+     */
+    private record ScanReservation(
+        UUID sessionId,
+        UUID assignmentId,
+        boolean sessionCreated,
+        boolean alreadyScanned,
+        boolean statusPending,
+        AssignmentResponse response
+    ) {}
+
 
     @Override
-    @Transactional
     public SessionResponse createSession(CreateSessionRequest request) {
         log.info("Creating new session for delivery man: {}", request.getDeliveryManId());
+        // Cùng khóa với luồng quét QR, bao trùm cả commit: kiểm tra "chưa có phiên" và insert không bị xen giữa
+        SessionResponse response = activeSessionRegistry.withShipperLock(request.getDeliveryManId(),
+            () -> transactionTemplate.execute(status -> createSessionLocked(request)));
+        // Đã commit và đã nhả khóa: mới gọi Parcel-Service
+        markParcelsOnRoute(response);
+        return response;
+    }
 
+    /**
+     * Báo Parcel-Service các đơn của phiên vừa tạo đã ON_ROUTE, ngoài transaction và ngoài khóa shipper
+     * (lượt quét / tạo phiên khác của shipper không phải chờ mạng).
+     * Task được tạo ở trạng thái chưa xác nhận: gọi thành công thì bỏ đánh dấu; thất bại thì giữ đánh dấu,
+     * lần quét lại đơn sẽ gọi chuyển trạng thái lần nữa như luồng quét QR.
+     */
+    private void markParcelsOnRoute(SessionResponse session) {
+        List<UUID> confirmed = new ArrayList<>(session.getAssignments().size());
+        for (AssignmentResponse assignment : session.getAssignments()) {
+            try {
+                parcelApiClient.changeParcelStatus(assignment.getParcelId(), ParcelEvent.SCAN_QR);
+                confirmed.add(assignment.getId());
+            } catch (Exception e) {
+                log.error("Failed to mark parcel {} of session {} ON_ROUTE, left pending until re-scan: {}",
+                    assignment.getParcelId(), session.getId(), e.getMessage());
+            }
+        }
+        if (confirmed.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> assignmentRepository.clearParcelStatusPending(confirmed));
+        } catch (Exception e) {
+            // Cờ còn bật chỉ làm lần quét lại gọi Parcel-Service thêm một lần
+            log.error("Failed to clear pending flag of session {} tasks: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private SessionResponse createSessionLocked(CreateSessionRequest request) {
         // 1. Kiểm tra xem shipper đã có phiên IN_PROGRESS nào chưa
-        sessionRepository.findByDeliveryManIdAndStatus(request.getDeliveryManId(), SessionStatus.IN_PROGRESS)
+        activeSessionRegistry.findActiveSessionId(request.getDeliveryManId())
             .ifPresent(session -> {
                 throw new IllegalStateException("Delivery man " + request.getDeliveryManId() + " already has an active session.");
             });
@@ -126,30 +322,24 @@ public class SessionService implements ISessionService {
             .startTime(LocalDateTime.now())
             .build();
 
-        // 3. Tạo các Assignment (Task) con
+        // 3. Tạo các Assignment (Task) con, chưa xác nhận cho tới khi Parcel-Service nhận ON_ROUTE (sau commit)
         for (String parcelId : request.getParcelIds()) {
             DeliveryAssignment assignment = DeliveryAssignment.builder()
                 .parcelId(parcelId)
                 .status(AssignmentStatus.IN_PROGRESS)
                 .scanedAt(LocalDateTime.now())
+                .parcelStatusPending(true)
                 .build();
             
             // Dùng hàm helper để liên kết 2 chiều
             session.addAssignment(assignment);
-
-            // 4. TODO: Báo cho Parcel-Service biết đơn hàng này đã ON_ROUTE
-            try {
-                parcelApiClient.changeParcelStatus(parcelId, ParcelEvent.SCAN_QR);
-            } catch (Exception e) {
-                // Xử lý nếu gọi API thất bại (ví dụ: dùng @Retryable)
-                log.error("Failed to call Parcel-Service for parcel {}: {}", parcelId, e.getMessage());
-                throw new RuntimeException("Failed to update parcel status via API: " + e.getMessage(), e);
-            }
         }
         
-        // 5. Lưu Session (và các Assignment con nhờ CascadeType.ALL)
+        // 4. Lưu Session (và các Assignment con nhờ CascadeType.ALL)
         DeliverySession savedSession = sessionRepository.save(session);
         log.info("Session {} created with {} tasks.", savedSession.getId(), savedSession.getAssignments().size());
+        activeSessionRegistry.registerAfterCommit(savedSession.getDeliveryManId(), savedSession.getId());
+        deltaPublisher.sessionStarted(savedSession.getDeliveryManId(), savedSession.getId());
 
         return toSessionResponse(savedSession);
     }
@@ -175,6 +365,9 @@ public class SessionService implements ISessionService {
         session.setStatus(SessionStatus.COMPLETED);
         session.setEndTime(LocalDateTime.now());
         DeliverySession savedSession = sessionRepository.save(session);
+        activeSessionRegistry.evictAfterCommit(savedSession.getDeliveryManId(), savedSession.getId());
+        etaService.onSessionEnded(savedSession.getId());
+        deltaPublisher.sessionEnded(savedSession.getDeliveryManId(), savedSession.getId(), savedSession.getStatus());
         
         // Xử lý các task DELAYED
         // Báo cho Parcel-Service chuyển các đơn DELAYED về IN_WAREHOUSE
@@ -209,6 +402,9 @@ public class SessionService implements ISessionService {
         session.setEndTime(LocalDateTime.now());
         
         DeliverySession savedSession = sessionRepository.save(session);
+        activeSessionRegistry.evictAfterCommit(savedSession.getDeliveryManId(), savedSession.getId());
+        etaService.onSessionEnded(savedSession.getId());
+        deltaPublisher.sessionEnded(savedSession.getDeliveryManId(), savedSession.getId(), savedSession.getStatus());
 
         // 3. Xử lý tất cả các task còn lại
         List<DeliveryAssignment> pendingTasks = assignmentRepository.findBySession_IdAndStatus(sessionId, AssignmentStatus.IN_PROGRESS);
@@ -225,8 +421,11 @@ public class SessionService implements ISessionService {
                 log.error("Failed to call Parcel-Service for parcel {}: {}", task.getParcelId(), e.getMessage());
             }
         }
-        
-        return toSessionResponse(savedSession);
+        // Cộng dồn nguyên tử trong DB (không ghi đè lượt cập nhật task song song); bản trong bộ nhớ chỉ dùng cho phản hồi
+        sessionRepository.adjustTaskCounters(sessionId, 0, 0, pendingTasks.size());
+        SessionResponse response = toSessionResponse(savedSession);
+        response.setFailedTasks(savedSession.getFailedTasks() + pendingTasks.size());
+        return response;
     }
 
     @Override
@@ -236,28 +435,53 @@ public class SessionService implements ISessionService {
         return toSessionResponse(session);
     }
 
+    @Override
+    public SessionResponse getActiveSession(String deliveryManId) {
+        UUID sessionId = activeSessionRegistry.findActiveSessionId(deliveryManId)
+            .orElseThrow(() -> new ResourceNotFound("No active session for delivery man " + deliveryManId));
+        return getSessionById(sessionId);
+    }
+
+    @Override
+    public AssignmentResponse getAssignmentInSession(UUID sessionId, UUID assignmentId) {
+        DeliveryAssignment assignment = assignmentRepository.findByIdAndSession_Id(assignmentId, sessionId)
+            .orElseThrow(() -> new ResourceNotFound("Assignment " + assignmentId + " not found in session " + sessionId));
+        return toAssignmentResponse(assignment);
+    }
+
+    @Override
+    public SessionCountersResponse getSessionCounters(UUID sessionId) {
+        DeliverySession session = sessionRepository.findById(sessionId)
+            .orElseThrow(() -> new ResourceNotFound("Session not found: " + sessionId));
+        return SessionCountersResponse.builder()
+            .id(session.getId())
+            .deliveryManId(session.getDeliveryManId())
+            .status(session.getStatus())
+            .startTime(session.getStartTime())
+            .endTime(session.getEndTime())
+            .totalTasks(session.getTotalTasks())
+            .completedTasks(session.getCompletedTasks())
+            .failedTasks(session.getFailedTasks())
+            .build();
+    }
+
     // --- HELPER MAPPERS ---
 
     private SessionResponse toSessionResponse(DeliverySession session) {
         List<AssignmentResponse> assignmentResponses = session.getAssignments().stream()
             .map(this::toAssignmentResponse)
             .collect(Collectors.toList());
-        
-        long completedTasks = session.getAssignments().stream()
-            .filter(a -> a.getStatus() == AssignmentStatus.COMPLETED).count();
-            
-        long failedTasks = session.getAssignments().stream()
-            .filter(a -> a.getStatus() == AssignmentStatus.FAILED).count();
 
+        // Tổng số task lấy từ bộ đếm được duy trì trên phiên, không cần duyệt lại danh sách
         return SessionResponse.builder()
             .id(session.getId())
             .deliveryManId(session.getDeliveryManId())
             .status(session.getStatus())
             .startTime(session.getStartTime())
             .endTime(session.getEndTime())
-            .totalTasks(session.getAssignments().size())
-            .completedTasks((int) completedTasks)
-            .failedTasks((int) failedTasks)
+            .totalTasks(session.getTotalTasks())
+            .completedTasks(session.getCompletedTasks())
+            .failedTasks(session.getFailedTasks())
             .assignments(assignmentResponses)
             .build();
     }
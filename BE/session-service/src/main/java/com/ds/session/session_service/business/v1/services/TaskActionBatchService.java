@@ -0,0 +1,238 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.session.session_service.app_context.models.ProcessedTaskAction;
+import com.ds.session.session_service.app_context.repositories.ProcessedTaskActionRepository;
+import com.ds.session.session_service.common.entities.dto.request.RouteInfo;
+import com.ds.session.session_service.common.entities.dto.request.TaskActionBatchRequest;
+import com.ds.session.session_service.common.entities.dto.response.TaskActionBatchResponse;
+import com.ds.session.session_service.common.enums.TaskActionOutcome;
+import com.ds.session.session_service.common.enums.TaskActionType;
+import com.ds.session.session_service.common.exceptions.ParcelServiceUnavailableException;
+import com.ds.session.session_service.common.exceptions.ResourceNotFound;
+import com.ds.session.session_service.common.interfaces.IDeliveryAssignmentService;
+import com.ds.session.session_service.common.interfaces.ISessionService;
+import com.ds.session.session_service.common.interfaces.ITaskActionBatchService;
+
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Xử lý lô hành động từ outbox của app shipper (quét đơn, hoàn thành, thất bại, từ chối, hoãn).
+ * - Áp dụng theo thứ tự clientTimestamp (thứ tự shipper thao tác), lô của cùng shipper chạy tuần tự (khóa theo shipper).
+ * - Mỗi hành động chạy trong transaction riêng: một hành động lỗi không làm hỏng cả lô.
+ * - Idempotent theo actionId: kết quả APPLIED / REJECTED được lưu lại, gửi lại nhận DUPLICATE kèm kết quả cũ.
+ *   Hành động trên task và bản ghi APPLIED của nó commit trong CÙNG một transaction (không có trạng thái
+ *   "đã áp dụng nhưng chưa ghi nhận"). Riêng SCAN tự idempotent: quét lại đơn đã có trong phiên trả về task cũ.
+ * - Hành động trên task không gọi parcel-service trong transaction: trạng thái đơn được gửi sau commit
+ *   (ParcelStatusSyncService, gửi lại nếu lỗi).
+ * - Chỉ vi phạm nghiệp vụ (sai trạng thái, không có phiên, parcel-service từ chối lượt quét) mới là REJECTED.
+ *   Lỗi tạm thời (timeout/5xx từ parcel-service, DB...) trả RETRY và không lưu; các hành động sau của CÙNG đơn
+ *   trong lô cũng trả RETRY để giữ đúng thứ tự khi gửi lại.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskActionBatchService implements ITaskActionBatchService {
+
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final ProcessedTaskActionRepository processedTaskActionRepository;
+    private final IDeliveryAssignmentService assignmentService;
+    private final ISessionService sessionService;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${task-actions.retention-days:7}")
+    private int retentionDays;
+
+    @Override
+    public TaskActionBatchResponse applyBatch(UUID deliveryManId, TaskActionBatchRequest request) {
+        List<TaskActionBatchRequest.TaskAction> ordered = new ArrayList<>(request.getActions());
+        // Sắp xếp ổn định: cùng mốc thời gian giữ thứ tự gửi lên
+        ordered.sort(Comparator.comparingLong(TaskActionBatchRequest.TaskAction::getClientTimestamp));
+        return activeSessionRegistry.withShipperLock(deliveryManId.toString(), () -> applyInOrder(deliveryManId, ordered));
+    }
+
+    private TaskActionBatchResponse applyInOrder(UUID deliveryManId, List<TaskActionBatchRequest.TaskAction> actions) {
+        Map<UUID, ProcessedTaskAction> processed = new HashMap<>();
+        for (ProcessedTaskAction action : processedTaskActionRepository.findAllById(
+                actions.stream().map(TaskActionBatchRequest.TaskAction::getActionId).toList())) {
+            processed.put(action.getActionId(), action);
+        }
+
+        List<TaskActionBatchResponse.Result> results = new ArrayList<>(actions.size());
+        Set<UUID> seen = new HashSet<>();
+        Set<String> blockedParcels = new HashSet<>();
+        int applied = 0;
+        int rejected = 0;
+        int duplicates = 0;
+        int retry = 0;
+        for (TaskActionBatchRequest.TaskAction action : actions) {
+            ProcessedTaskAction previous = processed.get(action.getActionId());
+            if (previous != null || !seen.add(action.getActionId())) {
+                duplicates++;
+                results.add(result(action, TaskActionOutcome.DUPLICATE,
+                    previous != null ? previous.getOutcome() + ": " + previous.getMessage() : "Duplicate in batch"));
+                continue;
+            }
+            if (blockedParcels.contains(action.getParcelId())) {
+                retry++;
+                results.add(result(action, TaskActionOutcome.RETRY, "Waiting for an earlier action on the same parcel"));
+                continue;
+            }
+
+            try {
+                String message = applyAndRecord(deliveryManId, action);
+                applied++;
+                results.add(result(action, TaskActionOutcome.APPLIED, message));
+            } catch (RuntimeException e) {
+                if (!isRejection(e)) {
+                    log.warn("Action {} ({} parcel {}) of shipper {} will be retried: {}",
+                        action.getActionId(), action.getType(), action.getParcelId(), deliveryManId, e.getMessage());
+                    blockedParcels.add(action.getParcelId());
+                    retry++;
+                    results.add(result(action, TaskActionOutcome.RETRY, e.getMessage()));
+                    continue;
+                }
+                // Vi phạm nghiệp vụ: không có gì được áp dụng, gửi lại cũng không thành công
+                rejected++;
+                recordRejection(deliveryManId, action, e.getMessage());
+                results.add(result(action, TaskActionOutcome.REJECTED, e.getMessage()));
+            }
+        }
+
+        log.info("Task action batch of shipper {}: {} applied, {} rejected, {} duplicates, {} retry",
+            deliveryManId, applied, rejected, duplicates, retry);
+        return TaskActionBatchResponse.builder()
+            .results(results)
+            .applied(applied)
+            .rejected(rejected)
+            .duplicates(duplicates)
+            .retry(retry)
+            .build();
+    }
+
+    /**
+     * Áp dụng hành động và ghi nhận APPLIED. Với hành động trên task, transaction của service nghiệp vụ tham gia
+     * vào transaction này nên hai việc commit hoặc rollback cùng nhau; lỗi ghi nhận làm hành động không được áp dụng.
+     * SCAN tự quản lý transaction (giữ chỗ, gọi parcel-service, bù trừ) nên được ghi nhận sau.
+     */
+    private String applyAndRecord(UUID deliveryManId, TaskActionBatchRequest.TaskAction action) {
+        if (action.getType() == TaskActionType.SCAN) {
+            String message = execute(deliveryManId, action);
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(deliveryManId, action, TaskActionOutcome.APPLIED, message));
+            } catch (RuntimeException e) {
+                // Gửi lại sẽ nhận lại task đã có trong phiên (APPLIED), không bị áp dụng hai lần
+                log.error("Could not record processed scan {}: {}", action.getActionId(), e.getMessage());
+            }
+            return message;
+        }
+        return transactionTemplate.execute(status -> {
+            String message = execute(deliveryManId, action);
+            save(deliveryManId, action, TaskActionOutcome.APPLIED, message);
+            return message;
+        });
+    }
+
+    /**
+     * Lỗi do chính hành động (gửi lại cũng vậy) hay lỗi tạm thời của hạ tầng.
+     */
+    static boolean isRejection(RuntimeException e) {
+        if (e instanceof ParcelServiceUnavailableException) {
+            return false;
+        }
+        if (e instanceof FeignException feign) {
+            return feign.status() >= 400 && feign.status() < 500 && feign.status() != 408 && feign.status() != 429;
+        }
+        return e instanceof ResourceNotFound || e instanceof IllegalStateException || e instanceof IllegalArgumentException;
+    }
+
+    private String execute(UUID deliveryManId, TaskActionBatchRequest.TaskAction action) {
+        RouteInfo routeInfo = action.getRouteInfo() != null ? action.getRouteInfo() : new RouteInfo();
+        switch (action.getType()) {
+            case SCAN:
+                sessionService.acceptParcelToSession(deliveryManId.toString(), action.getParcelId());
+                return "Parcel added to session";
+            case COMPLETE:
+                return assignmentService.completeTask(UUID.fromString(action.getParcelId()), deliveryManId, routeInfo)
+                    .getStatus();
+            case FAIL:
+                if (action.getReason() == null || action.getReason().isBlank()) {
+                    throw new IllegalArgumentException("Reason is required");
+                }
+                return assignmentService.deliveryFailed(UUID.fromString(action.getParcelId()), deliveryManId,
+                    action.getReason(), routeInfo).getStatus();
+            case REFUSE:
+                return assignmentService.rejectedByCustomer(UUID.fromString(action.getParcelId()), deliveryManId,
+                    "Khách từ chối nhận", routeInfo).getStatus();
+            case POSTPONE:
+                return assignmentService.postponeByCustomer(UUID.fromString(action.getParcelId()), deliveryManId,
+                    "Khách yêu cầu hoãn với thời gian: " + action.getReason(), routeInfo).getStatus();
+            default:
+                throw new IllegalArgumentException("Unsupported action type: " + action.getType());
+        }
+    }
+
+    private void recordRejection(UUID deliveryManId, TaskActionBatchRequest.TaskAction action, String message) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(deliveryManId, action, TaskActionOutcome.REJECTED, message));
+        } catch (RuntimeException e) {
+            // Không có gì được áp dụng: gửi lại sẽ bị từ chối lần nữa với cùng lý do
+            log.error("Could not record rejected action {}: {}", action.getActionId(), e.getMessage());
+        }
+    }
+
+    private void save(UUID deliveryManId, TaskActionBatchRequest.TaskAction action, TaskActionOutcome outcome, String message) {
+        processedTaskActionRepository.save(ProcessedTaskAction.builder()
+            .actionId(action.getActionId())
+            .deliveryManId(deliveryManId.toString())
+            .parcelId(action.getParcelId())
+            .type(action.getType())
+            .outcome(outcome)
+            .message(message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message)
+            .clientTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(action.getClientTimestamp()), ZoneId.systemDefault()))
+            .processedAt(LocalDateTime.now())
+            .build());
+    }
+
+    private static TaskActionBatchResponse.Result result(TaskActionBatchRequest.TaskAction action,
+                                                         TaskActionOutcome outcome, String message) {
+        return TaskActionBatchResponse.Result.builder()
+            .actionId(action.getActionId())
+            .type(action.getType())
+            .parcelId(action.getParcelId())
+            .outcome(outcome)
+            .message(message)
+            .build();
+    }
+
+    /**
+     * Dọn các hành động đã xử lý quá thời gian lưu giữ (outbox trên thiết bị không giữ lâu hơn).
+     */
+    @Scheduled(fixedDelayString = "${task-actions.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = processedTaskActionRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} processed task actions older than {} days", deleted, retentionDays);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ds.session.session_service.business.v1.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ds.session.session_service.application.client.zoneclient.ZoneRoutingClient;
+import com.ds.session.session_service.application.client.zoneclient.request.MatrixRequest;
+import com.ds.session.session_service.application.client.zoneclient.response.MatrixResponse;
+import com.ds.session.session_service.application.client.zoneclient.response.ZoneBaseResponse;
+import com.ds.session.session_service.business.v1.routing.MatrixLocation;
+import com.ds.session.session_service.business.v1.routing.RoutingMatrixBackend;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lấy ma trận đường đi thực tế từ zone_service (POST /api/v1/routing/matrix -> OSRM table).
+ */
+@Component
+@RequiredArgsConstructor
+public class ZoneRoutingMatrixBackend implements RoutingMatrixBackend {
+
+    private final ZoneRoutingClient zoneRoutingClient;
+
+    @Value("${distance-matrix.vehicle:motorbike}")
+    private String vehicle;
+
+    @Value("${distance-matrix.mode:v2-full}")
+    private String mode;
+
+    @Override
+    public void fetch(List<MatrixLocation> sources, List<MatrixLocation> destinations, float[] durations, float[] distances) {
+        MatrixRequest request = MatrixRequest.builder()
+            .sources(sources.stream().map(ZoneRoutingMatrixBackend::toWaypoint).toList())
+            .destinations(destinations.stream().map(ZoneRoutingMatrixBackend::toWaypoint).toList())
+            .vehicle(vehicle)
+            .mode(mode)
+            .build();
+        ZoneBaseResponse<MatrixResponse> response = zoneRoutingClient.calculateMatrix(request);
+        MatrixResponse matrix = response != null ? response.getResult() : null;
+        if (matrix == null || matrix.getDurations() == null || matrix.getDurations().size() != sources.size()) {
+            throw new IllegalStateException("Invalid matrix response from zone-service");
+        }
+        int columns = destinations.size();
+        for (int r = 0; r < sources.size(); r++) {
+            List<Double> durationRow = matrix.getDurations().get(r);
+            List<Double> distanceRow = matrix.getDistances() != null ? matrix.getDistances().get(r) : null;
+            if (durationRow == null || durationRow.size() != columns) {
+                throw new IllegalStateException("Invalid matrix row " + r + " from zone-service");
+            }
+            for (int c = 0; c < columns; c++) {
+                durations[r * columns + c] = valueOf(durationRow.get(c));
+                distances[r * columns + c] = distanceRow != null ? valueOf(distanceRow.get(c)) : Float.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    private static MatrixRequest.Waypoint toWaypoint(MatrixLocation location) {
+        return new MatrixRequest.Waypoint(location.lat(), location.lon());
+    }
+
+    private static float valueOf(Double value) {
+        return value != null ? value.floatValue() : Float.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ds.session.session_service.common.entities.dto.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Yêu cầu chia các đơn IN_WAREHOUSE cho danh sách shipper đang làm việc.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchPlanRequest {
+
+    @NotEmpty(message = "shippers list cannot be empty")
+    @Valid
+    private List<Shipper> shippers;
+
+    /** Chỉ chia các đơn này (vẫn phải đang IN_WAREHOUSE); bỏ trống = tất cả đơn trong kho. */
+    private List<String> parcelIds;
+
+    /** Mức lệch cho phép so với phần chia đều theo tải trọng (0.15 = 15%); bỏ trống dùng cấu hình mặc định. */
+    @DecimalMin("0") @DecimalMax("2")
+    private Double balanceTolerance;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shipper {
+        @NotBlank(message = "deliveryManId is required")
+        private String deliveryManId;
+
+        /** DeliveryMan.vehicleType (MOTORBIKE, ...). */
+        private String vehicleType;
+
+        /** DeliveryMan.capacityKg */
+        @NotNull(message = "capacityKg is required")
+        @Positive
+        private Double capacityKg;
+
+        /** Số điểm giao tối đa của phiên; bỏ trống dùng cấu hình theo loại xe. */
+        @Positive
+        private Integer maxStops;
+    }
+}
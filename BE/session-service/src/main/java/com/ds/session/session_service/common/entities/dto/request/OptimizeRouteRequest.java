@@ -0,0 +1,40 @@
+package com.ds.session.session_service.common.entities.dto.request;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Yêu cầu sắp xếp lại thứ tự giao cho các task còn lại của phiên.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizeRouteRequest {
+    @NotNull(message = "startLat is required")
+    @DecimalMin("-90") @DecimalMax("90")
+    private Double startLat;
+
+    @NotNull(message = "startLon is required")
+    @DecimalMin("-180") @DecimalMax("180")
+    private Double startLon;
+
+    /** Thời điểm xuất phát (mặc định: hiện tại). */
+    private LocalDateTime departureTime;
+
+    /** Tải trọng của shipper (DeliveryMan.capacityKg); bỏ trống = không kiểm tra. */
+    @Positive
+    private Double capacityKg;
+
+    /** Thời gian phục vụ mỗi điểm (giây); bỏ trống dùng cấu hình mặc định. */
+    @Positive
+    private Integer serviceTimeSeconds;
+}
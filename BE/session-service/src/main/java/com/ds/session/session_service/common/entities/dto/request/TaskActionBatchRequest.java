@@ -0,0 +1,56 @@
+package com.ds.session.session_service.common.entities.dto.request;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.ds.session.session_service.common.enums.TaskActionType;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lô hành động từ outbox của app shipper (ghi lại khi mất mạng, gửi khi có mạng).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskActionBatchRequest {
+
+    @NotEmpty(message = "actions cannot be empty")
+    @Size(max = 200, message = "at most 200 actions per batch")
+    @Valid
+    private List<TaskAction> actions;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TaskAction {
+        /** Do thiết bị sinh ra, giữ nguyên qua các lần gửi lại (khóa idempotency). */
+        @NotNull(message = "actionId is required")
+        private UUID actionId;
+
+        @NotNull(message = "type is required")
+        private TaskActionType type;
+
+        @NotBlank(message = "parcelId is required")
+        private String parcelId;
+
+        /** FAIL: lý do; POSTPONE: thời gian hẹn lại. */
+        private String reason;
+
+        private RouteInfo routeInfo;
+
+        /** Thời điểm thực hiện trên thiết bị (epoch millis): thứ tự áp dụng trong lô. */
+        @NotNull(message = "clientTimestamp is required")
+        private Long clientTimestamp;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ds.session.session_service.common.entities.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.ds.session.session_service.common.enums.AssignmentDeltaType;
+import com.ds.session.session_service.common.enums.SessionStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một thay đổi danh sách task của shipper (đẩy qua STOMP /user/queue/tasks).
+ * seq tăng liên tục theo từng shipper trong cùng một stream (một lần chạy của service):
+ * app thấy seq bị hụt hoặc stream khác thì tải lại toàn bộ danh sách.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentDeltaResponse {
+    private AssignmentDeltaType type;
+    private String stream;
+    private long seq;
+    private String sessionId;
+    private SessionStatus sessionStatus;
+    // Task sau thay đổi (ADDED / UPDATED), cùng dạng với danh sách /tasks/today
+    private DeliveryAssignmentResponse assignment;
+    private LocalDateTime occurredAt;
+}
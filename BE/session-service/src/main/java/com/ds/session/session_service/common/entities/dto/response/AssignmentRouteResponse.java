@@ -0,0 +1,71 @@
+package com.ds.session.session_service.common.entities.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ds.session.session_service.app_context.models.AssignmentRoute;
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.common.utils.PolylineCodec;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentRouteResponse {
+    private String assignmentId;
+    private String parcelId;
+    private double distanceM;
+    private long durationS;
+    private int pointCount;
+
+    /**
+     * Tọa độ đã mã hóa (polyline, độ chính xác 1e-6) - client có thể tự giải mã thay vì nhận danh sách điểm
+     */
+    private String polyline;
+
+    /**
+     * Danh sách điểm đã giải mã (null nếu client không yêu cầu)
+     */
+    private List<Point> waypoints;
+
+    /**
+     * Dữ liệu gốc khi waypoints gửi lên không phải danh sách tọa độ
+     */
+    private String rawWaypoints;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private double lat;
+        private double lon;
+    }
+
+    public static AssignmentRouteResponse from(DeliveryAssignment assignment, AssignmentRoute route, boolean includePoints) {
+        AssignmentRouteResponseBuilder builder = AssignmentRouteResponse.builder()
+                .assignmentId(assignment.getId().toString())
+                .parcelId(assignment.getParcelId())
+                .distanceM(assignment.getDistanceM())
+                .durationS(assignment.getDurationS());
+        if (route == null) {
+            return builder.build();
+        }
+        builder.pointCount(route.getPointCount())
+                .polyline(route.getPolyline())
+                .rawWaypoints(route.getRawWaypoints());
+        if (includePoints && route.getPolyline() != null) {
+            double[] latLon = PolylineCodec.decode(route.getPolyline());
+            List<Point> points = new ArrayList<>(latLon.length / 2);
+            for (int i = 0; i < latLon.length; i += 2) {
+                points.add(new Point(latLon[i], latLon[i + 1]));
+            }
+            builder.waypoints(points);
+        }
+        return builder.build();
+    }
+}
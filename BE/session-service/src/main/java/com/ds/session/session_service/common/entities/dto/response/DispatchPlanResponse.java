@@ -0,0 +1,56 @@
+package com.ds.session.session_service.common.entities.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Các phiên đề xuất cho một lượt chia đơn. Mỗi phần tử sessions có thể gửi thẳng tới POST /api/v1/sessions
+ * (deliveryManId + parcelIds) để tạo phiên.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchPlanResponse {
+    private List<ProposedSession> sessions;
+    private List<UnassignedParcel> unassigned;
+    /** Shipper đang có phiên IN_PROGRESS: không được chia thêm. */
+    private List<String> skippedShippers;
+    private int parcelCount;
+    private int assignedCount;
+    private int iterations;
+    private long computeMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProposedSession {
+        private String deliveryManId;
+        private String vehicleType;
+        private List<String> parcelIds;
+        private int stops;
+        private double totalWeightKg;
+        private double capacityKg;
+        private double utilization;
+        private Double centroidLat;
+        private Double centroidLon;
+        /** Khoảng cách xa nhất từ tâm cụm tới một điểm giao (mét). */
+        private double radiusMeters;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UnassignedParcel {
+        private String parcelId;
+        private String parcelCode;
+        /** NO_COORDINATES | TOO_HEAVY_FOR_VEHICLES | NO_CAPACITY */
+        private String reason;
+    }
+}
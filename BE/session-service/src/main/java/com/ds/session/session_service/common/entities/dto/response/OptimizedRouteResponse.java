@@ -0,0 +1,46 @@
+package com.ds.session.session_service.common.entities.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thứ tự giao đề xuất cho phiên, kèm thời điểm đến dự kiến của từng điểm.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizedRouteResponse {
+    private UUID sessionId;
+    private LocalDateTime departureTime;
+    private List<Stop> stops;
+    private double totalTravelSeconds;
+    private double totalLatenessSeconds;
+    private int lateStops;
+    private double totalWeightKg;
+    private boolean capacityExceeded;
+    private long computeMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stop {
+        private int sequence;
+        private UUID assignmentId;
+        private String parcelId;
+        private String parcelCode;
+        private Double lat;
+        private Double lon;
+        private LocalDateTime estimatedArrival;
+        private boolean late;
+        /** Không có tọa độ: không tham gia tối ưu, được xếp cuối theo thứ tự quét. */
+        private boolean unroutable;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ds.session.session_service.common.entities.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thời điểm giao dự kiến của một đơn đang trong phiên giao.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelEtaResponse {
+    private String parcelId;
+    private UUID sessionId;
+    private String deliveryManId;
+    /** Trạng thái task của đơn; ETA chỉ có khi IN_PROGRESS. */
+    private String assignmentStatus;
+    /** Số điểm giao shipper còn phải ghé trước đơn này. */
+    private Integer stopsBefore;
+    private Long remainingSeconds;
+    private LocalDateTime estimatedArrival;
+    /** Nguồn vận tốc của chặng cuối: ZONE_HOUR | ZONE | HOUR | OVERALL | DEFAULT */
+    private String basis;
+    /** false: chưa biết vị trí shipper (chưa giao đơn nào trong phiên), ETA tính từ điểm giao đầu tiên. */
+    private boolean originKnown;
+    private LocalDateTime computedAt;
+}
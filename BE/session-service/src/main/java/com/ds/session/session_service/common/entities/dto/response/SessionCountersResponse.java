@@ -0,0 +1,25 @@
+package com.ds.session.session_service.common.entities.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.ds.session.session_service.common.enums.SessionStatus;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Thông tin rút gọn của phiên: chỉ gồm bộ đếm task, không kèm danh sách assignments.
+ */
+@Data
+@Builder
+public class SessionCountersResponse {
+    private UUID id;
+    private String deliveryManId;
+    private SessionStatus status;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private int totalTasks;
+    private int completedTasks;
+    private int failedTasks;
+}
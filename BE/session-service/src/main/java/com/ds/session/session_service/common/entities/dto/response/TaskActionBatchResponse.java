@@ -0,0 +1,40 @@
+package com.ds.session.session_service.common.entities.dto.response;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.ds.session.session_service.common.enums.TaskActionOutcome;
+import com.ds.session.session_service.common.enums.TaskActionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kết quả từng hành động của lô, theo thứ tự đã áp dụng. Thiết bị xóa khỏi outbox mọi hành động
+ * không phải RETRY.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskActionBatchResponse {
+    private List<Result> results;
+    private int applied;
+    private int rejected;
+    private int duplicates;
+    private int retry;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private UUID actionId;
+        private TaskActionType type;
+        private String parcelId;
+        private TaskActionOutcome outcome;
+        private String message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ds.session.session_service.common.enums;
+
+/**
+ * Loại thay đổi danh sách task được đẩy tới app shipper.
+ * - ADDED: đơn vừa được quét vào phiên.
+ * - UPDATED: task đổi trạng thái (hoàn thành, thất bại, từ chối, hoãn...).
+ * - SESSION_STARTED: phiên được tạo sẵn nhiều đơn (điều phối) - app tải lại toàn bộ danh sách.
+ * - SESSION_ENDED: phiên hoàn tất / hủy - danh sách task đang giao trống.
+ */
+public enum AssignmentDeltaType {
+    ADDED,
+    UPDATED,
+    SESSION_STARTED,
+    SESSION_ENDED
+}
@@ -0,0 +1,13 @@
+package com.ds.session.session_service.common.enums;
+
+/**
+ * Kết quả xử lý một hành động trong lô.
+ * - APPLIED / REJECTED: đã xử lý xong (được lưu lại, gửi lại sẽ nhận DUPLICATE với kết quả cũ).
+ * - RETRY: lỗi tạm thời (dịch vụ khác / DB), thiết bị giữ lại trong outbox và gửi lại sau.
+ */
+public enum TaskActionOutcome {
+    APPLIED,
+    REJECTED,
+    DUPLICATE,
+    RETRY
+}
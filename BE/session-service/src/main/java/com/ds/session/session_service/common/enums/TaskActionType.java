@@ -0,0 +1,12 @@
+package com.ds.session.session_service.common.enums;
+
+/**
+ * Hành động shipper ghi lại trên thiết bị (outbox) và gửi theo lô.
+ */
+public enum TaskActionType {
+    SCAN,
+    COMPLETE,
+    FAIL,
+    REFUSE,
+    POSTPONE
+}
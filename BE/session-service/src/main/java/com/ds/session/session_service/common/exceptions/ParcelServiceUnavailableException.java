@@ -0,0 +1,15 @@
+package com.ds.session.session_service.common.exceptions;
+
+/**
+ * Parcel-Service không trả lời dứt khoát (timeout, 5xx): chưa biết đơn đã chuyển trạng thái hay chưa,
+ * client nên gửi lại yêu cầu sau.
+ */
+public class ParcelServiceUnavailableException extends RuntimeException {
+    public ParcelServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ParcelServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
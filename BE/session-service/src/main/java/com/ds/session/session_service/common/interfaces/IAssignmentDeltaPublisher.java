@@ -0,0 +1,28 @@
+package com.ds.session.session_service.common.interfaces;
+
+import java.util.UUID;
+
+import com.ds.session.session_service.common.entities.dto.response.DeliveryAssignmentResponse;
+import com.ds.session.session_service.common.enums.SessionStatus;
+
+public interface IAssignmentDeltaPublisher {
+    /**
+     * Đơn vừa được quét vào phiên của shipper.
+     */
+    void assignmentAdded(String deliveryManId, DeliveryAssignmentResponse assignment);
+
+    /**
+     * Task đổi trạng thái.
+     */
+    void assignmentUpdated(String deliveryManId, DeliveryAssignmentResponse assignment);
+
+    /**
+     * Phiên được tạo kèm danh sách đơn: app tải lại cả danh sách.
+     */
+    void sessionStarted(String deliveryManId, UUID sessionId);
+
+    /**
+     * Phiên hoàn tất / hủy.
+     */
+    void sessionEnded(String deliveryManId, UUID sessionId, SessionStatus status);
+}
@@ -0,0 +1,12 @@
+package com.ds.session.session_service.common.interfaces;
+
+import java.util.UUID;
+
+import com.ds.session.session_service.common.entities.dto.response.AssignmentRouteResponse;
+
+public interface IAssignmentRouteService {
+
+    void save(UUID assignmentId, String waypoints);
+
+    AssignmentRouteResponse getRoute(UUID assignmentId, boolean includePoints);
+}
@@ -0,0 +1,11 @@
+package com.ds.session.session_service.common.interfaces;
+
+import com.ds.session.session_service.common.entities.dto.request.DispatchPlanRequest;
+import com.ds.session.session_service.common.entities.dto.response.DispatchPlanResponse;
+
+public interface IDispatchPlanningService {
+    /**
+     * Đề xuất phiên giao cho các shipper từ toàn bộ đơn IN_WAREHOUSE (gom cụm theo vị trí, tải trọng, loại xe).
+     */
+    DispatchPlanResponse planDispatch(DispatchPlanRequest request);
+}
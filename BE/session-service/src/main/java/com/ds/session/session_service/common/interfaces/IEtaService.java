@@ -0,0 +1,23 @@
+package com.ds.session.session_service.common.interfaces;
+
+import java.util.UUID;
+
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.common.entities.dto.response.ParcelEtaResponse;
+
+public interface IEtaService {
+    /**
+     * ETA của đơn dựa trên các điểm giao còn lại của shipper (kết quả được cache theo phiên).
+     */
+    ParcelEtaResponse getParcelEta(String parcelId);
+
+    /**
+     * Task vừa kết thúc: cập nhật thống kê vận tốc và bỏ cache ETA của phiên (sau khi transaction commit).
+     */
+    void onAssignmentFinished(DeliveryAssignment assignment, Double destinationLat, Double destinationLon);
+
+    /**
+     * Phiên kết thúc / hủy: bỏ cache ETA của phiên.
+     */
+    void onSessionEnded(UUID sessionId);
+}
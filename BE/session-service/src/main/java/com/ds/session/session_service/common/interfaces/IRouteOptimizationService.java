@@ -0,0 +1,13 @@
+package com.ds.session.session_service.common.interfaces;
+
+import java.util.UUID;
+
+import com.ds.session.session_service.common.entities.dto.request.OptimizeRouteRequest;
+import com.ds.session.session_service.common.entities.dto.response.OptimizedRouteResponse;
+
+public interface IRouteOptimizationService {
+    /**
+     * Sắp xếp thứ tự giao cho các task IN_PROGRESS của phiên (khung giờ + tải trọng).
+     */
+    OptimizedRouteResponse optimizeSessionRoute(UUID sessionId, OptimizeRouteRequest request);
+}
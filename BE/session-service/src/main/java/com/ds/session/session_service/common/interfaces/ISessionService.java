@@ -4,7 +4,9 @@ import java.util.UUID;
 
 import com.ds.session.session_service.common.entities.dto.request.CreateSessionRequest;
 import com.ds.session.session_service.common.entities.dto.response.AssignmentResponse;
+import com.ds.session.session_service.common.entities.dto.response.SessionCountersResponse;
 import com.ds.session.session_service.common.entities.dto.response.SessionResponse;
+import com.ds.session.session_service.common.exceptions.ResourceNotFound;
 
 public interface ISessionService {
     /**
@@ -23,6 +25,22 @@ public interface ISessionService {
      */
     SessionResponse getSessionById(UUID sessionId);
 
+    /**
+     * Lấy phiên ĐANG HOẠT ĐỘNG của shipper (kèm danh sách task).
+     * @throws ResourceNotFound nếu shipper không có phiên nào đang hoạt động.
+     */
+    SessionResponse getActiveSession(String deliveryManId);
+
+    /**
+     * Lấy MỘT task trong phiên (không nạp toàn bộ danh sách task).
+     */
+    AssignmentResponse getAssignmentInSession(UUID sessionId, UUID assignmentId);
+
+    /**
+     * Lấy thông tin phiên kèm bộ đếm task (không kèm danh sách task).
+     */
+    SessionCountersResponse getSessionCounters(UUID sessionId);
+
     /**
      * Hoàn thành một phiên (khi tất cả các task đã xong).
      */
@@ -0,0 +1,13 @@
+package com.ds.session.session_service.common.interfaces;
+
+import java.util.UUID;
+
+import com.ds.session.session_service.common.entities.dto.request.TaskActionBatchRequest;
+import com.ds.session.session_service.common.entities.dto.response.TaskActionBatchResponse;
+
+public interface ITaskActionBatchService {
+    /**
+     * Áp dụng lô hành động của shipper theo thứ tự clientTimestamp; hành động đã xử lý (theo actionId) không áp dụng lại.
+     */
+    TaskActionBatchResponse applyBatch(UUID deliveryManId, TaskActionBatchRequest request);
+}
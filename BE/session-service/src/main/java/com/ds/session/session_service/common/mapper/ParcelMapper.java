@@ -2,6 +2,7 @@ package com.ds.session.session_service.common.mapper;
 
 import org.mapstruct.Mapper;
 
+import com.ds.session.session_service.app_context.models.ParcelSummary;
 import com.ds.session.session_service.application.client.parcelclient.response.ParcelResponse;
 import com.ds.session.session_service.business.v1.services.ParcelInfo;
 
@@ -9,5 +10,9 @@ import com.ds.session.session_service.business.v1.services.ParcelInfo;
 public interface ParcelMapper {
 
     ParcelInfo toParcelInfo(ParcelResponse response);
+
+    ParcelInfo toParcelInfo(ParcelSummary summary);
+
+    ParcelSummary toParcelSummary(ParcelResponse response);
     
 }
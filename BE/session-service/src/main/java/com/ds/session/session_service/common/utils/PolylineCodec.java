@@ -0,0 +1,96 @@
+package com.ds.session.session_service.common.utils;
+
+/**
+ * Mã hóa danh sách tọa độ theo định dạng "encoded polyline" (độ chính xác 1e-6, giống polyline6 của OSRM):
+ * - Mỗi tọa độ lưu dạng số nguyên đã nhân 1e6, điểm sau chỉ lưu độ lệch (delta) so với điểm trước.
+ * - Delta được zigzag rồi chia thành các nhóm 5 bit (varint), mỗi nhóm là một ký tự ASCII in được (63..126).
+ * Tọa độ truyền vào/ra dạng mảng xen kẽ [lat0, lon0, lat1, lon1, ...].
+ */
+public final class PolylineCodec {
+
+    private static final double PRECISION = 1e6;
+
+    private PolylineCodec() {
+    }
+
+    public static String encode(double[] latLon) {
+        if (latLon.length % 2 != 0) {
+            throw new IllegalArgumentException("Coordinates must be lat/lon pairs");
+        }
+        // Trung bình mỗi delta tốn 3-5 ký tự
+        StringBuilder encoded = new StringBuilder(latLon.length * 4);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (int i = 0; i < latLon.length; i += 2) {
+            long lat = Math.round(latLon[i] * PRECISION);
+            long lon = Math.round(latLon[i + 1] * PRECISION);
+            appendValue(encoded, lat - previousLat);
+            appendValue(encoded, lon - previousLon);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return encoded.toString();
+    }
+
+    public static double[] decode(String encoded) {
+        double[] latLon = new double[count(encoded) * 2];
+        int index = 0;
+        int position = 0;
+        long lat = 0;
+        long lon = 0;
+        long[] delta = new long[1];
+        while (position < encoded.length()) {
+            position = readValue(encoded, position, delta);
+            lat += delta[0];
+            position = readValue(encoded, position, delta);
+            lon += delta[0];
+            latLon[index++] = lat / PRECISION;
+            latLon[index++] = lon / PRECISION;
+        }
+        return latLon;
+    }
+
+    /**
+     * Số điểm trong chuỗi đã mã hóa (đếm ký tự kết thúc nhóm, không cần giải mã).
+     */
+    public static int count(String encoded) {
+        int values = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            if (encoded.charAt(i) - 63 < 0x20) {
+                values++;
+            }
+        }
+        if (values % 2 != 0) {
+            throw new IllegalArgumentException("Malformed polyline");
+        }
+        return values / 2;
+    }
+
+    private static void appendValue(StringBuilder encoded, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while (zigzag >= 0x20) {
+            encoded.append((char) ((0x20 | (zigzag & 0x1f)) + 63));
+            zigzag >>>= 5;
+        }
+        encoded.append((char) (zigzag + 63));
+    }
+
+    private static int readValue(String encoded, int position, long[] out) {
+        long result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (position >= encoded.length()) {
+                throw new IllegalArgumentException("Malformed polyline");
+            }
+            chunk = encoded.charAt(position++) - 63;
+            if (chunk < 0 || chunk > 0x3f) {
+                throw new IllegalArgumentException("Malformed polyline");
+            }
+            result |= (long) (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        out[0] = (result >>> 1) ^ -(result & 1);
+        return position;
+    }
+}
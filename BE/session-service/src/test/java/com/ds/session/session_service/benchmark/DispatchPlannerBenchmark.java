@@ -0,0 +1,84 @@
+package com.ds.session.session_service.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import com.ds.session.session_service.business.v1.routing.DispatchPlan;
+import com.ds.session.session_service.business.v1.routing.DispatchPlanner;
+import com.ds.session.session_service.business.v1.routing.DispatchProblem;
+
+/**
+ * Benchmark chia đơn hàng loạt: 1k..10k đơn quanh TP.HCM (70% dồn về 6 khu dân cư), số shipper ~ đơn / 50.
+ * In thời gian p50/max theo số luồng, bán kính cụm trung bình và số đơn không xếp được.
+ *   [runs]
+ * Chạy trực tiếp hàm main (không nằm trong `mvn test`).
+ */
+public class DispatchPlannerBenchmark {
+
+    private static final int[] SIZES = {1_000, 5_000, 10_000};
+    private static final double[][] HOTSPOTS = {
+        {10.85, 106.77}, {10.78, 106.70}, {10.74, 106.62}, {10.80, 106.66}, {10.87, 106.62}, {10.73, 106.72}
+    };
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int[] parallelism = cpus > 1 ? new int[] {1, cpus} : new int[] {1};
+
+        System.out.printf("%7s %8s %8s %10s %10s %12s %11s %6s%n",
+            "parcels", "shippers", "threads", "p50(ms)", "max(ms)", "radius(m)", "unassigned", "iters");
+        for (int threads : parallelism) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            DispatchPlanner planner = new DispatchPlanner(pool);
+            planner.plan(problem(2_000, new SplittableRandom(0)), 15, 0); // warm-up
+            for (int size : SIZES) {
+                DispatchProblem problem = problem(size, new SplittableRandom(size));
+                long[] millis = new long[runs];
+                DispatchPlan plan = null;
+                for (int r = 0; r < runs; r++) {
+                    long started = System.nanoTime();
+                    plan = planner.plan(problem, 15, r);
+                    millis[r] = (System.nanoTime() - started) / 1_000_000;
+                }
+                Arrays.sort(millis);
+                double radius = Arrays.stream(plan.radiusMeters()).filter(v -> v > 0).average().orElse(0);
+                System.out.printf("%7d %8d %8d %10d %10d %12.0f %11d %6d%n",
+                    size, problem.shipperCount(), threads, millis[runs / 2], millis[runs - 1], radius, plan.unassigned(), plan.iterations());
+            }
+            pool.shutdown();
+        }
+    }
+
+    private static DispatchProblem problem(int parcels, SplittableRandom random) {
+        double[] lat = new double[parcels];
+        double[] lon = new double[parcels];
+        double[] weight = new double[parcels];
+        for (int p = 0; p < parcels; p++) {
+            if (random.nextDouble() < 0.7) {
+                double[] hotspot = HOTSPOTS[random.nextInt(HOTSPOTS.length)];
+                lat[p] = hotspot[0] + gaussian(random) * 0.015;
+                lon[p] = hotspot[1] + gaussian(random) * 0.015;
+            } else {
+                lat[p] = 10.70 + random.nextDouble() * 0.22;
+                lon[p] = 106.58 + random.nextDouble() * 0.24;
+            }
+            weight[p] = random.nextDouble() < 0.02 ? 35 : 0.3 + random.nextDouble() * 3;
+        }
+        int shippers = Math.max(1, parcels / 50);
+        double[] capacity = new double[shippers];
+        int[] maxStops = new int[shippers];
+        double[] maxParcelWeight = new double[shippers];
+        for (int s = 0; s < shippers; s++) {
+            boolean van = s % 5 == 0;
+            capacity[s] = van ? 500 : 120;
+            maxStops[s] = van ? 80 : 60;
+            maxParcelWeight[s] = van ? 0 : 30;
+        }
+        return new DispatchProblem(lat, lon, weight, capacity, maxStops, maxParcelWeight, 0.15);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
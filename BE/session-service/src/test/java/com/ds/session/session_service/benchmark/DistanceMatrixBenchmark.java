@@ -0,0 +1,76 @@
+package com.ds.session.session_service.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.ds.session.session_service.business.v1.routing.DistanceMatrixStore;
+import com.ds.session.session_service.business.v1.routing.MatrixLocation;
+import com.ds.session.session_service.routing.StubRoutingMatrixBackend;
+
+/**
+ * Đo thời gian phục vụ ma trận con N x N từ cache và tỉ lệ hit khi các phiên lặp lại địa chỉ.
+ * Tham số: [destinations] [sessionSize] [sessions] [backendLatencyMs] [maxNodes]
+ * Chạy trực tiếp hàm main (không nằm trong `mvn test`).
+ */
+public class DistanceMatrixBenchmark {
+
+    public static void main(String[] args) {
+        int destinations = args.length > 0 ? Integer.parseInt(args[0]) : 3_000;
+        int sessionSize = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+        long backendLatencyMs = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        int maxNodes = args.length > 4 ? Integer.parseInt(args[4]) : 2_048;
+
+        SplittableRandom random = new SplittableRandom(7);
+        List<MatrixLocation> pool = new ArrayList<>(destinations);
+        for (int i = 0; i < destinations; i++) {
+            pool.add(new MatrixLocation("d-" + i, 10.70 + random.nextDouble() * 0.2, 106.60 + random.nextDouble() * 0.2));
+        }
+
+        StubRoutingMatrixBackend backend = new StubRoutingMatrixBackend(backendLatencyMs);
+        DistanceMatrixStore store = new DistanceMatrixStore(maxNodes, 100, backend, null);
+
+        // Phân bố lệch: 80% phiên chỉ dùng 20% địa chỉ "quen"
+        int hot = Math.max(sessionSize, destinations / 5);
+        long[] latencies = new long[sessions];
+        long[] hitLatencies = new long[sessions];
+        int cachedRequests = 0;
+        for (int s = 0; s < sessions; s++) {
+            List<MatrixLocation> stops = new ArrayList<>(sessionSize);
+            boolean hotSession = random.nextInt(10) < 8;
+            while (stops.size() < sessionSize) {
+                MatrixLocation location = pool.get(hotSession ? random.nextInt(hot) : random.nextInt(destinations));
+                if (!stops.contains(location)) {
+                    stops.add(location);
+                }
+            }
+            long fillsBefore = store.fills();
+            long started = System.nanoTime();
+            store.submatrix(stops);
+            latencies[s] = System.nanoTime() - started;
+            if (store.fills() == fillsBefore) {
+                hitLatencies[cachedRequests++] = latencies[s];
+            }
+        }
+
+        Arrays.sort(latencies);
+        long[] cached = Arrays.copyOf(hitLatencies, cachedRequests);
+        Arrays.sort(cached);
+        System.out.printf("destinations=%d sessionSize=%d sessions=%d maxNodes=%d backendLatency=%dms%n",
+            destinations, sessionSize, sessions, maxNodes, backendLatencyMs);
+        System.out.printf("hitRatio=%.3f fills=%d avgFill=%.2fms evictions=%d%n",
+            store.hitRatio(), store.fills(), store.averageFillMillis(), store.evictions());
+        System.out.printf("all requests: p50=%.1fus p99=%.1fus%n", percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3);
+        if (cachedRequests > 0) {
+            System.out.printf("fully cached (%d): p50=%.1fus p99=%.1fus%n", cachedRequests,
+                percentile(cached, 0.50) / 1e3, percentile(cached, 0.99) / 1e3);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
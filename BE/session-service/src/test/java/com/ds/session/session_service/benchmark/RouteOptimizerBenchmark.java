@@ -0,0 +1,111 @@
+package com.ds.session.session_service.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import com.ds.session.session_service.business.v1.routing.RouteOptimizer;
+import com.ds.session.session_service.business.v1.routing.RouteSolution;
+import com.ds.session.session_service.business.v1.routing.RoutingProblem;
+
+/**
+ * Benchmark bộ tối ưu lộ trình trên các bài toán ngẫu nhiên 20..300 điểm (tọa độ trong bán kính ~10km,
+ * 30% điểm có khung giờ 2 tiếng). In thời gian p50/max và chất lượng so với nearest-neighbor.
+ *   [instancesPerSize] [starts] [timeLimitMs]
+ * Chạy trực tiếp hàm main (không nằm trong `mvn test`).
+ */
+public class RouteOptimizerBenchmark {
+
+    private static final int[] SIZES = {20, 50, 100, 200, 300};
+    private static final double SPEED_MPS = 25 / 3.6;
+
+    public static void main(String[] args) {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int starts = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long timeLimitMs = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        RouteOptimizer optimizer = new RouteOptimizer(pool);
+
+        // Warm-up JIT
+        SplittableRandom warmup = new SplittableRandom(1);
+        for (int i = 0; i < 20; i++) {
+            optimizer.optimize(randomProblem(100, warmup), starts, timeLimitMs, i);
+        }
+
+        System.out.printf("%5s %10s %10s %12s %10s %8s%n", "stops", "p50(ms)", "max(ms)", "vs NN", "late", "starts");
+        for (int size : SIZES) {
+            SplittableRandom random = new SplittableRandom(size);
+            long[] millis = new long[instances];
+            double improvement = 0;
+            long lateStops = 0;
+            for (int i = 0; i < instances; i++) {
+                RoutingProblem problem = randomProblem(size, random);
+                double baseline = RouteOptimizer.evaluate(problem, nearestNeighborOrder(problem));
+
+                long start = System.nanoTime();
+                RouteSolution solution = optimizer.optimize(problem, starts, timeLimitMs, i);
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+
+                improvement += 1 - solution.objective() / baseline;
+                lateStops += solution.lateStops();
+            }
+            Arrays.sort(millis);
+            System.out.printf("%5d %10d %10d %11.1f%% %10d %8d%n", size, millis[instances / 2], millis[instances - 1],
+                100 * improvement / instances, lateStops, starts);
+        }
+        pool.shutdown();
+    }
+
+    static RoutingProblem randomProblem(int size, SplittableRandom random) {
+        int nodes = size + 1;
+        double[] x = new double[nodes];
+        double[] y = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            x[i] = random.nextDouble(-10_000, 10_000);
+            y[i] = random.nextDouble(-10_000, 10_000);
+        }
+        double[] travel = new double[nodes * nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                travel[i * nodes + j] = Math.hypot(x[i] - x[j], y[i] - y[j]) * 1.3 / SPEED_MPS;
+            }
+        }
+        double[] service = new double[nodes];
+        double[] open = new double[nodes];
+        double[] close = new double[nodes];
+        double[] demand = new double[nodes];
+        double horizon = size * 300.0;
+        for (int i = 1; i < nodes; i++) {
+            service[i] = 120;
+            demand[i] = random.nextDouble(0.2, 5);
+            if (random.nextDouble() < 0.3) {
+                open[i] = random.nextDouble(0, horizon);
+                close[i] = open[i] + 7200;
+            } else {
+                close[i] = RoutingProblem.NO_WINDOW_CLOSE;
+            }
+        }
+        close[0] = RoutingProblem.NO_WINDOW_CLOSE;
+        return new RoutingProblem(size, travel, service, open, close, demand, 0);
+    }
+
+    private static int[] nearestNeighborOrder(RoutingProblem problem) {
+        int n = problem.size();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n + 1];
+        int prev = 0;
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            for (int node = 1; node <= n; node++) {
+                if (!visited[node] && (best < 0 || problem.travel(prev, node) < problem.travel(prev, best))) {
+                    best = node;
+                }
+            }
+            visited[best] = true;
+            order[step] = best;
+            prev = best;
+        }
+        return order;
+    }
+}
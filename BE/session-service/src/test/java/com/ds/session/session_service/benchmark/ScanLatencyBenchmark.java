@@ -0,0 +1,109 @@
+package com.ds.session.session_service.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.app_context.models.DeliverySession;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.app_context.repositories.DeliverySessionRepository;
+import com.ds.session.session_service.application.client.parcelclient.ParcelServiceClient;
+import com.ds.session.session_service.application.client.parcelclient.response.ParcelResponse;
+import com.ds.session.session_service.business.v1.services.ActiveSessionRegistry;
+import com.ds.session.session_service.business.v1.services.SessionService;
+import com.ds.session.session_service.common.enums.SessionStatus;
+import com.ds.session.session_service.common.interfaces.IAssignmentDeltaPublisher;
+import com.ds.session.session_service.common.interfaces.IEtaService;
+import com.ds.session.session_service.common.mapper.ParcelMapperImpl;
+
+/**
+ * Đo độ trễ p50/p99 của luồng quét QR (acceptParcelToSession).
+ * Độ trễ mạng tới Parcel-Service và độ trễ DB được giả lập bằng tham số dòng lệnh:
+ *   [scans] [remoteLatencyMs] [dbLatencyMs]
+ * Chạy trực tiếp hàm main (không nằm trong `mvn test`).
+ */
+public class ScanLatencyBenchmark {
+
+    public static void main(String[] args) {
+        int scans = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        long remoteLatencyNs = TimeUnit.MILLISECONDS.toNanos(args.length > 1 ? Long.parseLong(args[1]) : 8);
+        long dbLatencyNs = TimeUnit.MILLISECONDS.toNanos(args.length > 2 ? Long.parseLong(args[2]) : 1);
+
+        DeliverySessionRepository sessionRepository = mock(DeliverySessionRepository.class);
+        DeliveryAssignmentRepository assignmentRepository = mock(DeliveryAssignmentRepository.class);
+        ParcelServiceClient parcelClient = mock(ParcelServiceClient.class);
+
+        UUID sessionId = UUID.randomUUID();
+        DeliverySession session = DeliverySession.builder().id(sessionId).deliveryManId("shipper-1").status(SessionStatus.IN_PROGRESS).build();
+
+        when(sessionRepository.findByDeliveryManIdAndStatus(anyString(), any())).thenAnswer(inv -> {
+            simulate(dbLatencyNs);
+            return Optional.of(session);
+        });
+        when(sessionRepository.getReferenceById(any())).thenReturn(session);
+        when(assignmentRepository.findBySession_IdAndParcelId(any(), anyString())).thenAnswer(inv -> {
+            simulate(dbLatencyNs);
+            return Optional.empty();
+        });
+        when(assignmentRepository.findAllActiveByParcelId(anyString(), any())).thenAnswer(inv -> {
+            simulate(dbLatencyNs);
+            return List.of();
+        });
+        when(assignmentRepository.save(any(DeliveryAssignment.class))).thenAnswer(inv -> {
+            simulate(dbLatencyNs);
+            DeliveryAssignment assignment = inv.getArgument(0);
+            assignment.setId(UUID.randomUUID());
+            return assignment;
+        });
+        when(parcelClient.changeParcelStatusIfCurrent(anyString(), any(), anyString())).thenAnswer(inv -> {
+            simulate(remoteLatencyNs);
+            return ParcelResponse.builder().id(inv.getArgument(0)).status("ON_ROUTE").build();
+        });
+
+        ActiveSessionRegistry registry = new ActiveSessionRegistry(sessionRepository);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        SessionService sessionService = new SessionService(sessionRepository, assignmentRepository, parcelClient, registry, transactionTemplate,
+            mock(IEtaService.class), mock(IAssignmentDeltaPublisher.class), new ParcelMapperImpl());
+
+        // Warm-up
+        for (int i = 0; i < Math.min(scans, 500); i++) {
+            sessionService.acceptParcelToSession("shipper-1", UUID.randomUUID().toString());
+        }
+
+        long[] latencies = new long[scans];
+        for (int i = 0; i < scans; i++) {
+            long start = System.nanoTime();
+            sessionService.acceptParcelToSession("shipper-1", UUID.randomUUID().toString());
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("scans=%d remote=%dms db=%dms%n", scans,
+            TimeUnit.NANOSECONDS.toMillis(remoteLatencyNs), TimeUnit.NANOSECONDS.toMillis(dbLatencyNs));
+        System.out.printf("p50=%.2fms p99=%.2fms max=%.2fms%n",
+            percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6, latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static void simulate(long nanos) {
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,93 @@
+package com.ds.session.session_service.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import com.ds.session.session_service.common.utils.PolylineCodec;
+
+/**
+ * So sánh kích thước waypoints dạng JSON [[lon,lat],...] (định dạng cũ) với polyline nén,
+ * và đo thời gian mã hóa/giải mã.
+ * Tham số: [pointsPerRoute] [routes]
+ * Chạy trực tiếp hàm main (không nằm trong `mvn test`).
+ */
+public class WaypointEncodingBenchmark {
+
+    public static void main(String[] args) {
+        int pointsPerRoute = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int routes = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        SplittableRandom random = new SplittableRandom(11);
+        double[][] tracks = new double[routes][];
+        for (int r = 0; r < routes; r++) {
+            tracks[r] = gpsTrack(random, pointsPerRoute);
+        }
+
+        long jsonBytes = 0;
+        long polylineBytes = 0;
+        for (double[] track : tracks) {
+            jsonBytes += toJson(track).getBytes(StandardCharsets.UTF_8).length;
+            polylineBytes += PolylineCodec.encode(track).length();
+        }
+
+        // Làm nóng JIT
+        String[] encoded = new String[routes];
+        for (int warmup = 0; warmup < 3; warmup++) {
+            for (int r = 0; r < routes; r++) {
+                encoded[r] = PolylineCodec.encode(tracks[r]);
+                PolylineCodec.decode(encoded[r]);
+            }
+        }
+
+        long started = System.nanoTime();
+        for (int r = 0; r < routes; r++) {
+            encoded[r] = PolylineCodec.encode(tracks[r]);
+        }
+        long encodeNanos = System.nanoTime() - started;
+
+        double checksum = 0;
+        started = System.nanoTime();
+        for (int r = 0; r < routes; r++) {
+            checksum += PolylineCodec.decode(encoded[r])[0];
+        }
+        long decodeNanos = System.nanoTime() - started;
+
+        long totalPoints = (long) routes * pointsPerRoute;
+        System.out.printf("%d routes x %d points%n", routes, pointsPerRoute);
+        System.out.printf("JSON: %.1f bytes/point, polyline: %.1f bytes/point (%.1fx smaller)%n",
+            jsonBytes / (double) totalPoints, polylineBytes / (double) totalPoints, jsonBytes / (double) polylineBytes);
+        System.out.printf("encode: %.1f ns/point (%.3f ms/route), decode: %.1f ns/point (%.3f ms/route) [checksum %.3f]%n",
+            encodeNanos / (double) totalPoints, encodeNanos / 1e6 / routes,
+            decodeNanos / (double) totalPoints, decodeNanos / 1e6 / routes, checksum);
+    }
+
+    /**
+     * Vết GPS ~1 điểm/giây khi chạy xe máy (bước 5-15m), tọa độ đầy đủ độ chính xác double như client gửi
+     */
+    private static double[] gpsTrack(SplittableRandom random, int points) {
+        double[] latLon = new double[points * 2];
+        double lat = 10.70 + random.nextDouble() * 0.2;
+        double lon = 106.60 + random.nextDouble() * 0.2;
+        double heading = random.nextDouble() * 2 * Math.PI;
+        for (int i = 0; i < points; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.3;
+            double step = (5 + random.nextDouble() * 10) / 111_320d;
+            lat += Math.cos(heading) * step;
+            lon += Math.sin(heading) * step;
+            latLon[2 * i] = lat;
+            latLon[2 * i + 1] = lon;
+        }
+        return latLon;
+    }
+
+    private static String toJson(double[] latLon) {
+        StringBuilder json = new StringBuilder(latLon.length * 20).append('[');
+        for (int i = 0; i < latLon.length; i += 2) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('[').append(latLon[i + 1]).append(',').append(latLon[i]).append(']');
+        }
+        return json.append(']').toString();
+    }
+}
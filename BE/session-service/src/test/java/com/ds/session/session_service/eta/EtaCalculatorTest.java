@@ -0,0 +1,95 @@
+package com.ds.session.session_service.eta;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.ds.session.session_service.business.v1.eta.EtaCalculator;
+import com.ds.session.session_service.business.v1.eta.SpeedStatistics;
+
+/**
+ * Kiểm tra thống kê vận tốc (lùi dần khi thiếu mẫu, loại mẫu bất thường) và thứ tự / thời điểm đến của ETA.
+ */
+class EtaCalculatorTest {
+
+    private static final double LAT = 10.78;
+    private static final double LON = 106.70;
+
+    @Test
+    @DisplayName("Thiếu mẫu thì lùi dần: mặc định -> toàn bộ -> giờ -> ô -> ô + giờ")
+    void speedFallsBackWhenSamplesAreMissing() {
+        SpeedStatistics statistics = new SpeedStatistics(0.02, 2, 7.0);
+        assertEquals(SpeedStatistics.Basis.DEFAULT, statistics.speed(LAT, LON, 9).basis());
+        assertEquals(7.0, statistics.speed(LAT, LON, 9).metersPerSecond(), 1e-9);
+
+        // Ô khác, giờ khác: chỉ góp vào thống kê toàn bộ
+        statistics.record(LAT + 1, LON + 1, 20, 1000, 200);
+        statistics.record(LAT + 1, LON + 1, 21, 1000, 200);
+        assertEquals(SpeedStatistics.Basis.OVERALL, statistics.speed(LAT, LON, 9).basis());
+
+        statistics.record(LAT + 1, LON + 1, 9, 1000, 100);
+        statistics.record(LAT + 1, LON + 1, 9, 1000, 100);
+        SpeedStatistics.Estimate byHour = statistics.speed(LAT, LON, 9);
+        assertEquals(SpeedStatistics.Basis.HOUR, byHour.basis());
+        assertEquals(10.0, byHour.metersPerSecond(), 1e-9);
+
+        statistics.record(LAT, LON, 14, 600, 200);
+        statistics.record(LAT, LON, 15, 600, 200);
+        assertEquals(SpeedStatistics.Basis.ZONE, statistics.speed(LAT, LON, 9).basis());
+
+        statistics.record(LAT, LON, 9, 400, 200);
+        statistics.record(LAT, LON, 9, 400, 200);
+        SpeedStatistics.Estimate byZoneHour = statistics.speed(LAT, LON, 9);
+        assertEquals(SpeedStatistics.Basis.ZONE_HOUR, byZoneHour.basis());
+        assertEquals(2.0, byZoneHour.metersPerSecond(), 1e-9);
+        assertEquals(8, statistics.sampleCount());
+    }
+
+    @Test
+    @DisplayName("Mẫu bất thường (đứng yên, vận tốc phi lý, thiếu dữ liệu) bị loại")
+    void outliersAreRejected() {
+        SpeedStatistics statistics = new SpeedStatistics(0.02, 1, 7.0);
+        assertFalse(statistics.record(LAT, LON, 9, 0, 100));
+        assertFalse(statistics.record(LAT, LON, 9, 1000, 0));
+        assertFalse(statistics.record(LAT, LON, 9, 10, 600));
+        assertFalse(statistics.record(LAT, LON, 9, 10_000, 60));
+        assertFalse(statistics.record(LAT, LON, 24, 1000, 100));
+        assertTrue(statistics.record(LAT, LON, 9, 1000, 100));
+        assertEquals(1, statistics.sampleCount());
+    }
+
+    @Test
+    @DisplayName("Đi lần lượt điểm gần nhất từ vị trí hiện tại, thời điểm đến tăng dần")
+    void visitsNearestStopFirstWithIncreasingArrivals() {
+        SpeedStatistics statistics = new SpeedStatistics(0.02, 5, 10.0);
+        EtaCalculator calculator = new EtaCalculator(statistics, 1.0, 60);
+        // Ba điểm trên cùng kinh tuyến, cách gốc ~3.3 km, ~1.1 km, ~2.2 km
+        double[] lat = {LAT + 0.03, LAT + 0.01, LAT + 0.02};
+        double[] lon = {LON, LON, LON};
+
+        EtaCalculator.Result result = calculator.estimate(LAT, LON, lat, lon, 9 * 3600);
+
+        assertArrayEquals(new int[] {1, 2, 0}, result.order());
+        double first = result.arrivalSeconds()[1];
+        assertEquals(1112 / 10.0, first, 2.0);
+        assertTrue(result.arrivalSeconds()[2] > first + 60);
+        assertTrue(result.arrivalSeconds()[0] > result.arrivalSeconds()[2] + 60);
+        assertEquals(SpeedStatistics.Basis.DEFAULT, result.basis()[0]);
+    }
+
+    @Test
+    @DisplayName("Chưa biết vị trí shipper: chặng đầu tính bằng 0")
+    void unknownOriginStartsAtFirstStop() {
+        EtaCalculator calculator = new EtaCalculator(new SpeedStatistics(0.02, 5, 10.0), 1.3, 120);
+        EtaCalculator.Result result = calculator.estimate(Double.NaN, Double.NaN,
+            new double[] {LAT, LAT}, new double[] {LON + 0.01, LON}, 9 * 3600);
+
+        assertEquals(1, result.order()[0]);
+        assertEquals(0, result.arrivalSeconds()[1], 1e-9);
+        assertTrue(result.arrivalSeconds()[0] > 120);
+    }
+}
@@ -0,0 +1,168 @@
+package com.ds.session.session_service.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.ds.session.session_service.business.v1.routing.DispatchPlan;
+import com.ds.session.session_service.business.v1.routing.DispatchPlanner;
+import com.ds.session.session_service.business.v1.routing.DispatchProblem;
+
+/**
+ * Kiểm tra bộ chia đơn: tôn trọng tải trọng / số điểm / loại xe, cân bằng và gom đúng các cụm tách biệt.
+ */
+class DispatchPlannerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final DispatchPlanner planner = new DispatchPlanner(pool);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Ba khu vực tách biệt, ba shipper: mỗi shipper nhận trọn một khu vực")
+    void separatedAreasMapToOneShipperEach() {
+        double[][] centers = {{10.85, 106.77}, {10.78, 106.70}, {10.74, 106.62}};
+        int perArea = 40;
+        int n = centers.length * perArea;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double[] weight = new double[n];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int p = 0; p < n; p++) {
+            double[] center = centers[p / perArea];
+            lat[p] = center[0] + (random.nextDouble() - 0.5) * 0.01;
+            lon[p] = center[1] + (random.nextDouble() - 0.5) * 0.01;
+            weight[p] = 1;
+        }
+        DispatchProblem problem = new DispatchProblem(lat, lon, weight,
+            new double[] {100, 100, 100}, new int[] {0, 0, 0}, new double[] {0, 0, 0}, 0.15);
+
+        DispatchPlan plan = planner.plan(problem, 20, 7);
+
+        assertEquals(0, plan.unassigned());
+        for (int area = 0; area < centers.length; area++) {
+            int shipper = plan.shipperOfParcel()[area * perArea];
+            for (int p = area * perArea; p < (area + 1) * perArea; p++) {
+                assertEquals(shipper, plan.shipperOfParcel()[p]);
+            }
+            assertEquals(perArea, plan.stops()[shipper]);
+        }
+    }
+
+    @Test
+    @DisplayName("Không vượt tải trọng, số điểm tối đa và giới hạn khối lượng một đơn của xe máy")
+    void respectsCapacityStopsAndVehicleLimits() {
+        SplittableRandom random = new SplittableRandom(3);
+        int n = 2_000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double[] weight = new double[n];
+        for (int p = 0; p < n; p++) {
+            lat[p] = 10.80 + random.nextGaussian() * 0.05;
+            lon[p] = 106.70 + random.nextGaussian() * 0.05;
+            weight[p] = p % 50 == 0 ? 45 : 0.5 + random.nextDouble() * 4;
+        }
+        int k = 40;
+        double[] capacity = new double[k];
+        int[] maxStops = new int[k];
+        double[] maxParcelWeight = new double[k];
+        for (int s = 0; s < k; s++) {
+            capacity[s] = s % 4 == 0 ? 500 : 150;
+            maxStops[s] = 60;
+            maxParcelWeight[s] = s % 4 == 0 ? 0 : 30;
+        }
+        DispatchProblem problem = new DispatchProblem(lat, lon, weight, capacity, maxStops, maxParcelWeight, 0.15);
+
+        DispatchPlan plan = planner.plan(problem, 15, 11);
+
+        double[] load = new double[k];
+        int[] stops = new int[k];
+        for (int p = 0; p < n; p++) {
+            int s = plan.shipperOfParcel()[p];
+            if (s < 0) {
+                continue;
+            }
+            load[s] += weight[p];
+            stops[s]++;
+            assertTrue(problem.canCarry(s, p), "parcel " + p + " given to a vehicle that cannot carry it");
+        }
+        for (int s = 0; s < k; s++) {
+            assertTrue(load[s] <= capacity[s] + 1e-9, "shipper " + s + " over capacity");
+            assertTrue(stops[s] <= maxStops[s], "shipper " + s + " over max stops");
+            assertEquals(stops[s], plan.stops()[s]);
+        }
+    }
+
+    @Test
+    @DisplayName("Tổng khối lượng vượt tổng tải trọng: phần dư không được xếp")
+    void overflowIsLeftUnassigned() {
+        int n = 30;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double[] weight = new double[n];
+        for (int p = 0; p < n; p++) {
+            lat[p] = 10.8 + p * 0.001;
+            lon[p] = 106.7;
+            weight[p] = 10;
+        }
+        DispatchProblem problem = new DispatchProblem(lat, lon, weight,
+            new double[] {100, 100}, new int[] {0, 0}, new double[] {0, 0}, 0.1);
+
+        DispatchPlan plan = planner.plan(problem, 10, 1);
+
+        assertEquals(10, plan.unassigned());
+        assertEquals(100.0, plan.loadKg()[0], 1e-9);
+        assertEquals(100.0, plan.loadKg()[1], 1e-9);
+    }
+
+    @Test
+    @DisplayName("Đơn sót vì hạn mức cân bằng nhưng shipper còn chỗ thật: được xếp ở bước sửa")
+    void parcelsLeftByQuotaAreRepaired() {
+        // Hạn mức mỗi shipper 50kg (2 điểm): hai đơn 30kg không chung một shipper, đơn 30kg thứ ba bị sót
+        double[] lat = {10.800, 10.801, 10.850, 10.851};
+        double[] lon = {106.700, 106.701, 106.750, 106.751};
+        double[] weight = {30, 30, 30, 10};
+        DispatchProblem problem = new DispatchProblem(lat, lon, weight,
+            new double[] {100, 100}, new int[] {0, 0}, new double[] {0, 0}, 0);
+
+        DispatchPlan plan = planner.plan(problem, 10, 1);
+
+        assertEquals(0, plan.unassigned());
+        assertEquals(100.0, plan.loadKg()[0] + plan.loadKg()[1], 1e-9);
+        assertTrue(plan.loadKg()[0] <= 100 && plan.loadKg()[1] <= 100);
+    }
+
+    @Test
+    @DisplayName("Phân bổ cân bằng theo tỉ lệ tải trọng")
+    void balancesProportionallyToCapacity() {
+        SplittableRandom random = new SplittableRandom(5);
+        int n = 600;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double[] weight = new double[n];
+        for (int p = 0; p < n; p++) {
+            // Dồn phần lớn đơn về một góc: không có cân bằng thì một shipper sẽ nhận gần hết
+            boolean dense = p < 450;
+            lat[p] = dense ? 10.80 + random.nextDouble() * 0.01 : 10.70 + random.nextDouble() * 0.2;
+            lon[p] = dense ? 106.70 + random.nextDouble() * 0.01 : 106.60 + random.nextDouble() * 0.2;
+            weight[p] = 1;
+        }
+        DispatchProblem problem = new DispatchProblem(lat, lon, weight,
+            new double[] {200, 200, 400}, new int[] {0, 0, 0}, new double[] {0, 0, 0}, 0.1);
+
+        DispatchPlan plan = planner.plan(problem, 15, 9);
+
+        assertEquals(0, plan.unassigned());
+        assertTrue(plan.stops()[0] <= 165 && plan.stops()[1] <= 165, "small shippers above quota");
+        assertTrue(plan.stops()[2] <= 330, "large shipper above quota");
+    }
+}
@@ -0,0 +1,139 @@
+package com.ds.session.session_service.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.ds.session.session_service.business.v1.routing.DistanceMatrixStore;
+import com.ds.session.session_service.business.v1.routing.MatrixLocation;
+
+/**
+ * Kiểm tra bộ nhớ đệm ma trận khoảng cách: lấy theo lô, dùng lại giữa các yêu cầu, loại LRU.
+ */
+class DistanceMatrixStoreTest {
+
+    private final StubRoutingMatrixBackend backend = new StubRoutingMatrixBackend();
+
+    @Test
+    @DisplayName("Ma trận con đúng giá trị backend, lần thứ hai phục vụ hoàn toàn từ cache")
+    void secondRequestIsServedFromCache() {
+        DistanceMatrixStore store = new DistanceMatrixStore(64, 100, backend, null);
+        List<MatrixLocation> locations = grid(10, 0);
+
+        DistanceMatrixStore.Submatrix first = store.submatrix(locations);
+        assertEquals(1, backend.callCount());
+        assertMatchesBackend(locations, first);
+
+        DistanceMatrixStore.Submatrix second = store.submatrix(locations);
+        assertEquals(1, backend.callCount());
+        assertMatchesBackend(locations, second);
+        assertEquals(90, store.hits());
+        assertEquals(90, store.misses());
+        assertEquals(0.5, store.hitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Chỉ các cặp còn thiếu được lấy thêm, thứ tự yêu cầu tuỳ ý")
+    void onlyMissingPairsAreFetched() {
+        DistanceMatrixStore store = new DistanceMatrixStore(64, 100, backend, null);
+        List<MatrixLocation> first = grid(6, 0);
+        store.submatrix(first);
+        backend.reset();
+
+        List<MatrixLocation> mixed = new ArrayList<>(grid(3, 100));
+        mixed.addAll(first.subList(0, 3));
+        Collections.reverse(mixed);
+        DistanceMatrixStore.Submatrix result = store.submatrix(mixed);
+
+        assertMatchesBackend(mixed, result);
+        assertEquals(1, backend.callCount());
+        // 3 điểm cũ đã có sẵn 3 * 2 cặp, còn lại phải lấy thêm
+        assertEquals(6, store.hits());
+        assertEquals(30 + 24, store.misses());
+    }
+
+    @Test
+    @DisplayName("Lô gửi backend không vượt quá giới hạn toạ độ")
+    void batchesRespectCoordinateLimit() {
+        DistanceMatrixStore store = new DistanceMatrixStore(256, 20, backend, null);
+        List<MatrixLocation> locations = grid(45, 0);
+
+        DistanceMatrixStore.Submatrix result = store.submatrix(locations);
+
+        assertMatchesBackend(locations, result);
+        for (int[] call : backend.calls()) {
+            assertTrue(call[0] + call[1] <= 20, "batch of " + call[0] + "+" + call[1]);
+        }
+        assertEquals(25, backend.callCount());
+    }
+
+    @Test
+    @DisplayName("Hết chỗ thì loại điểm ít dùng nhất, điểm vừa dùng vẫn được giữ")
+    void leastRecentlyUsedDestinationsAreEvicted() {
+        DistanceMatrixStore store = new DistanceMatrixStore(8, 100, backend, null);
+        List<MatrixLocation> a = grid(4, 0);
+        List<MatrixLocation> b = grid(4, 100);
+        List<MatrixLocation> c = grid(4, 200);
+
+        store.submatrix(a);
+        store.submatrix(b);
+        store.submatrix(a);
+        backend.reset();
+
+        store.submatrix(c);
+        assertEquals(1, backend.callCount());
+        assertEquals(4, store.evictions());
+        assertEquals(8, store.size());
+
+        // a vẫn còn nguyên, b đã bị loại nên phải lấy lại
+        store.submatrix(a);
+        assertEquals(1, backend.callCount());
+        store.submatrix(b);
+        assertEquals(2, backend.callCount());
+    }
+
+    @Test
+    @DisplayName("Điểm đổi toạ độ bị lấy lại dữ liệu, trùng id trong cùng yêu cầu có thời gian 0")
+    void movedAndDuplicatedDestinations() {
+        DistanceMatrixStore store = new DistanceMatrixStore(16, 100, backend, null);
+        List<MatrixLocation> locations = grid(4, 0);
+        store.submatrix(locations);
+        backend.reset();
+
+        List<MatrixLocation> moved = new ArrayList<>(locations);
+        moved.set(2, new MatrixLocation("d-2", 10.9, 106.9));
+        moved.add(moved.get(0));
+        DistanceMatrixStore.Submatrix result = store.submatrix(moved);
+
+        assertEquals(1, backend.callCount());
+        assertMatchesBackend(moved, result);
+        assertEquals(0f, result.duration(0, 4));
+    }
+
+    private static void assertMatchesBackend(List<MatrixLocation> locations, DistanceMatrixStore.Submatrix matrix) {
+        assertEquals(locations.size(), matrix.size());
+        for (int i = 0; i < locations.size(); i++) {
+            for (int j = 0; j < locations.size(); j++) {
+                float expected = locations.get(i).id().equals(locations.get(j).id())
+                    ? 0f : StubRoutingMatrixBackend.meters(locations.get(i), locations.get(j));
+                assertEquals(expected, matrix.distance(i, j), 1e-3, "distance " + i + "->" + j);
+                assertEquals(expected / 10f, matrix.duration(i, j), 1e-3, "duration " + i + "->" + j);
+            }
+        }
+    }
+
+    private static List<MatrixLocation> grid(int count, int firstId) {
+        List<MatrixLocation> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = firstId + i;
+            locations.add(new MatrixLocation("d-" + id, 10.7 + (id % 10) * 0.01, 106.6 + (id / 10) * 0.01));
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,159 @@
+package com.ds.session.session_service.routing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.ds.session.session_service.business.v1.routing.RouteOptimizer;
+import com.ds.session.session_service.business.v1.routing.RouteSolution;
+import com.ds.session.session_service.business.v1.routing.RoutingProblem;
+
+/**
+ * Kiểm tra bộ tối ưu lộ trình: lời giải là hoán vị hợp lệ, tôn trọng khung giờ và gần tối ưu trên bài toán nhỏ.
+ */
+class RouteOptimizerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final RouteOptimizer optimizer = new RouteOptimizer(pool);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Các điểm thẳng hàng được ghé theo thứ tự khoảng cách")
+    void collinearStopsAreVisitedInOrder() {
+        // Điểm xuất phát ở 0, các điểm giao ở 3, 1, 4, 2 (km)
+        double[] positions = {0, 3, 1, 4, 2};
+        RoutingProblem problem = RoutingProblem.ofTravelMatrix(4, lineMatrix(positions));
+
+        RouteSolution solution = optimizer.optimize(problem, 4, 0, 42);
+
+        assertArrayEquals(new int[] {2, 4, 1, 3}, solution.order());
+        assertEquals(4.0, solution.travelSeconds(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Khung giờ buộc ghé điểm xa trước khi điểm gần")
+    void timeWindowForcesFarStopFirst() {
+        // Điểm 1 ở phía sau (-1), điểm 2 ở 5 và phải tới trước giây thứ 5
+        double[] positions = {0, -1, 5};
+        int nodes = positions.length;
+        double[] open = new double[nodes];
+        double[] close = {RoutingProblem.NO_WINDOW_CLOSE, RoutingProblem.NO_WINDOW_CLOSE, 5};
+        RoutingProblem problem = new RoutingProblem(2, lineMatrix(positions), new double[nodes], open, close, new double[nodes], 0);
+
+        RouteSolution solution = optimizer.optimize(problem, 2, 0, 7);
+
+        assertArrayEquals(new int[] {2, 1}, solution.order());
+        assertTrue(solution.isTimeWindowFeasible());
+    }
+
+    @Test
+    @DisplayName("Trên bài toán 8 điểm, kết quả bằng lời giải vét cạn")
+    void matchesBruteForceOnSmallInstances() {
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int instance = 0; instance < 20; instance++) {
+            RoutingProblem problem = randomProblem(8, random);
+
+            RouteSolution solution = optimizer.optimize(problem, 8, 0, instance);
+
+            int[] sorted = solution.order().clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8}, sorted, "Lời giải phải là hoán vị của các điểm");
+            double optimum = bruteForce(problem);
+            assertTrue(solution.objective() <= optimum * 1.02 + 1e-6,
+                "Instance " + instance + ": " + solution.objective() + " vs optimum " + optimum);
+        }
+    }
+
+    @Test
+    @DisplayName("Vượt tải trọng được báo trong kết quả")
+    void reportsCapacityExceeded() {
+        int nodes = 3;
+        double[] close = new double[nodes];
+        Arrays.fill(close, RoutingProblem.NO_WINDOW_CLOSE);
+        RoutingProblem problem = new RoutingProblem(2, lineMatrix(new double[] {0, 1, 2}), new double[nodes],
+            new double[nodes], close, new double[] {0, 60, 70}, 100);
+
+        assertTrue(optimizer.optimize(problem, 1, 0, 1).capacityExceeded());
+    }
+
+    private static double[] lineMatrix(double[] positions) {
+        int nodes = positions.length;
+        double[] matrix = new double[nodes * nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                matrix[i * nodes + j] = Math.abs(positions[i] - positions[j]);
+            }
+        }
+        return matrix;
+    }
+
+    private static RoutingProblem randomProblem(int size, SplittableRandom random) {
+        int nodes = size + 1;
+        double[] travel = new double[nodes * nodes];
+        for (int i = 0; i < nodes; i++) {
+            for (int j = 0; j < nodes; j++) {
+                // Bất đối xứng để kiểm tra delta 2-opt với ma trận một chiều
+                travel[i * nodes + j] = i == j ? 0 : random.nextDouble(60, 900);
+            }
+        }
+        double[] service = new double[nodes];
+        double[] open = new double[nodes];
+        double[] close = new double[nodes];
+        Arrays.fill(close, RoutingProblem.NO_WINDOW_CLOSE);
+        for (int i = 1; i < nodes; i++) {
+            service[i] = 60;
+            if (random.nextBoolean()) {
+                open[i] = random.nextDouble(0, 3000);
+                close[i] = open[i] + 1800;
+            }
+        }
+        return new RoutingProblem(size, travel, service, open, close, new double[nodes], 0);
+    }
+
+    private static double bruteForce(RoutingProblem problem) {
+        int[] order = new int[problem.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i + 1;
+        }
+        double best = Double.MAX_VALUE;
+        do {
+            best = Math.min(best, RouteOptimizer.evaluate(problem, order));
+        } while (nextPermutation(order));
+        return best;
+    }
+
+    private static boolean nextPermutation(int[] a) {
+        int i = a.length - 2;
+        while (i >= 0 && a[i] >= a[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        int j = a.length - 1;
+        while (a[j] <= a[i]) {
+            j--;
+        }
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+        for (int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+            tmp = a[l];
+            a[l] = a[r];
+            a[r] = tmp;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ds.session.session_service.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.ds.session.session_service.business.v1.routing.MatrixLocation;
+import com.ds.session.session_service.business.v1.routing.RoutingMatrixBackend;
+
+/**
+ * Backend giả cho test/benchmark: quãng đường = khoảng cách Manhattan theo độ * 111km, vận tốc 10 m/s.
+ * Ghi lại kích thước từng lô và có thể giả lập độ trễ mạng.
+ */
+public class StubRoutingMatrixBackend implements RoutingMatrixBackend {
+
+    private final long latencyNanos;
+    private final List<int[]> calls = new ArrayList<>();
+
+    public StubRoutingMatrixBackend() {
+        this(0);
+    }
+
+    public StubRoutingMatrixBackend(long latencyMillis) {
+        this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+    }
+
+    @Override
+    public synchronized void fetch(List<MatrixLocation> sources, List<MatrixLocation> destinations,
+                                   float[] durations, float[] distances) {
+        calls.add(new int[] {sources.size(), destinations.size()});
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        int columns = destinations.size();
+        for (int r = 0; r < sources.size(); r++) {
+            for (int c = 0; c < columns; c++) {
+                float meters = meters(sources.get(r), destinations.get(c));
+                distances[r * columns + c] = meters;
+                durations[r * columns + c] = meters / 10f;
+            }
+        }
+    }
+
+    public static float meters(MatrixLocation from, MatrixLocation to) {
+        return (float) ((Math.abs(from.lat() - to.lat()) + Math.abs(from.lon() - to.lon())) * 111_000d);
+    }
+
+    public synchronized int callCount() {
+        return calls.size();
+    }
+
+    public synchronized List<int[]> calls() {
+        return new ArrayList<>(calls);
+    }
+
+    public synchronized void reset() {
+        calls.clear();
+    }
+}
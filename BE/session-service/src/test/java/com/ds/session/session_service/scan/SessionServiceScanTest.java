@@ -0,0 +1,237 @@
+package com.ds.session.session_service.scan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.app_context.models.DeliverySession;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.app_context.repositories.DeliverySessionRepository;
+import com.ds.session.session_service.application.client.parcelclient.ParcelServiceClient;
+import com.ds.session.session_service.application.client.parcelclient.response.ParcelResponse;
+import com.ds.session.session_service.business.v1.services.ActiveSessionRegistry;
+import com.ds.session.session_service.business.v1.services.SessionService;
+import com.ds.session.session_service.common.entities.dto.request.CreateSessionRequest;
+import com.ds.session.session_service.common.entities.dto.response.AssignmentResponse;
+import com.ds.session.session_service.common.entities.dto.response.SessionResponse;
+import com.ds.session.session_service.common.enums.AssignmentStatus;
+import com.ds.session.session_service.common.enums.ParcelEvent;
+import com.ds.session.session_service.common.enums.SessionStatus;
+import com.ds.session.session_service.common.exceptions.ParcelServiceUnavailableException;
+import com.ds.session.session_service.common.interfaces.IAssignmentDeltaPublisher;
+import com.ds.session.session_service.common.interfaces.IEtaService;
+import com.ds.session.session_service.common.mapper.ParcelMapperImpl;
+
+import feign.FeignException;
+import feign.Request;
+
+/**
+ * Kiểm tra luồng quét QR: Parcel-Service từ chối thì bù trừ, lần gọi không rõ kết quả thì đọc lại trạng thái
+ * và chỉ giữ task khi không phiên nào khác giữ đơn, quét lại task đã xác nhận không gọi mạng.
+ * Tạo phiên theo danh sách đơn chỉ gọi Parcel-Service sau khi phiên đã commit.
+ */
+class SessionServiceScanTest {
+
+    private static final String SHIPPER = "shipper-1";
+    private static final String OTHER_SHIPPER = "shipper-2";
+    private static final Request REQUEST = Request.create(Request.HttpMethod.PUT, "/api/v1/parcels/change-status",
+        Map.of(), null, StandardCharsets.UTF_8, null);
+
+    private DeliverySessionRepository sessionRepository;
+    private DeliveryAssignmentRepository assignmentRepository;
+    private ParcelServiceClient parcelClient;
+    private PlatformTransactionManager transactionManager;
+    private SessionService service;
+    private final List<DeliveryAssignment> saved = new ArrayList<>();
+    private final String parcelId = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository = mock(DeliverySessionRepository.class);
+        assignmentRepository = mock(DeliveryAssignmentRepository.class);
+        parcelClient = mock(ParcelServiceClient.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        when(sessionRepository.findByDeliveryManIdAndStatus(anyString(), any())).thenReturn(Optional.empty());
+        when(sessionRepository.save(any(DeliverySession.class))).thenAnswer(invocation -> {
+            DeliverySession session = invocation.getArgument(0);
+            session.setId(UUID.randomUUID());
+            return session;
+        });
+        when(assignmentRepository.save(any(DeliveryAssignment.class))).thenAnswer(invocation -> {
+            DeliveryAssignment assignment = invocation.getArgument(0);
+            assignment.setId(UUID.randomUUID());
+            saved.add(assignment);
+            return assignment;
+        });
+        when(assignmentRepository.findBySession_IdAndParcelId(any(), anyString())).thenReturn(Optional.empty());
+        when(assignmentRepository.findAllActiveByParcelId(anyString(), eq(SessionStatus.IN_PROGRESS)))
+            .thenAnswer(invocation -> new ArrayList<>(saved));
+
+        service = new SessionService(sessionRepository, assignmentRepository, parcelClient,
+            new ActiveSessionRegistry(sessionRepository), new TransactionTemplate(transactionManager),
+            mock(IEtaService.class), mock(IAssignmentDeltaPublisher.class), new ParcelMapperImpl());
+    }
+
+    @Test
+    @DisplayName("Parcel-Service từ chối (4xx): xóa task vừa giữ chỗ và phiên vừa tạo")
+    void rejectionCompensatesReservation() {
+        when(parcelClient.changeParcelStatusIfCurrent(parcelId, ParcelEvent.SCAN_QR, "IN_WAREHOUSE"))
+            .thenThrow(new FeignException.Conflict("not IN_WAREHOUSE", REQUEST, new byte[0], Map.of()));
+
+        assertThrows(IllegalStateException.class, () -> service.acceptParcelToSession(SHIPPER, parcelId));
+
+        DeliveryAssignment reserved = saved.get(0);
+        verify(assignmentRepository).deleteById(reserved.getId());
+        verify(sessionRepository).deleteById(reserved.getSession().getId());
+    }
+
+    @Test
+    @DisplayName("Đơn đang trong phiên hoạt động của shipper khác: từ chối trước khi gọi Parcel-Service")
+    void parcelOfAnotherShipperIsRejectedAtReservation() {
+        saved.add(heldBy(OTHER_SHIPPER));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> service.acceptParcelToSession(SHIPPER, parcelId));
+
+        assertEquals("Parcel " + parcelId + " is already in an active session of another delivery man.", error.getMessage());
+        verifyNoInteractions(parcelClient);
+        verify(assignmentRepository, never()).save(any(DeliveryAssignment.class));
+    }
+
+    @Test
+    @DisplayName("Timeout, đơn đã ON_ROUTE và không ai khác giữ: lần gọi trước đã thành công, giữ task")
+    void ambiguousTimeoutKeepsTaskWhenParcelIsOurs() {
+        when(parcelClient.changeParcelStatusIfCurrent(parcelId, ParcelEvent.SCAN_QR, "IN_WAREHOUSE"))
+            .thenThrow(new FeignException.GatewayTimeout("timeout", REQUEST, new byte[0], Map.of()));
+        when(parcelClient.fetchParcelResponse(parcelId)).thenReturn(onRoute());
+
+        AssignmentResponse response = service.acceptParcelToSession(SHIPPER, parcelId);
+
+        assertEquals(saved.get(0).getId(), response.getId());
+        verify(assignmentRepository, never()).deleteById(any());
+    }
+
+    @Test
+    @DisplayName("Timeout trong lúc shipper khác quét thành công cùng đơn: nhả đơn, bù trừ task của mình")
+    void ambiguousTimeoutReleasesParcelHeldByAnotherShipper() {
+        when(parcelClient.changeParcelStatusIfCurrent(parcelId, ParcelEvent.SCAN_QR, "IN_WAREHOUSE")).thenAnswer(invocation -> {
+            // Lượt quét của shipper khác giữ chỗ và chuyển đơn sang ON_ROUTE trong lúc lần gọi này timeout
+            saved.add(heldBy(OTHER_SHIPPER));
+            throw new FeignException.GatewayTimeout("timeout", REQUEST, new byte[0], Map.of());
+        });
+        when(parcelClient.fetchParcelResponse(parcelId)).thenReturn(onRoute());
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> service.acceptParcelToSession(SHIPPER, parcelId));
+
+        assertEquals("Parcel " + parcelId + " is already in an active session of another delivery man.", error.getMessage());
+        DeliveryAssignment ours = saved.get(0);
+        verify(assignmentRepository).deleteById(ours.getId());
+        verify(sessionRepository).deleteById(ours.getSession().getId());
+    }
+
+    @Test
+    @DisplayName("Timeout và không đọc được trạng thái: giữ task chưa xác nhận, lần quét lại gọi chuyển trạng thái lần nữa")
+    void unreadableStateKeepsPendingTaskUntilRescan() {
+        when(parcelClient.changeParcelStatusIfCurrent(parcelId, ParcelEvent.SCAN_QR, "IN_WAREHOUSE"))
+            .thenThrow(new FeignException.GatewayTimeout("timeout", REQUEST, new byte[0], Map.of()))
+            .thenReturn(onRoute());
+        when(parcelClient.fetchParcelResponse(parcelId)).thenThrow(new FeignException.ServiceUnavailable("down", REQUEST, new byte[0], Map.of()));
+
+        assertThrows(ParcelServiceUnavailableException.class, () -> service.acceptParcelToSession(SHIPPER, parcelId));
+
+        DeliveryAssignment reserved = saved.get(0);
+        verify(assignmentRepository, never()).deleteById(any());
+        verify(assignmentRepository).updateParcelStatusPending(reserved.getId(), true);
+
+        reserved.setParcelStatusPending(true);
+        when(assignmentRepository.findBySession_IdAndParcelId(reserved.getSession().getId(), parcelId)).thenReturn(Optional.of(reserved));
+        AssignmentResponse response = service.acceptParcelToSession(SHIPPER, parcelId);
+
+        assertEquals(reserved.getId(), response.getId());
+        verify(assignmentRepository).updateParcelStatusPending(reserved.getId(), false);
+    }
+
+    @Test
+    @DisplayName("Quét lại task đã xác nhận: trả về task hiện có, không gọi Parcel-Service")
+    void rescanOfConfirmedTaskMakesNoRemoteCall() {
+        when(parcelClient.changeParcelStatusIfCurrent(parcelId, ParcelEvent.SCAN_QR, "IN_WAREHOUSE")).thenReturn(onRoute());
+        service.acceptParcelToSession(SHIPPER, parcelId);
+        DeliveryAssignment reserved = saved.get(0);
+        when(assignmentRepository.findBySession_IdAndParcelId(reserved.getSession().getId(), parcelId)).thenReturn(Optional.of(reserved));
+
+        AssignmentResponse response = service.acceptParcelToSession(SHIPPER, parcelId);
+
+        assertEquals(reserved.getId(), response.getId());
+        verify(parcelClient).changeParcelStatusIfCurrent(parcelId, ParcelEvent.SCAN_QR, "IN_WAREHOUSE");
+        verify(parcelClient, never()).fetchParcelResponse(anyString());
+    }
+
+    @Test
+    @DisplayName("Tạo phiên: báo Parcel-Service sau commit; đơn gọi lỗi giữ cờ chưa xác nhận, phiên vẫn được tạo")
+    void createSessionMarksParcelsOnRouteAfterCommit() {
+        String failingParcel = UUID.randomUUID().toString();
+        when(sessionRepository.save(any(DeliverySession.class))).thenAnswer(invocation -> {
+            DeliverySession session = invocation.getArgument(0);
+            session.setId(UUID.randomUUID());
+            session.getAssignments().forEach(assignment -> assignment.setId(UUID.randomUUID()));
+            return session;
+        });
+        doThrow(new FeignException.ServiceUnavailable("down", REQUEST, new byte[0], Map.of()))
+            .when(parcelClient).changeParcelStatus(failingParcel, ParcelEvent.SCAN_QR);
+        CreateSessionRequest request = new CreateSessionRequest();
+        request.setDeliveryManId(SHIPPER);
+        request.setParcelIds(List.of(parcelId, failingParcel));
+
+        SessionResponse response = service.createSession(request);
+
+        assertEquals(2, response.getAssignments().size());
+        InOrder inOrder = inOrder(transactionManager, parcelClient);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(parcelClient).changeParcelStatus(parcelId, ParcelEvent.SCAN_QR);
+        verify(assignmentRepository).clearParcelStatusPending(List.of(response.getAssignments().get(0).getId()));
+    }
+
+    private DeliveryAssignment heldBy(String deliveryManId) {
+        DeliverySession session = DeliverySession.builder()
+            .id(UUID.randomUUID())
+            .deliveryManId(deliveryManId)
+            .status(SessionStatus.IN_PROGRESS)
+            .build();
+        return DeliveryAssignment.builder()
+            .id(UUID.randomUUID())
+            .session(session)
+            .parcelId(parcelId)
+            .status(AssignmentStatus.IN_PROGRESS)
+            .scanedAt(LocalDateTime.now())
+            .build();
+    }
+
+    private ParcelResponse onRoute() {
+        return ParcelResponse.builder().id(parcelId).status("ON_ROUTE").build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.ds.session.session_service.taskactions;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ds.session.session_service.app_context.models.DeliveryAssignment;
+import com.ds.session.session_service.app_context.repositories.DeliveryAssignmentRepository;
+import com.ds.session.session_service.application.client.parcelclient.ParcelServiceClient;
+import com.ds.session.session_service.business.v1.services.ParcelStatusSyncService;
+import com.ds.session.session_service.common.enums.ParcelEvent;
+
+import feign.FeignException;
+import feign.Request;
+
+/**
+ * Trạng thái đơn của task đã kết thúc được gửi sau commit: nhận hoặc bị từ chối dứt khoát thì xóa sự kiện chờ,
+ * lỗi tạm thời thì giữ lại cho job gửi lại.
+ */
+class ParcelStatusSyncServiceTest {
+
+    private static final Request REQUEST = Request.create(Request.HttpMethod.PUT, "/api/v1/parcels/change-status",
+        Map.of(), null, StandardCharsets.UTF_8, null);
+
+    private final UUID assignmentId = UUID.randomUUID();
+    private final String parcelId = UUID.randomUUID().toString();
+    private DeliveryAssignmentRepository repository;
+    private ParcelServiceClient parcelClient;
+    private ParcelStatusSyncService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DeliveryAssignmentRepository.class);
+        parcelClient = mock(ParcelServiceClient.class);
+        service = new ParcelStatusSyncService(repository, parcelClient, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("Parcel-Service nhận sự kiện: xóa sự kiện chờ")
+    void deliveredEventIsCleared() {
+        service.syncAfterCommit(assignmentId, parcelId, ParcelEvent.DELIVERY_SUCCESSFUL);
+
+        verify(parcelClient).changeParcelStatus(parcelId, ParcelEvent.DELIVERY_SUCCESSFUL);
+        verify(repository).clearPendingParcelEvent(assignmentId, ParcelEvent.DELIVERY_SUCCESSFUL);
+    }
+
+    @Test
+    @DisplayName("Parcel-Service lỗi tạm thời (5xx): giữ sự kiện chờ, job định kỳ gửi lại")
+    void transientFailureKeepsEventForRetry() {
+        doThrow(new FeignException.ServiceUnavailable("down", REQUEST, new byte[0], Map.of()))
+            .when(parcelClient).changeParcelStatus(parcelId, ParcelEvent.CAN_NOT_DELIVERY);
+
+        service.syncAfterCommit(assignmentId, parcelId, ParcelEvent.CAN_NOT_DELIVERY);
+        verify(repository, never()).clearPendingParcelEvent(any(), any());
+
+        DeliveryAssignment pending = DeliveryAssignment.builder()
+            .id(assignmentId)
+            .parcelId(parcelId)
+            .pendingParcelEvent(ParcelEvent.CAN_NOT_DELIVERY)
+            .build();
+        when(repository.findWithPendingParcelEvent(any(), any())).thenReturn(List.of(pending));
+        doThrow(new FeignException.Conflict("already FAILED", REQUEST, new byte[0], Map.of()))
+            .when(parcelClient).changeParcelStatus(parcelId, ParcelEvent.CAN_NOT_DELIVERY);
+
+        service.retryPending();
+
+        // Bị từ chối dứt khoát (đã chuyển ở lần trước): gửi lại cũng vậy, bỏ sự kiện chờ
+        verify(repository).clearPendingParcelEvent(assignmentId, ParcelEvent.CAN_NOT_DELIVERY);
+    }
+}
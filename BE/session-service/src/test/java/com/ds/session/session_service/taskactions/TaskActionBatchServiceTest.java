@@ -0,0 +1,192 @@
+package com.ds.session.session_service.taskactions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ds.session.session_service.app_context.models.ProcessedTaskAction;
+import com.ds.session.session_service.app_context.repositories.DeliverySessionRepository;
+import com.ds.session.session_service.app_context.repositories.ProcessedTaskActionRepository;
+import com.ds.session.session_service.business.v1.services.ActiveSessionRegistry;
+import com.ds.session.session_service.business.v1.services.TaskActionBatchService;
+import com.ds.session.session_service.common.entities.dto.request.TaskActionBatchRequest;
+import com.ds.session.session_service.common.entities.dto.response.DeliveryAssignmentResponse;
+import com.ds.session.session_service.common.entities.dto.response.TaskActionBatchResponse;
+import com.ds.session.session_service.common.enums.TaskActionOutcome;
+import com.ds.session.session_service.common.enums.TaskActionType;
+import com.ds.session.session_service.common.exceptions.ParcelServiceUnavailableException;
+import com.ds.session.session_service.common.interfaces.IDeliveryAssignmentService;
+import com.ds.session.session_service.common.interfaces.ISessionService;
+
+/**
+ * Kiểm tra lô hành động từ outbox: gửi lại nhận DUPLICATE, áp dụng theo thứ tự thao tác,
+ * lỗi tạm thời trả RETRY (không ghi nhận, chặn các hành động sau của cùng đơn), vi phạm nghiệp vụ trả REJECTED.
+ */
+class TaskActionBatchServiceTest {
+
+    private static final UUID SHIPPER = UUID.randomUUID();
+
+    private final Map<UUID, ProcessedTaskAction> processed = new ConcurrentHashMap<>();
+    private ProcessedTaskActionRepository repository;
+    private IDeliveryAssignmentService assignmentService;
+    private ISessionService sessionService;
+    private PlatformTransactionManager transactionManager;
+    private TaskActionBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProcessedTaskActionRepository.class);
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<ProcessedTaskAction> found = new ArrayList<>();
+            for (Object id : invocation.<Iterable<?>>getArgument(0)) {
+                ProcessedTaskAction action = processed.get(id);
+                if (action != null) {
+                    found.add(action);
+                }
+            }
+            return found;
+        });
+        when(repository.save(any(ProcessedTaskAction.class))).thenAnswer(invocation -> {
+            ProcessedTaskAction action = invocation.getArgument(0);
+            processed.put(action.getActionId(), action);
+            return action;
+        });
+
+        assignmentService = mock(IDeliveryAssignmentService.class);
+        DeliveryAssignmentResponse completed = DeliveryAssignmentResponse.builder().status("COMPLETED").build();
+        when(assignmentService.completeTask(any(), any(), any())).thenReturn(completed);
+        when(assignmentService.deliveryFailed(any(), any(), anyString(), any()))
+            .thenReturn(DeliveryAssignmentResponse.builder().status("FAILED").build());
+        sessionService = mock(ISessionService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        service = new TaskActionBatchService(repository, assignmentService, sessionService,
+            new ActiveSessionRegistry(mock(DeliverySessionRepository.class)), new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @DisplayName("Gửi lại hành động đã áp dụng nhận DUPLICATE, không áp dụng lần hai")
+    void resendIsDuplicate() {
+        TaskActionBatchRequest.TaskAction complete = action(TaskActionType.COMPLETE, UUID.randomUUID().toString(), 10);
+
+        TaskActionBatchResponse first = service.applyBatch(SHIPPER, batch(complete));
+        TaskActionBatchResponse resend = service.applyBatch(SHIPPER, batch(complete));
+
+        assertEquals(TaskActionOutcome.APPLIED, first.getResults().get(0).getOutcome());
+        assertEquals(TaskActionOutcome.DUPLICATE, resend.getResults().get(0).getOutcome());
+        assertEquals("APPLIED: COMPLETED", resend.getResults().get(0).getMessage());
+        assertEquals(1, resend.getDuplicates());
+        verify(assignmentService, times(1)).completeTask(any(), eq(SHIPPER), any());
+    }
+
+    @Test
+    @DisplayName("Trong một lô, hành động được áp dụng theo clientTimestamp chứ không theo thứ tự gửi")
+    void appliesInClientOrder() {
+        String scanned = UUID.randomUUID().toString();
+        String delivered = UUID.randomUUID().toString();
+        String failed = UUID.randomUUID().toString();
+        TaskActionBatchRequest.TaskAction fail = action(TaskActionType.FAIL, failed, 30);
+        fail.setReason("Không liên lạc được");
+
+        TaskActionBatchResponse response = service.applyBatch(SHIPPER, batch(
+            fail,
+            action(TaskActionType.SCAN, scanned, 10),
+            action(TaskActionType.COMPLETE, delivered, 20)));
+
+        InOrder order = inOrder(sessionService, assignmentService);
+        order.verify(sessionService).acceptParcelToSession(SHIPPER.toString(), scanned);
+        order.verify(assignmentService).completeTask(eq(UUID.fromString(delivered)), eq(SHIPPER), any());
+        order.verify(assignmentService).deliveryFailed(eq(UUID.fromString(failed)), eq(SHIPPER), eq("Không liên lạc được"), any());
+        assertEquals(List.of(scanned, delivered, failed),
+            response.getResults().stream().map(TaskActionBatchResponse.Result::getParcelId).toList());
+        assertEquals(3, response.getApplied());
+        assertEquals(3, processed.size());
+    }
+
+    @Test
+    @DisplayName("Lỗi tạm thời trả RETRY, không ghi nhận, hành động sau của cùng đơn chờ lần gửi lại")
+    void transientFailureIsRetried() {
+        String parcel = UUID.randomUUID().toString();
+        TaskActionBatchRequest.TaskAction scan = action(TaskActionType.SCAN, parcel, 10);
+        TaskActionBatchRequest.TaskAction complete = action(TaskActionType.COMPLETE, parcel, 20);
+        when(sessionService.acceptParcelToSession(SHIPPER.toString(), parcel))
+            .thenThrow(new ParcelServiceUnavailableException("parcel-service timed out", null))
+            .thenReturn(null);
+
+        TaskActionBatchResponse response = service.applyBatch(SHIPPER, batch(scan, complete));
+
+        assertEquals(TaskActionOutcome.RETRY, response.getResults().get(0).getOutcome());
+        assertEquals(TaskActionOutcome.RETRY, response.getResults().get(1).getOutcome());
+        assertEquals(2, response.getRetry());
+        assertTrue(processed.isEmpty());
+        verify(assignmentService, never()).completeTask(any(), any(), any());
+
+        // Gửi lại khi parcel-service đã ổn: cả hai được áp dụng theo đúng thứ tự
+        TaskActionBatchResponse resend = service.applyBatch(SHIPPER, batch(scan, complete));
+        assertEquals(2, resend.getApplied());
+    }
+
+    @Test
+    @DisplayName("Không ghi nhận được thì hành động bị rollback và trả RETRY thay vì mất idempotency")
+    void recordFailureRollsBackAction() {
+        TaskActionBatchRequest.TaskAction complete = action(TaskActionType.COMPLETE, UUID.randomUUID().toString(), 10);
+        doThrow(new DataAccessResourceFailureException("connection reset")).when(repository).save(any(ProcessedTaskAction.class));
+
+        TaskActionBatchResponse response = service.applyBatch(SHIPPER, batch(complete));
+
+        assertEquals(TaskActionOutcome.RETRY, response.getResults().get(0).getOutcome());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @DisplayName("Vi phạm nghiệp vụ trả REJECTED và được ghi nhận để lần gửi lại nhận DUPLICATE")
+    void domainViolationIsRejected() {
+        String parcel = UUID.randomUUID().toString();
+        when(assignmentService.completeTask(eq(UUID.fromString(parcel)), eq(SHIPPER), any()))
+            .thenThrow(new IllegalStateException("Task is not IN_PROGRESS"));
+        TaskActionBatchRequest.TaskAction complete = action(TaskActionType.COMPLETE, parcel, 10);
+
+        TaskActionBatchResponse response = service.applyBatch(SHIPPER, batch(complete));
+
+        assertEquals(TaskActionOutcome.REJECTED, response.getResults().get(0).getOutcome());
+        assertEquals(TaskActionOutcome.REJECTED, processed.get(complete.getActionId()).getOutcome());
+        assertEquals(1, response.getRejected());
+    }
+
+    private static TaskActionBatchRequest batch(TaskActionBatchRequest.TaskAction... actions) {
+        return TaskActionBatchRequest.builder().actions(List.of(actions)).build();
+    }
+
+    private static TaskActionBatchRequest.TaskAction action(TaskActionType type, String parcelId, long clientTimestamp) {
+        return TaskActionBatchRequest.TaskAction.builder()
+            .actionId(UUID.randomUUID())
+            .type(type)
+            .parcelId(parcelId)
+            .clientTimestamp(clientTimestamp)
+            .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.ds.session.session_service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.ds.session.session_service.common.utils.PolylineCodec;
+
+/**
+ * Kiểm tra mã hóa/giải mã polyline (delta + varint) cho waypoints của task.
+ */
+class PolylineCodecTest {
+
+    @Test
+    @DisplayName("Giải mã lại đúng tọa độ trong sai số 1e-6 (kể cả tọa độ âm và bước nhảy lớn)")
+    void roundTripKeepsMicroDegreePrecision() {
+        double[] latLon = {
+            10.7626220, 106.6601720,
+            10.7626225, 106.6601710,
+            -33.8688197, 151.2092955,
+            0, 0,
+            89.9999999, -179.9999999
+        };
+        double[] decoded = PolylineCodec.decode(PolylineCodec.encode(latLon));
+        assertEquals(latLon.length, decoded.length);
+        for (int i = 0; i < latLon.length; i++) {
+            assertEquals(latLon[i], decoded[i], 5e-7);
+        }
+    }
+
+    @Test
+    @DisplayName("Lộ trình thực tế (bước ~10m) chỉ tốn vài byte mỗi điểm")
+    void gpsTrackIsCompact() {
+        SplittableRandom random = new SplittableRandom(1);
+        int points = 1_000;
+        double[] latLon = new double[points * 2];
+        double lat = 10.76;
+        double lon = 106.66;
+        for (int i = 0; i < points; i++) {
+            lat += (random.nextDouble() - 0.5) * 2e-4;
+            lon += (random.nextDouble() - 0.5) * 2e-4;
+            latLon[2 * i] = lat;
+            latLon[2 * i + 1] = lon;
+        }
+        String encoded = PolylineCodec.encode(latLon);
+        assertEquals(points, PolylineCodec.count(encoded));
+        assertTrue(encoded.length() <= points * 8, "encoded size " + encoded.length());
+    }
+
+    @Test
+    @DisplayName("Chuỗi rỗng là danh sách rỗng, chuỗi hỏng bị từ chối")
+    void emptyAndMalformedInput() {
+        assertEquals("", PolylineCodec.encode(new double[0]));
+        assertEquals(0, PolylineCodec.decode("").length);
+        assertThrows(IllegalArgumentException.class, () -> PolylineCodec.decode("_"));
+        assertThrows(IllegalArgumentException.class, () -> PolylineCodec.decode("??\u0001"));
+        assertThrows(IllegalArgumentException.class, () -> PolylineCodec.encode(new double[] {1, 2, 3}));
+    }
+}
@@ -100,6 +100,29 @@ export class AddressController {
     }
   }
 
+  /**
+   * POST /addresses/by-ids
+   * Get many addresses by ID in one call (body: { ids: string[] }, max 500)
+   */
+  getAddressesByIds = async (req: Request, res: Response) => {
+    try {
+      const ids = req.body?.ids
+      if (!Array.isArray(ids) || ids.some((id: unknown) => typeof id !== 'string')) {
+        return res.status(400).json(BaseResponse.error('ids must be an array of address IDs'))
+      }
+      if (ids.length > 500) {
+        return res.status(400).json(BaseResponse.error('At most 500 IDs per request'))
+      }
+
+      const addresses = await this.service.getAddressesByIds([...new Set<string>(ids)])
+
+      return res.json(BaseResponse.success(addresses))
+    } catch (error: any) {
+      console.error('Error getting addresses by IDs:', error)
+      return res.status(500).json(BaseResponse.error(error.message || 'Failed to get addresses'))
+    }
+  }
+
   /**
    * GET /addresses
    * List addresses with pagination and filters
@@ -331,4 +354,23 @@ export class AddressController {
       return res.status(500).json(BaseResponse.error(error.message || 'Failed to get addresses by zone'))
     }
   }
+
+  /**
+   * GET /addresses/export
+   * Export addresses page by page (keyset on id)
+   */
+  exportAddresses = async (req: Request, res: Response) => {
+    try {
+      const { afterId, limit } = req.query
+      const result = await this.service.exportAddresses(
+        afterId as string | undefined,
+        limit ? parseInt(limit as string) : 1000
+      )
+
+      return res.json(BaseResponse.success(result))
+    } catch (error: any) {
+      console.error('Error exporting addresses:', error)
+      return res.status(500).json(BaseResponse.error(error.message || 'Failed to export addresses'))
+    }
+  }
 }
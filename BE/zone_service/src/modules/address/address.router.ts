@@ -35,6 +35,14 @@ router.post('/get-or-create', addressController.getOrCreateAddress)
  */
 router.post('/batch', addressController.batchImport)
 
+/**
+ * @route POST /api/v1/addresses/by-ids
+ * @desc Get many addresses by ID
+ * @body ids (max 500)
+ * @access Public
+ */
+router.post('/by-ids', addressController.getAddressesByIds)
+
 /**
  * @route GET /api/v1/addresses/by-point
  * @desc Local-first lookup by point, fallback to TrackAsia
@@ -59,6 +67,14 @@ router.get('/search', addressController.searchByText)
  */
 router.get('/nearest', addressController.findNearestAddresses)
 
+/**
+ * @route GET /api/v1/addresses/export
+ * @desc Export addresses in id order (keyset paging) for local indexes
+ * @query afterId, limit (max 5000)
+ * @access Public
+ */
+router.get('/export', addressController.exportAddresses)
+
 /**
  * @route GET /api/v1/addresses/segments/:segmentId
  * @desc Get addresses on a specific road segment
@@ -623,6 +623,47 @@ export class AddressService {
     return new PagedData(data, paging)
   }
 
+  /**
+   * Export addresses in address_id order (keyset paging)
+   * - Used by consumers that keep a local copy (e.g. the gateway's nearest-address index)
+   * - Stable under concurrent inserts, unlike offset paging ordered by created_at
+   */
+  async exportAddresses(afterId: string | undefined, limit: number): Promise<{ data: AddressDto[]; nextAfterId: string | null }> {
+    const take = Math.min(Math.max(limit, 1), 5000)
+    const addresses = await this.prisma.addresses.findMany({
+      where: afterId ? { address_id: { gt: afterId } } : {},
+      include: {
+        road_segment: true,
+        zones: true
+      },
+      orderBy: { address_id: 'asc' },
+      take
+    })
+
+    return {
+      data: addresses.map(a => this.toDto(a)),
+      nextAfterId: addresses.length === take ? addresses[addresses.length - 1].address_id : null
+    }
+  }
+
+  /**
+   * Get many addresses by ID in one query (unknown IDs are skipped)
+   */
+  async getAddressesByIds(ids: string[]): Promise<AddressDto[]> {
+    if (ids.length === 0) {
+      return []
+    }
+    const addresses = await this.prisma.addresses.findMany({
+      where: { address_id: { in: ids } },
+      include: {
+        road_segment: true,
+        zones: true
+      }
+    })
+
+    return addresses.map(a => this.toDto(a))
+  }
+
   /**
    * Delete address
    */
@@ -6,7 +6,7 @@
 import { Request, Response, NextFunction } from 'express';
 import { plainToClass } from 'class-transformer';
 import { RoutingService } from './routing.service';
-import { RouteRequestDto, DemoRouteRequestDto } from './routing.model';
+import { RouteRequestDto, DemoRouteRequestDto, MatrixRequestDto } from './routing.model';
 import { BaseResponse } from '../../common/types/restful';
 
 export class RoutingController {
@@ -29,6 +29,25 @@ export class RoutingController {
     }
   }
 
+  /**
+   * Calculate duration/distance matrix between sources and destinations
+   */
+  public static async calculateMatrix(req: Request, res: Response, next: NextFunction): Promise<void> {
+    try {
+      const data = plainToClass(MatrixRequestDto, req.body);
+
+      if (!data.sources || data.sources.length === 0 || !data.destinations || data.destinations.length === 0) {
+        res.status(400).json(BaseResponse.error('At least 1 source and 1 destination are required'));
+        return;
+      }
+
+      const result = await RoutingService.calculateMatrix(data);
+      res.json(BaseResponse.success(result));
+    } catch (error) {
+      next(error);
+    }
+  }
+
   /**
    * Calculate priority-based multi-stop route
    */
@@ -209,3 +209,38 @@ export interface DemoRouteResponseDto {
     priorityCounts: Record<string, number>;
   };
 }
+
+/**
+ * Matrix Request DTO
+ * Many-to-many durations/distances between sources and destinations (OSRM table)
+ */
+export class MatrixRequestDto {
+  @IsArray()
+  @ValidateNested({ each: true })
+  @Type(() => WaypointDto)
+  sources!: WaypointDto[];
+
+  @IsArray()
+  @ValidateNested({ each: true })
+  @Type(() => WaypointDto)
+  destinations!: WaypointDto[];
+
+  @IsOptional()
+  @IsString()
+  @IsIn(['car', 'motorbike'])
+  vehicle?: 'car' | 'motorbike';
+
+  @IsOptional()
+  @IsString()
+  @IsIn(['v2-full', 'v2-rating-only', 'v2-blocking-only', 'v2-base'])
+  mode?: 'v2-full' | 'v2-rating-only' | 'v2-blocking-only' | 'v2-base';
+}
+
+/**
+ * Matrix Response DTO
+ * durations (seconds) / distances (meters), indexed [source][destination]; null when unreachable
+ */
+export interface MatrixResponseDto {
+  durations: Array<Array<number | null>>;
+  distances: Array<Array<number | null>>;
+}
@@ -20,6 +20,12 @@ routingRouter.post('/route', RoutingController.calculateRoute);
  */
 routingRouter.post('/priority-route', RoutingController.calculatePriorityRoute);
 
+/**
+ * POST /routing/matrix
+ * Duration/distance matrix between sources and destinations (OSRM table)
+ */
+routingRouter.post('/matrix', RoutingController.calculateMatrix);
+
 /**
  * GET /routing/simple
  * Get route between two points (simple query params)
@@ -16,6 +16,8 @@ import {
   DemoRouteRequestDto,
   DemoRouteResponseDto,
   WaypointDto,
+  MatrixRequestDto,
+  MatrixResponseDto,
 } from './routing.model';
 
 export class RoutingService {
@@ -1121,6 +1123,51 @@ export class RoutingService {
     return instructions[key || 'continue'] || `Continue on ${name}`;
   }
 
+  /**
+   * Resolve OSRM base URL for a routing mode (V2 models work for both motorbike and car)
+   */
+  private static getOSRMTableBaseUrl(mode: string): string {
+    const modeUrls: Record<string, string> = {
+      'v2-full': process.env.OSRM_V2_FULL_URL || 'http://localhost:25920',
+      'v2-rating-only': process.env.OSRM_V2_RATING_URL || 'http://localhost:25921',
+      'v2-blocking-only': process.env.OSRM_V2_BLOCKING_URL || 'http://localhost:25922',
+      'v2-base': process.env.OSRM_V2_BASE_URL || 'http://localhost:25923',
+    };
+    return modeUrls[mode] || modeUrls['v2-full'] || 'http://localhost:25920';
+  }
+
+  /**
+   * Many-to-many duration/distance matrix (OSRM table with sources/destinations)
+   * Used by session-service to fill its distance matrix cache in batches
+   */
+  public static async calculateMatrix(request: MatrixRequestDto): Promise<MatrixResponseDto> {
+    const vehicleType = request.vehicle === 'car' ? 'driving' : 'motorbike';
+    const baseUrl = RoutingService.getOSRMTableBaseUrl(request.mode || 'v2-full');
+    const points = [...request.sources, ...request.destinations];
+    const coordinates = points.map(p => `${p.lon},${p.lat}`).join(';');
+    const sources = request.sources.map((_, i) => i).join(';');
+    const destinations = request.destinations.map((_, i) => request.sources.length + i).join(';');
+
+    const url = `${baseUrl}/table/v1/${vehicleType}/${coordinates}?sources=${sources}&destinations=${destinations}&annotations=duration,distance`;
+
+    try {
+      const axios = await import('axios');
+      const response = await axios.default.get(url);
+
+      if (response.data.code !== 'Ok') {
+        throw new Error(`OSRM table API error: ${response.data.code}`);
+      }
+
+      return {
+        durations: response.data.durations || [],
+        distances: response.data.distances || [],
+      };
+    } catch (error: any) {
+      logger.error(`Failed to fetch OSRM matrix from ${baseUrl}:`, error.message);
+      throw new Error(`Failed to fetch OSRM matrix: ${error.message}`);
+    }
+  }
+
     /**
    * Get OSRM table (distance/duration matrix) using appropriate vehicle/mode
    */
@@ -1133,13 +1180,7 @@ export class RoutingService {
     const coordinates = points.map(p => `${p.lon},${p.lat}`).join(';');
     
     // V2 Models (Simplified Architecture) - works for both motorbike and car
-    const modeUrls: Record<string, string> = {
-      'v2-full': process.env.OSRM_V2_FULL_URL || 'http://localhost:25920',
-      'v2-rating-only': process.env.OSRM_V2_RATING_URL || 'http://localhost:25921',
-      'v2-blocking-only': process.env.OSRM_V2_BLOCKING_URL || 'http://localhost:25922',
-      'v2-base': process.env.OSRM_V2_BASE_URL || 'http://localhost:25923',
-    };
-    const baseUrl = modeUrls[mode] || modeUrls['v2-full'] || 'http://localhost:25920';
+    const baseUrl = RoutingService.getOSRMTableBaseUrl(mode);
 
     const url = `${baseUrl}/table/v1/${vehicleType}/${coordinates}?annotations=duration,distance`;
     
@@ -32,6 +32,7 @@ import com.ds.deliveryapp.clients.res.PageResponse;
 import com.ds.deliveryapp.clients.res.ProposalTypeConfig;
 import com.ds.deliveryapp.configs.RetrofitClient;
 import com.ds.deliveryapp.enums.ContentType;
+import com.ds.deliveryapp.repository.ChatHistoryRepository;
 import com.ds.deliveryapp.utils.ChatWebSocketListener;
 import com.ds.deliveryapp.utils.ChatWebSocketManager;
 import com.google.gson.Gson;
@@ -79,6 +80,9 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
     private boolean mIsLoadingMore = false;
     private boolean mHasMoreMessages = true;
     private static final int PAGE_SIZE = 30;
+    // Bộ nhớ chat cục bộ (Room): hiện ngay trang mới nhất khi mở, dùng khi mất mạng
+    private ChatHistoryRepository mHistoryRepository;
+    private boolean mServerHistoryLoaded = false;
 
     // Networking & Auth
     private ChatWebSocketManager mWebSocketManager;
@@ -109,6 +113,7 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
         if (!validateInitialIntentData()) { return; }
 
         initRetrofitClients();
+        mHistoryRepository = new ChatHistoryRepository(this);
         initRecyclerView();
 
         // 2. Cập nhật Adapter với UserID
@@ -225,7 +230,7 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
     }
 
     private void initRetrofitClients() {
-        mChatClient = RetrofitClient.getChatRetrofitInstance().create(ChatClient.class);
+        mChatClient = RetrofitClient.getChatRetrofitInstance(this).create(ChatClient.class);
     }
     /**
      * Lấy ID cuộc trò chuyện (gọi API /conversations/find-by-users).
@@ -298,6 +303,8 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
         
         mCurrentPage = 0;
         mHasMoreMessages = true;
+        mServerHistoryLoaded = false;
+        showCachedHistory();
         
         Call<PageResponse<Message>> call =
                 mChatClient.getChatHistory(mConversationId, mCurrentUserId, 0, PAGE_SIZE);
@@ -310,6 +317,8 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
 
                     // Check if there are more pages
                     mHasMoreMessages = !pageResponse.last();
+                    mServerHistoryLoaded = true;
+                    mHistoryRepository.saveHistoryPage(mConversationId, history, 0);
                     
                     if (!history.isEmpty()) {
                         // Log proposal messages for debugging
@@ -328,11 +337,8 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
                             // Reverse to display oldest first (scroll down to see new messages)
                             Collections.reverse(history);
                             
-                            // Sync mMessages list with adapter
-                            mMessages.clear();
-                            mMessages.addAll(history);
-                            mAdapter.setMessages(history);
-                            scrollToBottom();
+                            // mMessages is owned by the adapter (kept in sync with its id index)
+                            mAdapter.setMessages(history, ChatActivity.this::scrollToBottom);
                             Log.d(TAG, "✅ Initial messages displayed (reversed), total: " + history.size() + ", hasMore=" + mHasMoreMessages);
                         }
                     });
@@ -392,6 +398,7 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
                     }
                     
                     if (!newMessages.isEmpty()) {
+                        mHistoryRepository.saveHistoryPage(mConversationId, newMessages, nextPage * PAGE_SIZE);
                         // Update pagination state
                         mCurrentPage = nextPage;
                         mHasMoreMessages = !pageResponse.last();
@@ -407,11 +414,7 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
                                 mAdapter.setLoadingMore(false);
                                 
                                 // Prepend older messages at the BEGINNING of list (after reverse)
-                                // Use adapter's addMessages() but need to prepend instead
-                                // Get current list, prepend new messages, then set
-                                List<Message> currentMessages = new ArrayList<>(mMessages);
-                                currentMessages.addAll(0, newMessages); // Insert at beginning
-                                mAdapter.setMessages(currentMessages);
+                                mAdapter.prependMessages(newMessages);
                                 
                                 Log.d(TAG, "✅ Prepended " + newMessages.size() + " older messages at beginning, hasMore=" + mHasMoreMessages);
                             }
@@ -451,6 +454,61 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
                         mAdapter.setLoadingMore(false);
                     }
                 });
+                // Offline: fall back to older messages cached locally
+                loadCachedOlderMessages();
+            }
+        });
+    }
+
+    /**
+     * Hiện trang mới nhất từ bộ nhớ cục bộ trong lúc chờ server (bỏ qua nếu server đã trả về trước).
+     */
+    private void showCachedHistory() {
+        String conversationId = mConversationId;
+        mHistoryRepository.getLatestMessages(conversationId, PAGE_SIZE, new ChatHistoryRepository.OnMessagesLoadedListener() {
+            @Override
+            public void onMessagesLoaded(List<Message> messages) {
+                runOnUiThread(() -> {
+                    if (mAdapter == null || mServerHistoryLoaded || messages.isEmpty()
+                            || !conversationId.equals(mConversationId) || mAdapter.getOldestMessage() != null) {
+                        return;
+                    }
+                    mAdapter.setMessages(messages, ChatActivity.this::scrollToBottom);
+                    Log.d(TAG, "💾 Cached messages displayed: " + messages.size());
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w(TAG, "Could not read cached messages", e);
+            }
+        });
+    }
+
+    /**
+     * Trang cũ hơn tin đầu tiên đang hiển thị, lấy từ bộ nhớ cục bộ (keyset theo sentAt/id).
+     */
+    private void loadCachedOlderMessages() {
+        Message oldest = mAdapter != null ? mAdapter.getOldestMessage() : null;
+        if (oldest == null || oldest.getSentAt() == null || oldest.getId() == null) {
+            return;
+        }
+        mHistoryRepository.getMessagesBefore(mConversationId, oldest, PAGE_SIZE, new ChatHistoryRepository.OnMessagesLoadedListener() {
+            @Override
+            public void onMessagesLoaded(List<Message> messages) {
+                if (messages.isEmpty()) {
+                    return;
+                }
+                rvMessages.post(() -> {
+                    if (mAdapter != null) {
+                        mAdapter.prependMessages(messages);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w(TAG, "Could not read cached older messages", e);
             }
         });
     }
@@ -928,6 +986,7 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
                 if (belongsToConversation) {
                     Log.d(TAG, "✅ Adding message to chat");
                     mAdapter.addMessage(message);
+                    mHistoryRepository.saveMessage(message);
                     scrollToBottom();
                 } else {
                     Log.d(TAG, "⚠️ Message filtered out - belongs to different conversation. " +
@@ -968,6 +1027,7 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
                 
                 if (messageId != null && !messageId.isEmpty() && mAdapter != null) {
                     mAdapter.updateMessageStatus(messageId, status);
+                    mHistoryRepository.updateMessageStatus(messageId, status);
                     Log.d(TAG, "Updated message " + messageId + " status to " + status);
                 }
             } catch (Exception e) {
@@ -1052,5 +1112,8 @@ public class ChatActivity extends AppCompatActivity implements MessageAdapter.On
             mWebSocketManager.disconnect();
             mWebSocketManager = null;
         }
+        if (mHistoryRepository != null) {
+            mHistoryRepository.shutdown();
+        }
     }
 }
@@ -49,7 +49,7 @@ public class LoginActivity extends AppCompatActivity {
         // Khởi tạo các đối tượng quản lý
         authManager = new AuthManager(this);
         sessionManager = new SessionManager(this);
-        authClient = RetrofitClient.getAuthRetrofitInstance().create(AuthClient.class);
+        authClient = RetrofitClient.getAuthRetrofitInstance(this).create(AuthClient.class);
 
         initViews();
 
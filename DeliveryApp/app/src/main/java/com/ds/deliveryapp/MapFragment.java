@@ -7,10 +7,10 @@ import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.location.Location;
-import android.location.LocationListener;
 import android.location.LocationManager;
 import android.net.Uri;
 import android.os.AsyncTask;
+import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -35,12 +35,16 @@ import com.ds.deliveryapp.clients.SessionClient;
 import com.ds.deliveryapp.clients.req.RoutingRequestDto;
 import com.ds.deliveryapp.clients.res.PageResponse;
 import com.ds.deliveryapp.clients.res.RoutingResponseDto;
+import com.ds.deliveryapp.configs.MapTileConfig;
 import com.ds.deliveryapp.configs.RetrofitClient;
 import com.ds.deliveryapp.enums.DeliveryType;
 
 // Models
 import com.ds.deliveryapp.model.DeliveryAssignment;
+import com.ds.deliveryapp.utils.LocationTrackingService;
+import com.ds.deliveryapp.utils.RouteSegmentIndex;
 import com.ds.deliveryapp.utils.SessionManager;
+import com.ds.deliveryapp.utils.TilePrefetcher;
 
 // UI
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
@@ -48,8 +52,6 @@ import com.google.android.material.snackbar.Snackbar;
 import com.google.gson.Gson;
 
 // OSMDroid
-import org.osmdroid.config.Configuration;
-import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
 import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
@@ -69,7 +71,7 @@ import java.util.stream.Collectors;
 
 import retrofit2.Response;
 
-public class MapFragment extends Fragment implements TaskListDialogFragment.OnTaskSelectedListener, LocationListener {
+public class MapFragment extends Fragment implements TaskListDialogFragment.OnTaskSelectedListener, LocationTrackingService.FixListener {
 
     private static final String TAG = "MapFragment";
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 100;
@@ -78,8 +80,6 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
     private static final double DEVIATION_THRESHOLD_METERS = 50.0; // Ngưỡng lệch 50m
     private static final double ARRIVAL_THRESHOLD_METERS = 25.0; // Vẫn giữ để tham khảo, nhưng không dùng
     private static final double NEXT_STEP_THRESHOLD_METERS = 20.0; // Ngưỡng hoàn thành 1 bước 20m
-    private static final long GPS_UPDATE_INTERVAL_MS = 2000; // 2 giây
-    private static final float GPS_UPDATE_DISTANCE_M = 5; // 5 mét
 
     // --- Các biến UI ---
     private FloatingActionButton fabListTasks, fabReloadRoute, fabRecenter;
@@ -93,6 +93,7 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
     private List<DeliveryAssignment> mSortedTasks;
     private RoutingResponseDto.RouteResponseDto mRouteResponse;
     private List<ArrayList<GeoPoint>> mPrecalculatedPolylines;
+    private List<RouteSegmentIndex> mLegIndexes; // Chỉ mục đoạn của từng chặng, dựng cùng polyline
     private int currentLegIndex = 0;
     private int currentStepIndex = 0; // --- NÂNG CẤP: Theo dõi bước (step) hiện tại ---
     private boolean isRouteLoaded = false;
@@ -120,12 +121,18 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
         final RoutingResponseDto.RouteResponseDto routeResponse;
         final List<DeliveryAssignment> sortedTasks;
         final List<ArrayList<GeoPoint>> polylines;
+        final List<RouteSegmentIndex> legIndexes;
         final Exception exception;
 
         RouteCalculationResult(RoutingResponseDto.RouteResponseDto routeResponse, List<DeliveryAssignment> sortedTasks, List<ArrayList<GeoPoint>> polylines, Exception e) {
+            this(routeResponse, sortedTasks, polylines, null, e);
+        }
+
+        RouteCalculationResult(RoutingResponseDto.RouteResponseDto routeResponse, List<DeliveryAssignment> sortedTasks, List<ArrayList<GeoPoint>> polylines, List<RouteSegmentIndex> legIndexes, Exception e) {
             this.routeResponse = routeResponse;
             this.sortedTasks = sortedTasks;
             this.polylines = polylines;
+            this.legIndexes = legIndexes;
             this.exception = e;
         }
     }
@@ -134,11 +141,20 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
     private static class FetchAndRouteTask extends AsyncTask<Void, Void, RouteCalculationResult> {
         private final WeakReference<MapFragment> fragmentRef;
         private final GeoPoint startLocation;
+        private final boolean forceFull;
         private final Gson gson;
 
         FetchAndRouteTask(MapFragment fragment, GeoPoint startLocation) {
+            this(fragment, startLocation, false);
+        }
+
+        /**
+         * forceFull = true: bỏ qua cache tuyến đường phía server, tính lại toàn bộ.
+         */
+        FetchAndRouteTask(MapFragment fragment, GeoPoint startLocation, boolean forceFull) {
             this.fragmentRef = new WeakReference<>(fragment);
             this.startLocation = startLocation;
+            this.forceFull = forceFull;
             this.gson = new Gson();
         }
 
@@ -185,8 +201,11 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
                 Log.d(TAG, "Routing API Payload: " + payloadJson.substring(0, Math.min(1000, payloadJson.length())));
 
                 // 3. Gọi API Routing
-                Response<RoutingResponseDto> routeApiResponse = fragment.routingApi
-                        .getOptimalRoute(routeRequest)
+                // Có sessionId: dùng tuyến theo phiên (server chỉ tính lại chặng hiện tại khi lệch hướng)
+                String sessionId = fragment.mOriginalTasks.get(0).getSessionId();
+                Response<RoutingResponseDto> routeApiResponse = (sessionId != null
+                        ? fragment.routingApi.getSessionRoute(sessionId, forceFull, routeRequest)
+                        : fragment.routingApi.getOptimalRoute(routeRequest))
                         .execute();
 
                 if (!routeApiResponse.isSuccessful() || routeApiResponse.body() == null) {
@@ -229,6 +248,7 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
                 fragment.mOriginalTasks = null;
                 fragment.mSortedTasks = null;
                 fragment.mPrecalculatedPolylines = null;
+                fragment.mLegIndexes = null;
 
                 if (fragment.mapView != null) {
                     fragment.mapView.getOverlays().clear();
@@ -249,11 +269,13 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
             fragment.mRouteResponse = result.routeResponse;
             fragment.mSortedTasks = result.sortedTasks;
             fragment.mPrecalculatedPolylines = result.polylines;
+            fragment.mLegIndexes = result.legIndexes;
             fragment.isRouteLoaded = true;
             fragment.isNavigating = true;
 
             fragment.currentLegIndex = 0;
             fragment.displayCurrentLeg();
+            fragment.prefetchSessionTiles();
 
             if (!fragment.mSortedTasks.isEmpty()) {
                 fragment.showTaskSnackbar(fragment.mSortedTasks.get(fragment.currentLegIndex));
@@ -269,8 +291,7 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
-        Configuration.getInstance().load(getContext(),
-                androidx.preference.PreferenceManager.getDefaultSharedPreferences(getContext()));
+        MapTileConfig.apply(requireContext());
         View view = inflater.inflate(R.layout.fragment_map, container, false);
 
         // Ánh xạ UI
@@ -315,7 +336,11 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
 
     private void checkAndRequestLocation() {
         if (ContextCompat.checkSelfPermission(getContext(), Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
-            requestPermissions(new String[]{Manifest.permission.ACCESS_FINE_LOCATION}, LOCATION_PERMISSION_REQUEST_CODE);
+            // Thông báo của service vị trí (Android 13+); quyền vị trí luôn ở vị trí đầu
+            String[] permissions = Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                    ? new String[]{Manifest.permission.ACCESS_FINE_LOCATION, Manifest.permission.POST_NOTIFICATIONS}
+                    : new String[]{Manifest.permission.ACCESS_FINE_LOCATION};
+            requestPermissions(permissions, LOCATION_PERMISSION_REQUEST_CODE);
         } else {
             initializeLocationAndStartRouting();
         }
@@ -353,16 +378,26 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
             new FetchAndRouteTask(this, mCurrentLocation).execute();
         } else {
             Toast.makeText(getContext(), "Đang chờ tín hiệu GPS... Vui lòng ra ngoài trời.", Toast.LENGTH_LONG).show();
-            // Vẫn lắng nghe, khi nào có vị trí đầu tiên sẽ gọi
-            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, GPS_UPDATE_INTERVAL_MS, GPS_UPDATE_DISTANCE_M, this);
         }
+        // Vẫn lắng nghe, khi nào có vị trí đầu tiên sẽ gọi
+        startGpsTracking();
     }
 
+    /**
+     * Nhận vị trí từ LocationTrackingService (service cũng gom và gửi vị trí lên server theo lô),
+     * không mở GPS riêng cho màn hình.
+     */
     private void startGpsTracking() {
-        if (ActivityCompat.checkSelfPermission(getContext(), Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+        if (getContext() == null || ActivityCompat.checkSelfPermission(getContext(), Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
             return;
         }
-        locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, GPS_UPDATE_INTERVAL_MS, GPS_UPDATE_DISTANCE_M, this);
+        LocationTrackingService.addFixListener(this);
+        LocationTrackingService.setSession(requireContext(), currentSessionId());
+    }
+
+    @Nullable
+    private String currentSessionId() {
+        return (mOriginalTasks != null && !mOriginalTasks.isEmpty()) ? mOriginalTasks.get(0).getSessionId() : null;
     }
 
     // --- KERNEL ĐIỀU HƯỚNG ---
@@ -456,20 +491,16 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
     }
 
     private void checkDeviation(GeoPoint currentLocation) {
-        if (isRecalculating || mPrecalculatedPolylines == null || currentLegIndex >= mPrecalculatedPolylines.size()) {
+        if (isRecalculating || mLegIndexes == null || currentLegIndex >= mLegIndexes.size()) {
             return;
         }
 
-        Polyline currentPolyline = new Polyline();
-        currentPolyline.setPoints(mPrecalculatedPolylines.get(currentLegIndex));
-
-        boolean onTrack = false;
-        for (GeoPoint point : currentPolyline.getPoints()) {
-            if (point.distanceToAsDouble(currentLocation) <= DEVIATION_THRESHOLD_METERS) {
-                onTrack = true;
-                break;
-            }
+        // Khoảng cách tới các đoạn của chặng hiện tại (không chỉ tới các đỉnh), chỉ xét vài ô lưới quanh vị trí
+        RouteSegmentIndex legIndex = mLegIndexes.get(currentLegIndex);
+        if (legIndex.getSegmentCount() == 0) {
+            return; // Chặng không có hình học: không đánh giá được
         }
+        boolean onTrack = legIndex.isWithin(currentLocation, DEVIATION_THRESHOLD_METERS);
 
         if (!onTrack) {
             Log.w(TAG, "Phát hiện lệch hướng! Đang tính toán lại...");
@@ -631,7 +662,13 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
             sortedTasks.remove(sortedTasks.size() - 1);
         }
 
-        return new RouteCalculationResult(response, sortedTasks, allPolylines, null);
+        // 4. Chỉ mục đoạn cho kiểm tra lệch hướng (dựng một lần ở luồng nền, mỗi GPS chỉ tra vài ô lưới)
+        List<RouteSegmentIndex> legIndexes = new ArrayList<>(allPolylines.size());
+        for (ArrayList<GeoPoint> legPoints : allPolylines) {
+            legIndexes.add(RouteSegmentIndex.build(legPoints, DEVIATION_THRESHOLD_METERS));
+        }
+
+        return new RouteCalculationResult(response, sortedTasks, allPolylines, legIndexes, null);
     }
 
     private int mapDeliveryTypeToPriority(String deliveryType) {
@@ -652,10 +689,25 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
     }
 
 
+    /**
+     * Tải trước tile cho vùng các điểm giao của phiên (chạy nền, bỏ qua nếu vùng đã có trong cache).
+     */
+    private void prefetchSessionTiles() {
+        if (mSortedTasks == null || mSortedTasks.isEmpty()) return;
+        List<GeoPoint> points = new ArrayList<>();
+        for (DeliveryAssignment task : mSortedTasks) {
+            points.add(new GeoPoint(task.getLat().doubleValue(), task.getLon().doubleValue()));
+        }
+        if (mCurrentLocation != null) {
+            points.add(mCurrentLocation);
+        }
+        TilePrefetcher.getInstance(requireContext()).prefetchSession(mSortedTasks.get(0).getSessionId(), points);
+    }
+
     private void setupOSMMap() {
         // (Giữ nguyên)
         if (mapView == null) return;
-        mapView.setTileSource(TileSourceFactory.MAPNIK);
+        mapView.setTileSource(MapTileConfig.tileSource(requireContext()));
         mapView.setMultiTouchControls(true);
         mapView.getController().setZoom(15.0);
     }
@@ -800,8 +852,8 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
             // Kích hoạt lại nút (nếu nó bị tắt sau khi hoàn thành)
             fabReloadRoute.setEnabled(true);
 
-            // Gọi lại AsyncTask với vị trí hiện tại
-            new FetchAndRouteTask(this, mCurrentLocation).execute();
+            // Gọi lại AsyncTask với vị trí hiện tại (tính lại toàn bộ tuyến)
+            new FetchAndRouteTask(this, mCurrentLocation, true).execute();
         });
 
         // --- NÂNG CẤP: Nút Recenter giờ là nút Bật/Tắt Điều hướng ---
@@ -883,8 +935,8 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
         if (mapView != null) mapView.onResume();
 
         // Bắt đầu lại GPS tracking khi quay lại app
-        if (locationManager != null && ActivityCompat.checkSelfPermission(getContext(), Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED) {
-            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, GPS_UPDATE_INTERVAL_MS, GPS_UPDATE_DISTANCE_M, this);
+        if (locationManager != null) {
+            startGpsTracking();
         }
 
         // --- NÂNG CẤP: Tự động tải lại tuyến đường khi quay lại Fragment ---
@@ -907,19 +959,11 @@ public class MapFragment extends Fragment implements TaskListDialogFragment.OnTa
     public void onPause() {
         super.onPause();
         if (mapView != null) mapView.onPause();
-        // Ngừng lắng nghe GPS khi không active
-        if (locationManager != null) {
-            locationManager.removeUpdates(this);
-        }
+        TilePrefetcher.getInstance(requireContext()).recordCacheStats();
+        // Ngừng nhận vị trí khi không active (service vẫn thu vị trí nếu đang trong phiên, với tần suất thấp hơn)
+        LocationTrackingService.removeFixListener(this);
     }
 
-    // Các hàm bắt buộc của LocationListener
-    @Override
-    public void onStatusChanged(String provider, int status, Bundle extras) {}
-    @Override
-    public void onProviderEnabled(@NonNull String provider) {}
-    @Override
-    public void onProviderDisabled(@NonNull String provider) {}
     @Override
     public void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
         Log.d(TAG, "MapFragment onActivityResult: truyền sự kiện xuống children...");
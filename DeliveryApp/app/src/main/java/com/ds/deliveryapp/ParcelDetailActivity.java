@@ -15,22 +15,14 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.ds.deliveryapp.auth.AuthManager;
-import com.ds.deliveryapp.clients.SessionClient;
-import com.ds.deliveryapp.clients.req.ScanParcelRequest;
 import com.ds.deliveryapp.clients.res.BaseResponse;
-import com.ds.deliveryapp.configs.RetrofitClient;
-import com.ds.deliveryapp.model.DeliveryAssignment;
 import com.ds.deliveryapp.model.Parcel;
+import com.ds.deliveryapp.repository.TaskActionOutbox;
 import com.ds.deliveryapp.utils.SessionManager;
 
 import java.math.BigDecimal;
 import java.util.Locale;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-import retrofit2.Retrofit;
-
 /**
  * Màn hình Chi tiết Bưu kiện (khi quét QR).
  */
@@ -145,34 +137,17 @@ public class ParcelDetailActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Quét nhận đơn: ghi vào outbox (kèm thời điểm quét), server xử lý khi có mạng.
+     */
     private void handleAcceptTask(String parcelIdToAccept) {
-        Retrofit retrofit = RetrofitClient.getRetrofitInstance(this);
-        SessionClient service = retrofit.create(SessionClient.class);
-
-        ScanParcelRequest requestBody = new ScanParcelRequest(parcelIdToAccept);
-        Call<DeliveryAssignment> call = service.acceptParcelToSession(driverId, requestBody);
-
-        call.enqueue(new Callback<DeliveryAssignment>() {
-            @Override
-            public void onResponse(Call<DeliveryAssignment> call, Response<DeliveryAssignment> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Toast.makeText(ParcelDetailActivity.this, "Nhận đơn thành công.", Toast.LENGTH_SHORT).show();
-                    setResult(RESULT_OK);
-                } else {
-                    Log.e(TAG, "Lỗi khi nhận đơn: " + response.code());
-                    Toast.makeText(ParcelDetailActivity.this, "Không thể nhận nhiệm vụ.", Toast.LENGTH_SHORT).show();
-                    setResult(RESULT_CANCELED);
-                }
-                finish();
-            }
-
-            @Override
-            public void onFailure(Call<DeliveryAssignment> call, Throwable t) {
-                Log.e(TAG, "Network error: " + t.getMessage());
-                Toast.makeText(ParcelDetailActivity.this, "Lỗi mạng khi nhận nhiệm vụ.", Toast.LENGTH_SHORT).show();
-                setResult(RESULT_CANCELED);
-                finish();
-            }
-        });
+        TaskActionOutbox.getInstance(this)
+                .enqueue(driverId, TaskActionOutbox.TYPE_SCAN, parcelIdToAccept, null, null);
+        // Chưa chắc đơn được nhận: nếu server từ chối (đơn không ở kho...), shipper nhận thông báo khi đồng bộ
+        Toast.makeText(this, "Đã lưu yêu cầu nhận đơn, đang đồng bộ. Bạn sẽ được báo nếu đơn không nhận được.",
+                Toast.LENGTH_LONG).show();
+        // RESULT_OK = đã ghi vào outbox (không phải server đã nhận đơn); danh sách cập nhật khi server đẩy về
+        setResult(RESULT_OK);
+        finish();
     }
 }
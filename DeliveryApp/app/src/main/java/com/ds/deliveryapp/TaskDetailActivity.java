@@ -226,7 +226,8 @@ public class TaskDetailActivity extends AppCompatActivity implements TaskActionH
 
         displayData(currentTask);
 
-        Toast.makeText(this, "Đã cập nhật: " + newStatus, Toast.LENGTH_SHORT).show();
+        // Mới ghi vào outbox: server có thể từ chối khi đồng bộ (shipper sẽ nhận thông báo)
+        Toast.makeText(this, "Đã lưu " + newStatus + ", đang đồng bộ với máy chủ.", Toast.LENGTH_SHORT).show();
         finish();
     }
 }
@@ -21,18 +21,18 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.ds.deliveryapp.adapter.TasksAdapter;
 import com.ds.deliveryapp.clients.SessionClient;
 import com.ds.deliveryapp.clients.req.SessionFailRequest;
 import com.ds.deliveryapp.clients.res.DeliverySession;
-import com.ds.deliveryapp.clients.res.PageResponse;
 import com.ds.deliveryapp.configs.RetrofitClient;
 import com.ds.deliveryapp.model.DeliveryAssignment;
+import com.ds.deliveryapp.repository.TaskStore;
 import com.ds.deliveryapp.utils.SessionManager;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import retrofit2.Call;
@@ -41,23 +41,20 @@ import retrofit2.Response;
 
 /**
  * Màn hình Nhiệm vụ hôm nay.
- * (API lấy các task của phiên (session) đang hoạt động).
+ * Danh sách task của phiên đang hoạt động lấy từ TaskStore: server đẩy thay đổi qua STOMP,
+ * màn hình chỉ vẽ lại; chỉ tải lại toàn bộ khi kéo để làm mới hoặc khi kênh mất kết nối.
  */
-public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickListener {
+public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickListener, TaskStore.Listener {
 
     private RecyclerView rvTasks;
     private TasksAdapter adapter;
     private List<DeliveryAssignment> tasks;
     private ProgressBar progressBar;
+    private SwipeRefreshLayout swipeRefresh;
     private Button btnScanOrder;
     private ImageButton btnSessionMenu;
     private TextView tvEmptyState;
 
-    private int currentPage = 0;
-    private final int pageSize = 10;
-    private boolean isLoading = false;
-    private boolean isLastPage = false;
-
     private LinearLayoutManager layoutManager;
 
     private String activeSessionId = null;
@@ -67,6 +64,7 @@ public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickLi
     private static final String TAG = "TaskFragment";
 
     private SessionManager sessionManager;
+    private TaskStore taskStore;
 
     @Nullable
     @Override
@@ -77,6 +75,7 @@ public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickLi
         // khởi tạo SessionManager và lấy driverId động
         sessionManager = new SessionManager(requireContext());
         driverId = sessionManager.getDriverId();
+        taskStore = TaskStore.getInstance(requireContext());
 
         tasks = new ArrayList<>();
         adapter = new TasksAdapter(tasks, this);
@@ -88,6 +87,9 @@ public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickLi
         progressBar = view.findViewById(R.id.progress_bar);
         tvEmptyState = view.findViewById(R.id.tv_empty_state);
 
+        swipeRefresh = view.findViewById(R.id.swipe_refresh);
+        swipeRefresh.setOnRefreshListener(() -> taskStore.refresh());
+
         btnScanOrder = view.findViewById(R.id.btnScanOrder);
         btnScanOrder.setOnClickListener(v -> {
             Intent intent = new Intent(getContext(), QrScanActivity.class);
@@ -97,21 +99,20 @@ public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickLi
         btnSessionMenu = view.findViewById(R.id.btn_session_menu);
         setupSessionMenu();
 
-        setupPaginationScrollListener();
-        resetAndFetchTasks();
-
         return view;
     }
 
-    private void resetAndFetchTasks() {
-        currentPage = 0;
-        isLastPage = false;
-        tasks.clear();
-        adapter.notifyDataSetChanged();
+    @Override
+    public void onStart() {
+        super.onStart();
+        // Nhận ngay danh sách đang giữ trong bộ nhớ (nếu có), sau đó là các thay đổi từ server
+        taskStore.attach(driverId, this);
+    }
 
-        if (btnSessionMenu != null) btnSessionMenu.setVisibility(View.GONE);
-        activeSessionId = null;
-        fetchTodayTasks(currentPage);
+    @Override
+    public void onStop() {
+        taskStore.detach(this);
+        super.onStop();
     }
 
     @Override
@@ -119,104 +120,58 @@ public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickLi
         super.onActivityResult(requestCode, resultCode, data);
 
         if (requestCode == SCAN_REQUEST_CODE && resultCode == getActivity().RESULT_OK) {
-            Toast.makeText(getContext(), "Cập nhật danh sách nhiệm vụ...", Toast.LENGTH_SHORT).show();
-            resetAndFetchTasks();
+            // Kênh đang kết nối thì thay đổi sẽ được đẩy về, không cần tải lại
+            if (!taskStore.isLive()) {
+                Toast.makeText(getContext(), "Cập nhật danh sách nhiệm vụ...", Toast.LENGTH_SHORT).show();
+                taskStore.refresh();
+            }
         }
     }
 
-    public void fetchTodayTasks(int page) {
-        if (isLoading || isLastPage) return;
+    @Override
+    public void onTasksChanged(List<DeliveryAssignment> newTasks, @Nullable String sessionId) {
+        tasks.clear();
+        tasks.addAll(newTasks);
+        adapter.updateTasks(tasks);
 
-        isLoading = true;
-        if (page == 0) {
+        activeSessionId = sessionId;
+        if (btnSessionMenu != null) {
+            btnSessionMenu.setVisibility(activeSessionId != null ? View.VISIBLE : View.GONE);
+        }
+        if (tvEmptyState != null) {
+            tvEmptyState.setVisibility(tasks.isEmpty() ? View.VISIBLE : View.GONE);
+        }
+        Log.d(TAG, "Tasks shown: " + tasks.size());
+    }
+
+    @Override
+    public void onLoadingChanged(boolean loading) {
+        if (!loading) {
+            swipeRefresh.setRefreshing(false);
+            progressBar.setVisibility(View.GONE);
+        } else if (tasks.isEmpty() && !swipeRefresh.isRefreshing()) {
             progressBar.setVisibility(View.VISIBLE);
             if (tvEmptyState != null) tvEmptyState.setVisibility(View.GONE);
         }
+    }
 
-        SessionClient service = RetrofitClient.getRetrofitInstance(getContext()).create(SessionClient.class);
-        List<String> statusFilter = Arrays.asList("IN_PROGRESS");
-
-        Call<PageResponse<DeliveryAssignment>> call = service.getTasksToday(
-                driverId, // <-- thay DRIVER_ID tĩnh bằng biến driverId động
-                statusFilter,
-                page,
-                pageSize
-        );
-
-        call.enqueue(new Callback<PageResponse<DeliveryAssignment>>() {
-            @Override
-            public void onResponse(Call<PageResponse<DeliveryAssignment>> call, Response<PageResponse<DeliveryAssignment>> response) {
-                isLoading = false;
-                progressBar.setVisibility(View.GONE);
-
-                if (response.isSuccessful() && response.body() != null) {
-                    PageResponse<DeliveryAssignment> pageResponse = response.body();
-                    List<DeliveryAssignment> newTasks = pageResponse.content();
-
-                    isLastPage = pageResponse.last();
-
-                    if (page == 0) tasks.clear();
-
-                    tasks.addAll(newTasks);
-                    adapter.updateTasks(tasks);
-
-                    if (page == 0 && !tasks.isEmpty()) {
-                        activeSessionId = tasks.get(0).getSessionId();
-                        if (btnSessionMenu != null) btnSessionMenu.setVisibility(View.VISIBLE);
-                    }
-
-                    if (tasks.isEmpty() && page == 0) {
-                        // Show empty state UI
-                        if (tvEmptyState != null) {
-                            tvEmptyState.setVisibility(View.VISIBLE);
-                        }
-                        if (btnSessionMenu != null) btnSessionMenu.setVisibility(View.GONE);
-                        Log.d(TAG, "No tasks found. Showing empty state.");
-                    } else {
-                        // Hide empty state UI when there are tasks
-                        if (tvEmptyState != null) {
-                            tvEmptyState.setVisibility(View.GONE);
-                        }
-                        Log.d(TAG, "Tasks loaded: Page " + page + ", Size " + newTasks.size());
-                    }
-
-                    currentPage++;
-
-                } else {
-                    Log.e(TAG, "Response unsuccessful: " + response.code());
-                    Toast.makeText(getContext(), "Lỗi tải đơn hàng: " + response.code(), Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<PageResponse<DeliveryAssignment>> call, Throwable t) {
-                isLoading = false;
-                progressBar.setVisibility(View.GONE);
-                Log.e(TAG, "Network error: " + t.getMessage());
-                Toast.makeText(getContext(), "Lỗi kết nối mạng.", Toast.LENGTH_LONG).show();
-            }
-        });
+    @Override
+    public void onLoadFailed(String message) {
+        Log.e(TAG, message);
+        if (getContext() != null) {
+            Toast.makeText(getContext(), message, Toast.LENGTH_SHORT).show();
+        }
     }
 
-    private void setupPaginationScrollListener() {
-        rvTasks.addOnScrollListener(new RecyclerView.OnScrollListener() {
-            @Override
-            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                super.onScrolled(recyclerView, dx, dy);
-                int visibleItemCount = layoutManager.getChildCount();
-                int totalItemCount = layoutManager.getItemCount();
-                int firstVisibleItemPosition = layoutManager.findFirstVisibleItemPosition();
-
-                if (!isLoading && !isLastPage) {
-                    if ((visibleItemCount + firstVisibleItemPosition) >= totalItemCount
-                            && firstVisibleItemPosition >= 0
-                            && totalItemCount >= pageSize) {
-
-                        fetchTodayTasks(currentPage);
-                    }
-                }
-            }
-        });
+    @Override
+    public void onActionRejected(String parcelId, String message) {
+        if (getContext() == null) return;
+        new AlertDialog.Builder(getContext())
+                .setTitle("Cập nhật đơn không thành công")
+                .setMessage("Đơn " + parcelId + (message != null ? ": " + message : "")
+                        + "\nĐơn đã được hiện lại trong danh sách, vui lòng kiểm tra và thao tác lại.")
+                .setPositiveButton("Đã hiểu", null)
+                .show();
     }
 
     private void setupSessionMenu() {
@@ -264,7 +219,7 @@ public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickLi
             public void onResponse(Call<DeliverySession> call, Response<DeliverySession> response) {
                 if (response.isSuccessful()) {
                     Toast.makeText(getContext(), "Đã hoàn tất phiên.", Toast.LENGTH_LONG).show();
-                    resetAndFetchTasks();
+                    taskStore.onSessionEnded(activeSessionId);
                 } else {
                     Toast.makeText(getContext(), "Lỗi: " + response.code(), Toast.LENGTH_SHORT).show();
                 }
@@ -309,7 +264,7 @@ public class TaskFragment extends Fragment implements TasksAdapter.OnTaskClickLi
             public void onResponse(Call<DeliverySession> call, Response<DeliverySession> response) {
                 if (response.isSuccessful()) {
                     Toast.makeText(getContext(), "Đã báo cáo sự cố. Phiên bị hủy.", Toast.LENGTH_LONG).show();
-                    resetAndFetchTasks();
+                    taskStore.onSessionEnded(activeSessionId);
                 } else {
                     Toast.makeText(getContext(), "Lỗi: " + response.code(), Toast.LENGTH_SHORT).show();
                 }
@@ -2,6 +2,8 @@ package com.ds.deliveryapp.adapter;
 
 import android.app.DatePickerDialog; 
 import android.content.Context; 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -12,6 +14,8 @@ import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 import com.ds.deliveryapp.R;
 import com.ds.deliveryapp.clients.res.InteractiveProposal;
@@ -20,9 +24,13 @@ import com.ds.deliveryapp.enums.ContentType;
 import com.google.gson.Gson; 
 import com.google.gson.JsonObject; 
 
+import java.util.ArrayList;
 import java.util.Calendar; 
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
@@ -36,12 +44,45 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     }
     // --- KẾT THÚC THAY ĐỔI ---
 
-    private List<Message> messageList;
+    private final List<Message> messageList;
     private String currentUserId;
     private String mRecipientAvatarUrl;
     private OnProposalActionListener mListener;
     private final Gson mGson = new Gson(); // Dùng để parse 'data' JSON
     private boolean showLoadingItem = false; // For pagination loading indicator
+    private final MessageIndex mIndex;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private int mGeneration; // Incremented on every list change (detects stale background diffs)
+    private int mLatestSubmit;
+
+    // Partial rebind payloads
+    static final String PAYLOAD_STATUS = "status";
+    static final String PAYLOAD_PROPOSAL = "proposal";
+
+    private static final ExecutorService DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // Diff positions are message positions: shift them past the loading item when it is showing
+    private final ListUpdateCallback mOffsetUpdateCallback = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(adapterPosition(position), count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(adapterPosition(position), count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(adapterPosition(fromPosition), adapterPosition(toPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(adapterPosition(position), count, payload);
+        }
+    };
 
     private static final int VIEW_TYPE_MESSAGE_SENT = 1;
     private static final int VIEW_TYPE_MESSAGE_RECEIVED = 2;
@@ -52,6 +93,7 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     public MessageAdapter(List<Message> messageList, String currentUserId) {
         this.messageList = messageList;
         this.currentUserId = currentUserId;
+        this.mIndex = new MessageIndex(messageList);
     }
 
     public void setListener(OnProposalActionListener listener) {
@@ -148,6 +190,35 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         }
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || holder.getItemViewType() == VIEW_TYPE_LOADING) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        int messagePosition = showLoadingItem ? position - 1 : position;
+        if (messagePosition < 0 || messagePosition >= messageList.size()) {
+            return;
+        }
+
+        // Partial rebind: only the status tick / proposal state changed
+        Message message = messageList.get(messagePosition);
+        switch (holder.getItemViewType()) {
+            case VIEW_TYPE_MESSAGE_SENT:
+                ((SentViewHolder) holder).bindStatus(message);
+                break;
+            case VIEW_TYPE_PROPOSAL_SENT:
+                ((ProposalSentViewHolder) holder).bindProposal(message);
+                break;
+            case VIEW_TYPE_PROPOSAL_RECEIVED:
+                ((ProposalReceiverViewHolder) holder).bind(message, mRecipientAvatarUrl, mListener, mGson);
+                break;
+            default:
+                // Received text messages do not display a status
+                break;
+        }
+    }
+
     @Override
     public int getItemCount() {
         // Add 1 for loading item if showing
@@ -158,128 +229,91 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
     /**
      * Add a new message to the list
-     * - Checks for duplicates (by message ID)
-     * - Maintains chronological order (sorted by sentAt ASC - oldest first, newest last)
-     * - Handles proposal messages correctly
+     * - Checks for duplicates via the id index (O(1), no list scan)
+     * - Maintains chronological order (sorted by sentAt ASC - oldest first, newest last) using binary search
+     * - A duplicate only differing in status is rebound partially (PAYLOAD_STATUS)
      */
     public void addMessage(Message message) {
         if (message == null || message.getId() == null) {
             Log.w("MessageAdapter", "⚠️ Cannot add null message or message without ID");
             return;
         }
-        
-        // Check if message already exists (by ID)
-        for (int i = 0; i < messageList.size(); i++) {
-            Message existing = messageList.get(i);
-            if (existing.getId() != null && existing.getId().equals(message.getId())) {
-                Log.d("MessageAdapter", "🔄 Message already exists, updating: " + message.getId());
-                // Update existing message (in case proposal status changed, etc.)
-                messageList.set(i, message);
-                notifyItemChanged(i);
-                return;
-            }
-        }
-        
-        // Log proposal messages for debugging
-        if (message.getType() == ContentType.INTERACTIVE_PROPOSAL) {
-            Log.d("MessageAdapter", "📋 Adding PROPOSAL message: id=" + message.getId() + 
-                  ", proposal=" + (message.getProposal() != null ? message.getProposal().getId() : "null") +
-                  ", type=" + (message.getProposal() != null ? message.getProposal().getType() : "null") +
-                  ", status=" + (message.getProposal() != null ? message.getProposal().getStatus() : "null"));
+
+        int existing = mIndex.positionOf(message.getId());
+        if (existing >= 0) {
+            // Update existing message (in case proposal status changed, etc.)
+            Object payload = changePayload(mIndex.get(existing), message);
+            mIndex.set(existing, message);
+            mGeneration++;
+            notifyItemChanged(adapterPosition(existing), payload);
+            return;
         }
-        
-        // Insert message in correct position (maintain ASC order by sentAt - oldest first, newest last)
-        int insertPosition = findInsertPosition(message);
-        messageList.add(insertPosition, message);
-        
-        // Adjust position for RecyclerView (add 1 if loading item is showing at position 0)
-        int recyclerViewPosition = insertPosition + (showLoadingItem ? 1 : 0);
-        notifyItemInserted(recyclerViewPosition);
-        
-        Log.d("MessageAdapter", "✅ Added message at position " + insertPosition + 
-              " (RecyclerView position: " + recyclerViewPosition + "), total messages: " + messageList.size());
+
+        int insertPosition = mIndex.insert(message);
+        mGeneration++;
+        notifyItemInserted(adapterPosition(insertPosition));
     }
-    
+
     /**
-     * Find the correct position to insert a message to maintain ASC order by sentAt
-     * Returns the index where the message should be inserted
-     * After reversing, messages are ASC order (oldest first, newest last)
+     * Set messages list (initial history load / reload).
+     * The diff against the current list is computed on a background thread and applied on the main
+     * thread, so only changed rows are rebound. Messages added meanwhile (WebSocket) are merged in.
      */
-    private int findInsertPosition(Message newMessage) {
-        if (newMessage.getSentAt() == null || newMessage.getSentAt().isEmpty()) {
-            // If no timestamp, add at the end (newest messages go at end)
-            return messageList.size();
-        }
-        
-        try {
-            // Parse new message timestamp
-            java.text.SimpleDateFormat isoFormat = new java.text.SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", java.util.Locale.getDefault());
-            isoFormat.setTimeZone(java.util.TimeZone.getTimeZone("UTC"));
-            String newSentAtStr = newMessage.getSentAt().substring(0, Math.min(19, newMessage.getSentAt().length()));
-            long newMessageTime = isoFormat.parse(newSentAtStr).getTime();
-            
-            // Find position where new message should be inserted (ASC order = oldest first, newest last)
-            for (int i = 0; i < messageList.size(); i++) {
-                Message existing = messageList.get(i);
-                if (existing.getSentAt() == null || existing.getSentAt().isEmpty()) {
-                    continue; // Skip messages without timestamp
-                }
-                
-                try {
-                    String existingSentAtStr = existing.getSentAt().substring(0, Math.min(19, existing.getSentAt().length()));
-                    long existingTime = isoFormat.parse(existingSentAtStr).getTime();
-                    
-                    // If new message is newer (larger timestamp), insert after this one
-                    // If new message is older (smaller timestamp), insert before this one
-                    if (newMessageTime < existingTime) {
-                        return i; // Insert before older message
-                    }
-                } catch (Exception e) {
-                    Log.e("MessageAdapter", "Error parsing existing message timestamp", e);
-                }
-            }
-            
-            // If no older message found, add at the end (newest messages go at end)
-            return messageList.size();
-            
-        } catch (Exception e) {
-            Log.e("MessageAdapter", "Error finding insert position for message", e);
-            // On error, add at the end
-            return messageList.size();
-        }
+    public void setMessages(List<Message> messages) {
+        setMessages(messages, null);
     }
 
     /**
-     * Set messages list - clears existing and adds new messages
-     * Maintains the same list reference for proper synchronization
+     * @param onApplied run on the main thread once the new list is displayed (e.g. scroll to bottom)
      */
-    public void setMessages(List<Message> messages) {
-        if (messages == null) {
-            this.messageList.clear();
-        } else {
-            this.messageList.clear();
-            this.messageList.addAll(messages);
+    public void setMessages(List<Message> messages, Runnable onApplied) {
+        List<Message> target = messages == null ? new ArrayList<>() : new ArrayList<>(messages);
+        if (messageList.isEmpty() || target.isEmpty()) {
+            // Nothing to diff against: a single full refresh is cheaper
+            mLatestSubmit = ++mGeneration;
+            mIndex.replaceAll(target);
+            notifyDataSetChanged();
+            if (onApplied != null) onApplied.run();
+            return;
         }
-        notifyDataSetChanged();
+        submitDiff(target, onApplied);
     }
-    
+
     /**
-     * Add multiple messages to the end of the list (for pagination)
-     * Used when loading older messages
+     * Add multiple messages to the end of the list (newer messages, already sorted ASC)
      */
     public void addMessages(List<Message> messages) {
         if (messages == null || messages.isEmpty()) {
             return;
         }
-        
-        int startPosition = messageList.size();
-        messageList.addAll(messages);
-        notifyItemRangeInserted(startPosition, messages.size());
-        
-        Log.d("MessageAdapter", "✅ Added " + messages.size() + " messages at position " + startPosition + 
-              ", total now: " + messageList.size());
+        for (Message message : messages) {
+            addMessage(message);
+        }
     }
-    
+
+    /**
+     * Prepend an older page (already sorted ASC) at the beginning of the list (pagination).
+     * Messages already in the list are skipped.
+     */
+    public void prependMessages(List<Message> olderMessages) {
+        if (olderMessages == null || olderMessages.isEmpty()) {
+            return;
+        }
+        int inserted = mIndex.prepend(olderMessages);
+        if (inserted > 0) {
+            mGeneration++;
+            notifyItemRangeInserted(adapterPosition(0), inserted);
+        }
+        Log.d("MessageAdapter", "✅ Prepended " + inserted + " messages, total now: " + messageList.size());
+    }
+
+    /**
+     * Oldest message currently displayed (cursor for loading older pages), null if empty
+     */
+    public Message getOldestMessage() {
+        return mIndex.size() > 0 ? mIndex.get(0) : null;
+    }
+
     /**
      * Show/hide loading indicator for pagination
      * Loading indicator is shown at the beginning (position 0) for loading older messages
@@ -311,39 +345,129 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
      * Hàm được gọi từ ChatActivity khi có WebSocket update.
      */
     public void updateProposalStatus(UUID proposalId, String newStatus, String newResultData) {
-        if (messageList == null) return;
+        int position = mIndex.positionOfProposal(proposalId);
+        if (position < 0) return;
+
+        Message msg = mIndex.get(position);
+        msg.getProposal().setStatus(newStatus);
+        msg.getProposal().setResultData(newResultData); // <-- LƯU KẾT QUẢ
+        mGeneration++;
+        notifyItemChanged(adapterPosition(position), PAYLOAD_PROPOSAL);
+    }
+
+    /**
+     * Update message status (SENT, DELIVERED, READ) - only the status tick is rebound
+     */
+    public void updateMessageStatus(String messageId, String newStatus) {
+        int position = mIndex.positionOf(messageId);
+        if (position < 0) return;
+
+        Message msg = mIndex.get(position);
+        if (newStatus == null || newStatus.equals(msg.getStatus())) return;
+        msg.setStatus(newStatus);
+        mGeneration++;
+        notifyItemChanged(adapterPosition(position), PAYLOAD_STATUS);
+    }
 
+    private void submitDiff(List<Message> target, Runnable onApplied) {
+        final int generation = ++mGeneration;
+        mLatestSubmit = generation;
+        final List<Message> oldSnapshot = new ArrayList<>(messageList);
+        DIFF_EXECUTOR.execute(() -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new MessageDiffCallback(oldSnapshot, target), false);
+            mMainHandler.post(() -> {
+                if (mLatestSubmit != generation) {
+                    return; // Superseded by a newer setMessages()
+                }
+                if (mGeneration != generation) {
+                    // The list changed while diffing: merge those changes into the target and diff again
+                    submitDiff(mergeCurrentInto(target), onApplied);
+                    return;
+                }
+                mIndex.replaceAll(target);
+                diff.dispatchUpdatesTo(mOffsetUpdateCallback);
+                if (onApplied != null) onApplied.run();
+            });
+        });
+    }
+
+    /**
+     * Target list with the current version of every message, plus messages only present locally.
+     */
+    private List<Message> mergeCurrentInto(List<Message> target) {
+        List<Message> merged = new ArrayList<>(target.size() + 8);
+        MessageIndex mergedIndex = new MessageIndex(merged);
+        for (Message message : target) {
+            int current = mIndex.positionOf(message.getId());
+            merged.add(current >= 0 ? mIndex.get(current) : message);
+        }
+        mergedIndex.rebuild();
         for (int i = 0; i < messageList.size(); i++) {
-            Message msg = messageList.get(i);
-            if (msg.getProposal() != null && msg.getProposal().getId().equals(proposalId)) {
-                msg.getProposal().setStatus(newStatus);
-                msg.getProposal().setResultData(newResultData); // <-- LƯU KẾT QUẢ
-                
-                // Adjust position for RecyclerView (add 1 if loading item is showing at position 0)
-                int recyclerViewPosition = i + (showLoadingItem ? 1 : 0);
-                notifyItemChanged(recyclerViewPosition);
-                return;
+            Message message = messageList.get(i);
+            if (message.getId() != null && mergedIndex.positionOf(message.getId()) < 0) {
+                mergedIndex.insert(message);
             }
         }
+        return merged;
     }
 
     /**
-     * Update message status (SENT, DELIVERED, READ)
+     * Payload for a row whose message was replaced: only status / proposal changes can be rebound partially.
      */
-    public void updateMessageStatus(String messageId, String newStatus) {
-        if (messageList == null) return;
+    static Object changePayload(Message oldMessage, Message newMessage) {
+        if (!Objects.equals(oldMessage.getContent(), newMessage.getContent())
+                || !Objects.equals(oldMessage.getSentAt(), newMessage.getSentAt())
+                || !Objects.equals(oldMessage.getSenderId(), newMessage.getSenderId())
+                || oldMessage.getType() != newMessage.getType()) {
+            return null;
+        }
+        boolean proposalChanged = !Objects.equals(oldMessage.getProposal(), newMessage.getProposal());
+        boolean statusChanged = !Objects.equals(oldMessage.getStatus(), newMessage.getStatus());
+        if (proposalChanged) {
+            return statusChanged ? null : PAYLOAD_PROPOSAL;
+        }
+        return PAYLOAD_STATUS;
+    }
 
-        for (int i = 0; i < messageList.size(); i++) {
-            Message msg = messageList.get(i);
-            if (msg.getId() != null && msg.getId().equals(messageId)) {
-                msg.setStatus(newStatus);
-                
-                // Adjust position for RecyclerView (add 1 if loading item is showing at position 0)
-                int recyclerViewPosition = i + (showLoadingItem ? 1 : 0);
-                notifyItemChanged(recyclerViewPosition);
-                Log.d("MessageAdapter", "Updated message " + messageId + " status to " + newStatus);
-                return;
-            }
+    private int adapterPosition(int messagePosition) {
+        // Adjust position for RecyclerView (add 1 if loading item is showing at position 0)
+        return messagePosition + (showLoadingItem ? 1 : 0);
+    }
+
+    private static class MessageDiffCallback extends DiffUtil.Callback {
+        private final List<Message> oldList;
+        private final List<Message> newList;
+
+        MessageDiffCallback(List<Message> oldList, List<Message> newList) {
+            this.oldList = oldList;
+            this.newList = newList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            Message oldMessage = oldList.get(oldItemPosition);
+            Message newMessage = newList.get(newItemPosition);
+            return oldMessage.getId() != null ? oldMessage.getId().equals(newMessage.getId()) : oldMessage == newMessage;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldList.get(oldItemPosition).equals(newList.get(newItemPosition));
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return changePayload(oldList.get(oldItemPosition), newList.get(newItemPosition));
         }
     }
 
@@ -351,6 +475,8 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
     // 1. ViewHolder cho tin nhắn GỬI (Text)
     static class SentViewHolder extends RecyclerView.ViewHolder {
+        private static final int COLOR_TIMESTAMP = 0xFF888888;
+        private static final int COLOR_READ = 0xFF2196F3;
         TextView tvMessageContent;
         TextView tvTimestamp;
         
@@ -362,14 +488,35 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         
         public void bind(Message message) {
             tvMessageContent.setText(message.getContent());
-            
-            // Format and display timestamp
-            if (message.getSentAt() != null && !message.getSentAt().isEmpty()) {
-                String formattedTime = formatTimestamp(message.getSentAt());
-                tvTimestamp.setText(formattedTime);
-                tvTimestamp.setVisibility(View.VISIBLE);
-            } else {
+            bindStatus(message);
+        }
+
+        /**
+         * Timestamp + status tick (✓ SENT, ✓✓ DELIVERED, blue ✓✓ READ)
+         */
+        public void bindStatus(Message message) {
+            String formattedTime = message.getSentAt() != null && !message.getSentAt().isEmpty()
+                    ? formatTimestamp(message.getSentAt()) : "";
+            String tick = statusTick(message.getStatus());
+            if (formattedTime.isEmpty() && tick.isEmpty()) {
                 tvTimestamp.setVisibility(View.GONE);
+                return;
+            }
+            tvTimestamp.setText(tick.isEmpty() ? formattedTime : formattedTime + " " + tick);
+            tvTimestamp.setTextColor("READ".equals(message.getStatus()) ? COLOR_READ : COLOR_TIMESTAMP);
+            tvTimestamp.setVisibility(View.VISIBLE);
+        }
+
+        private static String statusTick(String status) {
+            if (status == null) return "";
+            switch (status) {
+                case "SENT":
+                    return "✓";
+                case "DELIVERED":
+                case "READ":
+                    return "✓✓";
+                default:
+                    return "";
             }
         }
         
@@ -464,6 +611,10 @@ public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
         public void bind(Message message) {
             tvMessageContent.setText(message.getContent());
+            bindProposal(message);
+        }
+
+        public void bindProposal(Message message) {
             if (message.getProposal() != null) {
                 tvStatus.setText(message.getProposal().getStatus());
 
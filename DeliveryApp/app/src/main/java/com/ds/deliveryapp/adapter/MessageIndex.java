@@ -0,0 +1,177 @@
+package com.ds.deliveryapp.adapter;
+
+import com.ds.deliveryapp.clients.res.Message;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Chỉ mục cho danh sách tin nhắn của MessageAdapter (danh sách tăng dần theo sentAt, cũ nhất ở đầu).
+ * - id -> vị trí (và proposalId -> id tin): tra cứu O(1) khi nhận tin trùng / cập nhật trạng thái thay vì quét cả danh sách.
+ * - Mốc thời gian của từng vị trí (mili giây, đã parse sẵn): tìm chỗ chèn bằng tìm kiếm nhị phân.
+ *   Tin không có / sai sentAt lấy mốc của tin đứng trước để dãy mốc luôn không giảm.
+ * Mọi thay đổi danh sách phải đi qua lớp này để chỉ mục luôn khớp.
+ */
+public final class MessageIndex {
+
+    private final List<Message> messages;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Map<UUID, String> proposalMessageIds = new HashMap<>();
+    private long[] keys = new long[16];
+
+    public MessageIndex(List<Message> messages) {
+        this.messages = messages;
+        rebuild();
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    public Message get(int position) {
+        return messages.get(position);
+    }
+
+    /**
+     * Vị trí của tin có id, -1 nếu không có.
+     */
+    public int positionOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer position = positions.get(id);
+        return position != null ? position : -1;
+    }
+
+    /**
+     * Vị trí của tin chứa proposal, -1 nếu không có.
+     */
+    public int positionOfProposal(UUID proposalId) {
+        if (proposalId == null) {
+            return -1;
+        }
+        return positionOf(proposalMessageIds.get(proposalId));
+    }
+
+    /**
+     * Chèn tin vào đúng thứ tự thời gian (sau các tin cùng mốc: giữ thứ tự nhận). Trả về vị trí đã chèn.
+     */
+    public int insert(Message message) {
+        long key = sentAtMillis(message.getSentAt());
+        int position = key == Long.MIN_VALUE ? messages.size() : upperBound(key);
+        if (key == Long.MIN_VALUE) {
+            key = position > 0 ? keys[position - 1] : Long.MIN_VALUE;
+        }
+        ensureCapacity(messages.size() + 1);
+        System.arraycopy(keys, position, keys, position + 1, messages.size() - position);
+        keys[position] = key;
+        messages.add(position, message);
+        // Thường là tin mới nhất (chèn cuối): chỉ đánh số lại phần đuôi
+        reindex(position);
+        return position;
+    }
+
+    /**
+     * Thay tin ở vị trí cho trước bằng bản mới hơn (cùng id).
+     */
+    public void set(int position, Message message) {
+        messages.set(position, message);
+        indexProposal(message);
+    }
+
+    /**
+     * Chèn một khối tin CŨ HƠN vào đầu danh sách (tải trang cũ hơn). Bỏ qua tin đã có.
+     * Trả về số tin thực sự được chèn.
+     */
+    public int prepend(List<Message> older) {
+        int count = 0;
+        for (Message message : older) {
+            if (message.getId() == null || !positions.containsKey(message.getId())) {
+                messages.add(count++, message);
+            }
+        }
+        if (count > 0) {
+            rebuild();
+        }
+        return count;
+    }
+
+    /**
+     * Thay toàn bộ danh sách.
+     */
+    public void replaceAll(List<Message> newMessages) {
+        messages.clear();
+        if (newMessages != null) {
+            messages.addAll(newMessages);
+        }
+        rebuild();
+    }
+
+    public void rebuild() {
+        positions.clear();
+        proposalMessageIds.clear();
+        keys = new long[Math.max(16, messages.size() + 16)];
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < messages.size(); i++) {
+            long key = sentAtMillis(messages.get(i).getSentAt());
+            previous = Math.max(previous, key);
+            keys[i] = previous;
+        }
+        reindex(0);
+    }
+
+    /**
+     * sentAt dạng ISO (yyyy-MM-ddTHH:mm:ss[.SSS], UTC) -> mili giây; Long.MIN_VALUE nếu thiếu / sai định dạng.
+     */
+    public static long sentAtMillis(String sentAt) {
+        if (sentAt == null || sentAt.length() < 19) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return LocalDateTime.parse(sentAt.substring(0, 19)).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (RuntimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private int upperBound(long key) {
+        int low = 0;
+        int high = messages.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void reindex(int from) {
+        for (int i = from; i < messages.size(); i++) {
+            String id = messages.get(i).getId();
+            if (id != null) {
+                positions.put(id, i);
+                indexProposal(messages.get(i));
+            }
+        }
+    }
+
+    private void indexProposal(Message message) {
+        if (message.getId() != null && message.getProposal() != null && message.getProposal().getId() != null) {
+            proposalMessageIds.put(message.getProposal().getId(), message.getId());
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(capacity, keys.length * 2));
+        }
+    }
+}
@@ -51,7 +51,7 @@ public class TokenAuthenticator implements Authenticator {
         }
 
         try {
-            Retrofit authRetrofit = RetrofitClient.getRetrofitInstance(context);
+            Retrofit authRetrofit = RetrofitClient.getAuthRetrofitInstance(context);
             AuthClient authClient = authRetrofit.create(AuthClient.class);
 
             Call<BaseResponse<RefreshTokenResponse>> call = authClient.refreshToken(new RefreshTokenRequest(refreshToken));
@@ -0,0 +1,37 @@
+package com.ds.deliveryapp.clients;
+
+import com.ds.deliveryapp.clients.req.CreateMediaUploadRequest;
+import com.ds.deliveryapp.clients.res.MediaUpload;
+
+import okhttp3.RequestBody;
+import retrofit2.Call;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+import retrofit2.http.Path;
+
+public interface MediaClient {
+
+    /**
+     * Tạo phiên upload (POST /api/v1/media/uploads)
+     */
+    @POST("media/uploads")
+    Call<MediaUpload.Response> createUpload(@Body CreateMediaUploadRequest request);
+
+    /**
+     * Trạng thái upload: receivedBytes là offset của chunk tiếp theo
+     */
+    @GET("media/uploads/{id}")
+    Call<MediaUpload.Response> getUpload(@Path("id") String uploadId);
+
+    /**
+     * Gửi một chunk (application/octet-stream) bắt đầu tại offset.
+     * 409: offset sai, header Upload-Offset cho biết vị trí đúng.
+     */
+    @PUT("media/uploads/{id}")
+    Call<MediaUpload.Response> uploadChunk(@Path("id") String uploadId,
+                                           @Header("Upload-Offset") long offset,
+                                           @Body RequestBody chunk);
+}
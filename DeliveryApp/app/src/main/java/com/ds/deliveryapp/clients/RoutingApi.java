@@ -6,10 +6,23 @@ import com.ds.deliveryapp.clients.res.RoutingResponseDto;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.POST;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 public interface RoutingApi {
     @POST("/api/v1/routing/demo-route")
     Call<RoutingResponseDto> getOptimalRoute(
             @Body RoutingRequestDto.RouteRequestDto request
     );
+
+    /**
+     * Tuyến đường theo phiên: server giữ cache, khi lệch hướng chỉ tính lại chặng tới điểm kế tiếp.
+     * forceFull = true để tính lại toàn bộ (nút tải lại).
+     */
+    @POST("/api/v1/delivery-sessions/{sessionId}/route")
+    Call<RoutingResponseDto> getSessionRoute(
+            @Path("sessionId") String sessionId,
+            @Query("forceFull") boolean forceFull,
+            @Body RoutingRequestDto.RouteRequestDto request
+    );
 }
@@ -1,12 +1,14 @@
 package com.ds.deliveryapp.clients;
 
 import com.ds.deliveryapp.clients.req.ScanParcelRequest;
+import com.ds.deliveryapp.clients.req.TaskActionBatchRequest;
 import com.ds.deliveryapp.clients.req.SessionFailRequest;
 import com.ds.deliveryapp.clients.req.TaskFailRequest;
 import com.ds.deliveryapp.clients.req.RouteInfo;
 import com.ds.deliveryapp.clients.res.DeliverySession;
 import com.ds.deliveryapp.clients.res.PageResponse;
 import com.ds.deliveryapp.clients.res.ShipperInfo;
+import com.ds.deliveryapp.clients.res.TaskActionBatchResponse;
 import com.ds.deliveryapp.model.DeliveryAssignment;
 
 import java.util.List;
@@ -114,6 +116,16 @@ public interface SessionClient {
             @Body TaskFailRequest request // Body này chứa reason + routeInfo
     );
 
+    /**
+     * Gửi lô hành động từ outbox (quét / hoàn thành / thất bại / từ chối / hoãn), idempotent theo actionId.
+     * Ánh xạ tới: DeliveryAssignmentController.applyActionBatch
+     */
+    @POST("/api/v1/assignments/drivers/{deliveryManId}/actions/batch")
+    Call<TaskActionBatchResponse> applyActionBatch(
+            @Path("deliveryManId") String deliveryManId,
+            @Body TaskActionBatchRequest request
+    );
+
     @GET("/api/v1/assignments/current-shipper/parcels/{parcelId}")
     Call<ShipperInfo> getLastestShipperInfoForParcel( //if ok status but null -> not found
             @Path("parcelId") String parcelId
@@ -0,0 +1,17 @@
+package com.ds.deliveryapp.clients;
+
+import com.ds.deliveryapp.clients.req.LocationBatchRequest;
+
+import retrofit2.Call;
+import retrofit2.http.Body;
+import retrofit2.http.POST;
+
+public interface TrackingClient {
+
+    /**
+     * Gửi một lô vị trí GPS của shipper hiện tại
+     * (POST /api/v1/tracking/locations)
+     */
+    @POST("tracking/locations")
+    Call<Void> uploadLocations(@Body LocationBatchRequest request);
+}
@@ -0,0 +1,16 @@
+package com.ds.deliveryapp.clients.req;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateMediaUploadRequest {
+    private String fileName;
+    private String contentType;
+    private long size;
+    private String purpose;     // CHAT_IMAGE, DELIVERY_PROOF
+    private String referenceId; // parcelId khi purpose = DELIVERY_PROOF
+}
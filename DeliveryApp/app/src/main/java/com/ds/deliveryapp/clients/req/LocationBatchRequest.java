@@ -0,0 +1,27 @@
+package com.ds.deliveryapp.clients.req;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationBatchRequest {
+    private String sessionId;
+    private List<Point> points;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private double lat;
+        private double lon;
+        private Float speed;
+        private Float heading;
+        private Float accuracy;
+        private long timestamp;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ds.deliveryapp.clients.req;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskActionBatchRequest {
+    private List<TaskAction> actions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TaskAction {
+        private String actionId;
+        private String type;
+        private String parcelId;
+        private String reason;
+        private RouteInfo routeInfo;
+        private long clientTimestamp;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ds.deliveryapp.clients.res;
+
+import com.ds.deliveryapp.model.DeliveryAssignment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thay đổi danh sách task do session-service đẩy qua STOMP (/user/queue/tasks).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentDelta {
+    public static final String TYPE_ADDED = "ADDED";
+    public static final String TYPE_UPDATED = "UPDATED";
+    public static final String TYPE_SESSION_STARTED = "SESSION_STARTED";
+    public static final String TYPE_SESSION_ENDED = "SESSION_ENDED";
+
+    private String type;
+    private String stream; // đổi khi server khởi động lại
+    private long seq;      // tăng liên tục theo shipper trong cùng stream
+    private String sessionId;
+    private String sessionStatus;
+    private DeliveryAssignment assignment; // ADDED / UPDATED
+    private String occurredAt;
+}
@@ -0,0 +1,32 @@
+package com.ds.deliveryapp.clients.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaUpload {
+    private String id;
+    private String purpose;
+    private String referenceId;
+    private String contentType;
+    private long totalSize;
+    private long receivedBytes;
+    private long maxChunkSize;
+    private String status;          // UPLOADING, COMPLETE
+    private String thumbnailStatus; // NONE, PENDING, READY, FAILED
+
+    /**
+     * Phản hồi của communication service: { success, message, data }
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Response {
+        private boolean success;
+        private String message;
+        private MediaUpload data;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ds.deliveryapp.clients.res;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Chuyển trạng thái của đơn, đẩy qua STOMP /topic/parcels/{parcelId}/status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelStatusUpdate {
+    private String parcelId;
+    private String code;
+    private String previousStatus;
+    private String newStatus;
+    private String event;
+    private long sequence; // tăng dần theo đơn: bỏ qua bản cũ hơn bản đã áp dụng
+    private String occurredAt;
+}
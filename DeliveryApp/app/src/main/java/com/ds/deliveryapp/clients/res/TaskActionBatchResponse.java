@@ -0,0 +1,29 @@
+package com.ds.deliveryapp.clients.res;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskActionBatchResponse {
+    private List<Result> results;
+    private int applied;
+    private int rejected;
+    private int duplicates;
+    private int retry;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private String actionId;
+        private String type;
+        private String parcelId;
+        private String outcome; // APPLIED, REJECTED, DUPLICATE, RETRY
+        private String message;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ds.deliveryapp.configs;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Nén gzip thân request (Content-Encoding: gzip). Gateway giải nén trước khi chuyển tiếp.
+ * Chỉ gắn cho client gửi lô dữ liệu lớn (vị trí GPS); nén vào bộ nhớ để vẫn có Content-Length.
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request original = chain.request();
+        RequestBody body = original.body();
+        if (body == null || original.header("Content-Encoding") != null) {
+            return chain.proceed(original);
+        }
+
+        Buffer compressed = new Buffer();
+        try (BufferedSink gzip = Okio.buffer(new GzipSink(compressed))) {
+            body.writeTo(gzip);
+        }
+        Request gzipped = original.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .method(original.method(), RequestBody.create(compressed.readByteString(), body.contentType()))
+                .build();
+        return chain.proceed(gzipped);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ds.deliveryapp.configs;
+
+import android.content.Context;
+
+import androidx.preference.PreferenceManager;
+
+import com.ds.deliveryapp.R;
+
+import org.osmdroid.config.Configuration;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.tilesource.TileSourceFactory;
+import org.osmdroid.tileprovider.tilesource.TileSourcePolicy;
+import org.osmdroid.util.MapTileIndex;
+
+/**
+ * Cấu hình osmdroid dùng chung cho bản đồ và bộ tải trước tile (cùng nguồn tile, cùng cache).
+ */
+public final class MapTileConfig {
+
+    // Giới hạn cache tile trên máy: vượt MAX thì osmdroid tự xóa tile cũ nhất xuống còn TRIM
+    private static final long CACHE_MAX_BYTES = 300L * 1024 * 1024;
+    private static final long CACHE_TRIM_BYTES = 250L * 1024 * 1024;
+    private static final int MIN_ZOOM = 0;
+    private static final int MAX_ZOOM = 19;
+    private static final int TILE_SIZE = 256;
+
+    private static OnlineTileSourceBase tileSource;
+
+    private MapTileConfig() {
+    }
+
+    /**
+     * Gọi trước khi tạo MapView.
+     */
+    public static void apply(Context context) {
+        Configuration configuration = Configuration.getInstance();
+        configuration.load(context, PreferenceManager.getDefaultSharedPreferences(context));
+        configuration.setUserAgentValue(context.getPackageName());
+        configuration.setTileFileSystemCacheMaxBytes(CACHE_MAX_BYTES);
+        configuration.setTileFileSystemCacheTrimBytes(CACHE_TRIM_BYTES);
+    }
+
+    /**
+     * Nguồn tile cấu hình trong R.string.map_tile_url, mặc định OSM Mapnik.
+     */
+    public static synchronized OnlineTileSourceBase tileSource(Context context) {
+        if (tileSource == null) {
+            String template = context.getString(R.string.map_tile_url).trim();
+            tileSource = template.isEmpty() ? TileSourceFactory.MAPNIK : new TemplateTileSource(template);
+        }
+        return tileSource;
+    }
+
+    /**
+     * Tile source theo mẫu URL có {z}/{x}/{y} (cho phép query string như ?key=...).
+     */
+    private static class TemplateTileSource extends OnlineTileSourceBase {
+        private final String template;
+
+        TemplateTileSource(String template) {
+            super("DeliveryTiles", MIN_ZOOM, MAX_ZOOM, TILE_SIZE, ".png", new String[]{template}, null,
+                    new TileSourcePolicy());
+            this.template = template;
+        }
+
+        @Override
+        public String getTileURLString(long pMapTileIndex) {
+            return template
+                    .replace("{z}", String.valueOf(MapTileIndex.getZoom(pMapTileIndex)))
+                    .replace("{x}", String.valueOf(MapTileIndex.getX(pMapTileIndex)))
+                    .replace("{y}", String.valueOf(MapTileIndex.getY(pMapTileIndex)));
+        }
+    }
+}
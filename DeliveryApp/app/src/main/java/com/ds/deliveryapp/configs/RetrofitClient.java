@@ -5,24 +5,63 @@ import android.content.Context;
 import com.ds.deliveryapp.auth.AuthInterceptor;
 import com.ds.deliveryapp.auth.TokenAuthenticator;
 
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+/**
+ * Một OkHttpClient dùng chung cho cả app (session, auth, chat):
+ * - Chung connection pool + dispatcher: tái sử dụng kết nối TLS tới gateway thay vì mỗi client một pool.
+ * - Cache HTTP trên đĩa có giới hạn: server trả ETag + "no-cache" cho danh sách task / đơn / hội thoại,
+ *   lần mở lại màn hình chỉ gửi If-None-Match và nhận 304 (không tải lại nội dung).
+ * Các client riêng được tạo bằng newBuilder() nên vẫn dùng chung pool, dispatcher và cache.
+ */
 public class RetrofitClient {
+    private static OkHttpClient baseClient;
     private static Retrofit sessionRetrofit;
     private static Retrofit authRetrofit;
+    private static Retrofit trackingRetrofit;
 
     private static Retrofit chatRetrofit;
     private static final String BASE_URL = "https://localweb.phuongy.works";
     private static final String CHAT_BASE_URL = BASE_URL + "/api/v1/";
     private static final String GATEWAY_BASE_URL = BASE_URL + "/api/v1/";
 
-    public static Retrofit getRetrofitInstance(Context context) {
+    private static final long HTTP_CACHE_BYTES = 20L * 1024 * 1024;
+    private static final String HTTP_CACHE_DIR = "http_cache";
+
+    /**
+     * Client gốc (không gắn token). Dùng newBuilder() để thêm interceptor riêng.
+     */
+    public static synchronized OkHttpClient getBaseClient(Context context) {
+        if (baseClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(8); // Mọi API đều đi qua một gateway
+
+            baseClient = new OkHttpClient.Builder()
+                    .cache(new Cache(new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_BYTES))
+                    .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    .connectTimeout(10, TimeUnit.SECONDS)
+                    .readTimeout(20, TimeUnit.SECONDS)
+                    .writeTimeout(20, TimeUnit.SECONDS)
+                    .retryOnConnectionFailure(true)
+                    .build();
+        }
+        return baseClient;
+    }
+
+    public static synchronized Retrofit getRetrofitInstance(Context context) {
         if (sessionRetrofit == null) {
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(new AuthInterceptor(context))
-                    .authenticator(new TokenAuthenticator(context))
+            OkHttpClient client = getBaseClient(context).newBuilder()
+                    .addInterceptor(new AuthInterceptor(context.getApplicationContext()))
+                    .authenticator(new TokenAuthenticator(context.getApplicationContext()))
                     .build();
 
             // 2. Khởi tạo Retrofit
@@ -35,29 +74,45 @@ public class RetrofitClient {
         return sessionRetrofit;
     }
 
-    public static Retrofit getAuthRetrofitInstance() {
-        if (authRetrofit == null) {
-            OkHttpClient client = new OkHttpClient.Builder().build();
+    /**
+     * Client gửi lô vị trí GPS: như client session nhưng nén gzip thân request.
+     */
+    public static synchronized Retrofit getTrackingRetrofitInstance(Context context) {
+        if (trackingRetrofit == null) {
+            OkHttpClient client = getBaseClient(context).newBuilder()
+                    .addInterceptor(new AuthInterceptor(context.getApplicationContext()))
+                    .authenticator(new TokenAuthenticator(context.getApplicationContext()))
+                    .addInterceptor(new GzipRequestInterceptor())
+                    .build();
 
-            authRetrofit = new Retrofit.Builder()
+            trackingRetrofit = new Retrofit.Builder()
                     .baseUrl(GATEWAY_BASE_URL)
                     .client(client)
                     .addConverterFactory(GsonConverterFactory.create())
                     .build();
         }
+        return trackingRetrofit;
+    }
+
+    public static synchronized Retrofit getAuthRetrofitInstance(Context context) {
+        if (authRetrofit == null) {
+            authRetrofit = new Retrofit.Builder()
+                    .baseUrl(GATEWAY_BASE_URL)
+                    .client(getBaseClient(context))
+                    .addConverterFactory(GsonConverterFactory.create())
+                    .build();
+        }
         return authRetrofit;
     }
 
-    public static Retrofit getChatRetrofitInstance() {
+    public static synchronized Retrofit getChatRetrofitInstance(Context context) {
         if (chatRetrofit == null) {
-            OkHttpClient client = new OkHttpClient.Builder().build();
-
             chatRetrofit = new Retrofit.Builder()
                     .baseUrl(CHAT_BASE_URL)
-                    .client(client)
+                    .client(getBaseClient(context))
                     .addConverterFactory(GsonConverterFactory.create())
                     .build();
         }
         return chatRetrofit;
     }
-}
\ No newline at end of file
+}
@@ -157,10 +157,7 @@ public class ParcelTrackFragment extends Fragment {
         viewModel.getStatusChangeSuccess().observe(getViewLifecycleOwner(), success -> {
             if (Boolean.TRUE.equals(success)) {
                 Toast.makeText(requireContext(), "Cập nhật trạng thái thành công!", Toast.LENGTH_SHORT).show();
-                // Tự động tải lại thông tin đơn hàng sau khi đổi trạng thái
-                if (currentParcel != null) {
-                    viewModel.trackParcel(currentParcel.getCode());
-                }
+                // Đơn mới đã có trong phản hồi; các chuyển trạng thái sau đó được đẩy qua kênh STOMP
             }
         });
     }
@@ -2,9 +2,12 @@ package com.ds.deliveryapp.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.ds.deliveryapp.database.dao.ChatMessageDao;
 import com.ds.deliveryapp.database.entities.ChatMessageEntity;
@@ -12,11 +15,22 @@ import com.ds.deliveryapp.database.entities.ChatMessageEntity;
 /**
  * Room Database for local chat storage
  */
-@Database(entities = {ChatMessageEntity.class}, version = 1, exportSchema = false)
+@Database(entities = {ChatMessageEntity.class}, version = 2, exportSchema = false)
 public abstract class ChatDatabase extends RoomDatabase {
     
     private static final String DATABASE_NAME = "chat_database";
     private static ChatDatabase instance;
+
+    /**
+     * v2: composite index for paged history queries (conversationId, sentAt)
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_chat_messages_conversationId_sentAt` "
+                    + "ON `chat_messages` (`conversationId`, `sentAt`)");
+        }
+    };
     
     public abstract ChatMessageDao chatMessageDao();
     
@@ -27,6 +41,7 @@ public abstract class ChatDatabase extends RoomDatabase {
                     ChatDatabase.class,
                     DATABASE_NAME
             )
+            .addMigrations(MIGRATION_1_2)
             .fallbackToDestructiveMigration() // For development - remove in production
             .build();
         }
@@ -0,0 +1,34 @@
+package com.ds.deliveryapp.database;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+import com.ds.deliveryapp.database.dao.TaskActionDao;
+import com.ds.deliveryapp.database.entities.TaskActionEntity;
+
+/**
+ * Room Database for the offline task action outbox
+ * (separate file from chat: never destroyed on a chat schema change)
+ */
+@Database(entities = {TaskActionEntity.class}, version = 1, exportSchema = false)
+public abstract class TaskOutboxDatabase extends RoomDatabase {
+
+    private static final String DATABASE_NAME = "task_outbox_database";
+    private static TaskOutboxDatabase instance;
+
+    public abstract TaskActionDao taskActionDao();
+
+    public static synchronized TaskOutboxDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = Room.databaseBuilder(
+                    context.getApplicationContext(),
+                    TaskOutboxDatabase.class,
+                    DATABASE_NAME
+            ).build();
+        }
+        return instance;
+    }
+}
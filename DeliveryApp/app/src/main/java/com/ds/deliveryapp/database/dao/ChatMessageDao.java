@@ -4,6 +4,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.ds.deliveryapp.database.entities.ChatMessageEntity;
@@ -35,11 +36,38 @@ public interface ChatMessageDao {
     void updateMessage(ChatMessageEntity message);
     
     /**
-     * Get all messages for a conversation
+     * Newest page of a conversation (sentAt DESC).
+     * sentAt is an ISO-8601 string in one zone, so string order is time order.
      */
-    @Query("SELECT * FROM chat_messages WHERE conversationId = :conversationId ORDER BY sentAt ASC")
-    List<ChatMessageEntity> getMessagesForConversation(String conversationId);
-    
+    @Query("SELECT * FROM chat_messages WHERE conversationId = :conversationId "
+            + "ORDER BY sentAt DESC, id DESC LIMIT :limit")
+    List<ChatMessageEntity> getLatestMessages(String conversationId, int limit);
+
+    /**
+     * Page of messages older than (beforeSentAt, beforeId), newest first (keyset paging, no OFFSET)
+     */
+    @Query("SELECT * FROM chat_messages WHERE conversationId = :conversationId "
+            + "AND (sentAt < :beforeSentAt OR (sentAt = :beforeSentAt AND id < :beforeId)) "
+            + "ORDER BY sentAt DESC, id DESC LIMIT :limit")
+    List<ChatMessageEntity> getMessagesBefore(String conversationId, String beforeSentAt, String beforeId, int limit);
+
+    /**
+     * Retention: keep only the newest :keep messages of a conversation
+     */
+    @Query("DELETE FROM chat_messages WHERE conversationId = :conversationId AND id NOT IN ("
+            + "SELECT id FROM chat_messages WHERE conversationId = :conversationId "
+            + "ORDER BY sentAt DESC, id DESC LIMIT :keep)")
+    int trimConversation(String conversationId, int keep);
+
+    /**
+     * Upsert a history page and apply retention in one transaction
+     */
+    @Transaction
+    default int upsertPage(String conversationId, List<ChatMessageEntity> messages, int keep) {
+        insertMessages(messages);
+        return trimConversation(conversationId, keep);
+    }
+
     /**
      * Get a single message by ID
      */
@@ -0,0 +1,55 @@
+package com.ds.deliveryapp.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.ds.deliveryapp.database.entities.TaskActionEntity;
+
+import java.util.List;
+
+/**
+ * Data Access Object for the task action outbox
+ */
+@Dao
+public interface TaskActionDao {
+
+    /**
+     * Queue an action (actionId is unique per action, never replaced)
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insert(TaskActionEntity action);
+
+    /**
+     * Actions whose backoff has elapsed, in the order the shipper performed them.
+     * An action waits while an earlier action on the same parcel is still backing off (keeps per-parcel order).
+     */
+    @Query("SELECT * FROM task_action_outbox t WHERE t.deliveryManId = :deliveryManId AND t.nextAttemptAt <= :now "
+            + "AND NOT EXISTS (SELECT 1 FROM task_action_outbox o WHERE o.parcelId = t.parcelId "
+            + "AND o.clientTimestamp < t.clientTimestamp AND o.nextAttemptAt > :now) "
+            + "ORDER BY t.clientTimestamp ASC LIMIT :limit")
+    List<TaskActionEntity> getDue(String deliveryManId, long now, int limit);
+
+    /**
+     * Shippers with queued actions (usually only the logged-in one)
+     */
+    @Query("SELECT DISTINCT deliveryManId FROM task_action_outbox")
+    List<String> getDeliveryManIds();
+
+    @Query("SELECT COUNT(*) FROM task_action_outbox")
+    int count();
+
+    /**
+     * Earliest time a queued action may be retried, null if the outbox is empty
+     */
+    @Query("SELECT MIN(nextAttemptAt) FROM task_action_outbox")
+    Long getNextAttemptAt();
+
+    @Query("DELETE FROM task_action_outbox WHERE actionId IN (:actionIds)")
+    void deleteAll(List<String> actionIds);
+
+    @Query("UPDATE task_action_outbox SET attempts = attempts + 1, nextAttemptAt = :nextAttemptAt, lastError = :error "
+            + "WHERE actionId = :actionId")
+    void markRetry(String actionId, long nextAttemptAt, String error);
+}
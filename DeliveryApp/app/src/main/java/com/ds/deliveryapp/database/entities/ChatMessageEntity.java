@@ -2,13 +2,16 @@ package com.ds.deliveryapp.database.entities;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
 /**
  * Room entity for storing chat messages locally
+ * Index (conversationId, sentAt) backs the paged queries: a page is an index range scan, not a full sort.
  */
-@Entity(tableName = "chat_messages")
+@Entity(tableName = "chat_messages",
+        indices = {@Index(value = {"conversationId", "sentAt"})})
 public class ChatMessageEntity {
     
     @PrimaryKey
@@ -0,0 +1,127 @@
+package com.ds.deliveryapp.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Hành động của shipper chờ gửi lên server (outbox): quét đơn, hoàn thành, thất bại, từ chối, hoãn.
+ * actionId sinh trên thiết bị và giữ nguyên qua các lần gửi lại (server dùng để bỏ qua bản trùng).
+ */
+@Entity(tableName = "task_action_outbox",
+        indices = {@Index(value = {"nextAttemptAt", "clientTimestamp"})})
+public class TaskActionEntity {
+
+    @PrimaryKey
+    @NonNull
+    private String actionId;
+
+    private String deliveryManId;
+    private String parcelId;
+    private String type; // SCAN, COMPLETE, FAIL, REFUSE, POSTPONE
+    private String reason;
+    private String routeInfoJson;
+    private long clientTimestamp; // Lúc shipper thao tác (epoch millis)
+    private int attempts;
+    private long nextAttemptAt; // Chưa gửi lại trước thời điểm này (backoff)
+    private String lastError;
+
+    public TaskActionEntity() {}
+
+    @Ignore
+    public TaskActionEntity(@NonNull String actionId, String deliveryManId, String parcelId, String type,
+                            String reason, String routeInfoJson, long clientTimestamp) {
+        this.actionId = actionId;
+        this.deliveryManId = deliveryManId;
+        this.parcelId = parcelId;
+        this.type = type;
+        this.reason = reason;
+        this.routeInfoJson = routeInfoJson;
+        this.clientTimestamp = clientTimestamp;
+        this.attempts = 0;
+        this.nextAttemptAt = 0;
+    }
+
+    @NonNull
+    public String getActionId() {
+        return actionId;
+    }
+
+    public void setActionId(@NonNull String actionId) {
+        this.actionId = actionId;
+    }
+
+    public String getDeliveryManId() {
+        return deliveryManId;
+    }
+
+    public void setDeliveryManId(String deliveryManId) {
+        this.deliveryManId = deliveryManId;
+    }
+
+    public String getParcelId() {
+        return parcelId;
+    }
+
+    public void setParcelId(String parcelId) {
+        this.parcelId = parcelId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public String getRouteInfoJson() {
+        return routeInfoJson;
+    }
+
+    public void setRouteInfoJson(String routeInfoJson) {
+        this.routeInfoJson = routeInfoJson;
+    }
+
+    public long getClientTimestamp() {
+        return clientTimestamp;
+    }
+
+    public void setClientTimestamp(long clientTimestamp) {
+        this.clientTimestamp = clientTimestamp;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(long nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
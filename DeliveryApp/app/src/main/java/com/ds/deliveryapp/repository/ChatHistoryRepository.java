@@ -15,13 +15,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Repository for managing chat history with local database
+ * - Reads are paged (newest page first, older pages by keyset on sentAt/id), lists are returned ASC
+ * - Each conversation keeps at most MAX_MESSAGES_PER_CONVERSATION messages locally
  */
 public class ChatHistoryRepository {
     
     private static final String TAG = "ChatHistoryRepository";
+    public static final int MAX_MESSAGES_PER_CONVERSATION = 300;
     private final ChatMessageDao chatMessageDao;
     private final ExecutorService executorService;
     private final Gson gson;
@@ -37,7 +41,7 @@ public class ChatHistoryRepository {
      * Save a message to local database
      */
     public void saveMessage(Message message) {
-        executorService.execute(() -> {
+        execute(() -> {
             try {
                 ChatMessageEntity entity = messageToEntity(message);
                 chatMessageDao.insertMessage(entity);
@@ -52,7 +56,7 @@ public class ChatHistoryRepository {
      * Save multiple messages to local database
      */
     public void saveMessages(List<Message> messages) {
-        executorService.execute(() -> {
+        execute(() -> {
             try {
                 List<ChatMessageEntity> entities = new ArrayList<>();
                 for (Message message : messages) {
@@ -67,17 +71,38 @@ public class ChatHistoryRepository {
     }
     
     /**
-     * Get messages for a conversation from local database
+     * Save a page of server history (batched upsert + retention in one transaction).
+     * @param offset number of newer messages before this page; pages past the retention window are not stored
      */
-    public void getMessagesForConversation(String conversationId, OnMessagesLoadedListener listener) {
-        executorService.execute(() -> {
+    public void saveHistoryPage(String conversationId, List<Message> messages, int offset) {
+        if (conversationId == null || messages == null || messages.isEmpty()
+                || offset >= MAX_MESSAGES_PER_CONVERSATION) {
+            return;
+        }
+        execute(() -> {
             try {
-                List<ChatMessageEntity> entities = chatMessageDao.getMessagesForConversation(conversationId);
-                List<Message> messages = new ArrayList<>();
-                for (ChatMessageEntity entity : entities) {
-                    messages.add(entityToMessage(entity));
+                List<ChatMessageEntity> entities = new ArrayList<>(messages.size());
+                for (Message message : messages) {
+                    if (message.getId() != null) {
+                        entities.add(messageToEntity(message));
+                    }
                 }
-                Log.d(TAG, "Loaded " + messages.size() + " messages from local database");
+                int trimmed = chatMessageDao.upsertPage(conversationId, entities, MAX_MESSAGES_PER_CONVERSATION);
+                Log.d(TAG, "Upserted " + entities.size() + " messages, trimmed " + trimmed + " for " + conversationId);
+            } catch (Exception e) {
+                Log.e(TAG, "Error saving history page to database", e);
+            }
+        });
+    }
+    
+    /**
+     * Newest page of a conversation from local database (sorted ASC)
+     */
+    public void getLatestMessages(String conversationId, int limit, OnMessagesLoadedListener listener) {
+        execute(() -> {
+            try {
+                List<Message> messages = toMessagesAsc(chatMessageDao.getLatestMessages(conversationId, limit));
+                Log.d(TAG, "Loaded latest " + messages.size() + " messages from local database");
                 listener.onMessagesLoaded(messages);
             } catch (Exception e) {
                 Log.e(TAG, "Error loading messages from database", e);
@@ -86,11 +111,28 @@ public class ChatHistoryRepository {
         });
     }
     
+    /**
+     * Page of messages older than the given message from local database (sorted ASC)
+     */
+    public void getMessagesBefore(String conversationId, Message before, int limit, OnMessagesLoadedListener listener) {
+        execute(() -> {
+            try {
+                List<Message> messages = toMessagesAsc(chatMessageDao.getMessagesBefore(
+                        conversationId, before.getSentAt(), before.getId(), limit));
+                Log.d(TAG, "Loaded " + messages.size() + " older messages from local database");
+                listener.onMessagesLoaded(messages);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading older messages from database", e);
+                listener.onError(e);
+            }
+        });
+    }
+    
     /**
      * Update message status in local database
      */
     public void updateMessageStatus(String messageId, String status) {
-        executorService.execute(() -> {
+        execute(() -> {
             try {
                 String deliveredAt = status.equals("DELIVERED") ? String.valueOf(System.currentTimeMillis()) : null;
                 String readAt = status.equals("READ") ? String.valueOf(System.currentTimeMillis()) : null;
@@ -106,7 +148,7 @@ public class ChatHistoryRepository {
      * Delete all messages for a conversation
      */
     public void deleteConversationMessages(String conversationId) {
-        executorService.execute(() -> {
+        execute(() -> {
             try {
                 chatMessageDao.deleteConversationMessages(conversationId);
                 Log.d(TAG, "Deleted messages for conversation: " + conversationId);
@@ -120,7 +162,7 @@ public class ChatHistoryRepository {
      * Get latest message timestamp for sync
      */
     public void getLatestMessageTimestamp(String conversationId, OnTimestampLoadedListener listener) {
-        executorService.execute(() -> {
+        execute(() -> {
             try {
                 String timestamp = chatMessageDao.getLatestMessageTimestamp(conversationId);
                 listener.onTimestampLoaded(timestamp);
@@ -131,7 +173,24 @@ public class ChatHistoryRepository {
         });
     }
     
+    private void execute(Runnable task) {
+        try {
+            executorService.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Late network callback after shutdown(): nothing to persist into
+            Log.w(TAG, "Repository already shut down, task dropped");
+        }
+    }
+    
     // Conversion helpers
+    private List<Message> toMessagesAsc(List<ChatMessageEntity> entitiesDesc) {
+        List<Message> messages = new ArrayList<>(entitiesDesc.size());
+        for (int i = entitiesDesc.size() - 1; i >= 0; i--) {
+            messages.add(entityToMessage(entitiesDesc.get(i)));
+        }
+        return messages;
+    }
+    
     private ChatMessageEntity messageToEntity(Message message) {
         String proposalJson = null;
         if (message.getProposal() != null) {
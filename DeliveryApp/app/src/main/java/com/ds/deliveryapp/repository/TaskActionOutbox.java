@@ -0,0 +1,239 @@
+package com.ds.deliveryapp.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.ds.deliveryapp.clients.SessionClient;
+import com.ds.deliveryapp.clients.req.RouteInfo;
+import com.ds.deliveryapp.clients.req.TaskActionBatchRequest;
+import com.ds.deliveryapp.clients.res.TaskActionBatchResponse;
+import com.ds.deliveryapp.configs.RetrofitClient;
+import com.ds.deliveryapp.database.TaskOutboxDatabase;
+import com.ds.deliveryapp.database.dao.TaskActionDao;
+import com.ds.deliveryapp.database.entities.TaskActionEntity;
+import com.ds.deliveryapp.utils.TaskActionNotifier;
+import com.ds.deliveryapp.utils.TaskOutboxWorker;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import retrofit2.Response;
+
+/**
+ * Outbox bền vững (Room) cho các hành động của shipper trên task.
+ * - enqueue(): ghi hành động kèm thời điểm thao tác trên thiết bị rồi trả về ngay; UI không chờ mạng.
+ * - flush(): gửi theo lô (theo thứ tự thao tác) tới /actions/batch; server áp dụng idempotent theo actionId nên
+ *   gửi lại sau timeout / mất phản hồi là an toàn.
+ * - Hành động server trả RETRY (hoặc lô bị lỗi HTTP) được gửi lại với backoff lũy thừa + jitter.
+ * - Hành động bị từ chối (REJECTED) được báo cho shipper bằng thông báo và TaskStore hiện lại task đã ẩn lạc quan.
+ * Việc gửi do TaskOutboxWorker (WorkManager, chỉ chạy khi có mạng) đảm nhận, kể cả sau khi app bị tắt.
+ */
+public class TaskActionOutbox {
+
+    private static final String TAG = "TaskActionOutbox";
+
+    public static final String TYPE_SCAN = "SCAN";
+    public static final String TYPE_COMPLETE = "COMPLETE";
+    public static final String TYPE_FAIL = "FAIL";
+    public static final String TYPE_REFUSE = "REFUSE";
+    public static final String TYPE_POSTPONE = "POSTPONE";
+
+    private static final int BATCH_SIZE = 50;
+    private static final long BASE_BACKOFF_MS = 15_000;
+    private static final long MAX_BACKOFF_MS = 30 * 60_000;
+    // Lỗi HTTP hoặc RETRY từ server lặp lại quá số lần này thì bỏ hành động để không thử lại mãi / chặn hàng đợi
+    private static final int MAX_ATTEMPTS = 20;
+
+    private static TaskActionOutbox instance;
+
+    private final Context appContext;
+    private final TaskActionDao dao;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Gson gson = new Gson();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private TaskActionOutbox(Context context) {
+        this.appContext = context.getApplicationContext();
+        this.dao = TaskOutboxDatabase.getInstance(appContext).taskActionDao();
+    }
+
+    public static synchronized TaskActionOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new TaskActionOutbox(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Ghi một hành động vào outbox và lên lịch gửi ngay khi có mạng.
+     */
+    public void enqueue(String deliveryManId, String type, String parcelId,
+                        @Nullable String reason, @Nullable RouteInfo routeInfo) {
+        TaskActionEntity action = new TaskActionEntity(
+                UUID.randomUUID().toString(),
+                deliveryManId,
+                parcelId,
+                type,
+                reason,
+                routeInfo != null ? gson.toJson(routeInfo) : null,
+                System.currentTimeMillis()
+        );
+        executor.execute(() -> {
+            try {
+                dao.insert(action);
+                Log.d(TAG, "Queued " + type + " for parcel " + parcelId + " (" + action.getActionId() + ")");
+                TaskOutboxWorker.schedule(appContext, 0, true);
+            } catch (Exception e) {
+                Log.e(TAG, "Error queueing task action", e);
+            }
+        });
+    }
+
+    /**
+     * Gửi các hành động đến hạn (gọi trên luồng nền).
+     * @return thời điểm (epoch millis) cần thử lại, 0 nếu outbox đã trống
+     * @throws IOException khi không kết nối được server (thử lại khi có mạng)
+     */
+    public long flush() throws IOException {
+        SessionClient client = RetrofitClient.getRetrofitInstance(appContext).create(SessionClient.class);
+        for (String deliveryManId : dao.getDeliveryManIds()) {
+            flushShipper(client, deliveryManId);
+        }
+        Long next = dao.getNextAttemptAt();
+        return next == null ? 0 : Math.max(next, System.currentTimeMillis());
+    }
+
+    private void flushShipper(SessionClient client, String deliveryManId) throws IOException {
+        while (true) {
+            List<TaskActionEntity> due = dao.getDue(deliveryManId, System.currentTimeMillis(), BATCH_SIZE);
+            if (due.isEmpty()) {
+                return;
+            }
+            List<TaskActionBatchRequest.TaskAction> actions = new ArrayList<>(due.size());
+            for (TaskActionEntity entity : due) {
+                actions.add(new TaskActionBatchRequest.TaskAction(
+                        entity.getActionId(),
+                        entity.getType(),
+                        entity.getParcelId(),
+                        entity.getReason(),
+                        entity.getRouteInfoJson() != null ? gson.fromJson(entity.getRouteInfoJson(), RouteInfo.class) : null,
+                        entity.getClientTimestamp()
+                ));
+            }
+
+            Response<TaskActionBatchResponse> response =
+                    client.applyActionBatch(deliveryManId, new TaskActionBatchRequest(actions)).execute();
+            if (!response.isSuccessful() || response.body() == null || response.body().getResults() == null) {
+                Log.w(TAG, "Batch of " + due.size() + " actions failed: HTTP " + response.code());
+                List<String> dropped = new ArrayList<>();
+                for (TaskActionEntity entity : due) {
+                    retryOrDrop(entity, "HTTP " + response.code(), "Không gửi được lên máy chủ (HTTP " + response.code() + ")", dropped);
+                }
+                if (!dropped.isEmpty()) {
+                    dao.deleteAll(dropped);
+                }
+                return;
+            }
+
+            List<String> done = new ArrayList<>();
+            int retry = 0;
+            for (TaskActionBatchResponse.Result result : response.body().getResults()) {
+                if ("RETRY".equals(result.getOutcome())) {
+                    TaskActionEntity entity = find(due, result.getActionId());
+                    if (entity == null) {
+                        continue;
+                    }
+                    // Bỏ thì báo shipper và đưa vào done để xoá cùng các hành động đã xong
+                    if (retryOrDrop(entity, result.getMessage(), "Máy chủ chưa xử lý được: " + result.getMessage(), done)) {
+                        retry++;
+                    }
+                    continue;
+                }
+                if (isRejected(result)) {
+                    Log.w(TAG, "Action " + result.getType() + " for parcel " + result.getParcelId()
+                            + " rejected: " + result.getMessage());
+                    onRejected(result.getType(), result.getParcelId(), result.getMessage());
+                } else if (!TYPE_SCAN.equals(result.getType())) {
+                    mainHandler.post(() -> TaskStore.getInstance(appContext).onActionApplied(result.getParcelId()));
+                }
+                done.add(result.getActionId());
+            }
+            dao.deleteAll(done);
+            Log.d(TAG, "Flushed " + done.size() + " actions, " + retry + " to retry");
+            if (retry > 0 || due.size() < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * REJECTED, hoặc DUPLICATE của một hành động đã bị từ chối ở lần gửi trước (mất phản hồi).
+     */
+    private static boolean isRejected(TaskActionBatchResponse.Result result) {
+        return "REJECTED".equals(result.getOutcome())
+                || ("DUPLICATE".equals(result.getOutcome()) && result.getMessage() != null
+                && result.getMessage().startsWith("REJECTED"));
+    }
+
+    /**
+     * Hành động không được áp dụng: báo cho shipper (thông báo + màn hình danh sách), hiện lại task đã ẩn lạc quan.
+     */
+    private void onRejected(String type, String parcelId, String message) {
+        TaskActionNotifier.notifyRejected(appContext, type, parcelId, message);
+        mainHandler.post(() -> TaskStore.getInstance(appContext).onActionRejected(parcelId, message));
+    }
+
+    public int pendingCount() {
+        return dao.count();
+    }
+
+    /**
+     * Hẹn gửi lại với backoff; quá MAX_ATTEMPTS lần (lỗi HTTP hay server trả RETRY đều tính) thì bỏ hành động,
+     * báo shipper và thêm vào dropped để xoá.
+     * @return true nếu còn gửi lại
+     */
+    private boolean retryOrDrop(TaskActionEntity entity, String error, String rejectMessage, List<String> dropped) {
+        if (entity.getAttempts() + 1 >= MAX_ATTEMPTS) {
+            Log.e(TAG, "Dropping action " + entity.getActionId() + " (" + entity.getType()
+                    + " parcel " + entity.getParcelId() + ") after " + MAX_ATTEMPTS + " attempts: " + error);
+            dropped.add(entity.getActionId());
+            onRejected(entity.getType(), entity.getParcelId(), rejectMessage);
+            return false;
+        }
+        dao.markRetry(entity.getActionId(), nextAttemptAt(entity.getAttempts()), error);
+        return true;
+    }
+
+    @Nullable
+    private static TaskActionEntity find(List<TaskActionEntity> due, String actionId) {
+        for (TaskActionEntity entity : due) {
+            if (entity.getActionId().equals(actionId)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Backoff lũy thừa có trần, jitter ±20% để các thiết bị không cùng thử lại một lúc.
+     */
+    static long backoffMillis(int attempts) {
+        long delay = BASE_BACKOFF_MS << Math.min(attempts, 10);
+        delay = Math.min(delay, MAX_BACKOFF_MS);
+        return (long) (delay * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+    }
+
+    private static long nextAttemptAt(int attempts) {
+        return System.currentTimeMillis() + backoffMillis(attempts);
+    }
+}
@@ -0,0 +1,458 @@
+package com.ds.deliveryapp.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.ds.deliveryapp.clients.SessionClient;
+import com.ds.deliveryapp.clients.res.AssignmentDelta;
+import com.ds.deliveryapp.clients.res.PageResponse;
+import com.ds.deliveryapp.configs.RetrofitClient;
+import com.ds.deliveryapp.model.DeliveryAssignment;
+import com.ds.deliveryapp.utils.LocationTrackingService;
+import com.ds.deliveryapp.utils.TaskUpdatesWebSocketManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Danh sách task đang giao (IN_PROGRESS) của phiên hiện tại, giữ trong bộ nhớ và cập nhật bằng các thay đổi
+ * session-service đẩy qua STOMP (ADDED / UPDATED / SESSION_ENDED) thay vì tải lại cả danh sách mỗi lần mở màn hình.
+ * Chỉ tải lại toàn bộ (mọi trang) khi:
+ * - lần đầu, hoặc sau khi kênh kết nối lại (có thể đã lỡ thay đổi);
+ * - seq bị hụt / stream đổi (server khởi động lại);
+ * - phiên mới được tạo sẵn nhiều đơn (SESSION_STARTED), hoặc người dùng kéo để làm mới.
+ * Hành động shipper vừa thực hiện (hoàn thành, thất bại...) được ẩn ngay khỏi danh sách (lạc quan) trong lúc outbox
+ * gửi đi; server từ chối thì task hiện lại và listener nhận onActionRejected().
+ * Mọi trạng thái chỉ được đọc / ghi trên main thread.
+ */
+public class TaskStore {
+
+    private static final String TAG = "TaskStore";
+    private static final String WS_URL = "wss://localweb.phuongy.works/ws-tasks/websocket";
+    private static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+
+    private static final int PAGE_SIZE = 50;
+    // Giữ kết nối một lúc sau khi rời màn hình: chuyển tab qua lại không phải kết nối + tải lại
+    private static final long IDLE_DISCONNECT_MS = 60_000;
+    private static final long RECONNECT_BASE_MS = 2_000;
+    private static final long RECONNECT_MAX_MS = 60_000;
+
+    public interface Listener {
+        void onTasksChanged(List<DeliveryAssignment> tasks, @Nullable String activeSessionId);
+
+        void onLoadingChanged(boolean loading);
+
+        void onLoadFailed(String message);
+
+        /**
+         * Server từ chối một hành động đã ghi nhận trên thiết bị (task đã được hiện lại nếu còn đang giao).
+         */
+        void onActionRejected(String parcelId, String message);
+    }
+
+    private static TaskStore instance;
+
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+
+    // Mới quét trước, cùng thứ tự với /tasks/today
+    private final List<DeliveryAssignment> tasks = new ArrayList<>();
+    // Đơn có hành động đang chờ outbox gửi: ẩn khỏi danh sách hiển thị, `tasks` vẫn là dữ liệu của server
+    private final Set<String> pendingParcels = new HashSet<>();
+    private String activeSessionId;
+    private String trackedSessionId; // phiên mà LocationTrackingService đang thu vị trí
+    private String driverId;
+
+    private TaskUpdatesWebSocketManager socket;
+    private boolean live;
+    private int reconnectAttempts;
+    private int attachedCount;
+
+    private boolean loaded;
+    private boolean loading;
+    private boolean reloadPending;
+    private int loadGeneration;
+    // Thay đổi nhận được trong lúc đang tải: áp dụng sau khi có danh sách mới
+    private final List<AssignmentDelta> bufferedDeltas = new ArrayList<>();
+
+    private String stream;
+    private long lastSeq;
+
+    private final Runnable idleDisconnect = this::disconnect;
+    private final Runnable reconnect = this::connect;
+
+    private TaskStore(Context context) {
+        this.appContext = context.getApplicationContext();
+    }
+
+    public static synchronized TaskStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new TaskStore(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Màn hình bắt đầu hiển thị danh sách: nhận ngay dữ liệu đang có, giữ kênh STOMP mở.
+     */
+    public void attach(String driverId, Listener listener) {
+        if (driverId == null) return;
+        if (!driverId.equals(this.driverId)) {
+            reset();
+            this.driverId = driverId;
+        }
+        attachedCount++;
+        mainHandler.removeCallbacks(idleDisconnect);
+        listeners.add(listener);
+
+        if (socket == null) {
+            connect();
+        }
+        if (loaded) {
+            listener.onTasksChanged(snapshot(), activeSessionId);
+        } else if (!loading) {
+            reload();
+        } else {
+            listener.onLoadingChanged(true);
+        }
+    }
+
+    public void detach(Listener listener) {
+        if (listeners.remove(listener)) {
+            attachedCount--;
+        }
+        if (attachedCount <= 0) {
+            attachedCount = 0;
+            mainHandler.postDelayed(idleDisconnect, IDLE_DISCONNECT_MS);
+        }
+    }
+
+    /**
+     * Kéo để làm mới / sau thao tác mà kênh đang mất kết nối.
+     */
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * true khi kênh đang kết nối: thay đổi trên server sẽ tự đến, không cần tải lại.
+     */
+    public boolean isLive() {
+        return live;
+    }
+
+    /**
+     * Phiên vừa được kết thúc từ chính thiết bị này: cập nhật ngay, không chờ server đẩy về.
+     */
+    public void onSessionEnded(String sessionId) {
+        if (activeSessionId == null || activeSessionId.equals(sessionId)) {
+            tasks.clear();
+            activeSessionId = null;
+            notifyChanged();
+        }
+    }
+
+    /**
+     * Shipper vừa kết thúc task trên thiết bị (đã ghi vào outbox): ẩn ngay, chờ server xác nhận.
+     */
+    public void onActionQueued(String parcelId) {
+        if (parcelId != null && pendingParcels.add(parcelId) && loaded) {
+            notifyChanged();
+        }
+    }
+
+    /**
+     * Server đã áp dụng hành động: task không còn đang giao (delta UPDATED có thể đến trước hoặc sau).
+     */
+    public void onActionApplied(String parcelId) {
+        if (parcelId == null) return;
+        pendingParcels.remove(parcelId);
+        int index = indexOf(parcelId);
+        if (index >= 0) {
+            tasks.remove(index);
+        }
+        if (loaded) {
+            notifyChanged();
+        }
+    }
+
+    /**
+     * Server từ chối hành động: bỏ trạng thái lạc quan, hiện lại task và lấy lại danh sách từ server.
+     */
+    public void onActionRejected(String parcelId, String message) {
+        if (parcelId != null) {
+            pendingParcels.remove(parcelId);
+        }
+        if (loaded) {
+            notifyChanged();
+        }
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onActionRejected(parcelId, message);
+        }
+        reload();
+    }
+
+    // --- Kênh STOMP ---
+
+    private void connect() {
+        mainHandler.removeCallbacks(reconnect);
+        if (driverId == null) return;
+        if (socket != null) socket.disconnect();
+        socket = new TaskUpdatesWebSocketManager(WS_URL, driverId, RetrofitClient.getBaseClient(appContext),
+                new TaskUpdatesWebSocketManager.Listener() {
+                    @Override
+                    public void onConnected() {
+                        mainHandler.post(TaskStore.this::onSocketConnected);
+                    }
+
+                    @Override
+                    public void onDelta(AssignmentDelta delta) {
+                        mainHandler.post(() -> onDeltaReceived(delta));
+                    }
+
+                    @Override
+                    public void onDisconnected() {
+                        mainHandler.post(TaskStore.this::onSocketDisconnected);
+                    }
+                });
+        socket.connect();
+    }
+
+    private void disconnect() {
+        mainHandler.removeCallbacks(reconnect);
+        if (socket != null) {
+            socket.disconnect();
+            socket = null;
+        }
+        live = false;
+    }
+
+    private void onSocketConnected() {
+        if (socket == null) return;
+        live = true;
+        reconnectAttempts = 0;
+        // Những thay đổi trong lúc mất kết nối không được gửi lại: lấy lại danh sách một lần
+        // (danh sách chưa đổi thì server trả 304 nhờ ETag)
+        reload();
+    }
+
+    private void onSocketDisconnected() {
+        if (socket == null) return; // đã chủ động ngắt
+        live = false;
+        long delay = Math.min(RECONNECT_BASE_MS << Math.min(reconnectAttempts, 5), RECONNECT_MAX_MS);
+        reconnectAttempts++;
+        mainHandler.removeCallbacks(reconnect);
+        mainHandler.postDelayed(reconnect, delay);
+        Log.d(TAG, "Task channel lost, reconnecting in " + delay + "ms");
+    }
+
+    // --- Áp dụng thay đổi ---
+
+    private void onDeltaReceived(AssignmentDelta delta) {
+        if (loading) {
+            bufferedDeltas.add(delta);
+            return;
+        }
+        if (applyInOrder(delta)) {
+            notifyChanged();
+        }
+    }
+
+    /**
+     * @return false khi phải tải lại toàn bộ (đã bắt đầu tải lại)
+     */
+    private boolean applyInOrder(AssignmentDelta delta) {
+        if (stream != null && (!stream.equals(delta.getStream()) || delta.getSeq() != lastSeq + 1)) {
+            Log.w(TAG, "Task delta gap (expected #" + (lastSeq + 1) + ", got #" + delta.getSeq() + "), reloading");
+            reload();
+            return false;
+        }
+        stream = delta.getStream();
+        lastSeq = delta.getSeq();
+        if (!apply(delta)) {
+            reload();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean apply(AssignmentDelta delta) {
+        String type = delta.getType();
+        if (AssignmentDelta.TYPE_SESSION_STARTED.equals(type)) {
+            return false;
+        }
+        if (AssignmentDelta.TYPE_SESSION_ENDED.equals(type)) {
+            if (activeSessionId == null || activeSessionId.equals(delta.getSessionId())) {
+                tasks.clear();
+                activeSessionId = null;
+            }
+            return true;
+        }
+
+        DeliveryAssignment assignment = delta.getAssignment();
+        if (assignment == null || assignment.getParcelId() == null) {
+            return true;
+        }
+        if (activeSessionId != null && !activeSessionId.equals(delta.getSessionId())) {
+            // Task của phiên khác phiên đang giữ: danh sách đã lệch
+            return false;
+        }
+        activeSessionId = delta.getSessionId();
+
+        int index = indexOf(assignment.getParcelId());
+        if (STATUS_IN_PROGRESS.equals(assignment.getStatus())) {
+            if (index >= 0) {
+                tasks.set(index, assignment);
+            } else {
+                tasks.add(0, assignment);
+            }
+        } else if (index >= 0) {
+            // Danh sách chỉ hiển thị task đang giao: task đã kết thúc thì bỏ ra
+            tasks.remove(index);
+        }
+        return true;
+    }
+
+    private int indexOf(String parcelId) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (parcelId.equals(tasks.get(i).getParcelId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // --- Tải lại toàn bộ ---
+
+    private void reload() {
+        if (driverId == null) return;
+        if (loading) {
+            reloadPending = true;
+            return;
+        }
+        loading = true;
+        reloadPending = false;
+        stream = null; // delta kế tiếp làm mốc seq mới
+        int generation = ++loadGeneration;
+        for (Listener listener : new ArrayList<>(listeners)) listener.onLoadingChanged(true);
+        loadPage(generation, 0, new ArrayList<>());
+    }
+
+    private void loadPage(int generation, int page, List<DeliveryAssignment> accumulated) {
+        SessionClient service = RetrofitClient.getRetrofitInstance(appContext).create(SessionClient.class);
+        service.getTasksToday(driverId, Collections.singletonList(STATUS_IN_PROGRESS), page, PAGE_SIZE)
+                .enqueue(new Callback<PageResponse<DeliveryAssignment>>() {
+                    @Override
+                    public void onResponse(Call<PageResponse<DeliveryAssignment>> call,
+                                           Response<PageResponse<DeliveryAssignment>> response) {
+                        if (generation != loadGeneration) return;
+                        if (!response.isSuccessful() || response.body() == null) {
+                            onLoadFinished(null, "Lỗi tải đơn hàng: " + response.code());
+                            return;
+                        }
+                        PageResponse<DeliveryAssignment> body = response.body();
+                        if (body.content() != null) accumulated.addAll(body.content());
+                        if (body.last() || body.content() == null || body.content().isEmpty()) {
+                            onLoadFinished(accumulated, null);
+                        } else {
+                            loadPage(generation, page + 1, accumulated);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<PageResponse<DeliveryAssignment>> call, Throwable t) {
+                        if (generation != loadGeneration) return;
+                        Log.e(TAG, "Network error: " + t.getMessage());
+                        onLoadFinished(null, "Lỗi kết nối mạng.");
+                    }
+                });
+    }
+
+    private void onLoadFinished(@Nullable List<DeliveryAssignment> loadedTasks, @Nullable String error) {
+        loading = false;
+        for (Listener listener : new ArrayList<>(listeners)) listener.onLoadingChanged(false);
+
+        if (loadedTasks != null) {
+            tasks.clear();
+            tasks.addAll(loadedTasks);
+            activeSessionId = tasks.isEmpty() ? null : tasks.get(0).getSessionId();
+            loaded = true;
+            Log.d(TAG, "Loaded " + tasks.size() + " tasks");
+        } else {
+            for (Listener listener : new ArrayList<>(listeners)) listener.onLoadFailed(error);
+            if (!loaded) {
+                bufferedDeltas.clear(); // chưa có danh sách gốc để áp dụng
+            }
+        }
+
+        // Thay đổi đến trong lúc tải: trạng thái trong delta là trạng thái tuyệt đối nên áp dụng lại là an toàn
+        List<AssignmentDelta> pending = new ArrayList<>(bufferedDeltas);
+        bufferedDeltas.clear();
+        for (AssignmentDelta delta : pending) {
+            if (!applyInOrder(delta)) {
+                break;
+            }
+        }
+        if (reloadPending && !loading) {
+            reload();
+        }
+        if (loaded) {
+            notifyChanged();
+        }
+    }
+
+    private void reset() {
+        disconnect();
+        loadGeneration++;
+        loading = false;
+        loaded = false;
+        reloadPending = false;
+        bufferedDeltas.clear();
+        tasks.clear();
+        pendingParcels.clear();
+        activeSessionId = null;
+        stream = null;
+        syncLocationTracking();
+    }
+
+    private List<DeliveryAssignment> snapshot() {
+        List<DeliveryAssignment> visible = new ArrayList<>(tasks.size());
+        for (DeliveryAssignment task : tasks) {
+            if (!pendingParcels.contains(task.getParcelId())) {
+                visible.add(task);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Thu vị trí nền chạy theo phiên đang hoạt động: bắt đầu khi có phiên, dừng khi phiên kết thúc.
+     */
+    private void syncLocationTracking() {
+        if (Objects.equals(activeSessionId, trackedSessionId)) return;
+        if (LocationTrackingService.setSession(appContext, activeSessionId)) {
+            trackedSessionId = activeSessionId;
+        }
+    }
+
+    private void notifyChanged() {
+        syncLocationTracking();
+        List<DeliveryAssignment> current = snapshot();
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onTasksChanged(current, activeSessionId);
+        }
+    }
+}
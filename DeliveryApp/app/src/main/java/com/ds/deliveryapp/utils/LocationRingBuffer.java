@@ -0,0 +1,103 @@
+package com.ds.deliveryapp.utils;
+
+import com.ds.deliveryapp.clients.req.LocationBatchRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Bộ đệm vòng dung lượng cố định cho các điểm GPS chờ gửi.
+ * - Đầy thì ghi đè điểm cũ nhất (mất mạng lâu không làm tăng bộ nhớ, điểm mới nhất luôn được giữ).
+ * - Gửi theo 2 bước: peek() lấy lô, gửi xong mới discardUpTo(); gửi lỗi thì các điểm vẫn nằm lại.
+ * Mỗi điểm có số thứ tự tăng dần nên discardUpTo() đúng cả khi trong lúc gửi đã có điểm bị ghi đè.
+ * Mỗi điểm giữ phiên lúc thu: một lô chỉ gồm điểm của cùng một phiên, điểm của phiên cũ chưa gửi được
+ * không bị gửi kèm phiên mới.
+ */
+public class LocationRingBuffer {
+
+    /** Một lô lấy ra để gửi: phiên, các điểm và số thứ tự ngay sau điểm cuối. */
+    public static class Batch {
+        public final String sessionId;
+        public final List<LocationBatchRequest.Point> points;
+        public final long endSeq;
+
+        Batch(String sessionId, List<LocationBatchRequest.Point> points, long endSeq) {
+            this.sessionId = sessionId;
+            this.points = points;
+            this.endSeq = endSeq;
+        }
+    }
+
+    private final LocationBatchRequest.Point[] mSlots;
+    private final String[] mSessionIds;
+    private long mFirstSeq; // số thứ tự của điểm cũ nhất còn giữ
+    private long mNextSeq;  // số thứ tự sẽ gán cho điểm tiếp theo
+    private long mDropped;
+
+    public LocationRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.mSlots = new LocationBatchRequest.Point[capacity];
+        this.mSessionIds = new String[capacity];
+    }
+
+    /**
+     * @param sessionId phiên đang chạy lúc thu điểm
+     */
+    public synchronized void add(String sessionId, LocationBatchRequest.Point point) {
+        if (mNextSeq - mFirstSeq == mSlots.length) {
+            clear(mFirstSeq);
+            mFirstSeq++;
+            mDropped++;
+        }
+        int slot = (int) (mNextSeq % mSlots.length);
+        mSlots[slot] = point;
+        mSessionIds[slot] = sessionId;
+        mNextSeq++;
+    }
+
+    /**
+     * Lấy tối đa maxPoints điểm cũ nhất cùng phiên với điểm cũ nhất (không xoá khỏi bộ đệm).
+     */
+    public synchronized Batch peek(int maxPoints) {
+        long end = Math.min(mFirstSeq + maxPoints, mNextSeq);
+        String sessionId = mFirstSeq < end ? mSessionIds[(int) (mFirstSeq % mSlots.length)] : null;
+        List<LocationBatchRequest.Point> points = new ArrayList<>((int) (end - mFirstSeq));
+        long seq = mFirstSeq;
+        for (; seq < end; seq++) {
+            int slot = (int) (seq % mSlots.length);
+            if (!Objects.equals(sessionId, mSessionIds[slot])) break;
+            points.add(mSlots[slot]);
+        }
+        return new Batch(sessionId, points, seq);
+    }
+
+    /**
+     * Xoá các điểm có số thứ tự nhỏ hơn endSeq (đã gửi thành công).
+     */
+    public synchronized void discardUpTo(long endSeq) {
+        while (mFirstSeq < endSeq && mFirstSeq < mNextSeq) {
+            clear(mFirstSeq);
+            mFirstSeq++;
+        }
+    }
+
+    public synchronized int size() {
+        return (int) (mNextSeq - mFirstSeq);
+    }
+
+    public int capacity() {
+        return mSlots.length;
+    }
+
+    /** Số điểm đã bị ghi đè vì bộ đệm đầy. */
+    public synchronized long getDroppedCount() {
+        return mDropped;
+    }
+
+    private void clear(long seq) {
+        int slot = (int) (seq % mSlots.length);
+        mSlots[slot] = null;
+        mSessionIds[slot] = null;
+    }
+}
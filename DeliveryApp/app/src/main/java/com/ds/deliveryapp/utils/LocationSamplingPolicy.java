@@ -0,0 +1,109 @@
+package com.ds.deliveryapp.utils;
+
+import java.util.Objects;
+
+/**
+ * Chọn tần suất lấy mẫu GPS và chu kỳ gửi theo tốc độ di chuyển và pin:
+ * - Đang mở bản đồ dẫn đường: lấy mẫu dày (2s / 5m) để vẽ vị trí mượt.
+ * - Chạy xe: 5s / 10m; đi bộ chậm: 10s / 10m; đứng yên: 30s / 25m và độ chính xác vừa phải.
+ * - Pin yếu và không sạc: giãn chu kỳ gấp đôi; pin rất yếu thì bỏ GPS độ chính xác cao.
+ * maxDelayMs cho phép hệ thống gom nhiều điểm rồi giao một lần (ít đánh thức CPU hơn).
+ */
+public final class LocationSamplingPolicy {
+
+    public static final float DRIVING_SPEED_MPS = 5f;   // ~18 km/h
+    public static final float MOVING_SPEED_MPS = 1f;
+
+    private static final int LOW_BATTERY_PERCENT = 20;
+    private static final int CRITICAL_BATTERY_PERCENT = 10;
+
+    /** Cấu hình lấy mẫu; so sánh bằng equals() để chỉ đăng ký lại GPS khi thật sự đổi. */
+    public static final class Sampling {
+        public final long intervalMs;
+        public final float minDistanceM;
+        public final long maxDelayMs;
+        public final boolean highAccuracy;
+        public final long uploadIntervalMs;
+
+        Sampling(long intervalMs, float minDistanceM, long maxDelayMs, boolean highAccuracy, long uploadIntervalMs) {
+            this.intervalMs = intervalMs;
+            this.minDistanceM = minDistanceM;
+            this.maxDelayMs = maxDelayMs;
+            this.highAccuracy = highAccuracy;
+            this.uploadIntervalMs = uploadIntervalMs;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Sampling)) return false;
+            Sampling that = (Sampling) o;
+            return intervalMs == that.intervalMs
+                    && Float.compare(that.minDistanceM, minDistanceM) == 0
+                    && maxDelayMs == that.maxDelayMs
+                    && highAccuracy == that.highAccuracy
+                    && uploadIntervalMs == that.uploadIntervalMs;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(intervalMs, minDistanceM, maxDelayMs, highAccuracy, uploadIntervalMs);
+        }
+
+        @Override
+        public String toString() {
+            return "Sampling{interval=" + intervalMs + "ms, distance=" + minDistanceM + "m, maxDelay=" + maxDelayMs
+                    + "ms, highAccuracy=" + highAccuracy + ", upload=" + uploadIntervalMs + "ms}";
+        }
+    }
+
+    private LocationSamplingPolicy() {
+    }
+
+    /**
+     * @param speedMps tốc độ đã làm mượt (m/s)
+     * @param batteryPercent 0..100, âm nếu chưa biết
+     * @param charging đang sạc
+     * @param navigating bản đồ dẫn đường đang hiển thị
+     */
+    public static Sampling select(float speedMps, int batteryPercent, boolean charging, boolean navigating) {
+        long interval;
+        float distance;
+        long maxDelay;
+        boolean highAccuracy = true;
+        long upload;
+
+        if (navigating) {
+            interval = 2_000;
+            distance = 5;
+            maxDelay = 0; // hiển thị ngay trên bản đồ
+            upload = 30_000;
+        } else if (speedMps >= DRIVING_SPEED_MPS) {
+            interval = 5_000;
+            distance = 10;
+            maxDelay = 30_000;
+            upload = 60_000;
+        } else if (speedMps >= MOVING_SPEED_MPS) {
+            interval = 10_000;
+            distance = 10;
+            maxDelay = 60_000;
+            upload = 60_000;
+        } else {
+            interval = 30_000;
+            distance = 25;
+            maxDelay = 120_000;
+            highAccuracy = false;
+            upload = 120_000;
+        }
+
+        if (!charging && batteryPercent >= 0 && batteryPercent <= LOW_BATTERY_PERCENT) {
+            interval *= 2;
+            maxDelay = navigating ? 0 : maxDelay * 2;
+            upload *= 2;
+            if (batteryPercent <= CRITICAL_BATTERY_PERCENT) {
+                highAccuracy = false;
+            }
+        }
+        return new Sampling(interval, distance, maxDelay, highAccuracy, upload);
+    }
+}
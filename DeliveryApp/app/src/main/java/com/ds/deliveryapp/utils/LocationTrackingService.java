@@ -0,0 +1,394 @@
+package com.ds.deliveryapp.utils;
+
+import android.Manifest;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.content.pm.ServiceInfo;
+import android.location.Location;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.IBinder;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
+
+import com.ds.deliveryapp.MainActivity;
+import com.ds.deliveryapp.R;
+import com.ds.deliveryapp.clients.TrackingClient;
+import com.ds.deliveryapp.clients.req.LocationBatchRequest;
+import com.ds.deliveryapp.configs.RetrofitClient;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import retrofit2.Response;
+
+/**
+ * Foreground service thu vị trí của shipper trong suốt phiên giao hàng (kể cả khi tắt màn hình / rời bản đồ):
+ * - Tần suất lấy mẫu theo tốc độ và pin ({@link LocationSamplingPolicy}); hệ thống được phép gom điểm
+ *   (maxDelay) nên CPU không bị đánh thức cho từng điểm.
+ * - Điểm nằm trong bộ đệm vòng ({@link LocationRingBuffer}), gửi theo lô nén gzip mỗi 30s–4 phút
+ *   hoặc khi bộ đệm gần đầy: ít lần bật radio hơn gửi 10 điểm/15s như trước. Mất mạng thì giữ lại, gửi sau.
+ * - Màn hình bản đồ đăng ký {@link FixListener} để nhận vị trí (không tự mở GPS riêng);
+ *   khi có người nghe thì lấy mẫu dày để dẫn đường.
+ * Service tự dừng khi không còn phiên và không còn màn hình nào cần vị trí.
+ * Mọi xử lý vị trí / gửi chạy trên một HandlerThread riêng; listener được gọi trên main thread.
+ */
+public class LocationTrackingService extends Service {
+
+    private static final String TAG = "LocationTrackingService";
+
+    private static final String ACTION_SET_SESSION = "com.ds.deliveryapp.location.SET_SESSION";
+    private static final String EXTRA_SESSION_ID = "session_id";
+
+    private static final String CHANNEL_ID = "location_tracking";
+    private static final int NOTIFICATION_ID = 4701;
+
+    private static final int BUFFER_CAPACITY = 2_000;   // ~1 giờ lấy mẫu dày khi mất mạng
+    private static final int MAX_POINTS_PER_REQUEST = 200;
+    private static final int EARLY_UPLOAD_THRESHOLD = 150;
+    private static final float SPEED_SMOOTHING = 0.3f;
+
+    /** Nhận vị trí mới nhất trên main thread. */
+    public interface FixListener {
+        void onLocationChanged(@NonNull Location location);
+    }
+
+    // --- Trạng thái dùng chung với màn hình (chỉ truy cập trên main thread) ---
+    private static final Set<FixListener> sListeners = new LinkedHashSet<>();
+    private static LocationTrackingService sInstance;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final LocationRingBuffer mBuffer = new LocationRingBuffer(BUFFER_CAPACITY);
+
+    // --- Trạng thái của luồng xử lý (chỉ truy cập trên mWorker) ---
+    private HandlerThread mWorkerThread;
+    private Handler mWorker;
+    private FusedLocationProviderClient mFusedClient;
+    private TrackingClient mTrackingClient;
+    private LocationSamplingPolicy.Sampling mSampling;
+    private String mSessionId;
+    private boolean mNavigating;
+    private float mSpeedEma;
+    private int mBatteryPercent = -1;
+    private boolean mCharging;
+    private boolean mStopping;
+    private int mHandledStartId;
+
+    private final Runnable mUploadTick = this::onUploadTick;
+
+    private final LocationCallback mLocationCallback = new LocationCallback() {
+        @Override
+        public void onLocationResult(@NonNull LocationResult result) {
+            onFixes(result.getLocations());
+        }
+    };
+
+    private final BroadcastReceiver mBatteryReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, 100);
+            int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+            mBatteryPercent = level >= 0 && scale > 0 ? level * 100 / scale : -1;
+            mCharging = status == BatteryManager.BATTERY_STATUS_CHARGING || status == BatteryManager.BATTERY_STATUS_FULL;
+            applySampling();
+        }
+    };
+
+    /**
+     * Bắt đầu (hoặc cập nhật) thu vị trí cho phiên đang chạy. sessionId null: chỉ giữ service khi còn màn hình nghe.
+     * Không làm gì nếu chưa có quyền vị trí.
+     *
+     * @return false nếu chưa thể bắt đầu (chưa có quyền / app đang ở nền): gọi lại sau
+     */
+    public static boolean setSession(Context context, @Nullable String sessionId) {
+        Context appContext = context.getApplicationContext();
+        if (sessionId == null && sInstance == null && sListeners.isEmpty()) {
+            return true; // Không có gì để dừng
+        }
+        if (ContextCompat.checkSelfPermission(appContext, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            return false;
+        }
+        Intent intent = new Intent(appContext, LocationTrackingService.class)
+                .setAction(ACTION_SET_SESSION)
+                .putExtra(EXTRA_SESSION_ID, sessionId);
+        try {
+            ContextCompat.startForegroundService(appContext, intent);
+            return true;
+        } catch (IllegalStateException e) {
+            // Android 12+: không được khởi động foreground service khi app ở nền
+            Log.w(TAG, "Cannot start location service now: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Màn hình cần vị trí (bản đồ). Gọi trên main thread; nên kèm setSession() để service chạy.
+     */
+    public static void addFixListener(FixListener listener) {
+        if (sListeners.add(listener) && sInstance != null) {
+            sInstance.onListenersChanged();
+        }
+    }
+
+    public static void removeFixListener(FixListener listener) {
+        if (sListeners.remove(listener) && sInstance != null) {
+            sInstance.onListenersChanged();
+        }
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        sInstance = this;
+        mWorkerThread = new HandlerThread("location-pipeline");
+        mWorkerThread.start();
+        mWorker = new Handler(mWorkerThread.getLooper());
+        mFusedClient = LocationServices.getFusedLocationProviderClient(this);
+        mTrackingClient = RetrofitClient.getTrackingRetrofitInstance(this).create(TrackingClient.class);
+        mNavigating = !sListeners.isEmpty();
+
+        startInForeground();
+        // Sticky broadcast: nhận ngay mức pin hiện tại, sau đó mỗi khi thay đổi
+        ContextCompat.registerReceiver(this, mBatteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED),
+                null, mWorker, ContextCompat.RECEIVER_NOT_EXPORTED);
+        mWorker.post(this::applySampling);
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        // Luôn gọi startForeground trong mỗi lần startForegroundService()
+        startInForeground();
+        if (intent != null && ACTION_SET_SESSION.equals(intent.getAction())) {
+            String sessionId = intent.getStringExtra(EXTRA_SESSION_ID);
+            boolean navigating = !sListeners.isEmpty();
+            mWorker.post(() -> onSessionChanged(sessionId, navigating, startId));
+        } else {
+            mWorker.post(() -> mHandledStartId = startId);
+        }
+        // Bị hệ thống dừng thì không tự bật lại ở nền: lần mở app sau TaskStore sẽ gọi setSession()
+        return START_NOT_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        sInstance = null;
+        unregisterReceiver(mBatteryReceiver);
+        mFusedClient.removeLocationUpdates(mLocationCallback);
+        mWorker.removeCallbacksAndMessages(null);
+        mWorkerThread.quitSafely();
+        super.onDestroy();
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    // --- Luồng xử lý ---
+
+    private void onListenersChanged() {
+        boolean navigating = !sListeners.isEmpty();
+        mWorker.post(() -> {
+            mNavigating = navigating;
+            resumeIfNeeded();
+            applySampling();
+            stopIfIdle();
+        });
+    }
+
+    private void onSessionChanged(@Nullable String sessionId, boolean navigating, int startId) {
+        mHandledStartId = startId;
+        mNavigating = navigating;
+        if (!Objects.equals(sessionId, mSessionId)) {
+            // Điểm đã thu mang phiên cũ; gửi không được thì ở lại bộ đệm và vẫn được gửi kèm phiên cũ
+            mSessionId = sessionId;
+            uploadPending();
+        }
+        resumeIfNeeded();
+        applySampling();
+        stopIfIdle();
+    }
+
+    /** Đã quyết định dừng nhưng lại có phiên / màn hình mới trước khi service kịp dừng. */
+    private void resumeIfNeeded() {
+        if (mStopping && (mSessionId != null || mNavigating)) {
+            mStopping = false;
+            mSampling = null; // đăng ký lại GPS và lịch gửi
+        }
+    }
+
+    private void applySampling() {
+        if (mStopping) return;
+        LocationSamplingPolicy.Sampling sampling = LocationSamplingPolicy.select(mSpeedEma, mBatteryPercent, mCharging, mNavigating);
+        if (sampling.equals(mSampling)) return;
+        boolean uploadIntervalChanged = mSampling == null || mSampling.uploadIntervalMs != sampling.uploadIntervalMs;
+        mSampling = sampling;
+        Log.d(TAG, "Location sampling: " + sampling);
+
+        LocationRequest request = new LocationRequest.Builder(
+                sampling.highAccuracy ? Priority.PRIORITY_HIGH_ACCURACY : Priority.PRIORITY_BALANCED_POWER_ACCURACY,
+                sampling.intervalMs)
+                .setMinUpdateDistanceMeters(sampling.minDistanceM)
+                .setMaxUpdateDelayMillis(sampling.maxDelayMs)
+                .build();
+        try {
+            // Đăng ký lại với cùng callback thay cho cấu hình cũ
+            mFusedClient.requestLocationUpdates(request, mLocationCallback, mWorkerThread.getLooper());
+        } catch (SecurityException e) {
+            Log.e(TAG, "Location permission revoked", e);
+            stopSelfFromWorker();
+            return;
+        }
+        if (uploadIntervalChanged) {
+            mWorker.removeCallbacks(mUploadTick);
+            mWorker.postDelayed(mUploadTick, sampling.uploadIntervalMs);
+        }
+    }
+
+    private void onFixes(List<Location> locations) {
+        if (locations.isEmpty()) return;
+        for (Location location : locations) {
+            if (location.hasSpeed()) {
+                mSpeedEma = SPEED_SMOOTHING * location.getSpeed() + (1 - SPEED_SMOOTHING) * mSpeedEma;
+            }
+            // Ngoài phiên (chỉ mở bản đồ) thì không có gì để gửi
+            if (mSessionId == null) continue;
+            mBuffer.add(mSessionId, new LocationBatchRequest.Point(
+                    location.getLatitude(),
+                    location.getLongitude(),
+                    location.hasSpeed() ? location.getSpeed() : null,
+                    location.hasBearing() ? location.getBearing() : null,
+                    location.hasAccuracy() ? location.getAccuracy() : null,
+                    location.getTime()));
+        }
+
+        Location latest = locations.get(locations.size() - 1);
+        mMainHandler.post(() -> {
+            for (FixListener listener : new LinkedHashSet<>(sListeners)) {
+                listener.onLocationChanged(latest);
+            }
+        });
+
+        applySampling();
+        if (mBuffer.size() >= EARLY_UPLOAD_THRESHOLD) {
+            mWorker.removeCallbacks(mUploadTick);
+            mWorker.post(mUploadTick);
+        }
+    }
+
+    private void onUploadTick() {
+        uploadPending();
+        if (mSampling != null && !mStopping) {
+            mWorker.removeCallbacks(mUploadTick);
+            mWorker.postDelayed(mUploadTick, mSampling.uploadIntervalMs);
+        }
+    }
+
+    /**
+     * Gửi hết các điểm đang chờ (nhiều request nếu cần). Lỗi mạng: dừng lại, giữ điểm cho lần sau.
+     */
+    private void uploadPending() {
+        if (mBuffer.size() == 0 || !isOnline()) return;
+        while (mBuffer.size() > 0) {
+            LocationRingBuffer.Batch batch = mBuffer.peek(MAX_POINTS_PER_REQUEST);
+            try {
+                Response<Void> response = mTrackingClient.uploadLocations(new LocationBatchRequest(batch.sessionId, batch.points)).execute();
+                if (response.isSuccessful()) {
+                    mBuffer.discardUpTo(batch.endSeq);
+                } else if (response.code() >= 400 && response.code() < 500 && response.code() != 401
+                        && response.code() != 408 && response.code() != 429) {
+                    // Server không nhận lô này (vd 403: phiên đã kết thúc): gửi lại cũng vậy
+                    Log.w(TAG, "Location batch rejected: HTTP " + response.code());
+                    mBuffer.discardUpTo(batch.endSeq);
+                } else {
+                    Log.w(TAG, "Location upload failed: HTTP " + response.code());
+                    return;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Location upload failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private boolean isOnline() {
+        ConnectivityManager connectivity = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity == null) return true;
+        Network network = connectivity.getActiveNetwork();
+        NetworkCapabilities capabilities = network != null ? connectivity.getNetworkCapabilities(network) : null;
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+
+    private void stopIfIdle() {
+        if (!mStopping && mSessionId == null && !mNavigating) {
+            uploadPending();
+            stopSelfFromWorker();
+        }
+    }
+
+    private void stopSelfFromWorker() {
+        mStopping = true;
+        mFusedClient.removeLocationUpdates(mLocationCallback);
+        mWorker.removeCallbacks(mUploadTick);
+        int startId = mHandledStartId;
+        mMainHandler.post(() -> {
+            // Có màn hình mới đăng ký, hoặc đã có lệnh setSession() mới chưa xử lý: không dừng,
+            // lệnh / listener đó sẽ gọi resumeIfNeeded()
+            if (!sListeners.isEmpty() || !stopSelfResult(startId)) return;
+            stopForeground(STOP_FOREGROUND_REMOVE);
+        });
+    }
+
+    private void startInForeground() {
+        NotificationManager manager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+        if (manager != null && manager.getNotificationChannel(CHANNEL_ID) == null) {
+            manager.createNotificationChannel(new NotificationChannel(CHANNEL_ID, "Theo dõi vị trí giao hàng",
+                    NotificationManager.IMPORTANCE_LOW));
+        }
+        PendingIntent contentIntent = PendingIntent.getActivity(this, 0,
+                new Intent(this, MainActivity.class).addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP),
+                PendingIntent.FLAG_IMMUTABLE);
+        Notification notification = new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_delivery)
+                .setContentTitle("Đang trong phiên giao hàng")
+                .setContentText("Vị trí của bạn được chia sẻ với khách hàng đang chờ đơn.")
+                .setContentIntent(contentIntent)
+                .setOngoing(true)
+                .setOnlyAlertOnce(true)
+                .build();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            startForeground(NOTIFICATION_ID, notification, ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION);
+        } else {
+            startForeground(NOTIFICATION_ID, notification);
+        }
+    }
+}
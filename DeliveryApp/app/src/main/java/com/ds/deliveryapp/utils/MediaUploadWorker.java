@@ -0,0 +1,196 @@
+package com.ds.deliveryapp.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.ds.deliveryapp.clients.MediaClient;
+import com.ds.deliveryapp.clients.req.CreateMediaUploadRequest;
+import com.ds.deliveryapp.clients.res.MediaUpload;
+import com.ds.deliveryapp.configs.RetrofitClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import retrofit2.Response;
+
+/**
+ * Upload ảnh (ảnh bằng chứng giao hàng, ảnh chat) theo từng chunk, tiếp tục được sau khi mất mạng:
+ * - Mỗi file gắn với một uploadId lưu trong SharedPreferences; lần chạy sau hỏi server receivedBytes
+ *   và gửi tiếp từ đó thay vì gửi lại cả file.
+ * - Chunk nhỏ (256KB): mạng yếu chỉ mất tối đa một chunk, không giữ cả ảnh trong bộ nhớ.
+ * - WorkManager chỉ chạy khi có mạng, backoff lũy thừa, giữ lịch qua cả khi app bị tắt.
+ */
+public class MediaUploadWorker extends Worker {
+
+    private static final String TAG = "MediaUploadWorker";
+    private static final String PREFS = "media_uploads";
+    private static final String KEY_PATH = "path";
+    private static final String KEY_CONTENT_TYPE = "contentType";
+    private static final String KEY_PURPOSE = "purpose";
+    private static final String KEY_REFERENCE_ID = "referenceId";
+    private static final int CHUNK_BYTES = 256 * 1024;
+    private static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+
+    public MediaUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Xếp lịch upload một file; gọi lại với cùng file không tạo upload thứ hai.
+     */
+    public static void enqueue(Context context, File file, String contentType, String purpose, String referenceId) {
+        Data input = new Data.Builder()
+                .putString(KEY_PATH, file.getAbsolutePath())
+                .putString(KEY_CONTENT_TYPE, contentType)
+                .putString(KEY_PURPOSE, purpose)
+                .putString(KEY_REFERENCE_ID, referenceId)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(MediaUploadWorker.class)
+                .setInputData(input)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                "media_upload_" + file.getAbsolutePath(), ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String path = getInputData().getString(KEY_PATH);
+        File file = path != null ? new File(path) : null;
+        if (file == null || !file.isFile() || file.length() == 0) {
+            Log.w(TAG, "File not found, dropping upload: " + path);
+            forget(path);
+            return Result.failure();
+        }
+
+        MediaClient client = RetrofitClient.getRetrofitInstance(getApplicationContext()).create(MediaClient.class);
+        try {
+            MediaUpload upload = resumeOrCreate(client, file);
+            if (upload == null) {
+                return Result.retry();
+            }
+            long offset = upload.getReceivedBytes();
+            long chunkLimit = upload.getMaxChunkSize() > 0 ? Math.min(CHUNK_BYTES, upload.getMaxChunkSize()) : CHUNK_BYTES;
+
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                byte[] buffer = new byte[(int) chunkLimit];
+                while (offset < upload.getTotalSize()) {
+                    if (isStopped()) return Result.retry();
+
+                    int length = (int) Math.min(chunkLimit, upload.getTotalSize() - offset);
+                    raf.seek(offset);
+                    raf.readFully(buffer, 0, length);
+                    RequestBody chunk = RequestBody.create(buffer, OCTET_STREAM, 0, length);
+
+                    Response<MediaUpload.Response> response = client.uploadChunk(upload.getId(), offset, chunk).execute();
+                    if (response.isSuccessful() && response.body() != null && response.body().getData() != null) {
+                        offset = response.body().getData().getReceivedBytes();
+                    } else if (response.code() == 409) {
+                        // Chunk trước đã tới server nhưng mất phản hồi: tiếp tục từ offset server báo
+                        String serverOffset = response.headers().get("Upload-Offset");
+                        if (serverOffset == null) return Result.retry();
+                        offset = Long.parseLong(serverOffset);
+                    } else if (isPermanent(response.code())) {
+                        Log.e(TAG, "Upload rejected (" + response.code() + "), dropping: " + path);
+                        forget(path);
+                        return Result.failure();
+                    } else {
+                        return Result.retry();
+                    }
+                }
+            }
+
+            Log.i(TAG, "Upload complete: " + upload.getId());
+            forget(path);
+            return Result.success();
+        } catch (UploadRejectedException e) {
+            Log.e(TAG, "Upload rejected (" + e.code + "), dropping: " + path);
+            return Result.failure();
+        } catch (IOException e) {
+            // Mạng chập chờn: lần sau tiếp tục từ receivedBytes trên server
+            Log.w(TAG, "Upload interrupted, will resume: " + e.getMessage());
+            return Result.retry();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected upload error", e);
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Upload đang dở của file (nếu có), ngược lại tạo mới. Trả về null khi cần thử lại sau.
+     */
+    private MediaUpload resumeOrCreate(MediaClient client, File file) throws IOException, UploadRejectedException {
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        String uploadId = prefs.getString(file.getAbsolutePath(), null);
+        if (uploadId != null) {
+            Response<MediaUpload.Response> response = client.getUpload(uploadId).execute();
+            if (response.isSuccessful() && response.body() != null && response.body().getData() != null
+                    && response.body().getData().getTotalSize() == file.length()) {
+                return response.body().getData();
+            }
+            if (!isPermanent(response.code()) && !response.isSuccessful()) {
+                return null;
+            }
+            // Upload đã hết hạn / không còn trên server: tạo lại
+            forget(file.getAbsolutePath());
+        }
+
+        CreateMediaUploadRequest request = new CreateMediaUploadRequest(
+                file.getName(),
+                getInputData().getString(KEY_CONTENT_TYPE),
+                file.length(),
+                getInputData().getString(KEY_PURPOSE),
+                getInputData().getString(KEY_REFERENCE_ID));
+        Response<MediaUpload.Response> response = client.createUpload(request).execute();
+        if (!response.isSuccessful() || response.body() == null || response.body().getData() == null) {
+            if (isPermanent(response.code())) {
+                throw new UploadRejectedException(response.code());
+            }
+            return null;
+        }
+        MediaUpload upload = response.body().getData();
+        prefs.edit().putString(file.getAbsolutePath(), upload.getId()).apply();
+        return upload;
+    }
+
+    private void forget(String path) {
+        if (path == null) return;
+        getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit().remove(path).apply();
+    }
+
+    /**
+     * Lỗi 4xx không hết khi thử lại (trừ 401 đang refresh token, 408, 409, 429)
+     */
+    private static boolean isPermanent(int code) {
+        return code >= 400 && code < 500 && code != 401 && code != 408 && code != 409 && code != 429;
+    }
+
+    private static class UploadRejectedException extends Exception {
+        final int code;
+
+        UploadRejectedException(int code) {
+            super("Upload rejected: " + code);
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.ds.deliveryapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.ds.deliveryapp.clients.res.ParcelStatusUpdate;
+import com.google.gson.Gson;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import okhttp3.OkHttpClient;
+import ua.naiksoftware.stomp.Stomp;
+import ua.naiksoftware.stomp.StompClient;
+import ua.naiksoftware.stomp.dto.StompHeader;
+
+/**
+ * Nhận chuyển trạng thái của các đơn khách hàng đang xem (communication-service, /topic/parcels/{id}/status),
+ * thay cho việc gọi lại API chi tiết đơn để xem có gì thay đổi.
+ * Tự kết nối lại (backoff) và đăng ký lại các đơn đang xem; listener được gọi trên main thread.
+ */
+public class ParcelStatusWebSocketManager {
+
+    private static final String TAG = "ParcelStatusWebSocket";
+    private static final long RECONNECT_BASE_MS = 2_000;
+    private static final long RECONNECT_MAX_MS = 60_000;
+
+    public interface Listener {
+        void onStatusChanged(ParcelStatusUpdate update);
+
+        /** Đã kết nối lại sau khi mất kết nối: có thể đã lỡ chuyển trạng thái. */
+        void onReconnected();
+    }
+
+    private final String mWebSocketUrl;
+    private final String mUserId;
+    private final OkHttpClient mOkHttpClient;
+    private final Listener mListener;
+    private final Gson mGson = new Gson();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final Set<String> mWatchedParcels = new LinkedHashSet<>();
+    private final Map<String, Disposable> mSubscriptions = new HashMap<>();
+    private StompClient mStompClient;
+    private CompositeDisposable mComposite;
+    private boolean mActive;
+    private boolean mWasConnected;
+    private int mReconnectAttempts;
+    private final Runnable mReconnect = this::connect;
+
+    public ParcelStatusWebSocketManager(String webSocketUrl, String userId, OkHttpClient okHttpClient, Listener listener) {
+        this.mWebSocketUrl = webSocketUrl;
+        this.mUserId = userId;
+        this.mOkHttpClient = okHttpClient;
+        this.mListener = listener;
+    }
+
+    /**
+     * Theo dõi một đơn (kết nối khi cần). Gọi trên main thread.
+     */
+    public void watch(String parcelId) {
+        if (parcelId == null || !mWatchedParcels.add(parcelId)) return;
+        if (mStompClient == null) {
+            mActive = true;
+            connect();
+        } else {
+            subscribe(parcelId);
+        }
+    }
+
+    public void unwatch(String parcelId) {
+        if (!mWatchedParcels.remove(parcelId)) return;
+        Disposable subscription = mSubscriptions.remove(parcelId);
+        if (subscription != null) subscription.dispose(); // gửi UNSUBSCRIBE
+        if (mWatchedParcels.isEmpty()) {
+            disconnect();
+        }
+    }
+
+    public void disconnect() {
+        mActive = false;
+        mWasConnected = false;
+        mMainHandler.removeCallbacks(mReconnect);
+        mSubscriptions.clear();
+        if (mComposite != null) {
+            mComposite.dispose();
+            mComposite = null;
+        }
+        if (mStompClient != null) {
+            mStompClient.disconnect();
+            mStompClient = null;
+        }
+    }
+
+    private void connect() {
+        if (!mActive || mUserId == null || mUserId.isEmpty()) return;
+        if (mComposite != null) mComposite.dispose();
+        if (mStompClient != null) mStompClient.disconnect();
+        mSubscriptions.clear();
+
+        Map<String, String> handshakeHeaders = new HashMap<>();
+        handshakeHeaders.put("Authorization", "Bearer " + mUserId);
+        mComposite = new CompositeDisposable();
+        mStompClient = Stomp.over(Stomp.ConnectionProvider.OKHTTP, mWebSocketUrl, handshakeHeaders, mOkHttpClient);
+        mStompClient.withClientHeartbeat(15000).withServerHeartbeat(15000);
+
+        // Các SUBSCRIBE được gửi ngay sau CONNECTED
+        for (String parcelId : mWatchedParcels) {
+            subscribe(parcelId);
+        }
+
+        mComposite.add(mStompClient.lifecycle().subscribe(
+                lifecycleEvent -> {
+                    switch (lifecycleEvent.getType()) {
+                        case OPENED:
+                            mMainHandler.post(this::onOpened);
+                            break;
+                        case CLOSED:
+                        case ERROR:
+                            mMainHandler.post(this::scheduleReconnect);
+                            break;
+                        default:
+                            break;
+                    }
+                },
+                throwable -> mMainHandler.post(this::scheduleReconnect)));
+
+        mStompClient.connect(Collections.singletonList(new StompHeader("Authorization", "Bearer " + mUserId)));
+    }
+
+    private void subscribe(String parcelId) {
+        Disposable subscription = mStompClient.topic("/topic/parcels/" + parcelId + "/status").subscribe(
+                stompMessage -> {
+                    try {
+                        ParcelStatusUpdate update = mGson.fromJson(stompMessage.getPayload(), ParcelStatusUpdate.class);
+                        if (update != null) mMainHandler.post(() -> mListener.onStatusChanged(update));
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error parsing parcel status update", e);
+                    }
+                },
+                throwable -> Log.w(TAG, "Parcel status topic error: " + throwable.getMessage()));
+        mSubscriptions.put(parcelId, subscription);
+        mComposite.add(subscription);
+    }
+
+    private void onOpened() {
+        if (!mActive) return;
+        mReconnectAttempts = 0;
+        if (mWasConnected) {
+            mListener.onReconnected();
+        }
+        mWasConnected = true;
+    }
+
+    private void scheduleReconnect() {
+        if (!mActive) return;
+        long delay = Math.min(RECONNECT_BASE_MS << Math.min(mReconnectAttempts, 5), RECONNECT_MAX_MS);
+        mReconnectAttempts++;
+        mMainHandler.removeCallbacks(mReconnect);
+        mMainHandler.postDelayed(mReconnect, delay);
+        Log.d(TAG, "Parcel status channel lost, reconnecting in " + delay + "ms");
+    }
+}
@@ -0,0 +1,182 @@
+package com.ds.deliveryapp.utils;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chỉ mục đoạn thẳng của một tuyến (một chặng) để kiểm tra lệch hướng:
+ * - Dựng một lần cho mỗi tuyến (trên luồng nền): chiếu các điểm sang mặt phẳng cục bộ (mét) và chia lưới ô vuông,
+ *   mỗi ô giữ danh sách các đoạn đi qua nó.
+ * - Mỗi lần có GPS chỉ xét các đoạn trong vài ô quanh vị trí: gần như hằng số, không phụ thuộc độ dài tuyến.
+ * - Đo khoảng cách tới ĐOẠN (không chỉ tới đỉnh): đi đúng đường giữa hai đỉnh cách xa nhau không bị báo lệch.
+ * Phép chiếu equirectangular quanh vĩ độ giữa tuyến, sai số không đáng kể ở phạm vi một thành phố.
+ * Bất biến sau khi dựng, dùng được từ nhiều luồng.
+ */
+public final class RouteSegmentIndex {
+
+    private static final double EARTH_RADIUS_M = 6_378_137.0; // như GeoPoint.distanceToAsDouble
+    private static final int COORD_BITS = 21;                 // ô theo mỗi trục và số đoạn: < 2^21
+    private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+
+    private final double mOriginLat;
+    private final double mOriginLon;
+    private final double mMetersPerDegLat;
+    private final double mMetersPerDegLon;
+    private final double mCellSize;
+    private final int mMinCellX;
+    private final int mMinCellY;
+    private final int mCellSpanX;
+    private final int mCellSpanY;
+
+    // Đỉnh đã chiếu (mét); đoạn i nối đỉnh i và i + 1 (tuyến 1 điểm: một đoạn suy biến)
+    private final double[] mX;
+    private final double[] mY;
+
+    // Lưới dạng CSR: mCellKeys tăng dần, đoạn của ô k là mSegments[mCellStart[k] .. mCellStart[k + 1])
+    private final long[] mCellKeys;
+    private final int[] mCellStart;
+    private final int[] mSegments;
+
+    public static RouteSegmentIndex build(List<GeoPoint> points, double cellSizeMeters) {
+        double[] lats = new double[points.size()];
+        double[] lons = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            lats[i] = points.get(i).getLatitude();
+            lons[i] = points.get(i).getLongitude();
+        }
+        return new RouteSegmentIndex(lats, lons, cellSizeMeters);
+    }
+
+    /**
+     * @param cellSizeMeters cạnh ô lưới; nên bằng ngưỡng lệch hướng (truy vấn khi đó chỉ xét 4–9 ô)
+     */
+    public RouteSegmentIndex(double[] lats, double[] lons, double cellSizeMeters) {
+        if (lats.length != lons.length) throw new IllegalArgumentException("lats/lons length mismatch");
+        if (cellSizeMeters <= 0) throw new IllegalArgumentException("cellSizeMeters must be > 0");
+        int n = lats.length;
+        mCellSize = cellSizeMeters;
+
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        for (double lat : lats) {
+            minLat = Math.min(minLat, lat);
+            maxLat = Math.max(maxLat, lat);
+        }
+        mOriginLat = n > 0 ? (minLat + maxLat) / 2 : 0;
+        mOriginLon = n > 0 ? lons[0] : 0;
+        mMetersPerDegLat = Math.toRadians(1) * EARTH_RADIUS_M;
+        mMetersPerDegLon = mMetersPerDegLat * Math.cos(Math.toRadians(mOriginLat));
+
+        mX = new double[n];
+        mY = new double[n];
+        double minX = 0, minY = 0, maxX = 0, maxY = 0;
+        for (int i = 0; i < n; i++) {
+            mX[i] = (lons[i] - mOriginLon) * mMetersPerDegLon;
+            mY[i] = (lats[i] - mOriginLat) * mMetersPerDegLat;
+            if (i == 0 || mX[i] < minX) minX = mX[i];
+            if (i == 0 || mY[i] < minY) minY = mY[i];
+            if (i == 0 || mX[i] > maxX) maxX = mX[i];
+            if (i == 0 || mY[i] > maxY) maxY = mY[i];
+        }
+        mMinCellX = cell(minX);
+        mMinCellY = cell(minY);
+        mCellSpanX = cell(maxX) - mMinCellX;
+        mCellSpanY = cell(maxY) - mMinCellY;
+        int segmentCount = n == 1 ? 1 : Math.max(0, n - 1);
+        if (mCellSpanX > COORD_MASK || mCellSpanY > COORD_MASK || segmentCount > COORD_MASK) {
+            throw new IllegalArgumentException("Route too large for cell size " + cellSizeMeters + "m");
+        }
+
+        // (ô, đoạn) đóng gói vào một long rồi sắp xếp: không cần map / boxing
+        long[] entries = new long[Math.max(16, segmentCount * 2)];
+        int size = 0;
+        double halfDiagonal = mCellSize * Math.sqrt(2) / 2;
+        for (int s = 0; s < segmentCount; s++) {
+            int a = s, b = Math.min(s + 1, n - 1);
+            int fromX = cell(Math.min(mX[a], mX[b])), toX = cell(Math.max(mX[a], mX[b]));
+            int fromY = cell(Math.min(mY[a], mY[b])), toY = cell(Math.max(mY[a], mY[b]));
+            for (int cx = fromX; cx <= toX; cx++) {
+                for (int cy = fromY; cy <= toY; cy++) {
+                    // Chỉ các ô đoạn thẳng thực sự đi qua (tâm ô cách đoạn không quá nửa đường chéo)
+                    double centerX = (cx + 0.5) * mCellSize, centerY = (cy + 0.5) * mCellSize;
+                    if (segmentDistance(centerX, centerY, a, b) > halfDiagonal) continue;
+                    if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+                    entries[size++] = (cellKey(cx, cy) << COORD_BITS) | s;
+                }
+            }
+        }
+        Arrays.sort(entries, 0, size);
+
+        mSegments = new int[size];
+        long[] keys = new long[size];
+        int[] starts = new int[size + 1];
+        int cells = 0;
+        for (int i = 0; i < size; i++) {
+            long key = entries[i] >>> COORD_BITS;
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+            mSegments[i] = (int) (entries[i] & COORD_MASK);
+        }
+        starts[cells] = size;
+        mCellKeys = Arrays.copyOf(keys, cells);
+        mCellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    /**
+     * Khoảng cách (mét) từ vị trí tới tuyến nếu không quá maxMeters, ngược lại Double.POSITIVE_INFINITY.
+     */
+    public double distanceTo(double lat, double lon, double maxMeters) {
+        if (mCellKeys.length == 0) return Double.POSITIVE_INFINITY;
+        double x = (lon - mOriginLon) * mMetersPerDegLon;
+        double y = (lat - mOriginLat) * mMetersPerDegLat;
+        int fromX = Math.max(cell(x - maxMeters), mMinCellX), toX = Math.min(cell(x + maxMeters), mMinCellX + mCellSpanX);
+        int fromY = Math.max(cell(y - maxMeters), mMinCellY), toY = Math.min(cell(y + maxMeters), mMinCellY + mCellSpanY);
+
+        double best = Double.POSITIVE_INFINITY;
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                int k = Arrays.binarySearch(mCellKeys, cellKey(cx, cy));
+                if (k < 0) continue;
+                for (int i = mCellStart[k]; i < mCellStart[k + 1]; i++) {
+                    int s = mSegments[i];
+                    best = Math.min(best, segmentDistance(x, y, s, Math.min(s + 1, mX.length - 1)));
+                }
+            }
+        }
+        return best <= maxMeters ? best : Double.POSITIVE_INFINITY;
+    }
+
+    public boolean isWithin(double lat, double lon, double meters) {
+        return distanceTo(lat, lon, meters) <= meters;
+    }
+
+    public boolean isWithin(GeoPoint point, double meters) {
+        return isWithin(point.getLatitude(), point.getLongitude(), meters);
+    }
+
+    public int getSegmentCount() {
+        return mX.length == 1 ? 1 : Math.max(0, mX.length - 1);
+    }
+
+    private int cell(double meters) {
+        return (int) Math.floor(meters / mCellSize);
+    }
+
+    private long cellKey(int cx, int cy) {
+        return ((long) (cx - mMinCellX) << COORD_BITS) | (cy - mMinCellY);
+    }
+
+    private double segmentDistance(double px, double py, int a, int b) {
+        double ax = mX[a], ay = mY[a];
+        double dx = mX[b] - ax, dy = mY[b] - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSq;
+        t = Math.max(0, Math.min(1, t));
+        double cx = ax + t * dx - px, cy = ay + t * dy - py;
+        return Math.sqrt(cx * cx + cy * cy);
+    }
+}
@@ -20,12 +20,11 @@ import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
 import androidx.fragment.app.Fragment;
 
-import com.ds.deliveryapp.clients.SessionClient;
 import com.ds.deliveryapp.clients.req.RouteInfo;
-import com.ds.deliveryapp.clients.req.TaskFailRequest;
-import com.ds.deliveryapp.configs.RetrofitClient;
 import com.ds.deliveryapp.model.DeliveryAssignment;
 import com.ds.deliveryapp.model.IssueReason;
+import com.ds.deliveryapp.repository.TaskActionOutbox;
+import com.ds.deliveryapp.repository.TaskStore;
 
 import java.io.File;
 import java.io.IOException;
@@ -35,11 +34,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-import retrofit2.Retrofit;
-
 public class TaskActionHandler {
 
     private static final String TAG = "TASK_ACTION_HANDLER";
@@ -54,6 +48,7 @@ public class TaskActionHandler {
     public static final int REQUEST_CAMERA_PERMISSION = 101;
 
     private Uri photoURI;
+    private File photoFile; // ảnh bằng chứng giao hàng vừa chụp, upload nền sau khi chụp xong
     private DeliveryAssignment pendingAssignment;
 
     // === Constructor cho Fragment ===
@@ -137,7 +132,6 @@ public class TaskActionHandler {
 
         Intent takePictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
         if (takePictureIntent.resolveActivity(activity.getPackageManager()) != null) {
-            File photoFile;
             try {
                 photoFile = createImageFile();
             } catch (IOException ex) {
@@ -169,7 +163,12 @@ public class TaskActionHandler {
                     Toast.makeText(activity, "Lỗi xử lý ảnh.", Toast.LENGTH_SHORT).show();
                     return;
                 }
-                Toast.makeText(activity, "Đang gửi yêu cầu hoàn thành...", Toast.LENGTH_LONG).show();
+                Toast.makeText(activity, "Đã ghi nhận hoàn thành, sẽ đồng bộ khi có mạng.", Toast.LENGTH_SHORT).show();
+                if (photoFile != null) {
+                    // Upload theo chunk, tự tiếp tục khi mạng chập chờn; không chặn việc hoàn thành đơn
+                    MediaUploadWorker.enqueue(activity.getApplicationContext(), photoFile,
+                            "image/jpeg", "DELIVERY_PROOF", pendingAssignment.getParcelId());
+                }
                 sendCompletionRequest(pendingAssignment);
                 listener.onStatusUpdated("COMPLETED");
             } else {
@@ -177,6 +176,7 @@ public class TaskActionHandler {
             }
             pendingAssignment = null;
             photoURI = null;
+            photoFile = null;
         }
     }
 
@@ -241,56 +241,31 @@ public class TaskActionHandler {
         }
     }
 
-    // === API CALLS ===
+    // === OUTBOX ===
+    // Hành động được ghi vào outbox (Room) và gửi theo lô khi có mạng: shipper không phải chờ mạng.
+    // Task được ẩn ngay khỏi danh sách; server từ chối thì task hiện lại kèm thông báo (xem TaskStore).
     private void sendCompletionRequest(DeliveryAssignment assignment) {
         if (assignment == null || driverId == null) {
             Log.e(TAG, "Thiếu assignment hoặc driverId");
             return;
         }
-        Retrofit retrofit = RetrofitClient.getRetrofitInstance(activity.getApplicationContext());
-        SessionClient service = retrofit.create(SessionClient.class);
         RouteInfo routeInfo = RouteInfo.builder().distanceM(1000).durationS(1000).waypoints("{}").build();
-        Call<DeliveryAssignment> call = service.completeTask(driverId, assignment.getParcelId(), routeInfo);
-        call.enqueue(new Callback<DeliveryAssignment>() {
-            @Override
-            public void onResponse(Call<DeliveryAssignment> call, Response<DeliveryAssignment> response) {
-                if (response.isSuccessful())
-                    Log.d(TAG, "Task COMPLETED event sent successfully.");
-                else
-                    Log.e(TAG, "Response unsuccessful: " + response.code());
-            }
-
-            @Override
-            public void onFailure(Call<DeliveryAssignment> call, Throwable t) {
-                Log.e(TAG, "Network error: " + t.getMessage());
-            }
-        });
+        TaskActionOutbox.getInstance(activity.getApplicationContext())
+                .enqueue(driverId, TaskActionOutbox.TYPE_COMPLETE, assignment.getParcelId(), null, routeInfo);
+        TaskStore.getInstance(activity).onActionQueued(assignment.getParcelId());
+        Log.d(TAG, "Task COMPLETED queued for parcel " + assignment.getParcelId());
     }
 
     private void dispatchFailureEvent(DeliveryAssignment assignment, @Nullable IssueReason reason, @Nullable String customReason) {
+        if (assignment == null || driverId == null) {
+            Log.e(TAG, "Thiếu assignment hoặc driverId");
+            return;
+        }
         String finalReason = (reason != null) ? reason.getDisplay() : customReason;
         RouteInfo routeInfo = RouteInfo.builder().distanceM(1000).durationS(1000).waypoints("{}").build();
-        TaskFailRequest body = new TaskFailRequest(finalReason, routeInfo);
-        callFailApi(assignment, body);
-    }
-
-    private void callFailApi(DeliveryAssignment assignment, TaskFailRequest body) {
-        Retrofit retrofit = RetrofitClient.getRetrofitInstance(activity.getApplicationContext());
-        SessionClient service = retrofit.create(SessionClient.class);
-        Call<DeliveryAssignment> call = service.failTask(driverId, assignment.getParcelId(), body);
-        call.enqueue(new Callback<DeliveryAssignment>() {
-            @Override
-            public void onResponse(Call<DeliveryAssignment> call, Response<DeliveryAssignment> response) {
-                if (response.isSuccessful())
-                    Log.d(TAG, "Task FAILED event sent successfully.");
-                else
-                    Log.e(TAG, "Response (Fail) unsuccessful: " + response.code());
-            }
-
-            @Override
-            public void onFailure(Call<DeliveryAssignment> call, Throwable t) {
-                Log.e(TAG, "Network error (Fail): " + t.getMessage());
-            }
-        });
+        TaskActionOutbox.getInstance(activity.getApplicationContext())
+                .enqueue(driverId, TaskActionOutbox.TYPE_FAIL, assignment.getParcelId(), finalReason, routeInfo);
+        TaskStore.getInstance(activity).onActionQueued(assignment.getParcelId());
+        Log.d(TAG, "Task FAILED queued for parcel " + assignment.getParcelId());
     }
 }
@@ -0,0 +1,66 @@
+package com.ds.deliveryapp.utils;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+
+import com.ds.deliveryapp.MainActivity;
+import com.ds.deliveryapp.R;
+import com.ds.deliveryapp.repository.TaskActionOutbox;
+
+/**
+ * Báo cho shipper khi server từ chối một hành động đã ghi trong outbox (có thể đã rời màn hình từ lâu):
+ * mỗi đơn một thông báo, thông báo mới thay thế thông báo cũ của cùng đơn.
+ */
+public final class TaskActionNotifier {
+
+    private static final String CHANNEL_ID = "task_action_rejected";
+
+    private TaskActionNotifier() {
+    }
+
+    public static void notifyRejected(Context context, String type, String parcelId, String message) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            return; // Màn hình danh sách vẫn hiện lại task và báo lỗi
+        }
+        NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (manager != null && manager.getNotificationChannel(CHANNEL_ID) == null) {
+            manager.createNotificationChannel(new NotificationChannel(CHANNEL_ID, "Cập nhật đơn bị từ chối",
+                    NotificationManager.IMPORTANCE_HIGH));
+        }
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0,
+                new Intent(context, MainActivity.class).addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP),
+                PendingIntent.FLAG_IMMUTABLE);
+        String text = actionLabel(type) + " không thành công"
+                + (message != null && !message.isEmpty() ? ": " + message : ".");
+        NotificationManagerCompat.from(context).notify(CHANNEL_ID, parcelId != null ? parcelId.hashCode() : 0,
+                new NotificationCompat.Builder(context, CHANNEL_ID)
+                        .setSmallIcon(R.drawable.ic_delivery)
+                        .setContentTitle("Đơn " + parcelId + " chưa được cập nhật")
+                        .setContentText(text)
+                        .setStyle(new NotificationCompat.BigTextStyle().bigText(text))
+                        .setContentIntent(contentIntent)
+                        .setAutoCancel(true)
+                        .build());
+    }
+
+    private static String actionLabel(String type) {
+        if (TaskActionOutbox.TYPE_SCAN.equals(type)) return "Nhận đơn";
+        if (TaskActionOutbox.TYPE_COMPLETE.equals(type)) return "Hoàn thành giao hàng";
+        if (TaskActionOutbox.TYPE_FAIL.equals(type)) return "Báo giao thất bại";
+        if (TaskActionOutbox.TYPE_REFUSE.equals(type)) return "Báo khách từ chối";
+        if (TaskActionOutbox.TYPE_POSTPONE.equals(type)) return "Hoãn giao";
+        return "Cập nhật";
+    }
+}
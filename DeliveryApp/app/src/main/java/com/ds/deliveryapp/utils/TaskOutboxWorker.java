@@ -0,0 +1,71 @@
+package com.ds.deliveryapp.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.ds.deliveryapp.repository.TaskActionOutbox;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gửi outbox hành động task khi có mạng (WorkManager giữ lịch qua cả khi app bị tắt / khởi động lại máy).
+ */
+public class TaskOutboxWorker extends Worker {
+
+    private static final String TAG = "TaskOutboxWorker";
+    private static final String WORK_NAME = "task_action_outbox_flush";
+
+    public TaskOutboxWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * @param delayMillis chờ bao lâu trước khi gửi (backoff của hành động sớm nhất)
+     * @param replace true khi có hành động mới: gửi ngay thay vì chờ lịch backoff đang có
+     */
+    public static void schedule(Context context, long delayMillis, boolean replace) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(TaskOutboxWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setInitialDelay(delayMillis, TimeUnit.MILLISECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                WORK_NAME,
+                replace ? ExistingWorkPolicy.REPLACE : ExistingWorkPolicy.APPEND_OR_REPLACE,
+                request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        TaskActionOutbox outbox = TaskActionOutbox.getInstance(getApplicationContext());
+        try {
+            long retryAt = outbox.flush();
+            if (retryAt > 0) {
+                // Còn hành động đang backoff: hẹn lần gửi tiếp theo
+                schedule(getApplicationContext(), retryAt - System.currentTimeMillis(), false);
+            }
+            return Result.success();
+        } catch (IOException e) {
+            // Mạng chập chờn: WorkManager thử lại (backoff lũy thừa, chỉ khi có mạng)
+            Log.w(TAG, "Outbox flush failed, will retry: " + e.getMessage());
+            return Result.retry();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected outbox flush error", e);
+            return Result.retry();
+        }
+    }
+}
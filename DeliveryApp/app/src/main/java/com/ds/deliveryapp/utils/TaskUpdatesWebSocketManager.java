@@ -0,0 +1,120 @@
+package com.ds.deliveryapp.utils;
+
+import android.util.Log;
+
+import com.ds.deliveryapp.clients.res.AssignmentDelta;
+import com.google.gson.Gson;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.reactivex.disposables.CompositeDisposable;
+import okhttp3.OkHttpClient;
+import ua.naiksoftware.stomp.Stomp;
+import ua.naiksoftware.stomp.StompClient;
+import ua.naiksoftware.stomp.dto.StompHeader;
+
+/**
+ * Kết nối STOMP tới kênh task của session-service (/ws-tasks), chỉ nhận thay đổi danh sách task của shipper.
+ * Xác thực giống kênh chat: "Authorization: Bearer <USER_ID>" ở handshake và frame CONNECT.
+ */
+public class TaskUpdatesWebSocketManager {
+
+    private static final String TAG = "TaskUpdatesWebSocket";
+    private static final String WS_SUB_TASKS = "/user/queue/tasks";
+
+    public interface Listener {
+        /** Đã mở kết nối và đăng ký kênh: các thay đổi từ đây trở đi sẽ được nhận. */
+        void onConnected();
+
+        void onDelta(AssignmentDelta delta);
+
+        /** Mất kết nối (đóng hoặc lỗi): có thể đã lỡ thay đổi. */
+        void onDisconnected();
+    }
+
+    private final String mWebSocketUrl;
+    private final String mUserId;
+    private final OkHttpClient mOkHttpClient;
+    private final Listener mListener;
+    private final Gson mGson = new Gson();
+
+    private StompClient mStompClient;
+    private CompositeDisposable mComposite;
+
+    public TaskUpdatesWebSocketManager(String webSocketUrl, String userId, OkHttpClient okHttpClient, Listener listener) {
+        this.mWebSocketUrl = webSocketUrl;
+        this.mUserId = userId;
+        this.mOkHttpClient = okHttpClient;
+        this.mListener = listener;
+    }
+
+    public boolean isConnected() {
+        return mStompClient != null && mStompClient.isConnected();
+    }
+
+    public void connect() {
+        if (mUserId == null || mUserId.isEmpty()) {
+            Log.e(TAG, "Cannot connect: user ID is null or empty.");
+            return;
+        }
+        disconnect();
+
+        Map<String, String> handshakeHeaders = new HashMap<>();
+        handshakeHeaders.put("Authorization", "Bearer " + mUserId);
+
+        mComposite = new CompositeDisposable();
+        mStompClient = Stomp.over(Stomp.ConnectionProvider.OKHTTP, mWebSocketUrl, handshakeHeaders, mOkHttpClient);
+        mStompClient.withClientHeartbeat(10000).withServerHeartbeat(10000);
+
+        // Đăng ký trước khi kết nối: SUBSCRIBE được gửi ngay sau CONNECTED
+        mComposite.add(mStompClient.topic(WS_SUB_TASKS).subscribe(
+                stompMessage -> {
+                    try {
+                        AssignmentDelta delta = mGson.fromJson(stompMessage.getPayload(), AssignmentDelta.class);
+                        if (delta != null) mListener.onDelta(delta);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error parsing task delta", e);
+                    }
+                },
+                throwable -> Log.e(TAG, "Task topic error", throwable)));
+
+        mComposite.add(mStompClient.lifecycle().subscribe(
+                lifecycleEvent -> {
+                    switch (lifecycleEvent.getType()) {
+                        case OPENED:
+                            Log.i(TAG, "Task channel connected");
+                            mListener.onConnected();
+                            break;
+                        case CLOSED:
+                            Log.i(TAG, "Task channel closed");
+                            mListener.onDisconnected();
+                            break;
+                        case ERROR:
+                            Log.w(TAG, "Task channel error", lifecycleEvent.getException());
+                            mListener.onDisconnected();
+                            break;
+                        default:
+                            break;
+                    }
+                },
+                throwable -> {
+                    Log.e(TAG, "Task channel lifecycle error", throwable);
+                    mListener.onDisconnected();
+                }));
+
+        mStompClient.connect(Collections.singletonList(new StompHeader("Authorization", "Bearer " + mUserId)));
+    }
+
+    public void disconnect() {
+        if (mComposite != null) {
+            mComposite.dispose();
+            mComposite = null;
+        }
+        if (mStompClient != null) {
+            mStompClient.disconnect();
+            mStompClient = null;
+        }
+    }
+}
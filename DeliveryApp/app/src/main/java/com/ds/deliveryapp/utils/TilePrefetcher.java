@@ -0,0 +1,330 @@
+package com.ds.deliveryapp.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.ds.deliveryapp.configs.MapTileConfig;
+
+import org.osmdroid.tileprovider.cachemanager.CacheManager;
+import org.osmdroid.tileprovider.modules.SqlTileWriter;
+import org.osmdroid.tileprovider.tilesource.OnlineTileSourceBase;
+import org.osmdroid.tileprovider.util.Counters;
+import org.osmdroid.util.BoundingBox;
+import org.osmdroid.util.GeoPoint;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tải trước tile bản đồ cho vùng giao hàng của phiên đang chạy vào cache osmdroid (gói vùng offline).
+ * - Vùng = khung bao các điểm giao (+ vị trí shipper) nới thêm PADDING_DEGREES; gộp dần khi phiên có thêm đơn.
+ * - Giới hạn MAX_TILES: giảm zoom cao nhất cho tới khi vừa hạn mức. Dung lượng cache do MapTileConfig giới hạn.
+ * - Ưu tiên Wi-Fi: mạng tính phí chỉ tải tới METERED_MAX_ZOOM, phần còn lại tự tải tiếp khi có mạng không tính phí.
+ * - Tiếp tục được: trạng thái gói lưu trong SharedPreferences, CacheManager bỏ qua tile đã có trong cache
+ *   nên chạy lại chỉ tải phần còn thiếu.
+ * - Chỉ chạy với nguồn tile cho phép tải hàng loạt (OSM Mapnik không cho phép, xem R.string.map_tile_url).
+ */
+public class TilePrefetcher {
+
+    private static final String TAG = "TilePrefetcher";
+    private static final String PREF_NAME = "map_tile_prefetch";
+    private static final String KEY_SESSION_ID = "session_id";
+    private static final String KEY_NORTH = "north";
+    private static final String KEY_SOUTH = "south";
+    private static final String KEY_EAST = "east";
+    private static final String KEY_WEST = "west";
+    private static final String KEY_STATE = "state";
+    private static final String KEY_TILES_TOTAL = "tiles_total";
+    private static final String KEY_TILES_DONE = "tiles_done";
+    private static final String KEY_CACHE_HITS = "cache_hits";
+    private static final String KEY_CACHE_MISSES = "cache_misses";
+
+    private static final String STATE_PENDING = "PENDING";
+    private static final String STATE_PARTIAL = "PARTIAL"; // Đã tải phần cho mạng tính phí / bị lỗi giữa chừng
+    private static final String STATE_DONE = "DONE";
+
+    private static final int MIN_ZOOM = 12;
+    private static final int MAX_ZOOM = 18;          // Bản đồ điều hướng dùng zoom 18
+    private static final int METERED_MAX_ZOOM = 14;
+    private static final int MAX_TILES = 4000;       // ~60-80MB tile PNG
+    private static final double PADDING_DEGREES = 0.005; // ~500m quanh vùng giao
+    private static final int PROGRESS_SAVE_EVERY = 50;
+
+    private static TilePrefetcher instance;
+
+    private final Context appContext;
+    private final SharedPreferences prefs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private CacheManager.CacheManagerTask runningTask;
+    private SqlTileWriter runningWriter;
+    private ConnectivityManager.NetworkCallback networkCallback;
+    private int lastCounterHits;
+    private int lastCounterMisses;
+
+    private TilePrefetcher(Context context) {
+        this.appContext = context.getApplicationContext();
+        this.prefs = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static synchronized TilePrefetcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new TilePrefetcher(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Gọi khi đã có danh sách điểm giao của phiên (bắt đầu phiên / tải lại danh sách task).
+     * Không làm gì nếu vùng đã được tải đủ.
+     */
+    public synchronized void prefetchSession(String sessionId, List<GeoPoint> points) {
+        if (sessionId == null || points == null || points.isEmpty()) {
+            return;
+        }
+        BoundingBox box = paddedBounds(points);
+        boolean sameSession = sessionId.equals(prefs.getString(KEY_SESSION_ID, null));
+        if (sameSession) {
+            BoundingBox stored = storedBounds();
+            String state = prefs.getString(KEY_STATE, null);
+            // Vùng không đổi: đã xong, đang tải, hoặc đang chờ Wi-Fi để tải nốt
+            if (contains(stored, box) && (STATE_DONE.equals(state) || runningTask != null
+                    || (STATE_PARTIAL.equals(state) && isMetered()))) {
+                return;
+            }
+            box = union(stored, box);
+        }
+        prefs.edit()
+                .putString(KEY_SESSION_ID, sessionId)
+                .putString(KEY_STATE, STATE_PENDING)
+                .putLong(KEY_NORTH, Double.doubleToRawLongBits(box.getLatNorth()))
+                .putLong(KEY_SOUTH, Double.doubleToRawLongBits(box.getLatSouth()))
+                .putLong(KEY_EAST, Double.doubleToRawLongBits(box.getLonEast()))
+                .putLong(KEY_WEST, Double.doubleToRawLongBits(box.getLonWest()))
+                .putInt(KEY_TILES_DONE, 0)
+                .apply();
+        start();
+    }
+
+    /**
+     * Tiếp tục gói đang dở (vd. khi vừa có Wi-Fi).
+     */
+    public synchronized void resume() {
+        String state = prefs.getString(KEY_STATE, null);
+        if (STATE_PENDING.equals(state) || STATE_PARTIAL.equals(state)) {
+            start();
+        }
+    }
+
+    public synchronized void cancel() {
+        if (runningTask != null) {
+            runningTask.cancel(true);
+            runningTask = null;
+        }
+        releaseWriter();
+    }
+
+    /**
+     * Ghi nhận tỉ lệ lấy tile từ cache (cộng dồn trên máy) và ghi log. Gọi khi rời màn hình bản đồ.
+     */
+    public synchronized void recordCacheStats() {
+        int hits = Counters.fileCacheHit - lastCounterHits;
+        int misses = Counters.fileCacheMiss - lastCounterMisses;
+        lastCounterHits = Counters.fileCacheHit;
+        lastCounterMisses = Counters.fileCacheMiss;
+        long totalHits = prefs.getLong(KEY_CACHE_HITS, 0) + Math.max(0, hits);
+        long totalMisses = prefs.getLong(KEY_CACHE_MISSES, 0) + Math.max(0, misses);
+        prefs.edit().putLong(KEY_CACHE_HITS, totalHits).putLong(KEY_CACHE_MISSES, totalMisses).apply();
+        Log.i(TAG, String.format(Locale.US,
+                "Tile cache: %d hits / %d misses (%.1f%% hit) this screen, %.1f%% overall; pack %s %d/%d tiles",
+                hits, misses, percent(hits, misses), getCacheHitRate() * 100,
+                prefs.getString(KEY_STATE, "-"), prefs.getInt(KEY_TILES_DONE, 0), prefs.getInt(KEY_TILES_TOTAL, 0)));
+    }
+
+    /**
+     * Tỉ lệ tile lấy được từ cache trên máy (0..1), cộng dồn từ lúc cài đặt.
+     */
+    public double getCacheHitRate() {
+        long hits = prefs.getLong(KEY_CACHE_HITS, 0);
+        long misses = prefs.getLong(KEY_CACHE_MISSES, 0);
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    private void start() {
+        if (runningTask != null) {
+            // Vùng thay đổi: hủy lượt đang chạy, tile đã tải vẫn nằm trong cache
+            cancel();
+        }
+        OnlineTileSourceBase source = MapTileConfig.tileSource(appContext);
+        if (!source.getTileSourcePolicy().acceptsBulkDownload()) {
+            Log.i(TAG, "Tile source " + source.name() + " does not allow bulk download, prefetch skipped");
+            return;
+        }
+
+        boolean metered = isMetered();
+        int maxZoom = metered ? METERED_MAX_ZOOM : MAX_ZOOM;
+        BoundingBox box = storedBounds();
+        SqlTileWriter writer = new SqlTileWriter();
+        CacheManager cacheManager;
+        try {
+            cacheManager = new CacheManager(source, writer, MIN_ZOOM, maxZoom);
+        } catch (Exception e) {
+            Log.w(TAG, "Cannot create tile cache manager: " + e.getMessage());
+            writer.onDetach();
+            return;
+        }
+        while (maxZoom > MIN_ZOOM && cacheManager.possibleTilesInArea(box, MIN_ZOOM, maxZoom) > MAX_TILES) {
+            maxZoom--;
+        }
+        int total = cacheManager.possibleTilesInArea(box, MIN_ZOOM, maxZoom);
+        prefs.edit().putInt(KEY_TILES_TOTAL, total).apply();
+        if (metered) {
+            watchForUnmeteredNetwork();
+        }
+        Log.i(TAG, "Prefetching " + total + " tiles, zoom " + MIN_ZOOM + "-" + maxZoom + (metered ? " (metered network)" : ""));
+
+        runningWriter = writer;
+        runningTask = cacheManager.downloadAreaAsyncNoUI(appContext, box, MIN_ZOOM, maxZoom, new PrefetchCallback(metered));
+    }
+
+    private class PrefetchCallback implements CacheManager.CacheManagerCallback {
+        private final boolean metered;
+
+        PrefetchCallback(boolean metered) {
+            this.metered = metered;
+        }
+
+        @Override
+        public void onTaskComplete() {
+            finish(metered ? STATE_PARTIAL : STATE_DONE);
+        }
+
+        @Override
+        public void onTaskFailed(int errors) {
+            Log.w(TAG, "Tile prefetch finished with " + errors + " errors, will resume later");
+            finish(STATE_PARTIAL);
+        }
+
+        @Override
+        public void updateProgress(int progress, int currentZoomLevel, int zoomMin, int zoomMax) {
+            if (progress % PROGRESS_SAVE_EVERY == 0) {
+                prefs.edit().putInt(KEY_TILES_DONE, progress).apply();
+            }
+        }
+
+        @Override
+        public void downloadStarted() {
+        }
+
+        @Override
+        public void setPossibleTilesInArea(int total) {
+        }
+    }
+
+    private synchronized void finish(String state) {
+        SharedPreferences.Editor editor = prefs.edit().putString(KEY_STATE, state);
+        if (STATE_DONE.equals(state)) {
+            editor.putInt(KEY_TILES_DONE, prefs.getInt(KEY_TILES_TOTAL, 0));
+        }
+        editor.apply();
+        runningTask = null;
+        releaseWriter();
+        if (STATE_DONE.equals(state)) {
+            stopWatchingNetwork();
+        }
+        Log.i(TAG, "Tile prefetch " + state);
+    }
+
+    private void releaseWriter() {
+        if (runningWriter != null) {
+            runningWriter.onDetach();
+            runningWriter = null;
+        }
+    }
+
+    private boolean isMetered() {
+        ConnectivityManager cm = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        return cm == null || cm.isActiveNetworkMetered();
+    }
+
+    private void watchForUnmeteredNetwork() {
+        if (networkCallback != null) {
+            return;
+        }
+        ConnectivityManager cm = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) {
+            return;
+        }
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                if (capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED)
+                        && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)) {
+                    // AsyncTask của CacheManager phải được khởi chạy trên main thread
+                    mainHandler.post(TilePrefetcher.this::resumeIfIdle);
+                }
+            }
+        };
+        cm.registerDefaultNetworkCallback(networkCallback);
+    }
+
+    private synchronized void resumeIfIdle() {
+        if (runningTask == null) {
+            resume();
+        }
+    }
+
+    private void stopWatchingNetwork() {
+        if (networkCallback == null) {
+            return;
+        }
+        ConnectivityManager cm = (ConnectivityManager) appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm != null) {
+            cm.unregisterNetworkCallback(networkCallback);
+        }
+        networkCallback = null;
+    }
+
+    private BoundingBox storedBounds() {
+        return new BoundingBox(
+                Double.longBitsToDouble(prefs.getLong(KEY_NORTH, 0)),
+                Double.longBitsToDouble(prefs.getLong(KEY_EAST, 0)),
+                Double.longBitsToDouble(prefs.getLong(KEY_SOUTH, 0)),
+                Double.longBitsToDouble(prefs.getLong(KEY_WEST, 0)));
+    }
+
+    private static BoundingBox paddedBounds(List<GeoPoint> points) {
+        double north = -90, south = 90, east = -180, west = 180;
+        for (GeoPoint point : points) {
+            north = Math.max(north, point.getLatitude());
+            south = Math.min(south, point.getLatitude());
+            east = Math.max(east, point.getLongitude());
+            west = Math.min(west, point.getLongitude());
+        }
+        return new BoundingBox(
+                Math.min(85, north + PADDING_DEGREES), Math.min(180, east + PADDING_DEGREES),
+                Math.max(-85, south - PADDING_DEGREES), Math.max(-180, west - PADDING_DEGREES));
+    }
+
+    private static boolean contains(BoundingBox outer, BoundingBox inner) {
+        return outer.getLatNorth() >= inner.getLatNorth() && outer.getLatSouth() <= inner.getLatSouth()
+                && outer.getLonEast() >= inner.getLonEast() && outer.getLonWest() <= inner.getLonWest();
+    }
+
+    private static BoundingBox union(BoundingBox a, BoundingBox b) {
+        return new BoundingBox(
+                Math.max(a.getLatNorth(), b.getLatNorth()), Math.max(a.getLonEast(), b.getLonEast()),
+                Math.min(a.getLatSouth(), b.getLatSouth()), Math.min(a.getLonWest(), b.getLonWest()));
+    }
+
+    private static double percent(int hits, int misses) {
+        return hits + misses == 0 ? 0 : 100.0 * hits / (hits + misses);
+    }
+}
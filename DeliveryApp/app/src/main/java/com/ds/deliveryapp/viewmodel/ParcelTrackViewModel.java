@@ -8,18 +8,28 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.ds.deliveryapp.auth.AuthManager;
 import com.ds.deliveryapp.clients.ParcelClient;
 import com.ds.deliveryapp.clients.SessionClient;
+import com.ds.deliveryapp.clients.res.ParcelStatusUpdate;
 import com.ds.deliveryapp.clients.res.ShipperInfo;
 import com.ds.deliveryapp.configs.RetrofitClient;
+import com.ds.deliveryapp.enums.ParcelStatus;
 import com.ds.deliveryapp.model.Parcel;
+import com.ds.deliveryapp.utils.ParcelStatusWebSocketManager;
 
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 
-public class ParcelTrackViewModel extends AndroidViewModel {
+/**
+ * Tra cứu đơn theo mã. Sau lần tải đầu, trạng thái đơn được cập nhật qua kênh STOMP
+ * (communication-service đẩy chuyển trạng thái) thay vì người dùng phải tra cứu lại.
+ */
+public class ParcelTrackViewModel extends AndroidViewModel implements ParcelStatusWebSocketManager.Listener {
+
+    private static final String WEBSOCKET_URL = "wss://localweb.phuongy.works/ws/websocket";
 
     private final MutableLiveData<Parcel> parcelResult = new MutableLiveData<>();
     private final MutableLiveData<ShipperInfo> shipperInfoResult = new MutableLiveData<>();
@@ -32,6 +42,11 @@ public class ParcelTrackViewModel extends AndroidViewModel {
     private ParcelClient parcelClient;
     private SessionClient sessionClient;
 
+    // Kênh trạng thái đơn đang xem
+    private final ParcelStatusWebSocketManager statusSocket;
+    private String watchedParcelId;
+    private long lastAppliedSequence;
+
     // --- THÊM HÀM KHỞI TẠO (CONSTRUCTOR) ---
     public ParcelTrackViewModel(@NonNull Application application) {
         super(application);
@@ -43,6 +58,9 @@ public class ParcelTrackViewModel extends AndroidViewModel {
         // Khởi tạo Retrofit cho Session/Assignment Service
         Retrofit sessionRetrofit = RetrofitClient.getRetrofitInstance(application);
         sessionClient = sessionRetrofit.create(SessionClient.class);
+
+        statusSocket = new ParcelStatusWebSocketManager(WEBSOCKET_URL, new AuthManager(application).getUserId(),
+                RetrofitClient.getBaseClient(application), this);
     }
 
 
@@ -80,6 +98,7 @@ public class ParcelTrackViewModel extends AndroidViewModel {
                             Parcel parcel = response.body();
                             parcelResult.setValue(parcel);
                             Log.i("PPPP", response.body().getCode());
+                            watchParcel(parcel.getId());
                             // 2. Nếu thành công, gọi API lấy thông tin tài xế
                             fetchShipperInfo(parcel.getId());
                         } else {
@@ -150,4 +169,81 @@ public class ParcelTrackViewModel extends AndroidViewModel {
                 });
     }
 
+    private void watchParcel(String parcelId) {
+        if (parcelId == null || parcelId.equals(watchedParcelId)) return;
+        if (watchedParcelId != null) statusSocket.unwatch(watchedParcelId);
+        watchedParcelId = parcelId;
+        lastAppliedSequence = 0;
+        statusSocket.watch(parcelId);
+    }
+
+    @Override
+    public void onStatusChanged(ParcelStatusUpdate update) {
+        Parcel current = parcelResult.getValue();
+        if (current == null || !update.getParcelId().equals(current.getId())
+                || update.getSequence() <= lastAppliedSequence) {
+            return;
+        }
+        ParcelStatus newStatus;
+        try {
+            newStatus = ParcelStatus.valueOf(update.getNewStatus());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            Log.w("ParcelTrackViewModel", "Unknown parcel status: " + update.getNewStatus());
+            return;
+        }
+        lastAppliedSequence = update.getSequence();
+
+        Parcel updated = Parcel.builder()
+                .id(current.getId())
+                .code(current.getCode())
+                .senderId(current.getSenderId())
+                .receiverId(current.getReceiverId())
+                .receiverPhoneNumber(current.getReceiverPhoneNumber())
+                .deliveryType(current.getDeliveryType())
+                .receiveFrom(current.getReceiveFrom())
+                .targetDestination(current.getTargetDestination())
+                .status(newStatus)
+                .weight(current.getWeight())
+                .value(current.getValue())
+                .createdAt(current.getCreatedAt())
+                .updatedAt(update.getOccurredAt())
+                .windowStart(current.getWindowStart())
+                .windowEnd(current.getWindowEnd())
+                .deliveredAt(current.getDeliveredAt())
+                .build();
+        parcelResult.setValue(updated);
+
+        // Đơn vừa lên xe: lúc này mới có shipper
+        if (ParcelStatus.ON_ROUTE.equals(newStatus)) {
+            fetchShipperInfo(updated.getId());
+        }
+    }
+
+    @Override
+    public void onReconnected() {
+        // Có thể đã lỡ chuyển trạng thái trong lúc mất kết nối: lấy lại đơn một lần
+        Parcel current = parcelResult.getValue();
+        if (current == null) return;
+        parcelClient.getParcelByCode(current.getCode())
+                .enqueue(new Callback<Parcel>() {
+                    @Override
+                    public void onResponse(@NonNull Call<Parcel> call, @NonNull Response<Parcel> response) {
+                        if (response.isSuccessful() && response.body() != null
+                                && response.body().getId().equals(watchedParcelId)) {
+                            parcelResult.setValue(response.body());
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(@NonNull Call<Parcel> call, @NonNull Throwable t) {
+                        Log.w("ParcelTrackViewModel", "Refresh after reconnect failed: " + t.getMessage());
+                    }
+                });
+    }
+
+    @Override
+    protected void onCleared() {
+        statusSocket.disconnect();
+        super.onCleared();
+    }
 }
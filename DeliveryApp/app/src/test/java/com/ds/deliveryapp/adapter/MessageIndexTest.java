@@ -0,0 +1,86 @@
+package com.ds.deliveryapp.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.ds.deliveryapp.clients.res.InteractiveProposal;
+import com.ds.deliveryapp.clients.res.Message;
+import com.ds.deliveryapp.enums.ContentType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Chỉ mục tin nhắn: chèn đúng thứ tự thời gian, vị trí theo id luôn khớp với danh sách.
+ */
+public class MessageIndexTest {
+
+    @Test
+    public void insertsInChronologicalOrderKeepingArrivalOrderForTies() {
+        List<Message> list = new ArrayList<>();
+        MessageIndex index = new MessageIndex(list);
+        index.insert(message("a", "2024-01-15T10:00:05"));
+        index.insert(message("b", "2024-01-15T10:00:01"));
+        index.insert(message("c", "2024-01-15T10:00:05.500"));
+        index.insert(message("d", "2024-01-15T10:00:03"));
+        index.insert(message("e", null));
+
+        assertEquals("b,d,a,c,e", ids(list));
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(i, index.positionOf(list.get(i).getId()));
+        }
+        assertEquals(-1, index.positionOf("missing"));
+    }
+
+    @Test
+    public void prependSkipsDuplicatesAndReindexes() {
+        List<Message> list = new ArrayList<>();
+        MessageIndex index = new MessageIndex(list);
+        index.insert(message("c", "2024-01-15T10:00:03"));
+        index.insert(message("d", "2024-01-15T10:00:04"));
+
+        int inserted = index.prepend(List.of(
+                message("a", "2024-01-15T10:00:01"),
+                message("b", "2024-01-15T10:00:02"),
+                message("c", "2024-01-15T10:00:03")));
+
+        assertEquals(2, inserted);
+        assertEquals("a,b,c,d", ids(list));
+        assertEquals(3, index.positionOf("d"));
+        // Tin mới sau khi prepend vẫn vào đúng chỗ
+        assertEquals(2, index.insert(message("x", "2024-01-15T10:00:02")));
+        assertEquals("a,b,x,c,d", ids(list));
+    }
+
+    @Test
+    public void findsMessageByProposalId() {
+        List<Message> list = new ArrayList<>();
+        MessageIndex index = new MessageIndex(list);
+        UUID proposalId = UUID.randomUUID();
+        index.insert(message("a", "2024-01-15T10:00:01"));
+        Message proposal = message("p", "2024-01-15T10:00:02");
+        proposal.setProposal(new InteractiveProposal(proposalId, "CONFIRM_REFUSAL", "PENDING", "u1", "u2", "{}", null, null));
+        index.insert(proposal);
+        index.insert(message("b", "2024-01-15T10:00:00"));
+
+        assertEquals(2, index.positionOfProposal(proposalId));
+        assertSame(proposal, index.get(index.positionOfProposal(proposalId)));
+        assertEquals(-1, index.positionOfProposal(UUID.randomUUID()));
+    }
+
+    static Message message(String id, String sentAt) {
+        return new Message(id, "conv", "u1", "hello " + id, sentAt, ContentType.TEXT, "SENT", null, null, null);
+    }
+
+    private static String ids(List<Message> list) {
+        StringBuilder sb = new StringBuilder();
+        for (Message m : list) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(m.getId());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ds.deliveryapp.benchmark;
+
+import com.ds.deliveryapp.adapter.MessageIndex;
+import com.ds.deliveryapp.clients.res.Message;
+import com.ds.deliveryapp.enums.ContentType;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.TimeZone;
+
+/**
+ * Hội thoại 5.000 tin: một loạt read receipt cho mọi tin + 500 tin mới (10% đến trễ, lệch thứ tự),
+ * so sánh cách cũ của MessageAdapter (quét tuyến tính, parse lại sentAt từng phần tử) với MessageIndex.
+ * Chạy: main() (không phải unit test). Chỉ đo phần dữ liệu, không gồm RecyclerView.
+ */
+public class MessageIndexBenchmark {
+
+    private static final int CONVERSATION_SIZE = 5_000;
+    private static final int NEW_MESSAGES = 500;
+    private static final int ROUNDS = 5;
+    private static final DateTimeFormatter SENT_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+    public static void main(String[] args) throws Exception {
+        List<Message> history = conversation();
+        List<Message> incoming = incoming(new SplittableRandom(7));
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long linear = linearScan(history, incoming);
+            long indexed = indexed(history, incoming);
+            System.out.printf(Locale.US, "round %d: linear %.1f ms, indexed %.2f ms (%.0fx)%n",
+                    round, linear / 1e6, indexed / 1e6, (double) linear / indexed);
+        }
+    }
+
+    private static long linearScan(List<Message> history, List<Message> incoming) throws Exception {
+        List<Message> list = copy(history);
+        long started = System.nanoTime();
+        for (Message receipt : history) {
+            for (Message message : list) {
+                if (message.getId().equals(receipt.getId())) {
+                    message.setStatus("READ");
+                    break;
+                }
+            }
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault());
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        for (Message message : incoming) {
+            boolean exists = false;
+            for (Message existing : list) {
+                if (existing.getId().equals(message.getId())) {
+                    exists = true;
+                    break;
+                }
+            }
+            if (exists) {
+                continue;
+            }
+            long time = format.parse(message.getSentAt().substring(0, 19)).getTime();
+            int position = list.size();
+            for (int i = 0; i < list.size(); i++) {
+                if (time < format.parse(list.get(i).getSentAt().substring(0, 19)).getTime()) {
+                    position = i;
+                    break;
+                }
+            }
+            list.add(position, message);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static long indexed(List<Message> history, List<Message> incoming) {
+        List<Message> list = copy(history);
+        long started = System.nanoTime();
+        MessageIndex index = new MessageIndex(list);
+        for (Message receipt : history) {
+            int position = index.positionOf(receipt.getId());
+            if (position >= 0) {
+                index.get(position).setStatus("READ");
+            }
+        }
+        for (Message message : incoming) {
+            if (index.positionOf(message.getId()) < 0) {
+                index.insert(message);
+            }
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static List<Message> conversation() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 8, 0);
+        List<Message> list = new ArrayList<>(CONVERSATION_SIZE);
+        for (int i = 0; i < CONVERSATION_SIZE; i++) {
+            list.add(message("m" + i, start.plusSeconds(i * 3L)));
+        }
+        return list;
+    }
+
+    private static List<Message> incoming(SplittableRandom random) {
+        LocalDateTime end = LocalDateTime.of(2024, 1, 15, 8, 0).plusSeconds(CONVERSATION_SIZE * 3L);
+        List<Message> list = new ArrayList<>(NEW_MESSAGES);
+        for (int i = 0; i < NEW_MESSAGES; i++) {
+            // 10% đến trễ: sentAt nằm giữa hội thoại
+            LocalDateTime sentAt = random.nextInt(10) == 0
+                    ? end.minusSeconds(random.nextInt(CONVERSATION_SIZE * 3))
+                    : end.plusSeconds(i);
+            list.add(message("n" + i, sentAt));
+        }
+        return list;
+    }
+
+    private static Message message(String id, LocalDateTime sentAt) {
+        return new Message(id, "conv", "u1", "hello", SENT_AT.format(sentAt), ContentType.TEXT, "SENT", null, null, null);
+    }
+
+    private static List<Message> copy(List<Message> source) {
+        List<Message> list = new ArrayList<>(source.size());
+        for (Message m : source) {
+            list.add(new Message(m.getId(), m.getConversationId(), m.getSenderId(), m.getContent(), m.getSentAt(),
+                    m.getType(), m.getStatus(), null, null, null));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ds.deliveryapp.benchmark;
+
+import com.ds.deliveryapp.utils.RouteSegmentIndex;
+
+import org.osmdroid.util.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Chặng 10.000 điểm, 10.000 vị trí GPS dọc tuyến (một nửa lệch > 50 m): so sánh cách cũ của
+ * MapFragment.checkDeviation (khoảng cách tới từng đỉnh, dừng ở đỉnh đầu tiên đủ gần) với RouteSegmentIndex.
+ * Cũng đếm số vị trí đúng tuyến nhưng bị cách cũ báo lệch khi các đỉnh thưa (chặng 1.000 điểm cách nhau ~200 m).
+ * Chạy: main() (không phải unit test).
+ */
+public class RouteSegmentIndexBenchmark {
+
+    private static final int ROUTE_POINTS = 10_000;
+    private static final int FIXES = 10_000;
+    private static final double THRESHOLD_M = 50;
+    private static final double METERS_PER_DEG_LAT = Math.toRadians(1) * 6_378_137.0;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(5);
+        List<GeoPoint> route = route(random, ROUTE_POINTS, 5, 40);
+        List<GeoPoint> fixes = fixes(random, route, FIXES);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            int linearOnTrack = 0;
+            for (GeoPoint fix : fixes) {
+                if (vertexScan(route, fix)) linearOnTrack++;
+            }
+            long linear = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            RouteSegmentIndex index = RouteSegmentIndex.build(route, THRESHOLD_M);
+            long build = System.nanoTime() - started;
+            started = System.nanoTime();
+            int indexedOnTrack = 0;
+            for (GeoPoint fix : fixes) {
+                if (index.isWithin(fix, THRESHOLD_M)) indexedOnTrack++;
+            }
+            long indexed = System.nanoTime() - started;
+
+            System.out.printf(Locale.US,
+                    "round %d: vertex scan %.1f ms (%.1f us/fix, on-track %d), index build %.1f ms, query %.2f ms (%.2f us/fix, on-track %d), %.0fx%n",
+                    round, linear / 1e6, linear / 1e3 / FIXES, linearOnTrack, build / 1e6,
+                    indexed / 1e6, indexed / 1e3 / FIXES, indexedOnTrack, (double) linear / indexed);
+        }
+
+        // Đỉnh thưa: vị trí nằm đúng trên đoạn giữa hai đỉnh
+        List<GeoPoint> sparse = route(random, 1_000, 150, 250);
+        RouteSegmentIndex sparseIndex = RouteSegmentIndex.build(sparse, THRESHOLD_M);
+        int falseDeviations = 0, indexDeviations = 0;
+        for (int i = 0; i + 1 < sparse.size(); i++) {
+            GeoPoint a = sparse.get(i), b = sparse.get(i + 1);
+            GeoPoint middle = new GeoPoint((a.getLatitude() + b.getLatitude()) / 2, (a.getLongitude() + b.getLongitude()) / 2);
+            if (!vertexScan(sparse, middle)) falseDeviations++;
+            if (!sparseIndex.isWithin(middle, THRESHOLD_M)) indexDeviations++;
+        }
+        System.out.printf(Locale.US, "sparse route, %d on-route midpoints: vertex scan reports %d deviations, index %d%n",
+                sparse.size() - 1, falseDeviations, indexDeviations);
+    }
+
+    /** Cách cũ (bỏ phần tạo Polyline vì cần Android). */
+    private static boolean vertexScan(List<GeoPoint> route, GeoPoint fix) {
+        for (GeoPoint point : route) {
+            if (point.distanceToAsDouble(fix) <= THRESHOLD_M) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<GeoPoint> route(SplittableRandom random, int size, double minStep, double maxStep) {
+        List<GeoPoint> points = new ArrayList<>(size);
+        double lat = 10.77, lon = 106.70, heading = 0;
+        for (int i = 0; i < size; i++) {
+            points.add(new GeoPoint(lat, lon));
+            heading += random.nextDouble(-0.4, 0.4);
+            double step = random.nextDouble(minStep, maxStep);
+            lat += step * Math.cos(heading) / METERS_PER_DEG_LAT;
+            lon += step * Math.sin(heading) / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(lat)));
+        }
+        return points;
+    }
+
+    /** Vị trí quanh các đỉnh của tuyến: một nửa lệch 0–30 m, một nửa lệch 80–200 m. */
+    private static List<GeoPoint> fixes(SplittableRandom random, List<GeoPoint> route, int count) {
+        List<GeoPoint> fixes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GeoPoint base = route.get(random.nextInt(route.size()));
+            double offset = i % 2 == 0 ? random.nextDouble(0, 30) : random.nextDouble(80, 200);
+            double angle = random.nextDouble(0, 2 * Math.PI);
+            fixes.add(new GeoPoint(
+                    base.getLatitude() + offset * Math.cos(angle) / METERS_PER_DEG_LAT,
+                    base.getLongitude() + offset * Math.sin(angle) / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(base.getLatitude())))));
+        }
+        return fixes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ds.deliveryapp.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import com.ds.deliveryapp.clients.req.LocationBatchRequest;
+
+import org.junit.Test;
+
+/**
+ * Bộ đệm vòng vị trí: ghi đè điểm cũ nhất khi đầy, chỉ xoá các điểm đã gửi thành công.
+ */
+public class LocationRingBufferTest {
+
+    private static final String SESSION = "session-1";
+
+    @Test
+    public void overwritesOldestWhenFull() {
+        LocationRingBuffer buffer = new LocationRingBuffer(3);
+        for (int i = 0; i < 5; i++) buffer.add(SESSION, point(i));
+
+        LocationRingBuffer.Batch batch = buffer.peek(10);
+        assertEquals(3, batch.points.size());
+        assertEquals(2, batch.points.get(0).getTimestamp());
+        assertEquals(4, batch.points.get(2).getTimestamp());
+        assertEquals(2, buffer.getDroppedCount());
+    }
+
+    @Test
+    public void failedUploadKeepsPointsAndSuccessDiscardsOnlyTheBatch() {
+        LocationRingBuffer buffer = new LocationRingBuffer(10);
+        for (int i = 0; i < 4; i++) buffer.add(SESSION, point(i));
+
+        LocationRingBuffer.Batch batch = buffer.peek(3);
+        assertEquals(4, buffer.size()); // chưa gửi xong: vẫn giữ
+
+        buffer.add(SESSION, point(4));
+        buffer.discardUpTo(batch.endSeq);
+        assertEquals(2, buffer.size());
+        assertEquals(3, buffer.peek(10).points.get(0).getTimestamp());
+    }
+
+    @Test
+    public void discardAfterOverwriteDoesNotDropNewerPoints() {
+        LocationRingBuffer buffer = new LocationRingBuffer(3);
+        for (int i = 0; i < 3; i++) buffer.add(SESSION, point(i));
+        LocationRingBuffer.Batch batch = buffer.peek(2); // điểm 0, 1
+
+        // Trong lúc gửi: 2 điểm mới ghi đè điểm 0, 1
+        buffer.add(SESSION, point(3));
+        buffer.add(SESSION, point(4));
+        buffer.discardUpTo(batch.endSeq);
+
+        assertEquals(3, buffer.size());
+        assertEquals(2, buffer.peek(10).points.get(0).getTimestamp());
+    }
+
+    @Test
+    public void batchNeverMixesSessions() {
+        LocationRingBuffer buffer = new LocationRingBuffer(10);
+        buffer.add(SESSION, point(0));
+        buffer.add(SESSION, point(1));
+        // Đổi phiên khi 2 điểm của phiên cũ chưa gửi được
+        buffer.add("session-2", point(2));
+
+        LocationRingBuffer.Batch first = buffer.peek(10);
+        assertEquals(SESSION, first.sessionId);
+        assertEquals(2, first.points.size());
+
+        buffer.discardUpTo(first.endSeq);
+        LocationRingBuffer.Batch second = buffer.peek(10);
+        assertEquals("session-2", second.sessionId);
+        assertEquals(1, second.points.size());
+        assertEquals(2, second.points.get(0).getTimestamp());
+    }
+
+    private static LocationBatchRequest.Point point(long timestamp) {
+        return new LocationBatchRequest.Point(10.0, 106.0, null, null, null, timestamp);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ds.deliveryapp.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chỉ mục đoạn tuyến: đo tới đoạn (không chỉ đỉnh) và khớp với cách quét toàn bộ trên tuyến 10.000 điểm.
+ */
+public class RouteSegmentIndexTest {
+
+    private static final double THRESHOLD_M = 50;
+    private static final double METERS_PER_DEG_LAT = Math.toRadians(1) * 6_378_137.0;
+
+    @Test
+    public void pointBetweenSparseVerticesIsOnRoute() {
+        // Đoạn thẳng ~1,1 km theo kinh độ, chỉ có 2 đỉnh
+        RouteSegmentIndex index = new RouteSegmentIndex(new double[]{10.77, 10.77}, new double[]{106.70, 106.71}, THRESHOLD_M);
+
+        assertTrue(index.isWithin(10.7702, 106.705, THRESHOLD_M));   // ~22 m lệch, giữa 2 đỉnh
+        assertFalse(index.isWithin(10.7710, 106.705, THRESHOLD_M));  // ~111 m lệch
+        assertFalse(index.isWithin(10.77, 106.7110, THRESHOLD_M));   // quá điểm cuối ~110 m
+    }
+
+    @Test
+    public void matchesBruteForceOnTenThousandPointRoute() {
+        SplittableRandom random = new SplittableRandom(11);
+        double[][] route = randomRoute(random, 10_000);
+        RouteSegmentIndex index = new RouteSegmentIndex(route[0], route[1], THRESHOLD_M);
+        assertEquals(9_999, index.getSegmentCount());
+
+        int checked = 0;
+        for (int probe = 0; probe < 500; probe++) {
+            int near = random.nextInt(route[0].length);
+            double lat = route[0][near] + random.nextDouble(-0.001, 0.001);
+            double lon = route[1][near] + random.nextDouble(-0.001, 0.001);
+            double expected = bruteForceDistance(route, lat, lon);
+            if (Math.abs(expected - THRESHOLD_M) < 1) continue; // sát ngưỡng: sai số phép chiếu
+
+            double actual = index.distanceTo(lat, lon, THRESHOLD_M);
+            assertEquals(expected <= THRESHOLD_M, index.isWithin(lat, lon, THRESHOLD_M));
+            if (expected <= THRESHOLD_M) {
+                assertEquals(expected, actual, 0.5);
+            } else {
+                assertEquals(Double.POSITIVE_INFINITY, actual, 0);
+            }
+            checked++;
+        }
+        assertTrue(checked > 400);
+    }
+
+    @Test
+    public void emptyAndSinglePointRoutes() {
+        RouteSegmentIndex empty = new RouteSegmentIndex(new double[0], new double[0], THRESHOLD_M);
+        assertFalse(empty.isWithin(10.77, 106.70, THRESHOLD_M));
+
+        RouteSegmentIndex single = new RouteSegmentIndex(new double[]{10.77}, new double[]{106.70}, THRESHOLD_M);
+        assertTrue(single.isWithin(10.7702, 106.70, THRESHOLD_M));
+        assertFalse(single.isWithin(10.7710, 106.70, THRESHOLD_M));
+    }
+
+    /** Tuyến ngẫu nhiên kiểu đường phố: mỗi bước 5–40 m, hướng đổi dần. */
+    static double[][] randomRoute(SplittableRandom random, int size) {
+        double[] lats = new double[size];
+        double[] lons = new double[size];
+        double lat = 10.77, lon = 106.70, heading = 0;
+        for (int i = 0; i < size; i++) {
+            lats[i] = lat;
+            lons[i] = lon;
+            heading += random.nextDouble(-0.4, 0.4);
+            double step = random.nextDouble(5, 40);
+            lat += step * Math.cos(heading) / METERS_PER_DEG_LAT;
+            lon += step * Math.sin(heading) / (METERS_PER_DEG_LAT * Math.cos(Math.toRadians(lat)));
+        }
+        return new double[][]{lats, lons};
+    }
+
+    private static double bruteForceDistance(double[][] route, double lat, double lon) {
+        double[] lats = route[0];
+        double[] lons = route[1];
+        double metersPerDegLon = METERS_PER_DEG_LAT * Math.cos(Math.toRadians(lat));
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i + 1 < lats.length; i++) {
+            double ax = (lons[i] - lon) * metersPerDegLon, ay = (lats[i] - lat) * METERS_PER_DEG_LAT;
+            double bx = (lons[i + 1] - lon) * metersPerDegLon, by = (lats[i + 1] - lat) * METERS_PER_DEG_LAT;
+            double dx = bx - ax, dy = by - ay, lengthSq = dx * dx + dy * dy;
+            double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSq));
+            best = Math.min(best, Math.hypot(ax + t * dx, ay + t * dy));
+        }
+        return best;
+    }
+}